@@ -0,0 +1,66 @@
+package io.coodoo.workhorse.jmh;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
+import io.coodoo.workhorse.jobengine.control.CronExpression;
+
+/**
+ * {@link CronExpression#nextTimeAfter(LocalDateTime)} and {@link JobEngineService#getScheduledTimes(String, LocalDateTime, LocalDateTime)} for a day
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CronExpressionBenchmark {
+
+    @Param({"0 */5 * * * *", "0 0 2 * * MON-FRI", "*/10 * 8-18 * * *"})
+    public String schedule;
+
+    private CronExpression cronExpression;
+
+    private JobEngineService jobEngineService;
+
+    private LocalDateTime start;
+
+    @Setup
+    public void setup() {
+        cronExpression = new CronExpression(schedule);
+        jobEngineService = new JobEngineService();
+        start = LocalDateTime.of(2019, 4, 17, 13, 37, 42);
+    }
+
+    @Benchmark
+    public LocalDateTime nextTimeAfter() {
+        return cronExpression.nextTimeAfter(start);
+    }
+
+    @Benchmark
+    public CronExpression parse() {
+        return new CronExpression(schedule);
+    }
+
+    @Benchmark
+    public List<LocalDateTime> getScheduledTimes() {
+        return jobEngineService.getScheduledTimes(schedule, start, start.plusDays(1));
+    }
+
+}
@@ -0,0 +1,62 @@
+package io.coodoo.workhorse.jmh;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.coodoo.workhorse.jobengine.entity.GroupInfo;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionInfo;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+
+/**
+ * Construction of a {@link GroupInfo} over the job executions of a batch or chain
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupInfoBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int size;
+
+    private List<JobExecutionInfo> executionInfos;
+
+    @Setup
+    public void setup() {
+
+        JobExecutionStatus[] statuses = JobExecutionStatus.values();
+        LocalDateTime start = LocalDateTime.of(2019, 4, 17, 13, 37, 42);
+        executionInfos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            JobExecutionStatus status = statuses[i % statuses.length];
+            LocalDateTime startedAt = status == JobExecutionStatus.QUEUED ? null : start.plusSeconds(i);
+            LocalDateTime endedAt = startedAt == null || status == JobExecutionStatus.RUNNING ? null : startedAt.plusNanos(250_000_000L);
+            Long duration = endedAt == null ? null : 250L;
+            executionInfos.add(new JobExecutionInfo((long) i, status, startedAt, endedAt, duration, null));
+        }
+    }
+
+    @Benchmark
+    public GroupInfo construct() {
+        return new GroupInfo(1L, executionInfos);
+    }
+
+}
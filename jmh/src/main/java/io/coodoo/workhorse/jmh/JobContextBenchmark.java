@@ -0,0 +1,66 @@
+package io.coodoo.workhorse.jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.coodoo.workhorse.jobengine.boundary.JobContext;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+/**
+ * Log appends of a job execution through {@link JobContext}, from init until the log gets read for persisting
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobContextBenchmark {
+
+    @Param({"10", "1000"})
+    public int lines;
+
+    private JobContext jobContext;
+
+    private JobExecution jobExecution;
+
+    @Setup
+    public void setup() {
+        jobContext = new JobContext();
+        jobExecution = new JobExecution();
+        jobExecution.setId(1L);
+        jobExecution.setJobId(1L);
+    }
+
+    @Benchmark
+    public String logLine() {
+        jobContext.init(jobExecution);
+        for (int i = 0; i < lines; i++) {
+            jobContext.logLine("Processed item " + i);
+        }
+        return jobContext.getLog();
+    }
+
+    @Benchmark
+    public String logInfo() {
+        jobContext.init(jobExecution);
+        for (int i = 0; i < lines; i++) {
+            jobContext.logInfo("Processed item " + i);
+        }
+        return jobContext.getLog();
+    }
+
+}
@@ -0,0 +1,99 @@
+package io.coodoo.workhorse.jmh;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
+import io.coodoo.workhorse.jobengine.control.JobEngine;
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+/**
+ * The duplicate check of {@link JobEngine#addJobExecution(JobExecution)} against a filled memory queue. The job has no threads, so nothing gets executed.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JobEngineBenchmark {
+
+    /**
+     * Serves the one job without a database
+     */
+    public static class StubJobEngineService extends JobEngineService {
+
+        private final Job job;
+
+        public StubJobEngineService(Job job) {
+            this.job = job;
+        }
+
+        @Override
+        public Job getJobById(Long jobId) {
+            return job;
+        }
+
+        @Override
+        public List<Job> getAllJobs() {
+            return Collections.singletonList(job);
+        }
+    }
+
+    @Param({"100", "1000"})
+    public int queued;
+
+    private JobEngine jobEngine;
+
+    private JobExecution duplicate;
+
+    @Setup
+    public void setup() throws Exception {
+
+        Job job = new Job();
+        job.setId(1L);
+        job.setName("BenchmarkJob");
+        job.setThreads(0);
+
+        jobEngine = new JobEngine();
+        Field jobEngineService = JobEngine.class.getDeclaredField("jobEngineService");
+        jobEngineService.setAccessible(true);
+        jobEngineService.set(jobEngine, new StubJobEngineService(job));
+        jobEngine.initializeMemoryQueues();
+
+        for (long id = 1; id <= queued; id++) {
+            JobExecution jobExecution = new JobExecution();
+            jobExecution.setId(id);
+            jobExecution.setJobId(job.getId());
+            jobEngine.addJobExecution(jobExecution);
+        }
+
+        // the worst case: the last one in the queue
+        duplicate = new JobExecution();
+        duplicate.setId((long) queued);
+        duplicate.setJobId(job.getId());
+    }
+
+    @Benchmark
+    public boolean addDuplicate() {
+        return jobEngine.addJobExecution(duplicate);
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.coodoo.workhorse.jmh;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
+
+/**
+ * {@link JobEngineUtil#parametersToJson(Object)} and {@link JobEngineUtil#jsonToParameters(String, Class)} of a plain string and of a typical parameters
+ * POJO
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParametersBenchmark {
+
+    public static class Parameters {
+
+        private String environment;
+        private boolean replaceOldBackup;
+        private int retention;
+        private List<String> recipients;
+
+        public String getEnvironment() {
+            return environment;
+        }
+
+        public void setEnvironment(String environment) {
+            this.environment = environment;
+        }
+
+        public boolean isReplaceOldBackup() {
+            return replaceOldBackup;
+        }
+
+        public void setReplaceOldBackup(boolean replaceOldBackup) {
+            this.replaceOldBackup = replaceOldBackup;
+        }
+
+        public int getRetention() {
+            return retention;
+        }
+
+        public void setRetention(int retention) {
+            this.retention = retention;
+        }
+
+        public List<String> getRecipients() {
+            return recipients;
+        }
+
+        public void setRecipients(List<String> recipients) {
+            this.recipients = recipients;
+        }
+    }
+
+    private Parameters parameters;
+
+    private String parametersJson;
+
+    private String string;
+
+    private String stringJson;
+
+    @Setup
+    public void setup() {
+
+        parameters = new Parameters();
+        parameters.setEnvironment("STAGE-2");
+        parameters.setReplaceOldBackup(false);
+        parameters.setRetention(30);
+        parameters.setRecipients(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            parameters.getRecipients().add("recipient-" + i + "@coodoo.io");
+        }
+        parametersJson = JobEngineUtil.parametersToJson(parameters);
+
+        string = "backup-2019-04-17";
+        stringJson = JobEngineUtil.parametersToJson(string);
+    }
+
+    @Benchmark
+    public String pojoToJson() {
+        return JobEngineUtil.parametersToJson(parameters);
+    }
+
+    @Benchmark
+    public Parameters jsonToPojo() {
+        return JobEngineUtil.jsonToParameters(parametersJson, Parameters.class);
+    }
+
+    @Benchmark
+    public String stringToJson() {
+        return JobEngineUtil.parametersToJson(string);
+    }
+
+    @Benchmark
+    public String jsonToString() {
+        return JobEngineUtil.jsonToParameters(stringJson, String.class);
+    }
+
+}
@@ -0,0 +1,29 @@
+package io.coodoo.workhorse.jmh.e2e;
+
+import javax.ejb.Stateless;
+
+import io.coodoo.workhorse.jobengine.boundary.JobWorker;
+import io.coodoo.workhorse.jobengine.boundary.annotation.InitialJobConfig;
+
+/**
+ * Keeps a core busy for about a millisecond
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Stateless
+@InitialJobConfig(threads = 4)
+public class CpuBoundWorker extends JobWorker {
+
+    static volatile long sink;
+
+    @Override
+    public void doWork() {
+        long hash = System.nanoTime();
+        long until = System.nanoTime() + 1_000_000L;
+        while (System.nanoTime() < until) {
+            hash = hash * 31 + (hash >>> 7);
+        }
+        sink = hash;
+    }
+
+}
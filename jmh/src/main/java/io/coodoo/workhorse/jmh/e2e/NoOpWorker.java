@@ -0,0 +1,20 @@
+package io.coodoo.workhorse.jmh.e2e;
+
+import javax.ejb.Stateless;
+
+import io.coodoo.workhorse.jobengine.boundary.JobWorker;
+import io.coodoo.workhorse.jobengine.boundary.annotation.InitialJobConfig;
+
+/**
+ * Does nothing, so only the job engine gets measured
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Stateless
+@InitialJobConfig(threads = 4)
+public class NoOpWorker extends JobWorker {
+
+    @Override
+    public void doWork() {}
+
+}
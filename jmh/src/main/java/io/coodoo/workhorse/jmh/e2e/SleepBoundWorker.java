@@ -0,0 +1,22 @@
+package io.coodoo.workhorse.jmh.e2e;
+
+import javax.ejb.Stateless;
+
+import io.coodoo.workhorse.jobengine.boundary.JobWorker;
+import io.coodoo.workhorse.jobengine.boundary.annotation.InitialJobConfig;
+
+/**
+ * Waits 10 milliseconds like a call to a remote system
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Stateless
+@InitialJobConfig(threads = 4)
+public class SleepBoundWorker extends JobWorker {
+
+    @Override
+    public void doWork() throws InterruptedException {
+        Thread.sleep(10);
+    }
+
+}
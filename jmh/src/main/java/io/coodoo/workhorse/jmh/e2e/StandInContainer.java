@@ -0,0 +1,348 @@
+package io.coodoo.workhorse.jmh.e2e;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
+import javax.ejb.EJB;
+import javax.ejb.Singleton;
+import javax.ejb.Stateless;
+import javax.ejb.TimerService;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.CDI;
+import javax.enterprise.util.TypeLiteral;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.TransactionRequiredException;
+
+import javassist.util.proxy.ProxyFactory;
+import javassist.util.proxy.ProxyObject;
+
+/**
+ * Just enough of a Java EE container to run the job engine in a plain JVM:
+ * <ul>
+ * <li>One instance per bean class, created on first use, with its <code>@Inject</code>, <code>@EJB</code> and <code>@Resource</code> fields set</li>
+ * <li>EJBs (<code>@Stateless</code> and <code>@Singleton</code>) get subclass proxies that run <code>@Asynchronous</code> methods in a thread pool and
+ * demarcate resource-local transactions according to <code>@TransactionAttribute</code></li>
+ * <li>The injected entity manager belongs to the transaction of the current thread</li>
+ * <li>CDI events are dropped, <code>CDI.current()</code> knows the given job workers and timers are run by a scheduled executor</li>
+ * </ul>
+ * There are no interceptors, no self-call semantics and no concurrency management beyond what the beans do themselves.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class StandInContainer {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Set<Class<?>> workerClasses;
+
+    private final Map<Class<?>, Object> beans = new ConcurrentHashMap<>();
+
+    private final ExecutorService asynchronousExecutor = Executors.newCachedThreadPool();
+
+    private final StandInTimerService timerService = new StandInTimerService();
+
+    /**
+     * Stack of the transactions of the current thread, <code>null</code> for a suspended transaction
+     */
+    private final ThreadLocal<LinkedList<EntityManager>> transactions = ThreadLocal.withInitial(LinkedList::new);
+
+    private final EntityManager entityManager;
+
+    public StandInContainer(EntityManagerFactory entityManagerFactory, Set<Class<?>> workerClasses) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.workerClasses = workerClasses;
+        this.entityManager = proxy(EntityManager.class, (proxy, method, args) -> invoke(currentEntityManager(method), method, args));
+        CDI.setCDIProvider(() -> new StandInCDI());
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized <T> T get(Class<T> beanClass) {
+
+        Object bean = beans.get(beanClass);
+        if (bean == null) {
+            bean = create(beanClass);
+            beans.put(beanClass, bean);
+            inject(bean, beanClass);
+        }
+        return (T) bean;
+    }
+
+    /**
+     * Runs the given code in a transaction of its own, like a <code>REQUIRES_NEW</code> business method
+     *
+     * @param work code to run
+     * @return result of the code
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T inTransaction(Supplier<T> work) {
+        try {
+            return (T) transactional(TransactionAttributeType.REQUIRES_NEW, work::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void shutdown() {
+        timerService.shutdown();
+        asynchronousExecutor.shutdownNow();
+    }
+
+    private Object create(Class<?> beanClass) {
+        try {
+            if (!isEjb(beanClass)) {
+                return beanClass.newInstance();
+            }
+            ProxyFactory proxyFactory = new ProxyFactory();
+            proxyFactory.setSuperclass(beanClass);
+            proxyFactory.setFilter(method -> Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class);
+            Object bean = proxyFactory.createClass().newInstance();
+            ((ProxyObject) bean).setHandler((self, method, proceed, args) -> businessMethod(self, method, proceed, args));
+            return bean;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't create bean " + beanClass.getName(), e);
+        }
+    }
+
+    private void inject(Object bean, Class<?> beanClass) {
+
+        for (Class<?> type = beanClass; type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                Object value;
+                if (field.isAnnotationPresent(Resource.class) && field.getType() == TimerService.class) {
+                    value = timerService.forBean(bean);
+                } else if (!field.isAnnotationPresent(Inject.class) && !field.isAnnotationPresent(EJB.class)) {
+                    continue;
+                } else if (field.getType() == EntityManager.class) {
+                    value = entityManager;
+                } else if (field.getType() == Event.class) {
+                    value = proxy(Event.class, (proxy, method, args) -> null);
+                } else {
+                    value = get(field.getType());
+                }
+                try {
+                    field.setAccessible(true);
+                    field.set(bean, value);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException("Can't inject " + field, e);
+                }
+            }
+        }
+    }
+
+    private Object businessMethod(Object self, Method method, Method proceed, Object[] args) throws Throwable {
+
+        if (method.isAnnotationPresent(Asynchronous.class) || method.getDeclaringClass().isAnnotationPresent(Asynchronous.class)) {
+            CompletableFuture<Object> future = new CompletableFuture<>();
+            asynchronousExecutor.execute(() -> {
+                try {
+                    Object result = transactional(transactionAttribute(method), () -> invoke(self, proceed, args));
+                    future.complete(result instanceof Future ? ((Future<?>) result).get() : result);
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return method.getReturnType() == void.class ? null : future;
+        }
+        return transactional(transactionAttribute(method), () -> invoke(self, proceed, args));
+    }
+
+    private Object transactional(TransactionAttributeType attribute, Work work) throws Throwable {
+
+        LinkedList<EntityManager> stack = transactions.get();
+        EntityManager current = stack.peek();
+
+        boolean begin = attribute == TransactionAttributeType.REQUIRES_NEW || (attribute == TransactionAttributeType.REQUIRED && current == null);
+        boolean suspend = attribute == TransactionAttributeType.NOT_SUPPORTED || attribute == TransactionAttributeType.NEVER;
+
+        if (!begin && !suspend) {
+            return work.run();
+        }
+        EntityManager transaction = null;
+        if (begin) {
+            transaction = entityManagerFactory.createEntityManager();
+            transaction.getTransaction().begin();
+        }
+        stack.push(transaction);
+        try {
+            Object result = work.run();
+            if (transaction != null) {
+                if (transaction.getTransaction().getRollbackOnly()) {
+                    transaction.getTransaction().rollback();
+                } else {
+                    transaction.getTransaction().commit();
+                }
+            }
+            return result;
+        } catch (Throwable e) {
+            if (transaction != null && transaction.getTransaction().isActive()) {
+                if (e instanceof RuntimeException || e instanceof Error) {
+                    transaction.getTransaction().rollback();
+                } else {
+                    // application exceptions don't roll back
+                    transaction.getTransaction().commit();
+                }
+            }
+            throw e;
+        } finally {
+            stack.pop();
+            if (transaction != null) {
+                transaction.close();
+            }
+        }
+    }
+
+    private EntityManager currentEntityManager(Method method) {
+        EntityManager current = transactions.get().peek();
+        if (current == null) {
+            throw new TransactionRequiredException("No transaction on this thread for EntityManager." + method.getName() + "()");
+        }
+        return current;
+    }
+
+    private static TransactionAttributeType transactionAttribute(Method method) {
+
+        TransactionAttribute attribute = method.getAnnotation(TransactionAttribute.class);
+        if (attribute == null) {
+            attribute = method.getDeclaringClass().getAnnotation(TransactionAttribute.class);
+        }
+        return attribute == null ? TransactionAttributeType.REQUIRED : attribute.value();
+    }
+
+    private static boolean isEjb(Class<?> beanClass) {
+        return beanClass.isAnnotationPresent(Stateless.class) || beanClass.isAnnotationPresent(Singleton.class);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                default:
+                    return handler.invoke(proxy, method, args);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Work {
+        Object run() throws Throwable;
+    }
+
+    /**
+     * <code>CDI.current()</code> for the job engine: selects beans by class and lists the job workers
+     */
+    private class StandInCDI extends CDI<Object> {
+
+        @Override
+        public BeanManager getBeanManager() {
+            return proxy(BeanManager.class, (proxy, method, args) -> {
+                if (!method.getName().equals("getBeans")) {
+                    throw new UnsupportedOperationException("BeanManager." + method.getName() + "()");
+                }
+                Set<Bean<?>> workerBeans = new HashSet<>();
+                for (Class<?> workerClass : workerClasses) {
+                    workerBeans.add(proxy(Bean.class, (bean, beanMethod, beanArgs) -> {
+                        if (!beanMethod.getName().equals("getBeanClass")) {
+                            throw new UnsupportedOperationException("Bean." + beanMethod.getName() + "()");
+                        }
+                        return workerClass;
+                    }));
+                }
+                return workerBeans;
+            });
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> Instance<U> select(Class<U> subtype, Annotation... qualifiers) {
+            return proxy(Instance.class, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "get":
+                        return StandInContainer.this.get(subtype);
+                    case "isUnsatisfied":
+                    case "isAmbiguous":
+                        return false;
+                    default:
+                        throw new UnsupportedOperationException("Instance." + method.getName() + "()");
+                }
+            });
+        }
+
+        @Override
+        public Instance<Object> select(Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U> Instance<U> select(TypeLiteral<U> subtype, Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isUnsatisfied() {
+            return false;
+        }
+
+        @Override
+        public boolean isAmbiguous() {
+            return false;
+        }
+
+        @Override
+        public void destroy(Object instance) {}
+
+        @Override
+        public Iterator<Object> iterator() {
+            List<Object> none = Collections.emptyList();
+            return none.iterator();
+        }
+
+        @Override
+        public Object get() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package io.coodoo.workhorse.jmh.e2e;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.ScheduleExpression;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the <code>@Timeout</code> method of a bean for its calendar and interval timers. Only second intervals like <code>*&#47;5</code> are supported, any
+ * other calendar expression runs once a minute.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class StandInTimerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StandInTimerService.class);
+
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+
+    public TimerService forBean(Object bean) {
+
+        List<Timer> timers = new CopyOnWriteArrayList<>();
+        return StandInContainer.proxy(TimerService.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "createCalendarTimer":
+                    long seconds = seconds((ScheduleExpression) args[0]);
+                    Timer timer = schedule(bean, seconds * 1000L, seconds * 1000L, args.length > 1 ? ((TimerConfig) args[1]).getInfo() : null, timers);
+                    timers.add(timer);
+                    return timer;
+                case "createIntervalTimer":
+                    timer = schedule(bean, (Long) args[0], (Long) args[1], ((TimerConfig) args[2]).getInfo(), timers);
+                    timers.add(timer);
+                    return timer;
+                case "getTimers":
+                case "getAllTimers":
+                    Collection<Timer> copy = new ArrayList<>(timers);
+                    return copy;
+                default:
+                    throw new UnsupportedOperationException("TimerService." + method.getName() + "()");
+            }
+        });
+    }
+
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private static long seconds(ScheduleExpression scheduleExpression) {
+
+        String second = scheduleExpression.getSecond();
+        if (second != null && second.startsWith("*/")) {
+            return Long.parseLong(second.substring(2));
+        }
+        return 60;
+    }
+
+    private Timer schedule(Object bean, long initialMillis, long intervalMillis, Serializable info, List<Timer> timers) {
+
+        Method timeout = timeoutMethod(bean.getClass());
+
+        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(() -> {
+            try {
+                timeout.invoke(bean);
+            } catch (Exception e) {
+                logger.warn("Timeout of {} failed", bean.getClass().getSuperclass().getSimpleName(), e);
+            }
+        }, initialMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+        Timer[] timer = new Timer[1];
+        timer[0] = StandInContainer.proxy(Timer.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getInfo":
+                    return info;
+                case "cancel":
+                    future.cancel(false);
+                    timers.remove(timer[0]);
+                    return null;
+                default:
+                    throw new UnsupportedOperationException("Timer." + method.getName() + "()");
+            }
+        });
+        return timer[0];
+    }
+
+    private static Method timeoutMethod(Class<?> beanClass) {
+        for (Class<?> type = beanClass; type != Object.class; type = type.getSuperclass()) {
+            for (Method method : type.getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Timeout.class) && method.getParameterCount() == 0) {
+                    return method;
+                }
+            }
+        }
+        throw new IllegalStateException("No @Timeout method without parameters in " + beanClass.getName());
+    }
+
+}
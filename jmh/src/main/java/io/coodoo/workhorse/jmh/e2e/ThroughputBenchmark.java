@@ -0,0 +1,166 @@
+package io.coodoo.workhorse.jmh.e2e;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
+import io.coodoo.workhorse.jobengine.control.DurationHistogram;
+import io.coodoo.workhorse.jobengine.control.JobEngineController;
+import io.coodoo.workhorse.jobengine.control.JobStatistics;
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+
+/**
+ * End-to-end throughput of the job engine: boots {@link JobEngineService} in a {@link StandInContainer} against an in-memory H2 database, pushes the
+ * executions through one job and reports
+ * <ul>
+ * <li>created and ended executions per second</li>
+ * <li>latency of <code>createJobExecution()</code> and the wait from creation until running</li>
+ * <li>SQL statements per execution</li>
+ * </ul>
+ * Options (system properties): <code>executions</code> (default 100000), <code>worker</code> (<code>noop</code>, <code>cpu</code> or <code>sleep</code>,
+ * default <code>noop</code>), <code>threads</code> (job threads, default 4) and <code>batch</code> (executions created per transaction, default 1000).
+ *
+ * <pre>
+ * java -Dexecutions=1000000 -Dworker=cpu -cp target/benchmarks.jar io.coodoo.workhorse.jmh.e2e.ThroughputBenchmark
+ * </pre>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class ThroughputBenchmark {
+
+    private static final int PAGE_SIZE = 10000;
+
+    public static void main(String[] args) throws Exception {
+
+        long executions = Long.getLong("executions", 100_000L);
+        String worker = System.getProperty("worker", "noop");
+        int threads = Integer.getInteger("threads", 4);
+        int batch = Integer.getInteger("batch", 1000);
+
+        Class<?> workerClass;
+        switch (worker) {
+            case "cpu":
+                workerClass = CpuBoundWorker.class;
+                break;
+            case "sleep":
+                workerClass = SleepBoundWorker.class;
+                break;
+            default:
+                workerClass = NoOpWorker.class;
+        }
+
+        // the history would only move executions after the benchmark ended
+        JobEngineConfig.EXECUTION_HISTORY = false;
+        JobEngineConfig.JMX = false;
+        JobEngineConfig.JOB_QUEUE_POLLER_INTERVAL = 1;
+
+        EntityManagerFactory entityManagerFactory = Persistence.createEntityManagerFactory("workhorse-benchmark");
+        Set<Class<?>> workerClasses = new HashSet<>(Arrays.asList(NoOpWorker.class, CpuBoundWorker.class, SleepBoundWorker.class));
+        StandInContainer container = new StandInContainer(entityManagerFactory, workerClasses);
+
+        JobEngineService jobEngineService = container.get(JobEngineService.class);
+        JobStatistics jobStatistics = container.get(JobStatistics.class);
+        container.get(JobEngineController.class).checkJobConfiguration();
+
+        Long jobId = container.inTransaction(() -> {
+            Job job = jobEngineService.getJobByClassName(workerClass.getName());
+            job.setThreads(threads);
+            return job.getId();
+        });
+        jobEngineService.start();
+
+        System.out.println("Pushing " + executions + " executions through " + workerClass.getSimpleName() + " with " + threads + " threads...");
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        DurationHistogram createMicros = new DurationHistogram();
+
+        long start = System.nanoTime();
+        for (long created = 0; created < executions; created += batch) {
+            int size = (int) Math.min(batch, executions - created);
+            container.inTransaction(() -> {
+                for (int i = 0; i < size; i++) {
+                    long createStart = System.nanoTime();
+                    jobEngineService.createJobExecution(jobId, null, false, null, null, null, null, false);
+                    createMicros.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - createStart));
+                }
+                return null;
+            });
+        }
+        long createdNanos = System.nanoTime() - start;
+
+        long ended = 0;
+        long lastReport = System.nanoTime();
+        while (ended < executions) {
+            Thread.sleep(100);
+            ended = jobStatistics.getCount(jobId, JobExecutionStatus.FINISHED) + jobStatistics.getCount(jobId, JobExecutionStatus.FAILED);
+            if (System.nanoTime() - lastReport > TimeUnit.SECONDS.toNanos(10)) {
+                System.out.println("... " + ended + " ended");
+                lastReport = System.nanoTime();
+            }
+        }
+        long endedNanos = System.nanoTime() - start;
+        long statements = statistics.getPrepareStatementCount();
+
+        jobEngineService.stop();
+        DurationHistogram waitMillis = waitHistogram(entityManagerFactory, jobId);
+
+        System.out.println();
+        System.out.println("Worker:                   " + workerClass.getSimpleName() + " (" + threads + " threads)");
+        System.out.println("Executions:               " + executions);
+        System.out.printf("Created per second:       %.0f%n", executions / (createdNanos / 1e9));
+        System.out.printf("Ended per second:         %.0f%n", executions / (endedNanos / 1e9));
+        System.out.println("createJobExecution() us:  p50=" + createMicros.getValueAtPercentile(50) + " p99=" + createMicros.getValueAtPercentile(99) + " max="
+                        + createMicros.getMax());
+        System.out.println("Wait until running ms:    p50=" + waitMillis.getValueAtPercentile(50) + " p99=" + waitMillis.getValueAtPercentile(99) + " max="
+                        + waitMillis.getMax());
+        System.out.printf("Statements per execution: %.2f%n", (double) statements / executions);
+
+        container.shutdown();
+        entityManagerFactory.close();
+        System.exit(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static DurationHistogram waitHistogram(EntityManagerFactory entityManagerFactory, Long jobId) {
+
+        DurationHistogram histogram = new DurationHistogram();
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            long lastId = 0;
+            while (true) {
+                List<Object[]> page = entityManager
+                                .createQuery("SELECT j.id, j.createdAt, j.startedAt FROM JobExecution j WHERE j.jobId = :jobId AND j.id > :lastId ORDER BY j.id")
+                                .setParameter("jobId", jobId).setParameter("lastId", lastId).setMaxResults(PAGE_SIZE).getResultList();
+                for (Object[] row : page) {
+                    lastId = (Long) row[0];
+                    if (row[1] != null && row[2] != null) {
+                        histogram.record(ChronoUnit.MILLIS.between((LocalDateTime) row[1], (LocalDateTime) row[2]));
+                    }
+                }
+                if (page.size() < PAGE_SIZE) {
+                    return histogram;
+                }
+                entityManager.clear();
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+/**
+ * Job worker class to execute job executions with parameters in micro-batches, so the overhead of e.g. a database or API call gets paid once for many job
+ * executions. <br>
+ * A job thread takes up to {@link #getMicroBatchSize()} queued job executions at once and hands their parameters to {@link #doWork(List)}. If the micro-batch
+ * isn't full, it waits up to {@link #getMicroBatchWait()} milliseconds for more. The job executions of a micro-batch get their status in one update each and
+ * they finish or fail together. <br>
+ * Not to be confused with the batches of {@link #createBatchJobExecutions(List)}, these are executed in micro-batches like any other job executions.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public abstract class BatchingJobWorker<T> extends JobWorkerWith<T> {
+
+    /**
+     * Does the work for a micro-batch of job executions. If it throws an exception, all of them fail (and get retried if configured).
+     *
+     * @param parametersList parameters of the job executions in the order they were queued
+     * @throws Exception in case the micro-batch fails
+     */
+    public abstract void doWork(List<T> parametersList) throws Exception;
+
+    /**
+     * A single job execution is a micro-batch of one
+     */
+    @Override
+    public final void doWork(T parameters) throws Exception {
+        doWork(Collections.singletonList(parameters));
+    }
+
+    /**
+     * The job engine uses this method to perform a micro-batch of job executions. The log of the micro-batch belongs to its first job execution.
+     *
+     * @param jobExecutions job executions of the micro-batch
+     * @throws Exception in case the micro-batch fails
+     */
+    public void doMicroBatch(List<JobExecution> jobExecutions) throws Exception {
+
+        this.jobContext.init(jobExecutions.get(0));
+
+        List<T> parametersList = new ArrayList<>(jobExecutions.size());
+        for (JobExecution jobExecution : jobExecutions) {
+            parametersList.add(getParameters(jobExecution));
+        }
+        doWork(parametersList);
+    }
+
+    /**
+     * <i>If needed, this method can be overwritten to change the size of the micro-batches.</i>
+     *
+     * @return max number of job executions per micro-batch, default is 100
+     */
+    public int getMicroBatchSize() {
+        return 100;
+    }
+
+    /**
+     * <i>If needed, this method can be overwritten to wait for a micro-batch to fill up.</i>
+     *
+     * @return max milliseconds to wait for more job executions if the micro-batch isn't full, default is <code>0</code> to take what is queued
+     */
+    public long getMicroBatchWait() {
+        return 0;
+    }
+
+}
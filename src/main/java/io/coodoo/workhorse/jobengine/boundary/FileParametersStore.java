@@ -0,0 +1,103 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ParametersStore} in a directory of the local (or a shared) file system. Every payload is a file named by a random UUID, spread over subdirectories
+ * by its first two characters. Reads are memory mapped, so the payload doesn't get copied onto the heap before it is parsed.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class FileParametersStore implements ParametersStore {
+
+    private static final Pattern REFERENCE = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private final Path directory;
+
+    /**
+     * @param directory directory of the payloads, gets created if it doesn't exist
+     */
+    public FileParametersStore(Path directory) {
+        this.directory = directory;
+    }
+
+    @Override
+    public String put(byte[] data) throws IOException {
+
+        String reference = UUID.randomUUID().toString();
+        Path file = file(reference);
+        Files.createDirectories(file.getParent());
+        Files.write(file, data, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        return reference;
+    }
+
+    @Override
+    public InputStream get(String reference) throws IOException {
+
+        try (FileChannel channel = FileChannel.open(file(reference), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new ByteBufferInputStream(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    @Override
+    public void delete(String reference) throws IOException {
+        Files.deleteIfExists(file(reference));
+    }
+
+    private Path file(String reference) {
+        if (reference == null || !REFERENCE.matcher(reference).matches()) {
+            throw new IllegalArgumentException("Not a reference of this store: " + reference);
+        }
+        return directory.resolve(reference.substring(0, 2)).resolve(reference);
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int read = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, read);
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * {@link ParametersCodec} for any Jackson data format. The readers and writers are built once per parameters class.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class JacksonParametersCodec implements ParametersCodec {
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectMapper mapper of the data format, e.g. <code>new ObjectMapper(new CBORFactory())</code>
+     */
+    public JacksonParametersCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] write(Object parameters) throws IOException {
+        return writer(parameters.getClass()).writeValueAsBytes(parameters);
+    }
+
+    @Override
+    public <T> T read(byte[] data, Class<T> parametersClass) throws IOException {
+        return reader(parametersClass).readValue(data);
+    }
+
+    @Override
+    public <T> T read(InputStream data, Class<T> parametersClass) throws IOException {
+        return reader(parametersClass).readValue(data);
+    }
+
+    /**
+     * @param parametersClass parameters class
+     * @return cached reader for the class
+     */
+    public ObjectReader reader(Class<?> parametersClass) {
+        return readers.computeIfAbsent(parametersClass, objectMapper::readerFor);
+    }
+
+    /**
+     * @param parametersClass parameters class
+     * @return cached writer for the class
+     */
+    public ObjectWriter writer(Class<?> parametersClass) {
+        return writers.computeIfAbsent(parametersClass, objectMapper::writerFor);
+    }
+
+}
@@ -1,9 +1,15 @@
 package io.coodoo.workhorse.jobengine.boundary;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+
 import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
 
 import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import io.coodoo.workhorse.jobengine.control.JobEngineController;
 import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
@@ -14,16 +20,49 @@ import io.coodoo.workhorse.jobengine.entity.JobExecution;
 @RequestScoped
 public class JobContext {
 
+    private static final Logger logger = LoggerFactory.getLogger(JobContext.class);
+
+    private static final String TRUNCATED = "[...]";
+
+    @Inject
+    JobEngineController jobEngineController;
+
     protected Job job;
 
     protected JobExecution jobExecution;
 
-    private StringBuffer logBuffer;
+    /**
+     * The lines of the last {@link JobEngineConfig#LOG_MAX_LENGTH} characters of the log
+     */
+    private Deque<String> logLines;
+
+    /**
+     * Length of the log lines joined by line separators
+     */
+    private int logLength;
 
-    public void init(JobExecution jobExecution) {
+    private boolean truncated;
+
+    /**
+     * Lines that are not yet in the table <code>jobengine_execution_log</code>
+     */
+    private StringBuilder unflushed;
+
+    private long lastFlush;
+
+    /**
+     * Keeps the flushes in order, without holding the lock of the log while writing to the database
+     */
+    private final Object flushLock = new Object();
+
+    public synchronized void init(JobExecution jobExecution) {
 
         this.jobExecution = jobExecution;
-        this.logBuffer = jobExecution.getLog() == null ? new StringBuffer() : new StringBuffer(jobExecution.getLog());
+        this.logLines = new ArrayDeque<>();
+        this.logLength = 0;
+        this.truncated = false;
+        this.unflushed = new StringBuilder();
+        this.lastFlush = System.currentTimeMillis();
     }
 
     public JobExecution getJobExecution() {
@@ -38,14 +77,42 @@ public class JobContext {
         return jobExecution.getId();
     }
 
-    public String getLog() {
+    public synchronized String getLog() {
 
-        if (logBuffer != null && logBuffer.length() > 0) {
-            return logBuffer.toString();
+        if (logLines != null && !logLines.isEmpty()) {
+            String log = String.join(System.lineSeparator(), logLines);
+            return truncated ? TRUNCATED + System.lineSeparator() + log : log;
         }
         return null;
     }
 
+    /**
+     * Appends the lines logged since the last flush to the table <code>jobengine_execution_log</code>, the job engine calls this when the job execution ends
+     */
+    public void flushLog() {
+
+        synchronized (flushLock) {
+            JobExecution flushedJobExecution;
+            String lines;
+            synchronized (this) {
+                if (unflushed == null || unflushed.length() == 0) {
+                    return;
+                }
+                flushedJobExecution = jobExecution;
+                lines = unflushed.toString();
+                unflushed.setLength(0);
+                lastFlush = System.currentTimeMillis();
+            }
+            try {
+                jobEngineController.appendJobExecutionLog(flushedJobExecution.getJobId(), flushedJobExecution.getId(), lines);
+            } catch (RuntimeException e) {
+                // the job execution must not fail because of its log
+                logger.warn("Log of job execution {} could not be flushed, {} characters are lost: {}", flushedJobExecution.getId(), lines.length(),
+                                e.getMessage());
+            }
+        }
+    }
+
     /**
      * Adds the message text in as a new line to the executions log
      * 
@@ -165,36 +232,72 @@ public class JobContext {
 
     private void appendLog(String message, boolean timestamp, String mode) {
 
-        if (logBuffer.length() > 0) {
-            logBuffer.append(System.lineSeparator());
-        }
+        StringBuilder line = new StringBuilder();
         if (timestamp) {
-            logBuffer.append(JobEngineUtil.timestamp().format(JobEngineConfig.LOG_TIME_FORMATTER));
-            logBuffer.append(" ");
+            line.append(JobEngineUtil.timestamp().format(JobEngineConfig.LOG_TIME_FORMATTER));
+            line.append(" ");
         }
         switch (mode) {
             case "i":
                 if (JobEngineConfig.LOG_INFO_MARKER != null) {
-                    logBuffer.append(JobEngineConfig.LOG_INFO_MARKER);
-                    logBuffer.append(" ");
+                    line.append(JobEngineConfig.LOG_INFO_MARKER);
+                    line.append(" ");
                 }
                 break;
             case "w":
                 if (JobEngineConfig.LOG_WARN_MARKER != null) {
-                    logBuffer.append(JobEngineConfig.LOG_WARN_MARKER);
-                    logBuffer.append(" ");
+                    line.append(JobEngineConfig.LOG_WARN_MARKER);
+                    line.append(" ");
                 }
                 break;
             case "e":
                 if (JobEngineConfig.LOG_ERROR_MARKER != null) {
-                    logBuffer.append(JobEngineConfig.LOG_ERROR_MARKER);
-                    logBuffer.append(" ");
+                    line.append(JobEngineConfig.LOG_ERROR_MARKER);
+                    line.append(" ");
                 }
                 break;
             default:
                 break;
         }
-        logBuffer.append(message);
+        line.append(message);
+
+        boolean flush;
+        synchronized (this) {
+            addLogLine(line.toString());
+            if (unflushed.length() > 0) {
+                unflushed.append(System.lineSeparator());
+            }
+            unflushed.append(line);
+            flush = unflushed.length() >= JobEngineConfig.LOG_MAX_LENGTH
+                            || (JobEngineConfig.LOG_FLUSH_INTERVAL > 0 && System.currentTimeMillis() - lastFlush >= JobEngineConfig.LOG_FLUSH_INTERVAL * 1000L);
+        }
+        if (flush) {
+            flushLog();
+        }
+    }
+
+    /**
+     * Adds the line and drops the oldest lines beyond {@link JobEngineConfig#LOG_MAX_LENGTH}, every line gets dropped at most once
+     */
+    private void addLogLine(String line) {
+
+        int separator = System.lineSeparator().length();
+        if (!logLines.isEmpty()) {
+            logLength += separator;
+        }
+        logLines.addLast(line);
+        logLength += line.length();
+
+        while (logLength > JobEngineConfig.LOG_MAX_LENGTH && logLines.size() > 1) {
+            logLength -= logLines.removeFirst().length() + separator;
+            truncated = true;
+        }
+        if (logLength > JobEngineConfig.LOG_MAX_LENGTH) {
+            // the latest line alone is too long
+            logLines.addLast(logLines.removeLast().substring(logLength - JobEngineConfig.LOG_MAX_LENGTH));
+            logLength = JobEngineConfig.LOG_MAX_LENGTH;
+            truncated = true;
+        }
     }
 
 }
@@ -2,7 +2,11 @@ package io.coodoo.workhorse.jobengine.boundary;
 
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import io.coodoo.workhorse.jobengine.entity.ExecutionHistoryPartitioning;
+import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
 
 /**
@@ -36,15 +40,146 @@ public final class JobEngineConfig {
      */
     public static int JOB_QUEUE_MIN = 100;
 
+    /**
+     * Seconds a job execution has to wait to gain one level of priority, so old job executions eventually pass newer ones with a higher priority. With 60 a
+     * job execution with {@link io.coodoo.workhorse.jobengine.entity.JobExecution#PRIORITY_HIGH} passes all normal ones that are waiting less than 10
+     * minutes. The default <code>0</code> turns the aging off, so higher priorities always go first.<br>
+     * With aging the poller also drafts the {@link #JOB_QUEUE_MIN} oldest job executions into the memory queue, so they can't get stuck in the database.
+     */
+    public static int PRIORITY_AGING = 0;
+
     /**
      * A zombie is an execution that is stuck in status {@link JobExecutionStatus#RUNNING} for this amount of minutes
+     * 
+     * @deprecated zombies are now recognized by their expired lease, see {@link #LEASE_DURATION}
      */
+    @Deprecated
     public static int ZOMBIE_RECOGNITION_TIME = 120;
 
     /**
-     * If an execution is stuck in status {@link JobExecutionStatus#RUNNING} and doesn't change, it has became a zombie! Once found we have a cure!
+     * If an execution is stuck in status {@link JobExecutionStatus#RUNNING} and its lease has expired, it has became a zombie! Once found we have a cure!
+     * Default is {@link JobExecutionStatus#QUEUED}, so the work of a dead node gets reclaimed by a retry execution.
+     */
+    public static JobExecutionStatus ZOMBIE_CURE_STATUS = JobExecutionStatus.QUEUED;
+
+    /**
+     * Unique name of this job engine node. If not set (default) the host name followed by a random suffix is used
+     */
+    public static String NODE_NAME = null;
+
+    /**
+     * A running execution is leased to its node for this amount of seconds. The lease gets renewed every third of this time on a timer of its own, independent
+     * of the poller
+     */
+    public static int LEASE_DURATION = 30;
+
+    /**
+     * Max amount of job executions the cleanup deletes in one transaction
+     */
+    public static int CLEANUP_CHUNK_SIZE = 1000;
+
+    /**
+     * Time budget in seconds for one cleanup run. If there is still work left, the cleanup continues in another run a minute later
+     */
+    public static int CLEANUP_TIME_BUDGET = 300;
+
+    /**
+     * Pause in milliseconds between two cleanup chunks to throttle the load on the database
+     */
+    public static int CLEANUP_CHUNK_PAUSE = 100;
+
+    /**
+     * Ended job executions get moved out of the queue table <code>jobengine_execution</code> into the history table
+     * <code>jobengine_execution_history</code>, so the queue table stays small. Default is <code>true</code>
+     */
+    public static boolean EXECUTION_HISTORY = true;
+
+    /**
+     * Amount of seconds an ended job execution stays in the queue table before it gets moved into the history table
+     */
+    public static int EXECUTION_HISTORY_DELAY = 300;
+
+    /**
+     * Max amount of ended job executions that get moved into the history table with every poll
+     */
+    public static int EXECUTION_HISTORY_CHUNK_SIZE = 1000;
+
+    /**
+     * Partitioning of the history table by day. If set, the cleanup creates the partitions for the upcoming days and drops whole partitions once they have
+     * expired for all jobs. Default is {@link ExecutionHistoryPartitioning#NONE}
+     */
+    public static ExecutionHistoryPartitioning EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.NONE;
+
+    /**
+     * Amount of days the partitions of the history table are created in advance
+     */
+    public static int EXECUTION_HISTORY_PARTITIONS_AHEAD = 7;
+
+    /**
+     * Interval in seconds the in-memory execution statistics get reconciled with the database
+     */
+    public static int STATISTICS_RECONCILIATION_INTERVAL = 300;
+
+    /**
+     * Amount of days the per minute duration rollups of the job executions are kept
+     */
+    public static int ROLLUP_DAYS_UNTIL_CLEANUP = 90;
+
+    /**
+     * Register a JMX MXBean per job that shows its queue and thread state, see {@link io.coodoo.workhorse.jobengine.control.jmx.JobMXBean}
+     */
+    public static boolean JMX = true;
+
+    /**
+     * Store for oversized parameters, e.g. <code>new FileParametersStore(Paths.get("/mnt/shared/workhorse"))</code>. Default is <code>null</code>, so all
+     * parameters are stored in the database.
+     */
+    public static ParametersStore PARAMETERS_STORE = null;
+
+    /**
+     * Parameters of at least this many bytes go into the {@link #PARAMETERS_STORE}
+     */
+    public static int PARAMETERS_STORE_THRESHOLD = 1024 * 1024;
+
+    /**
+     * Parameters, logs and stacktraces of at least this many characters get stored Deflate compressed, if that makes them shorter. <code>0</code> stores
+     * them uncompressed. Reading works either way.
+     */
+    public static int COMPRESSION_THRESHOLD = 4096;
+
+    /**
+     * Binary format of the parameters of new job executions, stored in the column <code>parameters_data</code>. Default is <code>null</code>, so the
+     * parameters are stored as JSON text in the column <code>parameters</code>. Executions with JSON parameters can always be read, executions with binary
+     * parameters need the codec they were written with.
+     */
+    public static ParametersCodec PARAMETERS_CODEC = null;
+
+    /**
+     * Permits per concurrency group: at most this many job executions of all jobs with the same {@link Job#getConcurrencyGroup()} run at the same time on
+     * this node. A micro-batch takes one permit. Jobs of a group that has no permits here are only limited by their own threads.<br>
+     * Example: <tt>JobEngineConfig.CONCURRENCY_GROUPS.put("billing-api", 4)</tt>
+     */
+    public static Map<String, Integer> CONCURRENCY_GROUPS = new ConcurrentHashMap<>();
+
+    /**
+     * Job executions of all jobs that may run at the same time on this node. A job thread needs a slot of this pool for its next job execution (or
+     * micro-batch) and the free slots go to the jobs by weighted fair queuing, so a job with a backlog gets what the idle jobs leave and competing jobs share
+     * the slots by their {@link Job#getWeight()}. The threads of a job cap its slots.<br>
+     * <code>0</code> turns the pool off, so every job only runs on its own threads.
+     */
+    public static int WORKER_POOL_SIZE = 0;
+
+    /**
+     * Max characters of the log a job execution keeps in memory for {@link JobContext#getLog()}. Beyond that the oldest lines get dropped, the table
+     * <code>jobengine_execution_log</code> still gets all of them.
+     */
+    public static int LOG_MAX_LENGTH = 100000;
+
+    /**
+     * The new log lines of a running job execution get appended to the table <code>jobengine_execution_log</code> at most every this many seconds (or
+     * whenever they reach {@link #LOG_MAX_LENGTH}). <code>0</code> appends them only when the job execution ends.
      */
-    public static JobExecutionStatus ZOMBIE_CURE_STATUS = JobExecutionStatus.ABORTED;
+    public static int LOG_FLUSH_INTERVAL = 10;
 
     /**
      * Log timestamp pattern. Default is <code>[HH:mm:ss.SSS]</code>
@@ -1,13 +1,19 @@
 package io.coodoo.workhorse.jobengine.boundary;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.ejb.EJB;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
@@ -20,15 +26,27 @@ import io.coodoo.workhorse.jobengine.control.CronExpression;
 import io.coodoo.workhorse.jobengine.control.JobEngine;
 import io.coodoo.workhorse.jobengine.control.JobEngineController;
 import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
+import io.coodoo.workhorse.jobengine.control.JobExecutionHistoryPartitioner;
+import io.coodoo.workhorse.jobengine.control.JobLeaseRenewer;
 import io.coodoo.workhorse.jobengine.control.JobQueuePoller;
 import io.coodoo.workhorse.jobengine.control.JobScheduler;
+import io.coodoo.workhorse.jobengine.control.JobStatistics;
+import io.coodoo.workhorse.jobengine.control.event.ParametersStoredEvent;
+import io.coodoo.workhorse.jobengine.control.event.ParametersUnreferencedEvent;
+import io.coodoo.workhorse.jobengine.control.jmx.JobMonitors;
 import io.coodoo.workhorse.jobengine.entity.GroupInfo;
 import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobEngineNode;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionHistory;
 import io.coodoo.workhorse.jobengine.entity.JobExecutionInfo;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionLog;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionRollup;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStacktrace;
 import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
 import io.coodoo.workhorse.jobengine.entity.JobStatus;
 import io.coodoo.workhorse.jobengine.entity.JobType;
+import io.coodoo.workhorse.jobengine.entity.ScheduleMisfirePolicy;
 
 /**
  * Provides basically CRUD and management functionality
@@ -46,26 +64,52 @@ public class JobEngineService {
     @Inject
     JobEngineController jobEngineController;
 
+    @Inject
+    JobExecutionHistoryPartitioner jobExecutionHistoryPartitioner;
+
     @EJB
     JobQueuePoller jobQueuePoller;
 
+    @EJB
+    JobLeaseRenewer jobLeaseRenewer;
+
     @EJB
     JobScheduler jobScheduler;
 
+    @Inject
+    JobStatistics jobStatistics;
+
+    @Inject
+    JobMonitors jobMonitors;
+
     @Inject
     @JobEngineEntityManager
     EntityManager entityManager;
 
+    @Inject
+    Event<ParametersStoredEvent> parametersStoredEvent;
+
+    @Inject
+    Event<ParametersUnreferencedEvent> parametersUnreferencedEvent;
+
     public void start() {
 
         logger.info("Starting job engine...");
 
         jobEngineController.checkJobConfiguration();
+        if (jobExecutionHistoryPartitioner.isActive()) {
+            // the history can't take any job execution without a partition for the current day
+            jobExecutionHistoryPartitioner.createPartitions();
+        }
         jobEngine.initializeMemoryQueues();
+        jobMonitors.registerAll(getAllJobs());
+        jobEngineController.reconcileStatistics();
+        jobLeaseRenewer.start();
         jobQueuePoller.start();
 
         for (Job job : getAllScheduledJobs()) {
             jobScheduler.start(job);
+            jobScheduler.catchUp(job);
         }
     }
 
@@ -79,6 +123,16 @@ public class JobEngineService {
             jobScheduler.stop(job);
             jobEngine.clearMemoryQueue(job);
         }
+        // the job threads may still be running, so the node stays until they are done
+        jobLeaseRenewer.stop();
+        jobMonitors.unregisterAll();
+    }
+
+    /**
+     * @return all job engine nodes that recently sent a heartbeat
+     */
+    public List<JobEngineNode> getAllNodes() {
+        return JobEngineNode.getAll(entityManager);
     }
 
     public void activateJob(Long jobId) {
@@ -127,7 +181,8 @@ public class JobEngineService {
     }
 
     public Job updateJob(Long jobId, String name, String description, List<String> tags, String workerClassName, JobType type, String schedule,
-                    JobStatus status, int threads, Integer maxPerMinute, int failRetries, int retryDelay, int daysUntilCleanUp, boolean uniqueInQueue) {
+                    boolean scheduleSkipIfActive, ScheduleMisfirePolicy scheduleMisfirePolicy, int scheduleCatchUpLimit, JobStatus status, int threads,
+                    String concurrencyGroup, int weight, Integer maxPerMinute, int failRetries, int retryDelay, int daysUntilCleanUp, boolean uniqueInQueue) {
         Job job = getJobById(jobId);
         job.setName(name);
         job.setDescription(description);
@@ -135,8 +190,13 @@ public class JobEngineService {
         job.setWorkerClassName(workerClassName);
         job.setType(type);
         job.setSchedule(schedule);
+        job.setScheduleSkipIfActive(scheduleSkipIfActive);
+        job.setScheduleMisfirePolicy(scheduleMisfirePolicy);
+        job.setScheduleCatchUpLimit(scheduleCatchUpLimit);
         job.setStatus(status);
         job.setThreads(threads);
+        job.setConcurrencyGroup(concurrencyGroup);
+        job.setWeight(weight);
         job.setMaxPerMinute(maxPerMinute);
         job.setFailRetries(failRetries);
         job.setRetryDelay(retryDelay);
@@ -149,19 +209,74 @@ public class JobEngineService {
 
     public void deleteJob(Long jobId) {
         Job job = getJobById(jobId);
+        List<String> parametersRefs = new ArrayList<>(JobExecution.getParametersRefsByJobId(entityManager, jobId));
+        parametersRefs.addAll(JobExecutionHistory.getParametersRefsByJobId(entityManager, jobId));
         int deletedJobExecutions = JobExecution.deleteAllByJobId(entityManager, jobId);
+        deletedJobExecutions += JobExecutionHistory.deleteAllByJobId(entityManager, jobId);
+        JobExecutionRollup.deleteAllByJobId(entityManager, jobId);
+        JobExecutionLog.deleteAllByJobId(entityManager, jobId);
+        if (!parametersRefs.isEmpty()) {
+            parametersUnreferencedEvent.fire(new ParametersUnreferencedEvent(parametersRefs));
+        }
 
         entityManager.remove(job);
+        jobStatistics.removeJob(jobId);
+        jobMonitors.unregister(jobId);
         logger.debug("Job removed (including {} executions): {}", deletedJobExecutions, job);
     }
 
+    /**
+     * Get a job execution from the queue table or, if it has already been moved, from the history table
+     * 
+     * @param jobExecutionId ID of the job execution
+     * @return the job execution, detached if it comes from the history table, or <code>null</code> if there is none
+     */
     public JobExecution getJobExecutionById(Long jobExecutionId) {
-        return entityManager.find(JobExecution.class, jobExecutionId);
+
+        JobExecution jobExecution = entityManager.find(JobExecution.class, jobExecutionId);
+        if (jobExecution == null) {
+            JobExecutionHistory jobExecutionHistory = entityManager.find(JobExecutionHistory.class, jobExecutionId);
+            if (jobExecutionHistory != null) {
+                return jobExecutionHistory.toJobExecution();
+            }
+        }
+        return jobExecution;
+    }
+
+    /**
+     * Get the log of a job execution, it is not part of the job execution itself and only gets loaded on demand
+     * 
+     * @param jobExecutionId ID of the job execution
+     * @return the log lines appended so far, or <code>null</code> if there are none
+     */
+    public String getJobExecutionLog(Long jobExecutionId) {
+
+        List<JobExecutionLog> chunks = JobExecutionLog.getByJobExecutionId(entityManager, jobExecutionId);
+        if (chunks.isEmpty()) {
+            return null;
+        }
+        return chunks.stream().map(JobExecutionLog::getLog).collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    /**
+     * Get the stacktrace a failed job execution refers to by {@link JobExecution#getFailStacktraceHash()}
+     * 
+     * @param failStacktraceHash fingerprint of the stacktrace
+     * @return the stacktrace of its first occurrence with the number of occurrences, or <code>null</code> if there is none
+     */
+    public JobExecutionStacktrace getStacktrace(String failStacktraceHash) {
+
+        if (failStacktraceHash == null) {
+            return null;
+        }
+        return JobExecutionStacktrace.getByHash(entityManager, failStacktraceHash);
     }
 
     public GroupInfo getJobExecutionBatchInfo(Long batchId) {
 
         List<JobExecutionInfo> batchInfo = JobExecution.getBatchInfo(entityManager, batchId);
+        batchInfo.addAll(JobExecutionHistory.getBatchInfo(entityManager, batchId));
+        batchInfo.sort(Comparator.comparing(JobExecutionInfo::getCreatedAt).thenComparing(JobExecutionInfo::getId));
         return new GroupInfo(batchId, batchInfo);
     }
 
@@ -183,33 +298,76 @@ public class JobEngineService {
     }
 
     public Long countBatchExecutions(Long batchId, JobExecutionStatus status) {
-        return JobExecution.countBatchByStatus(entityManager, batchId, status);
+
+        Long count = JobExecution.countBatchByStatus(entityManager, batchId, status);
+        if (isEnded(status)) {
+            count += JobExecutionHistory.countBatchByStatus(entityManager, batchId, status);
+        }
+        return count;
     }
 
     public List<JobExecution> getJobExecutionBatch(Long batchId) {
-        return JobExecution.getBatch(entityManager, batchId);
+        return merge(JobExecution.getBatch(entityManager, batchId), JobExecutionHistory.getBatch(entityManager, batchId));
     }
 
     public GroupInfo getJobExecutionChainInfo(Long chainId) {
 
         List<JobExecutionInfo> batchInfo = JobExecution.getChainInfo(entityManager, chainId);
+        batchInfo.addAll(JobExecutionHistory.getChainInfo(entityManager, chainId));
+        batchInfo.sort(Comparator.comparing(JobExecutionInfo::getCreatedAt).thenComparing(JobExecutionInfo::getId));
         return new GroupInfo(chainId, batchInfo);
     }
 
     public List<JobExecution> getJobExecutionChain(Long chainId) {
-        return JobExecution.getChain(entityManager, chainId);
+        return merge(JobExecution.getChain(entityManager, chainId), JobExecutionHistory.getChain(entityManager, chainId));
     }
 
     public List<JobExecution> getAllByStatus(JobExecutionStatus jobExecutionStatus) {
-        return JobExecution.getAllByStatus(entityManager, jobExecutionStatus);
+
+        List<JobExecution> jobExecutions = JobExecution.getAllByStatus(entityManager, jobExecutionStatus);
+        if (isEnded(jobExecutionStatus)) {
+            jobExecutions = merge(jobExecutions, JobExecutionHistory.getAllByStatus(entityManager, jobExecutionStatus));
+        }
+        return jobExecutions;
     }
 
     public List<JobExecution> getAllByJobIdAndStatus(Long jobId, JobExecutionStatus jobExecutionStatus) {
-        return JobExecution.getAllByJobIdAndStatus(entityManager, jobId, jobExecutionStatus);
+
+        List<JobExecution> jobExecutions = JobExecution.getAllByJobIdAndStatus(entityManager, jobId, jobExecutionStatus);
+        if (isEnded(jobExecutionStatus)) {
+            jobExecutions = merge(jobExecutions, JobExecutionHistory.getAllByJobIdAndStatus(entityManager, jobId, jobExecutionStatus));
+        }
+        return jobExecutions;
+    }
+
+    private static boolean isEnded(JobExecutionStatus status) {
+        return !JobExecutionStatus.QUEUED.equals(status) && !JobExecutionStatus.RUNNING.equals(status);
+    }
+
+    private static List<JobExecution> merge(List<JobExecution> jobExecutions, List<JobExecutionHistory> jobExecutionHistory) {
+
+        if (jobExecutionHistory.isEmpty()) {
+            return jobExecutions;
+        }
+        List<JobExecution> merged = jobExecutionHistory.stream().map(JobExecutionHistory::toJobExecution).collect(Collectors.toList());
+        merged.addAll(jobExecutions);
+        merged.sort(Comparator.comparing(JobExecution::getCreatedAt).thenComparing(JobExecution::getId));
+        return merged;
     }
 
     public JobExecution createJobExecution(Long jobId, String parameters, Boolean priority, LocalDateTime maturity, Long batchId, Long chainId,
                     Long previousJobExecutionId, boolean uniqueInQueue) {
+        return createJobExecution(jobId, parameters, null, priority, maturity, batchId, chainId, previousJobExecutionId, uniqueInQueue);
+    }
+
+    public JobExecution createJobExecution(Long jobId, String parameters, byte[] parametersData, Boolean priority, LocalDateTime maturity, Long batchId,
+                    Long chainId, Long previousJobExecutionId, boolean uniqueInQueue) {
+        return createJobExecution(jobId, parameters, parametersData, JobEngineUtil.priority(priority), maturity, batchId, chainId, previousJobExecutionId, null,
+                        null, uniqueInQueue);
+    }
+
+    public JobExecution createJobExecution(Long jobId, String parameters, byte[] parametersData, int priority, LocalDateTime maturity, Long batchId,
+                    Long chainId, Long previousJobExecutionId, String orderingKey, String mutexKey, boolean uniqueInQueue) {
 
         Integer parametersHash = null;
         if (parameters != null) {
@@ -219,6 +377,13 @@ public class JobEngineService {
                 parametersHash = null;
             }
         }
+        if (parametersData != null) {
+            parametersHash = Arrays.hashCode(parametersData);
+            if (parametersData.length == 0) {
+                parametersData = null;
+                parametersHash = null;
+            }
+        }
 
         if (uniqueInQueue) {
             // Prüfen ob es bereits eine Job Excecution mit diesn Parametern existiert und im Status QUEUED ist. Wenn ja diese zurückgeben.
@@ -228,26 +393,56 @@ public class JobEngineService {
             }
         }
 
+        String parametersRef = null;
+        if (JobEngineConfig.PARAMETERS_STORE != null) {
+            // oversized parameters only get stored once it is sure they are needed
+            if (parameters != null && parameters.length() * 3L >= JobEngineConfig.PARAMETERS_STORE_THRESHOLD) {
+                byte[] json = parameters.getBytes(StandardCharsets.UTF_8);
+                if (json.length >= JobEngineConfig.PARAMETERS_STORE_THRESHOLD) {
+                    parametersRef = JobEngineUtil.storeParameters(json, false);
+                    parameters = null;
+                }
+            } else if (parametersData != null && parametersData.length >= JobEngineConfig.PARAMETERS_STORE_THRESHOLD) {
+                parametersRef = JobEngineUtil.storeParameters(parametersData, true);
+                parametersData = null;
+            }
+            if (parametersRef != null) {
+                parametersStoredEvent.fire(new ParametersStoredEvent(parametersRef));
+            }
+        }
+
         JobExecution jobExecution = new JobExecution();
         jobExecution.setJobId(jobId);
         jobExecution.setStatus(JobExecutionStatus.QUEUED);
         jobExecution.setParameters(parameters);
+        jobExecution.setParametersData(parametersData);
+        jobExecution.setParametersRef(parametersRef);
         jobExecution.setParametersHash(parametersHash);
         jobExecution.setFailRetry(0);
-        jobExecution.setPriority(priority != null ? priority : false);
+        jobExecution.setPriority(priority);
         jobExecution.setMaturity(maturity);
         jobExecution.setBatchId(batchId);
         jobExecution.setChainId(chainId);
         jobExecution.setChainPreviousExecutionId(previousJobExecutionId);
+        jobExecution.setOrderingKey(orderingKey);
+        jobExecution.setMutexKey(mutexKey);
 
         entityManager.persist(jobExecution);
+        jobStatistics.transition(jobId, null, JobExecutionStatus.QUEUED, 1);
         logger.debug("JobExecution created: {}", jobExecution);
         return jobExecution;
     }
 
-    public JobExecution updateJobExecution(Long jobExecutionId, JobExecutionStatus status, String parameters, boolean priority, LocalDateTime maturity,
+    public JobExecution updateJobExecution(Long jobExecutionId, JobExecutionStatus status, String parameters, int priority, LocalDateTime maturity,
                     int fails) {
-        JobExecution jobExecution = getJobExecutionById(jobExecutionId);
+        JobExecution jobExecution = entityManager.find(JobExecution.class, jobExecutionId);
+        if (jobExecution == null) {
+            if (entityManager.find(JobExecutionHistory.class, jobExecutionId) != null) {
+                throw new IllegalStateException("Job execution " + jobExecutionId + " is in the history and can't be changed");
+            }
+            throw new IllegalArgumentException("No job execution " + jobExecutionId);
+        }
+        jobStatistics.transition(jobExecution.getJobId(), jobExecution.getStatus(), status, 1);
         jobExecution.setStatus(status);
         jobExecution.setParameters(parameters);
         jobExecution.setPriority(priority);
@@ -258,11 +453,32 @@ public class JobEngineService {
     }
 
     public void deleteJobExecution(Long jobExecutionId) {
-        JobExecution jobExecution = getJobExecutionById(jobExecutionId);
+        JobExecution jobExecution = entityManager.find(JobExecution.class, jobExecutionId);
+        if (jobExecution == null) {
+            JobExecutionHistory jobExecutionHistory = entityManager.find(JobExecutionHistory.class, jobExecutionId);
+            if (jobExecutionHistory == null) {
+                throw new IllegalArgumentException("No job execution " + jobExecutionId);
+            }
+            entityManager.remove(jobExecutionHistory);
+            JobExecutionLog.deleteByJobExecutionIds(entityManager, Collections.singletonList(jobExecutionId));
+            deleteStoredParameters(jobExecutionHistory.getParametersRef());
+            jobStatistics.transition(jobExecutionHistory.getJobId(), jobExecutionHistory.getStatus(), null, 1);
+            logger.debug("JobExecutionHistory removed: {}", jobExecutionHistory);
+            return;
+        }
         entityManager.remove(jobExecution);
+        JobExecutionLog.deleteByJobExecutionIds(entityManager, Collections.singletonList(jobExecutionId));
+        deleteStoredParameters(jobExecution.getParametersRef());
+        jobStatistics.transition(jobExecution.getJobId(), jobExecution.getStatus(), null, 1);
         logger.debug("JobExecution removed: {}", jobExecution);
     }
 
+    private void deleteStoredParameters(String parametersRef) {
+        if (parametersRef != null) {
+            parametersUnreferencedEvent.fire(new ParametersUnreferencedEvent(Collections.singletonList(parametersRef)));
+        }
+    }
+
     public void updateJobStatus(Long jobId, JobStatus status) {
         Job job = getJobById(jobId);
         job.setStatus(status);
@@ -279,8 +495,19 @@ public class JobEngineService {
         jobWorker.onSchedule();
     }
 
+    /**
+     * Counts the job executions of a job in the given status. Queued and running job executions are counted in the database, the ended ones are taken from
+     * the in-memory statistics, which are reconciled with the database every {@link JobEngineConfig#STATISTICS_RECONCILIATION_INTERVAL} seconds.
+     * 
+     * @param jobId job ID
+     * @param jobExecutionStatus status
+     * @return number of job executions
+     */
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public long currentJobExecutions(Long jobId, JobExecutionStatus jobExecutionStatus) {
+        if (isEnded(jobExecutionStatus)) {
+            return jobStatistics.getCount(jobId, jobExecutionStatus);
+        }
         return JobExecution.countByJobIdAndStatus(entityManager, jobId, jobExecutionStatus);
     }
 
@@ -1,5 +1,10 @@
 package io.coodoo.workhorse.jobengine.boundary;
 
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -8,7 +13,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.coodoo.workhorse.jobengine.boundary.annotation.JobEngineEntityManager;
+import io.coodoo.workhorse.jobengine.control.DurationHistogram;
 import io.coodoo.workhorse.jobengine.control.JobEngine;
+import io.coodoo.workhorse.jobengine.control.JobStatistics;
+import io.coodoo.workhorse.jobengine.control.RollupMetric;
+import io.coodoo.workhorse.jobengine.control.TextCompression;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionRollup;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
 
 /**
  * Provides statistics
@@ -26,6 +37,9 @@ public class JobEngineStatisticsService {
     @Inject
     JobEngineService jobEngineService;
 
+    @Inject
+    JobStatistics jobStatistics;
+
     @Inject
     @JobEngineEntityManager
     EntityManager entityManager;
@@ -48,31 +62,128 @@ public class JobEngineStatisticsService {
         return jobEngine.getNumberOfJobExecutionsInQueue(jobId);
     }
 
-    public String getStatus() {
+    /**
+     * @param jobId job ID or <code>null</code> for all jobs
+     * @param status status or <code>null</code> for all statuses
+     * @return number of job executions according to the in-memory statistics
+     */
+    public long countJobExecutions(Long jobId, JobExecutionStatus status) {
+        return jobStatistics.getCount(jobId, status);
+    }
 
-        StringBuffer query = new StringBuffer();
-        query.append(" SELECT COUNT(*),");
-        query.append(" COUNT(CASE WHEN status = 'QUEUED' THEN 0 END),");
-        query.append(" COUNT(CASE WHEN status = 'RUNNING' THEN 0 END),");
-        query.append(" COUNT(CASE WHEN status = 'FINISHED' THEN 0 END),");
-        query.append(" COUNT(CASE WHEN status = 'FAILED' THEN 0 END),");
-        query.append(" COUNT(CASE WHEN status = 'ABORTED' THEN 0 END),");
-        query.append(" AVG(duration)");
-        query.append(" FROM jobengine_execution");
+    /**
+     * @param jobId job ID or <code>null</code> for all jobs
+     * @return average duration in milliseconds of the ended job executions according to the in-memory statistics or <code>null</code> if there are none
+     */
+    public Long getAverageDuration(Long jobId) {
+        return jobStatistics.getAverageDuration(jobId);
+    }
 
-        Object[] result = (Object[]) entityManager.createNativeQuery(query.toString()).getSingleResult();
+    /**
+     * @param jobId job ID
+     * @param from start of the time range (inclusive)
+     * @param to end of the time range (exclusive)
+     * @return the per minute duration rollups of a job, e.g. to draw a p99 trend
+     */
+    public List<JobExecutionRollup> getRollups(Long jobId, LocalDateTime from, LocalDateTime to) {
+        return JobExecutionRollup.getByJobIdAndTime(entityManager, jobId, from, to);
+    }
+
+    /**
+     * Merges the duration rollups of a time range, e.g. <code>getDurationHistogram(jobId, from, to).getValueAtPercentile(99)</code>
+     * 
+     * @param jobId job ID
+     * @param from start of the time range (inclusive)
+     * @param to end of the time range (exclusive)
+     * @return histogram of the execution durations in milliseconds
+     */
+    public DurationHistogram getDurationHistogram(Long jobId, LocalDateTime from, LocalDateTime to) {
+        return getHistogram(jobId, RollupMetric.DURATION, from, to);
+    }
+
+    /**
+     * Merges the queue wait rollups of a time range
+     * 
+     * @param jobId job ID
+     * @param from start of the time range (inclusive)
+     * @param to end of the time range (exclusive)
+     * @return histogram of the time in milliseconds the job executions waited in the queue before they started
+     */
+    public DurationHistogram getWaitHistogram(Long jobId, LocalDateTime from, LocalDateTime to) {
+        return getHistogram(jobId, RollupMetric.WAIT, from, to);
+    }
 
-        String executions = result[0] + " executions [" + result[1] + " queued, " + result[2] + " running, " + result[3] + " finished, " + result[4]
-                        + " failed, " + result[5] + " aborted] with an average duration of " + result[0] + "ms";
+    /**
+     * Merges the rollups of a metric in a time range
+     * 
+     * @param jobId job ID
+     * @param metric the metric
+     * @param from start of the time range (inclusive)
+     * @param to end of the time range (exclusive)
+     * @return histogram of the metric in milliseconds
+     */
+    public DurationHistogram getHistogram(Long jobId, RollupMetric metric, LocalDateTime from, LocalDateTime to) {
+
+        DurationHistogram histogram = new DurationHistogram();
+        for (JobExecutionRollup rollup : getRollups(jobId, from, to)) {
+            histogram.merge(metric.getHistogram(rollup));
+        }
+        return histogram;
+    }
+
+    /**
+     * Merges the rollups of all metrics in a time range, so it shows where a job execution spends its time before it runs, e.g. a high
+     * {@link RollupMetric#POLL} p99 calls for a shorter {@link JobEngineConfig#JOB_QUEUE_POLLER_INTERVAL} while a high {@link RollupMetric#QUEUE} p99 calls
+     * for more threads.
+     * 
+     * @param jobId job ID
+     * @param from start of the time range (inclusive)
+     * @param to end of the time range (exclusive)
+     * @return histogram in milliseconds per metric
+     */
+    public Map<RollupMetric, DurationHistogram> getLatencyBreakdown(Long jobId, LocalDateTime from, LocalDateTime to) {
+
+        Map<RollupMetric, DurationHistogram> breakdown = new EnumMap<>(RollupMetric.class);
+        for (RollupMetric metric : RollupMetric.values()) {
+            breakdown.put(metric, new DurationHistogram());
+        }
+        for (JobExecutionRollup rollup : getRollups(jobId, from, to)) {
+            for (RollupMetric metric : RollupMetric.values()) {
+                breakdown.get(metric).merge(metric.getHistogram(rollup));
+            }
+        }
+        return breakdown;
+    }
+
+    /**
+     * @return share of characters (0 to 1) the compression of parameters, logs and stacktraces saved on this node since start, see
+     *         {@link JobEngineConfig#COMPRESSION_THRESHOLD}
+     */
+    public double getCompressionSavings() {
+        long uncompressed = TextCompression.getUncompressedSize();
+        if (uncompressed == 0) {
+            return 0;
+        }
+        return 1 - (double) TextCompression.getCompressedSize() / uncompressed;
+    }
+
+    public String getStatus() {
 
-        query = new StringBuffer();
+        // in-memory statistics, so monitoring doesn't scan the executions on every request
+        String executions = jobStatistics.getCount(null, null) + " executions [" + jobStatistics.getCount(null, JobExecutionStatus.QUEUED) + " queued, "
+                        + jobStatistics.getCount(null, JobExecutionStatus.RUNNING) + " running, " + jobStatistics.getCount(null, JobExecutionStatus.FINISHED)
+                        + " finished, " + jobStatistics.getCount(null, JobExecutionStatus.FAILED) + " failed, "
+                        + jobStatistics.getCount(null, JobExecutionStatus.ABORTED) + " aborted] with an average duration of "
+                        + jobStatistics.getAverageDuration(null) + "ms";
+
+        StringBuffer query = new StringBuffer();
         query.append(" SELECT COUNT(*),");
         query.append(" COUNT(CASE WHEN status = 'ACTIVE' THEN 0 END),");
         query.append(" COUNT(CASE WHEN status = 'INACTIVE' THEN 0 END),");
         query.append(" COUNT(CASE WHEN status = 'ERROR' THEN 0 END)");
         query.append(" FROM jobengine_job");
 
-        result = (Object[]) entityManager.createNativeQuery(query.toString()).getSingleResult();
+        Object[] result = (Object[]) entityManager.createNativeQuery(query.toString()).getSingleResult();
 
         String jobs = result[0] + " jobs [" + result[1] + " active, " + result[2] + " inactive, " + result[3] + " error]";
 
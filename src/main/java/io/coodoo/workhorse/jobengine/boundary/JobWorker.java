@@ -34,6 +34,20 @@ public abstract class JobWorker extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createJobExecution(Boolean priority, LocalDateTime maturity) {
+        return createJobExecution(JobEngineUtil.priority(priority), maturity);
+    }
+
+    /**
+     * <i>This is an access point to get the job engine started with a new job execution.</i><br>
+     * <br>
+     * 
+     * This creates a {@link JobExecution} object that gets added to the job engine to be executed as soon as possible.
+     * 
+     * @param priority priority level, higher ones get executed first (see {@link JobExecution#PRIORITY_HIGH})
+     * @param maturity specified time for the execution
+     * @return job execution ID
+     */
+    public Long createJobExecution(int priority, LocalDateTime maturity) {
         return create(null, priority, maturity, null, null, null).getId();
     }
 
@@ -49,7 +63,7 @@ public abstract class JobWorker extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createJobExecution(Boolean priority, Long delayValue, ChronoUnit delayUnit) {
-        return create(null, priority, JobEngineUtil.delayToMaturity(delayValue, delayUnit), null, null, null).getId();
+        return createJobExecution(priority, JobEngineUtil.delayToMaturity(delayValue, delayUnit));
     }
 
     /**
@@ -60,7 +74,7 @@ public abstract class JobWorker extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createPriorityJobExecution() {
-        return create(null, true, null, null, null, null).getId();
+        return create(null, JobExecution.PRIORITY_HIGH, null, null, null, null).getId();
     }
 
     /**
@@ -73,7 +87,7 @@ public abstract class JobWorker extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createDelayedJobExecution(Long delayValue, ChronoUnit delayUnit) {
-        return create(null, false, JobEngineUtil.delayToMaturity(delayValue, delayUnit), null, null, null).getId();
+        return create(null, JobExecution.PRIORITY_NORMAL, JobEngineUtil.delayToMaturity(delayValue, delayUnit), null, null, null).getId();
     }
 
     /**
@@ -85,7 +99,7 @@ public abstract class JobWorker extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createPlannedJobExecution(LocalDateTime maturity) {
-        return create(null, false, maturity, null, null, null).getId();
+        return create(null, JobExecution.PRIORITY_NORMAL, maturity, null, null, null).getId();
     }
 
 }
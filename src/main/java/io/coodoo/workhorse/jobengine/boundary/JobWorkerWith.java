@@ -9,6 +9,7 @@ import javax.inject.Inject;
 
 import io.coodoo.workhorse.jobengine.control.BaseJobWorker;
 import io.coodoo.workhorse.jobengine.control.BatchHelper;
+import io.coodoo.workhorse.jobengine.control.JobExecutionCoalescer;
 import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
 
@@ -24,6 +25,9 @@ public abstract class JobWorkerWith<T> extends BaseJobWorker {
     @Inject
     private BatchHelper batchHelper;
 
+    @Inject
+    private JobExecutionCoalescer jobExecutionCoalescer;
+
     private Class<?> parametersClass;
 
     public abstract void doWork(T parameters) throws Exception;
@@ -45,6 +49,12 @@ public abstract class JobWorkerWith<T> extends BaseJobWorker {
     @SuppressWarnings("unchecked")
     public T getParameters(JobExecution jobExecution) {
 
+        if (jobExecution.getParametersRef() != null) {
+            return (T) JobEngineUtil.storedToParameters(jobExecution.getParametersRef(), getParametersClass());
+        }
+        if (jobExecution.getParametersData() != null) {
+            return (T) JobEngineUtil.dataToParameters(jobExecution.getParametersData(), getParametersClass());
+        }
         return (T) JobEngineUtil.jsonToParameters(jobExecution.getParameters(), getParametersClass());
     }
 
@@ -109,7 +119,30 @@ public abstract class JobWorkerWith<T> extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createJobExecution(T parameters, Boolean priority, LocalDateTime maturity) {
-        return create(parameters, priority, maturity, null, null, null).getId();
+        return createJobExecution(parameters, JobEngineUtil.priority(priority), maturity);
+    }
+
+    /**
+     * <i>This is an access point to get the job engine started with a new job with job parameters.</i><br>
+     * <br>
+     * 
+     * This creates a {@link JobExecution} object that gets added to the job engine to be executed as soon as possible.
+     * 
+     * @param parameters needed parameters to do the job
+     * @param priority priority level, higher ones get executed first (see {@link JobExecution#PRIORITY_HIGH})
+     * @param maturity specified time for the execution
+     * @return job execution ID
+     */
+    public Long createJobExecution(T parameters, int priority, LocalDateTime maturity) {
+
+        Object coalescingKey = getCoalescingKey(parameters);
+        if (coalescingKey == null) {
+            return create(parameters, priority, maturity, null, null, null).getId();
+        }
+        return jobExecutionCoalescer.coalesce(getJobId(), coalescingKey, getCoalescingWindow(), windowEnd -> {
+            LocalDateTime coalescedMaturity = maturity != null && maturity.isAfter(windowEnd) ? maturity : windowEnd;
+            return create(parameters, priority, coalescedMaturity, null, null, null).getId();
+        });
     }
 
     /**
@@ -125,7 +158,76 @@ public abstract class JobWorkerWith<T> extends BaseJobWorker {
      * @return job execution ID
      */
     public Long createJobExecution(T parameters, Boolean priority, Long delayValue, ChronoUnit delayUnit) {
-        return create(parameters, priority, JobEngineUtil.delayToMaturity(delayValue, delayUnit), null, null, null).getId();
+        return createJobExecution(parameters, priority, JobEngineUtil.delayToMaturity(delayValue, delayUnit));
+    }
+
+    /**
+     * <i>If needed, this method can be overwritten to coalesce job executions that do the same logical work, e.g. invalidating the same cache entry.</i><br>
+     * <br>
+     * The first job execution of a key gets created with its maturity at the end of the {@link #getCoalescingWindow()}, so it can't start before. Every
+     * further job execution with the same key within the window isn't created at all, instead the ID of the first one gets returned. The parameters of the
+     * first job execution are the ones that get executed, so the key has to tell everything the parameters tell about the work.<br>
+     * The windows are kept in memory on each node and only apply to single job executions, not to batches or chains. The window opens for others once the
+     * transaction that created the first job execution is committed, so a rollback doesn't lose the job executions of other transactions.
+     * 
+     * @param parameters parameters of the job execution to create
+     * @return coalescing key or <code>null</code> to create the job execution as usual, which is the default
+     */
+    public Object getCoalescingKey(T parameters) {
+        return null;
+    }
+
+    /**
+     * <i>If needed, this method can be overwritten to keep the order of job executions that belong together, e.g. all job executions of one customer.</i><br>
+     * <br>
+     * Job executions with the same ordering key run one after the other in the order they got queued, while job executions with different keys still run
+     * in parallel on all threads of the job. A key sticks to the job thread that works it, so its data tends to stay warm. Job executions with an ordering
+     * key don't overtake each other by priority.<br>
+     * The order is kept by the memory queue of each node, it is not coordinated between nodes.
+     * 
+     * @param parameters parameters of the job execution to create
+     * @return ordering key of at most 128 characters or <code>null</code> to let the job execution run in any order, which is the default
+     */
+    public String getOrderingKey(T parameters) {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected String orderingKeyOf(Object parameters) {
+        return getOrderingKey((T) parameters);
+    }
+
+    /**
+     * <i>If needed, this method can be overwritten to never run two job executions of the same thing at the same time, e.g. of one account.</i><br>
+     * <br>
+     * A job thread that takes a job execution whose mutex key is already running puts it aside and takes the next one instead. The job execution gets taken
+     * as soon as the other one with its key is done, so the job threads keep working on the other keys. Job executions with the same mutex key don't run in a
+     * particular order, for that use {@link #getOrderingKey(Object)}, which also keeps them from running at the same time. So the mutex key of a job
+     * execution with an ordering key is ignored.<br>
+     * Next job executions of a chain and retries run under the mutex key of the job execution they follow. The mutex keys are held by the memory queue of
+     * each node, they are not coordinated between nodes.
+     * 
+     * @param parameters parameters of the job execution to create
+     * @return mutex key of at most 128 characters or <code>null</code> to run the job execution regardless of others, which is the default
+     */
+    public String getMutexKey(T parameters) {
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected String mutexKeyOf(Object parameters) {
+        return getMutexKey((T) parameters);
+    }
+
+    /**
+     * <i>If needed, this method can be overwritten to change the debounce window of the {@link #getCoalescingKey(Object)}.</i>
+     * 
+     * @return milliseconds in which job executions with the same coalescing key are merged, default is 1000
+     */
+    public long getCoalescingWindow() {
+        return 1000;
     }
 
     /**
@@ -221,15 +323,28 @@ public abstract class JobWorkerWith<T> extends BaseJobWorker {
      * @return batch ID
      */
     public Long createBatchJobExecutions(List<T> parametersList, Boolean priority, LocalDateTime maturity) {
+        return createBatchJobExecutions(parametersList, JobEngineUtil.priority(priority), maturity);
+    }
+
+    /**
+     * This creates a batch of {@link JobExecution} objects
+     * 
+     * @param parametersList list of needed parameters to do the batch
+     * @param priority priority level, higher ones get executed first (see {@link JobExecution#PRIORITY_HIGH})
+     * @param maturity specified time for the execution
+     * @return batch ID
+     */
+    public Long createBatchJobExecutions(List<T> parametersList, int priority, LocalDateTime maturity) {
 
         Long batchId = null;
         Long jobId = getJob().getId();
-        boolean uniqueInQueue = getJob().isUniqueInQueue();
+        boolean uniqueInQueue = isUniqueInQueue();
 
         for (T parameters : parametersList) {
             if (batchId == null) { // start of chain
 
-                Long id = batchHelper.createFirstInBatch(jobId, parameters, priority, maturity, uniqueInQueue).getId();
+                Long id = batchHelper.createFirstInBatch(jobId, parameters, priority, maturity, getOrderingKey(parameters), getMutexKey(parameters),
+                                uniqueInQueue).getId();
                 batchHelper.activateFirstInBatch(id);
                 batchId = id;
 
@@ -294,17 +409,30 @@ public abstract class JobWorkerWith<T> extends BaseJobWorker {
      * @return chain ID
      */
     public Long createChainedJobExecutions(List<T> parametersList, Boolean priority, LocalDateTime maturity) {
+        return createChainedJobExecutions(parametersList, JobEngineUtil.priority(priority), maturity);
+    }
+
+    /**
+     * This creates a chain of {@link JobExecution} objects, so when the first one gets executed it will bring all its chained friends.
+     * 
+     * @param parametersList list of needed parameters to do the job in the order of the execution chain
+     * @param priority priority level, higher ones get executed first (see {@link JobExecution#PRIORITY_HIGH})
+     * @param maturity specified time for the execution
+     * @return chain ID
+     */
+    public Long createChainedJobExecutions(List<T> parametersList, int priority, LocalDateTime maturity) {
 
         Long chainId = null;
         Long chainPreviousExecutionId = null;
 
         Long jobId = getJob().getId();
-        boolean uniqueInQueue = getJob().isUniqueInQueue();
+        boolean uniqueInQueue = isUniqueInQueue();
 
         for (T parameters : parametersList) {
             if (chainId == null) { // start of chain
 
-                Long id = batchHelper.createFirstInChain(jobId, parameters, priority, maturity, uniqueInQueue).getId();
+                Long id = batchHelper.createFirstInChain(jobId, parameters, priority, maturity, getOrderingKey(parameters), getMutexKey(parameters),
+                                uniqueInQueue).getId();
                 batchHelper.activateFirstInChain(id);
                 chainPreviousExecutionId = id;
                 chainId = id;
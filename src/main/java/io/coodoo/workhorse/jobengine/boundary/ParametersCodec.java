@@ -0,0 +1,52 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Binary format of the job execution parameters, set in {@link JobEngineConfig#PARAMETERS_CODEC}. The encoded parameters are stored in the column
+ * <code>parameters_data</code> instead of the JSON text in <code>parameters</code>.<br>
+ * Jackson binary formats like Smile or CBOR just need their data format module and a {@link JacksonParametersCodec}:<br>
+ * <tt>JobEngineConfig.PARAMETERS_CODEC = new JacksonParametersCodec(new ObjectMapper(new SmileFactory()));</tt>
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public interface ParametersCodec {
+
+    /**
+     * @param parameters parameters object, never <code>null</code>
+     * @return encoded parameters
+     * @throws IOException if the object can't be encoded
+     */
+    byte[] write(Object parameters) throws IOException;
+
+    /**
+     * @param <T> parameters class
+     * @param data encoded parameters, never <code>null</code>
+     * @param parametersClass parameters class
+     * @return parameters object
+     * @throws IOException if the data can't be decoded
+     */
+    <T> T read(byte[] data, Class<T> parametersClass) throws IOException;
+
+    /**
+     * Reads parameters from a {@link ParametersStore}. Override it if the format can be parsed from a stream.
+     * 
+     * @param <T> parameters class
+     * @param data stream of the encoded parameters
+     * @param parametersClass parameters class
+     * @return parameters object
+     * @throws IOException if the data can't be decoded
+     */
+    default <T> T read(InputStream data, Class<T> parametersClass) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = data.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return read(bytes.toByteArray(), parametersClass);
+    }
+
+}
@@ -0,0 +1,38 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Keeps oversized job execution parameters out of the database, set in {@link JobEngineConfig#PARAMETERS_STORE}. Parameters of at least
+ * {@link JobEngineConfig#PARAMETERS_STORE_THRESHOLD} bytes get put into the store and the job execution only keeps the reference in
+ * <code>parameters_ref</code>. The payload gets read when the job execution runs.<br>
+ * Every node of the job engine needs to reach the same store.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public interface ParametersStore {
+
+    /**
+     * @param data parameters as JSON (UTF-8) or as encoded by the {@link ParametersCodec}
+     * @return reference to get the data back, not longer than 200 characters
+     * @throws IOException if the data can't be stored
+     */
+    String put(byte[] data) throws IOException;
+
+    /**
+     * @param reference reference given by {@link #put(byte[])}
+     * @return stream of the data, gets closed by the caller
+     * @throws IOException if the data can't be read
+     */
+    InputStream get(String reference) throws IOException;
+
+    /**
+     * Called when no job execution refers to the data anymore
+     * 
+     * @param reference reference given by {@link #put(byte[])}
+     * @throws IOException if the data can't be deleted
+     */
+    void delete(String reference) throws IOException;
+
+}
@@ -10,6 +10,7 @@ import io.coodoo.workhorse.jobengine.boundary.JobWorkerWith;
 import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobStatus;
 import io.coodoo.workhorse.jobengine.entity.JobType;
+import io.coodoo.workhorse.jobengine.entity.ScheduleMisfirePolicy;
 
 /**
  * <strong>Initial job configuration.</strong> An new {@link JobWorker} or {@link JobWorkerWith} implementation will be detected while initialization and gets
@@ -22,11 +23,15 @@ import io.coodoo.workhorse.jobengine.entity.JobType;
 public @interface InitialJobConfig {
 
     public static final int JOB_CONFIG_THREADS = 1;
+    public static final int JOB_CONFIG_WEIGHT = 1;
     public static final int JOB_CONFIG_MAX_PER_MINUTE = 0;
     public static final int JOB_CONFIG_FAIL_RETRIES = 0;
     public static final int JOB_CONFIG_RETRY_DELAY = 4000;
     public static final int JOB_CONFIG_DAYS_UNTIL_CLEANUP = 30;
     public static final boolean JOB_CONFIG_UNIQUE_IN_QUEUE = true;
+    public static final boolean JOB_CONFIG_SCHEDULE_SKIP_IF_ACTIVE = false;
+    public static final ScheduleMisfirePolicy JOB_CONFIG_SCHEDULE_MISFIRE_POLICY = ScheduleMisfirePolicy.IGNORE;
+    public static final int JOB_CONFIG_SCHEDULE_CATCH_UP_LIMIT = 10;
 
     /**
      * @return Unique name of the job
@@ -53,11 +58,36 @@ public @interface InitialJobConfig {
      */
     String schedule() default "";
 
+    /**
+     * @return If <code>true</code> a schedule fire is skipped while the job still has queued or running executions. Default is <code>false</code>.
+     */
+    boolean scheduleSkipIfActive() default JOB_CONFIG_SCHEDULE_SKIP_IF_ACTIVE;
+
+    /**
+     * @return What to do with skipped or missed schedule fires. Default is {@link ScheduleMisfirePolicy#IGNORE}.
+     */
+    ScheduleMisfirePolicy scheduleMisfirePolicy() default ScheduleMisfirePolicy.IGNORE;
+
+    /**
+     * @return Max amount of missed schedule fires to trigger using {@link ScheduleMisfirePolicy#CATCH_UP}. Default is 10.
+     */
+    int scheduleCatchUpLimit() default JOB_CONFIG_SCHEDULE_CATCH_UP_LIMIT;
+
     /**
      * @return Number of threads for processing parallel work. Default is 1.
      */
     int threads() default JOB_CONFIG_THREADS;
 
+    /**
+     * @return Name of the concurrency group that limits the running executions of this and other jobs together. Default is none.
+     */
+    String concurrencyGroup() default "";
+
+    /**
+     * @return Share of the worker pool this job gets when several jobs have a backlog, see <code>JobEngineConfig.WORKER_POOL_SIZE</code>. Default is 1.
+     */
+    int weight() default JOB_CONFIG_WEIGHT;
+
     /**
      * @return Limit of execution throughput per minute. Default is null (no limitation)
      */
@@ -24,6 +24,12 @@ import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
  */
 public abstract class BaseJobWorker {
 
+    /**
+     * Set while the scheduler catches up a missed schedule fire, so its job executions don't get merged into the ones of the previous fire by
+     * {@link Job#isUniqueInQueue()}
+     */
+    static final ThreadLocal<Boolean> CATCHING_UP = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     @Inject
     protected JobEngineService jobEngineService;
 
@@ -325,17 +331,43 @@ public abstract class BaseJobWorker {
      * @return job execution ID
      */
     public Long createJobExecution() {
-        return create(null, null, null, null, null, null).getId();
+        return create(null, JobExecution.PRIORITY_NORMAL, null, null, null, null).getId();
     }
 
-    protected JobExecution create(Object parameters, Boolean priority, LocalDateTime maturity, Long batchId, Long chainId, Long chainPreviousExecutionId) {
+    protected JobExecution create(Object parameters, int priority, LocalDateTime maturity, Long batchId, Long chainId, Long chainPreviousExecutionId) {
 
         Long jobId = getJob().getId();
-        boolean uniqueInQueue = getJob().isUniqueInQueue();
+        boolean uniqueInQueue = isUniqueInQueue();
+
+        boolean binary = JobEngineConfig.PARAMETERS_CODEC != null;
+        String parametersJson = binary ? null : JobEngineUtil.parametersToJson(parameters);
+        byte[] parametersData = binary ? JobEngineUtil.parametersToData(parameters) : null;
 
-        String parametersJson = JobEngineUtil.parametersToJson(parameters);
+        return jobEngineService.createJobExecution(jobId, parametersJson, parametersData, priority, maturity, batchId, chainId, chainPreviousExecutionId,
+                        orderingKeyOf(parameters), mutexKeyOf(parameters), uniqueInQueue);
+    }
 
-        return jobEngineService.createJobExecution(jobId, parametersJson, priority, maturity, batchId, chainId, chainPreviousExecutionId, uniqueInQueue);
+    /**
+     * @return <code>true</code> if an equal queued job execution is taken instead of creating a new one, as defined by {@link Job#isUniqueInQueue()}
+     */
+    protected boolean isUniqueInQueue() {
+        return getJob().isUniqueInQueue() && !CATCHING_UP.get();
+    }
+
+    /**
+     * @param parameters parameters of the job execution to create
+     * @return ordering key of the job execution to create, <code>null</code> if there is none
+     */
+    protected String orderingKeyOf(Object parameters) {
+        return null;
+    }
+
+    /**
+     * @param parameters parameters of the job execution to create
+     * @return mutex key of the job execution to create, <code>null</code> if there is none
+     */
+    protected String mutexKeyOf(Object parameters) {
+        return null;
     }
 
     public long currentQueuedExecutions() {
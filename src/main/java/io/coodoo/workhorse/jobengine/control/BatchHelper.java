@@ -7,6 +7,7 @@ import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
 
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
 
@@ -23,12 +24,15 @@ public class BatchHelper {
     JobEngineService jobEngineService;
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-    public JobExecution createFirstInBatch(Long jobId, Object parameters, Boolean priority, LocalDateTime maturity, boolean uniqueInQueue) {
+    public JobExecution createFirstInBatch(Long jobId, Object parameters, int priority, LocalDateTime maturity, String orderingKey, String mutexKey,
+                    boolean uniqueInQueue) {
 
-        String parametersJson = JobEngineUtil.parametersToJson(parameters);
+        boolean binary = JobEngineConfig.PARAMETERS_CODEC != null;
+        String parametersJson = binary ? null : JobEngineUtil.parametersToJson(parameters);
+        byte[] parametersData = binary ? JobEngineUtil.parametersToData(parameters) : null;
 
         // mark as batch with pseudo ID (-1), so the poller wont draft it to early
-        return jobEngineService.createJobExecution(jobId, parametersJson, priority, maturity, -1L, null, null, uniqueInQueue);
+        return jobEngineService.createJobExecution(jobId, parametersJson, parametersData, priority, maturity, -1L, null, null, orderingKey, mutexKey, uniqueInQueue);
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -40,12 +44,15 @@ public class BatchHelper {
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-    public JobExecution createFirstInChain(Long jobId, Object parameters, Boolean priority, LocalDateTime maturity, boolean uniqueInQueue) {
+    public JobExecution createFirstInChain(Long jobId, Object parameters, int priority, LocalDateTime maturity, String orderingKey, String mutexKey,
+                    boolean uniqueInQueue) {
 
-        String parametersJson = JobEngineUtil.parametersToJson(parameters);
+        boolean binary = JobEngineConfig.PARAMETERS_CODEC != null;
+        String parametersJson = binary ? null : JobEngineUtil.parametersToJson(parameters);
+        byte[] parametersData = binary ? JobEngineUtil.parametersToData(parameters) : null;
 
         // mark as chained with pseudo IDs (-1), so the poller wont draft it to early
-        return jobEngineService.createJobExecution(jobId, parametersJson, priority, maturity, null, -1L, -1L, uniqueInQueue);
+        return jobEngineService.createJobExecution(jobId, parametersJson, parametersData, priority, maturity, null, -1L, -1L, orderingKey, mutexKey, uniqueInQueue);
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -0,0 +1,41 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+
+/**
+ * The permits of the concurrency groups on this node, as defined in {@link JobEngineConfig#CONCURRENCY_GROUPS}. The waiting job threads of all jobs in a
+ * group get the permits in the order they asked for them, so no job starves.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class ConcurrencyGroups {
+
+    private final Map<String, GroupPermits> permits = new ConcurrentHashMap<>();
+
+    /**
+     * @param concurrencyGroup name of the concurrency group
+     * @return permits of the concurrency group or <code>null</code> if it isn't limited
+     */
+    public GroupPermits getPermits(String concurrencyGroup) {
+
+        if (concurrencyGroup == null) {
+            return null;
+        }
+        Integer size = JobEngineConfig.CONCURRENCY_GROUPS.get(concurrencyGroup);
+        if (size == null || size < 1) {
+            return null;
+        }
+        return permits.computeIfAbsent(concurrencyGroup, group -> new GroupPermits(size));
+    }
+
+    /**
+     * Forgets the permits, so changes of {@link JobEngineConfig#CONCURRENCY_GROUPS} take effect. Permits that are currently taken go back to the old ones.
+     */
+    public void clear() {
+        permits.clear();
+    }
+
+}
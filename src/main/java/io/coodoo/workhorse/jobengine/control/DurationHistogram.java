@@ -0,0 +1,174 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Mergeable histogram of durations in milliseconds with log-linear buckets: every power of two is split into {@value #SUB_BUCKETS} buckets, so a recorded
+ * value is off by no more than 1/{@value #SUB_BUCKETS} of its magnitude, no matter how big it gets. Values below {@value #SUB_BUCKETS} are exact.
+ * <p>
+ * Histograms of the same job can be merged, e.g. all the minutes of a day, and still give the right percentiles. Stored histograms are encoded compactly as
+ * non-empty buckets only.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class DurationHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+
+    private long totalCount;
+
+    private long sum;
+
+    private long max;
+
+    public void record(long value) {
+        long duration = Math.max(value, 0);
+        counts[index(duration)]++;
+        totalCount++;
+        sum += duration;
+        max = Math.max(max, duration);
+    }
+
+    public void merge(DurationHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        max = Math.max(max, other.max);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return average duration in milliseconds or <code>null</code> if nothing has been recorded
+     */
+    public Long getMean() {
+        return totalCount > 0 ? sum / totalCount : null;
+    }
+
+    /**
+     * @param percentile percentile between 0 and 100, e.g. <code>99.9</code>
+     * @return the highest value of the bucket that holds the percentile (but not above the max value) or <code>null</code> if nothing has been recorded
+     */
+    public Long getValueAtPercentile(double percentile) {
+
+        if (totalCount == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += counts[i];
+            if (cumulated >= rank) {
+                return Math.min(highestValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * @return the histogram as Base64 string of variable length numbers: max value, sum and then pairs of bucket index (relative to the previous one) and
+     *         count for every non-empty bucket
+     */
+    public String encode() {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeVarLong(out, max);
+        writeVarLong(out, sum);
+        int previous = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] > 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+        }
+        return Base64.getEncoder().encodeToString(out.toByteArray());
+    }
+
+    /**
+     * @param encoded histogram created by {@link #encode()}, <code>null</code> gives an empty histogram
+     * @return the decoded histogram
+     */
+    public static DurationHistogram decode(String encoded) {
+
+        DurationHistogram histogram = new DurationHistogram();
+        if (encoded == null || encoded.isEmpty()) {
+            return histogram;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Base64.getDecoder().decode(encoded));
+        histogram.max = readVarLong(in);
+        histogram.sum = readVarLong(in);
+        int index = 0;
+        while (in.hasRemaining()) {
+            index += (int) readVarLong(in);
+            long count = readVarLong(in);
+            histogram.counts[index] += count;
+            histogram.totalCount += count;
+        }
+        return histogram;
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowestValue = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowestValue + (1L << shift) - 1;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "DurationHistogram [totalCount=" + totalCount + ", mean=" + getMean() + ", p50=" + getValueAtPercentile(50) + ", p99="
+                        + getValueAtPercentile(99) + ", max=" + max + "]";
+    }
+
+}
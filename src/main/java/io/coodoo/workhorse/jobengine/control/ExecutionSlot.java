@@ -0,0 +1,91 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.function.BooleanSupplier;
+
+import io.coodoo.workhorse.jobengine.entity.Job;
+
+/**
+ * The permit of the concurrency group and the slot of the worker pool a job thread needs to run job executions. While waiting for them the job thread checks
+ * in intervals whether to go on, without losing its place in line.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class ExecutionSlot {
+
+    private final Job job;
+
+    private final Object owner;
+
+    private final GroupPermits permits;
+
+    private final WorkerPool pool;
+
+    private final long waitInterval;
+
+    private boolean held;
+
+    /**
+     * @param job job of the job thread
+     * @param owner job thread that waits
+     * @param permits permits of the concurrency group of the job or <code>null</code> if it isn't limited
+     * @param pool worker pool of this node
+     * @param waitInterval milliseconds between checking whether to go on waiting
+     */
+    public ExecutionSlot(Job job, Object owner, GroupPermits permits, WorkerPool pool, long waitInterval) {
+        this.job = job;
+        this.owner = owner;
+        this.permits = permits;
+        this.pool = pool;
+        this.waitInterval = waitInterval;
+    }
+
+    /**
+     * Waits for the permit and then for the slot of the worker pool
+     *
+     * @param keepWaiting tells after every interval if the job thread still wants to wait
+     * @return <code>true</code> if the job thread holds both, <code>false</code> if it gave up and holds none
+     * @throws InterruptedException if the job thread got interrupted while waiting
+     */
+    public boolean acquire(BooleanSupplier keepWaiting) throws InterruptedException {
+
+        if (held) {
+            return true;
+        }
+        if (permits != null) {
+            while (!permits.acquire(owner, waitInterval)) {
+                if (!keepWaiting.getAsBoolean()) {
+                    permits.leave(owner);
+                    return false;
+                }
+            }
+        }
+        try {
+            held = pool.acquire(job, waitInterval);
+            while (!held && keepWaiting.getAsBoolean()) {
+                // the permit is kept while waiting for the slot
+                held = pool.acquire(job, waitInterval);
+            }
+        } finally {
+            if (!held && permits != null) {
+                permits.release();
+            }
+        }
+        return held;
+    }
+
+    /**
+     * Gives back the permit and the slot, if held
+     */
+    public void release() {
+
+        if (!held) {
+            return;
+        }
+        held = false;
+        pool.release();
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * The permits of a concurrency group. Waiting job threads get them strictly in the order they asked for them. A job thread that stops waiting for a while,
+ * e.g. to check whether to stop or pause, keeps its place in line until it {@link #leave(Object)}s.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class GroupPermits {
+
+    private final Set<Object> waiting = new LinkedHashSet<>();
+
+    private int available;
+
+    public GroupPermits(int permits) {
+        this.available = permits;
+    }
+
+    /**
+     * Waits for a permit in line
+     *
+     * @param waiter job thread that waits
+     * @param timeoutMillis longest time to wait, after that the waiter still has its place in line
+     * @return <code>true</code> if the waiter got a permit, that has to be given back by {@link #release()}
+     * @throws InterruptedException if the job thread got interrupted while waiting, then it is out of line
+     */
+    public synchronized boolean acquire(Object waiter, long timeoutMillis) throws InterruptedException {
+
+        waiting.add(waiter);
+        long waitUntil = System.currentTimeMillis() + timeoutMillis;
+        try {
+            while (available == 0 || waiting.iterator().next() != waiter) {
+                long wait = waitUntil - System.currentTimeMillis();
+                if (wait <= 0) {
+                    return false;
+                }
+                wait(wait);
+            }
+        } catch (InterruptedException e) {
+            leave(waiter);
+            throw e;
+        }
+        waiting.remove(waiter);
+        available--;
+        // the next in line may take another free permit
+        notifyAll();
+        return true;
+    }
+
+    /**
+     * Gives up the place in line
+     *
+     * @param waiter job thread that doesn't wait anymore
+     */
+    public synchronized void leave(Object waiter) {
+        if (waiting.remove(waiter)) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * Gives back a permit
+     */
+    public synchronized void release() {
+        available++;
+        notifyAll();
+    }
+
+    /**
+     * @return number of free permits
+     */
+    public synchronized int availablePermits() {
+        return available;
+    }
+
+}
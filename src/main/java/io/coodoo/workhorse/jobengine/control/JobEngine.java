@@ -1,10 +1,13 @@
 package io.coodoo.workhorse.jobengine.control;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
@@ -12,7 +15,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 
 import javax.ejb.Asynchronous;
@@ -29,13 +34,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import io.coodoo.workhorse.jobengine.boundary.BatchingJobWorker;
 import io.coodoo.workhorse.jobengine.boundary.JobContext;
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
 import io.coodoo.workhorse.jobengine.control.event.AllJobExecutionsDoneEvent;
 import io.coodoo.workhorse.jobengine.control.event.JobErrorEvent;
+import io.coodoo.workhorse.jobengine.control.jfr.EventSpan;
+import io.coodoo.workhorse.jobengine.control.jfr.ExecutionEventSpan;
+import io.coodoo.workhorse.jobengine.control.jfr.JobEngineEvents;
 import io.coodoo.workhorse.jobengine.entity.GroupInfo;
 import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
 import io.coodoo.workhorse.jobengine.entity.JobStatus;
 
 /**
@@ -49,6 +60,16 @@ public class JobEngine implements Serializable {
 
     private static Logger logger = LoggerFactory.getLogger(JobEngine.class);
 
+    /**
+     * Pause between looking for more job executions while a micro-batch fills up
+     */
+    private static final long MICRO_BATCH_POLL_INTERVAL = 10L;
+
+    /**
+     * Pause between checking whether to stop or pause while a job thread waits for a permit of its concurrency group or a slot of the worker pool
+     */
+    private static final long PERMIT_WAIT_INTERVAL = 1000L;
+
     @Inject
     private JobEngineService jobEngineService;
 
@@ -58,6 +79,12 @@ public class JobEngine implements Serializable {
     @Inject
     private JobExecutor jobExecutor;
 
+    @Inject
+    private JobStatistics jobStatistics;
+
+    @Inject
+    private JobExecutionRollups jobExecutionRollups;
+
     @Inject
     private Event<AllJobExecutionsDoneEvent> allJobsDoneEvent;
 
@@ -65,14 +92,20 @@ public class JobEngine implements Serializable {
     private Event<JobErrorEvent> jobErrorEvent;
 
     private Map<Long, Queue<JobExecution>> jobExecutions = new HashMap<>();
-    private Map<Long, Queue<JobExecution>> priorityJobExecutions = new HashMap<>();
+    private Map<Long, OrderingPartitions> orderedJobExecutions = new HashMap<>();
+    private Map<Long, Queue<JobExecution>> deferredJobExecutions = new HashMap<>();
+    private Map<Long, Map<String, JobThread>> runningMutexKeys = new HashMap<>();
     private Map<Long, Set<JobExecution>> runningJobExecutions = new HashMap<>();
     private Map<Long, Integer> jobThreadCounts = new HashMap<>();
     private Map<Long, Set<JobThread>> jobThreads = new HashMap<>();
     private Map<Long, Boolean> pausedJobs = new HashMap<>();
     private Map<Long, Map<Future<Long>, JobThread>> futures = new HashMap<>();
     private Map<Long, Long> jobStartTimes = new HashMap<>();
+    private Map<Long, AtomicInteger> queuedCounts = new HashMap<>();
+    private Map<Long, AtomicInteger> priorityQueuedCounts = new HashMap<>();
     private static Map<Long, ReentrantLock> jobLocks = new ConcurrentHashMap<>();
+    private ConcurrencyGroups concurrencyGroups = new ConcurrencyGroups();
+    private WorkerPool workerPool = new WorkerPool(0);
     private ReentrantLock myLock = new ReentrantLock();
 
     public void initializeMemoryQueues() {
@@ -82,17 +115,27 @@ public class JobEngine implements Serializable {
         this.jobThreads.clear();
         this.jobThreadCounts.clear();
         this.jobExecutions.clear();
-        this.priorityJobExecutions.clear();
+        this.orderedJobExecutions.clear();
+        this.deferredJobExecutions.clear();
+        this.runningMutexKeys.clear();
         this.runningJobExecutions.clear();
         this.futures.clear();
+        this.queuedCounts.clear();
+        this.priorityQueuedCounts.clear();
+        this.concurrencyGroups.clear();
+        this.workerPool = new WorkerPool(JobEngineConfig.WORKER_POOL_SIZE);
         for (Job job : jobEngineService.getAllJobs()) {
             this.jobThreads.put(job.getId(), new HashSet<JobThread>());
             this.jobThreadCounts.put(job.getId(), job.getThreads());
-            this.jobExecutions.put(job.getId(), new ConcurrentLinkedQueue<JobExecution>());
-            this.priorityJobExecutions.put(job.getId(), new ConcurrentLinkedQueue<JobExecution>());
-            this.runningJobExecutions.put(job.getId(), new HashSet<>());
+            this.jobExecutions.put(job.getId(), new PriorityBlockingQueue<JobExecution>(11, new PriorityAging()));
+            this.orderedJobExecutions.put(job.getId(), new OrderingPartitions(Math.max(1, job.getThreads())));
+            this.deferredJobExecutions.put(job.getId(), new ConcurrentLinkedQueue<JobExecution>());
+            this.runningMutexKeys.put(job.getId(), new ConcurrentHashMap<String, JobThread>());
+            this.runningJobExecutions.put(job.getId(), ConcurrentHashMap.newKeySet());
             this.pausedJobs.put(job.getId(), Boolean.valueOf(false));
             this.futures.put(job.getId(), new HashMap<Future<Long>, JobThread>());
+            this.queuedCounts.put(job.getId(), new AtomicInteger());
+            this.priorityQueuedCounts.put(job.getId(), new AtomicInteger());
         }
     }
 
@@ -115,7 +158,8 @@ public class JobEngine implements Serializable {
     }
 
     public boolean isJobActive(Job job) {
-        return !jobExecutions.get(job.getId()).isEmpty();
+        return !jobExecutions.get(job.getId()).isEmpty() || orderedJobExecutions.get(job.getId()).size() > 0
+                        || !deferredJobExecutions.get(job.getId()).isEmpty();
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
@@ -124,8 +168,8 @@ public class JobEngine implements Serializable {
         final Job job = jobEngineService.getJobById(jobExecution.getJobId());
         final Long jobId = job.getId();
 
-        if ((runningJobExecutions.get(jobId).contains(jobExecution)) || (priorityJobExecutions.get(jobId).contains(jobExecution))
-                        || (jobExecutions.get(jobId).contains(jobExecution))) {
+        if ((runningJobExecutions.get(jobId).contains(jobExecution)) || (jobExecutions.get(jobId).contains(jobExecution))
+                        || (orderedJobExecutions.get(jobId).contains(jobExecution)) || (deferredJobExecutions.get(jobId).contains(jobExecution))) {
             // log.info("JobExecution already exists in queue: {}", job);
             return false;
         }
@@ -134,17 +178,23 @@ public class JobEngine implements Serializable {
         if (numberOfJobs == 0) {
             jobStartTimes.put(jobId, System.currentTimeMillis());
         }
-        if (jobExecution.isPriority()) {
-            priorityJobExecutions.get(jobId).add(jobExecution);
+        jobExecution.setDraftedAt(JobEngineUtil.timestamp());
+        if (jobExecution.getOrderingKey() != null) {
+            // the order of a key goes before priority
+            orderedJobExecutions.get(jobId).add(jobExecution);
+            queuedCounts.get(jobId).incrementAndGet();
         } else {
             jobExecutions.get(jobId).add(jobExecution);
+            countOf(jobExecution).incrementAndGet();
         }
         logger.debug("Added JobExecution: {} (Current queued JobExecutions: {})", jobExecution, numberOfJobs);
 
         if (jobThreadCounts.get(jobId) > jobThreads.get(jobId).size()) {
+            final EventSpan lockWait = JobEngineEvents.lockWait(job);
             final ReentrantLock lock = getLock(job);
             try {
                 lock.lock();
+                lockWait.end();
                 for (int i = jobThreads.get(jobId).size(); i < jobThreadCounts.get(jobId); i++) {
                     startJobThread(job);
                     if (logger.isTraceEnabled()) {
@@ -195,120 +245,143 @@ public class JobEngine implements Serializable {
                             }
                         }
 
-                        JobExecution jobExecution;
-
-                        ReentrantLock lock = getLock(job);
+                        ExecutionSlot slot = new ExecutionSlot(job, this, concurrencyGroups.getPermits(job.getConcurrencyGroup()), workerPool,
+                                        PERMIT_WAIT_INTERVAL);
+                        if (!slot.acquire(() -> !stopMe && !JobEngine.this.pausedJobs.get(jobId))) {
+                            continue; // time to stop or pause
+                        }
                         try {
-                            lock.lock();
-                            jobExecution = priorityJobExecutions.get(jobId).poll();
-                            activeJob = jobExecution;
+                            JobExecution jobExecution;
 
-                            if (jobExecution == null) {
-                                jobExecution = jobExecutions.get(jobId).poll();
-                            }
+                            EventSpan lockWait = JobEngineEvents.lockWait(job);
+                            ReentrantLock lock = getLock(job);
+                            try {
+                                lock.lock();
+                                lockWait.end();
+                                jobExecution = pollJobExecution(jobId, this, true);
+                                activeJob = jobExecution;
 
-                            if (jobExecution == null) {
-                                logger.debug("No further job execution available for {} - removing this thread", job);
+                                if (jobExecution == null) {
+                                    logger.debug("No further job execution available for {} - removing this thread", job);
 
-                                jobThreads.get(jobId).remove(this);
-                                if (logger.isTraceEnabled()) {
-                                    logger.trace("Job thread removed. Remainder: {}", jobThreads.get(jobId).size());
-                                }
-                                if (jobThreads.get(jobId).isEmpty()) {
-                                    logger.info("All job executions done for job {}", job.getName());
-                                    allJobsDoneEvent.fire(new AllJobExecutionsDoneEvent(job));
+                                    jobThreads.get(jobId).remove(this);
+                                    if (logger.isTraceEnabled()) {
+                                        logger.trace("Job thread removed. Remainder: {}", jobThreads.get(jobId).size());
+                                    }
+                                    if (jobThreads.get(jobId).isEmpty()) {
+                                        logger.info("All job executions done for job {}", job.getName());
+                                        allJobsDoneEvent.fire(new AllJobExecutionsDoneEvent(job));
+                                    }
+                                    return;
                                 }
-                                return;
+                                jobExecution.setDequeuedAt(JobEngineUtil.timestamp());
+                            } finally {
+                                lock.unlock();
                             }
-                        } finally {
-                            lock.unlock();
-                        }
-
-                        int minMillisPerExecution = 0;
-                        if (job.getMaxPerMinute() != null && job.getMaxPerMinute() > 0 && job.getMaxPerMinute() <= 60000) {
-                            minMillisPerExecution = 60000 / job.getMaxPerMinute();
-                        }
-
-                        jobExecutionLoop: while (true) {
-
-                            runningJobExecutions.get(jobId).add(jobExecution);
 
-                            long millisAtStart = System.currentTimeMillis();
-                            Long jobExecutionId = jobExecution.getId();
-                            JobContext jobContext = jobWorker.getJobContext();
+                            int minMillisPerExecution = 0;
+                            if (job.getMaxPerMinute() != null && job.getMaxPerMinute() > 0 && job.getMaxPerMinute() <= 60000) {
+                                minMillisPerExecution = 60000 / job.getMaxPerMinute();
+                            }
 
-                            try {
+                            if (jobWorker instanceof BatchingJobWorker) {
+                                runMicroBatches(job, this, slot, (BatchingJobWorker<?>) jobWorker, jobExecution, minMillisPerExecution);
+                                continue;
+                            }
 
-                                jobEngineController.setJobExecutionRunning(jobExecutionId);
+                            jobExecutionLoop: while (true) {
 
-                                /* THIS IS WHERE THE MAGIC HAPPENS! */
-                                jobWorker.doWork(jobExecution);
+                                runningJobExecutions.get(jobId).add(jobExecution);
 
-                                long duration = System.currentTimeMillis() - millisAtStart;
+                                long millisAtStart = System.currentTimeMillis();
+                                Long jobExecutionId = jobExecution.getId();
+                                JobContext jobContext = jobWorker.getJobContext();
 
-                                if (duration < minMillisPerExecution) {
-                                    // this execution was to fast and must wait to not exceed the limit of executions per minute
-                                    Thread.sleep(minMillisPerExecution - duration);
-                                }
+                                try {
 
-                                String jobExecutionLog = jobContext.getLog();
-                                jobEngineController.setJobExecutionFinished(jobExecutionId, duration, jobExecutionLog);
+                                    EventSpan statusPersist = JobEngineEvents.statusPersist(jobId, jobExecutionId, JobExecutionStatus.RUNNING);
+                                    jobEngineController.setJobExecutionRunning(jobExecutionId);
+                                    statusPersist.end();
+                                    jobStatistics.transition(jobId, jobExecution.getStatus(), JobExecutionStatus.RUNNING, 1);
+                                    recordLatencies(jobExecution);
 
-                                runningJobExecutions.get(jobId).remove(jobExecution);
-                                jobWorker.onFinished(jobExecutionId);
+                                    ExecutionEventSpan executionEvent = JobEngineEvents.execution(job, jobExecution);
+                                    try {
+                                        /* THIS IS WHERE THE MAGIC HAPPENS! */
+                                        jobWorker.doWork(jobExecution);
+                                    } catch (Exception exception) {
+                                        executionEvent.end(JobExecutionStatus.FAILED);
+                                        throw exception;
+                                    }
+                                    executionEvent.end(JobExecutionStatus.FINISHED);
 
-                                Long batchId = jobExecution.getBatchId();
-                                if (batchId != null) {
-                                    boolean batchFinished = jobEngineService.isBatchFinished(batchId);
-                                    if (batchFinished) {
-                                        jobWorker.onFinishedBatch(batchId, jobExecutionId);
+                                    long duration = System.currentTimeMillis() - millisAtStart;
 
-                                        // Check if at minimum one batch execution failed and call batch fail callback
-                                        GroupInfo batchInfo = jobEngineService.getJobExecutionBatchInfo(batchId);
-                                        if (batchInfo.getFailed() > 0) {
-                                            jobWorker.onFailedBatch(batchId, jobExecutionId);
-                                        }
+                                    if (duration < minMillisPerExecution) {
+                                        // this execution was to fast and must wait to not exceed the limit of executions per minute
+                                        EventSpan throttle = JobEngineEvents.throttle(job);
+                                        Thread.sleep(minMillisPerExecution - duration);
+                                        throttle.end();
+                                        jobExecutionRollups.record(jobId, RollupMetric.THROTTLE, minMillisPerExecution - duration);
                                     }
-                                }
 
-                                if (jobExecution.getChainId() != null) {
-                                    if (jobExecution.getFailRetryExecutionId() != null) {
-                                        // retry failed execution in chain
-                                        jobExecutionId = jobExecution.getFailRetryExecutionId();
-                                    }
-                                    JobExecution nextInChain = jobEngineController.getNextInChain(jobExecution.getChainId(), jobExecutionId);
+                                    jobContext.flushLog();
+                                    statusPersist = JobEngineEvents.statusPersist(jobId, jobExecutionId, JobExecutionStatus.FINISHED);
+                                    jobEngineController.setJobExecutionFinished(jobExecutionId, duration);
+                                    statusPersist.end();
+                                    jobStatistics.ended(jobId, JobExecutionStatus.FINISHED, duration);
+                                    jobExecutionRollups.record(jobId, RollupMetric.DURATION, duration);
+
+                                    runningJobExecutions.get(jobId).remove(jobExecution);
+                                    JobExecution nextInChain = finished(jobWorker, jobExecution);
                                     if (nextInChain != null) {
                                         jobExecution = nextInChain;
                                         continue jobExecutionLoop;
                                     }
-                                    jobWorker.onFinishedChain(jobExecution.getChainId(), jobExecutionId);
-                                }
 
-                                break jobExecutionLoop;
+                                    break jobExecutionLoop;
 
-                            } catch (Exception exception) {
+                                } catch (Exception exception) {
 
-                                runningJobExecutions.get(jobId).remove(jobExecution);
+                                    runningJobExecutions.get(jobId).remove(jobExecution);
 
-                                long duration = System.currentTimeMillis() - millisAtStart;
-                                String jobExecutionLog = jobContext.getLog();
-                                jobExecution = jobEngineController.handleFailedExecution(job, jobExecutionId, exception, duration, jobExecutionLog, jobWorker);
-                                if (jobExecution == null) {
-                                    break jobExecutionLoop; // no retry
-                                }
-                                jobExecutionId = jobExecution.getId();
+                                    long duration = System.currentTimeMillis() - millisAtStart;
+                                    jobContext.flushLog();
+                                    EventSpan statusPersist = JobEngineEvents.statusPersist(jobId, jobExecutionId, JobExecutionStatus.FAILED);
+                                    String failStacktraceHash = storeStacktrace(exception, 1);
+                                    jobExecution = jobEngineController.handleFailedExecution(job, jobExecutionId, exception, failStacktraceHash, duration,
+                                                    jobWorker);
+                                    statusPersist.end();
+                                    if (jobExecution == null) {
+                                        break jobExecutionLoop; // no retry
+                                    }
+                                    jobExecutionId = jobExecution.getId();
 
-                                logger.info("{}. Error '{}' - next try in {} seconds", jobExecution.getFailRetry(), exception.getMessage(),
-                                                job.getRetryDelay() / 1000);
+                                    // the retry is leased to this node, so its lease gets renewed while waiting
+                                    runningJobExecutions.get(jobId).add(jobExecution);
 
-                                // enforce delay before retry
-                                Thread.sleep(job.getRetryDelay());
+                                    logger.info("{}. Error '{}' - next try in {} seconds", jobExecution.getFailRetry(), exception.getMessage(),
+                                                    job.getRetryDelay() / 1000);
+
+                                    // enforce delay before retry, others may use the permit and the slot meanwhile
+                                    slot.release();
+                                    Thread.sleep(job.getRetryDelay());
+                                    if (!slot.acquire(() -> !stopMe)) {
+                                        // without renewed lease the zombie hunt takes care of the retry
+                                        runningJobExecutions.get(jobId).remove(jobExecution);
+                                        break jobExecutionLoop;
+                                    }
+                                }
                             }
+                        } finally {
+                            releaseMutexKeys(jobId, this);
+                            slot.release();
                         }
                     }
                 } catch (Exception exception) {
 
                     logger.error("Error in job thread - Process gets cancelled", exception);
+                    orderedJobExecutions.get(jobId).release(this);
 
                     jobEngineController.setJobStatus(job.getId(), JobStatus.ERROR);
                     cancelProcess(job);
@@ -321,6 +394,7 @@ public class JobEngine implements Serializable {
                 if (logger.isTraceEnabled()) {
                     logger.trace("Job thread removed.");
                 }
+                orderedJobExecutions.get(jobId).release(this);
                 jobThreads.get(jobId).remove(this);
             }
 
@@ -329,6 +403,11 @@ public class JobEngine implements Serializable {
                 this.stopMe = true;
             }
 
+            @Override
+            public boolean isStopped() {
+                return stopMe;
+            }
+
             @Override
             public JobExecution getActiveJobExecution() {
                 return activeJob;
@@ -354,6 +433,269 @@ public class JobEngine implements Serializable {
             logger.trace("Job thread started. Remainder: {}", jobThreads.get(job.getId()).size());
     }
 
+    /**
+     * Takes the next job execution whose mutex key isn't running. The job executions that had to be put aside for their mutex key go first, as soon as it is
+     * free. The caller has to hold the lock of the job.
+     * 
+     * @param jobThread job thread that gets the job execution and holds its mutex key until {@link #releaseMutexKeys(Long, JobThread)}
+     * @param release <code>true</code> if the previous job executions of the job thread are done
+     */
+    private JobExecution pollJobExecution(Long jobId, JobThread jobThread, boolean release) {
+
+        Map<String, JobThread> mutexKeys = runningMutexKeys.get(jobId);
+        Queue<JobExecution> deferred = deferredJobExecutions.get(jobId);
+
+        for (Iterator<JobExecution> iterator = deferred.iterator(); iterator.hasNext();) {
+            JobExecution jobExecution = iterator.next();
+            if (mutexKeys.putIfAbsent(jobExecution.getMutexKey(), jobThread) == null) {
+                iterator.remove();
+                countOf(jobExecution).decrementAndGet();
+                if (release) {
+                    orderedJobExecutions.get(jobId).release(jobThread);
+                }
+                return jobExecution;
+            }
+        }
+        while (true) {
+            JobExecution jobExecution = nextJobExecution(jobId, jobThread, release);
+            if (jobExecution == null || jobExecution.getMutexKey() == null || mutexKeys.putIfAbsent(jobExecution.getMutexKey(), jobThread) == null) {
+                return jobExecution;
+            }
+            // its mutex key is running, so it waits aside instead of blocking this thread
+            deferred.add(jobExecution);
+            countOf(jobExecution).incrementAndGet();
+        }
+    }
+
+    /**
+     * Frees the mutex keys of the job executions the job thread is done with
+     */
+    private void releaseMutexKeys(Long jobId, JobThread jobThread) {
+        runningMutexKeys.get(jobId).values().removeIf(holder -> holder == jobThread);
+    }
+
+    /**
+     * Takes the next job execution from the memory queues, the one with the highest (aged) priority first, see {@link PriorityAging}. Unless a priority goes
+     * first, job executions with and without ordering key take turns by their ID.
+     * 
+     * @param jobThread job thread that gets the job execution and owns the partition of its ordering key, see {@link OrderingPartitions}
+     * @param release <code>true</code> if the previous job executions of the job thread are done
+     */
+    private JobExecution nextJobExecution(Long jobId, JobThread jobThread, boolean release) {
+
+        OrderingPartitions orderingPartitions = orderedJobExecutions.get(jobId);
+        Queue<JobExecution> queue = jobExecutions.get(jobId);
+
+        JobExecution next = queue.peek();
+        if (next == null || !next.isPriority()) {
+            // a job execution with an ordering key waits in its partition while its mutex key is running, putting it aside would break the order of its key
+            Map<String, JobThread> mutexKeys = runningMutexKeys.get(jobId);
+            JobExecution ordered = orderingPartitions.poll(jobThread, release, next == null ? null : next.getId(),
+                            jobExecution -> jobExecution.getMutexKey() == null || !mutexKeys.containsKey(jobExecution.getMutexKey()));
+            if (ordered != null) {
+                queuedCounts.get(jobId).decrementAndGet();
+                return ordered;
+            }
+        } else if (release) {
+            orderingPartitions.release(jobThread);
+        }
+        JobExecution jobExecution = queue.poll();
+        if (jobExecution != null) {
+            countOf(jobExecution).decrementAndGet();
+        }
+        return jobExecution;
+    }
+
+    /**
+     * @return counter of the memory queue the job execution is counted in
+     */
+    private AtomicInteger countOf(JobExecution jobExecution) {
+        return jobExecution.isPriority() ? priorityQueuedCounts.get(jobExecution.getJobId()) : queuedCounts.get(jobExecution.getJobId());
+    }
+
+    /**
+     * Calls the callbacks of a finished job execution
+     * 
+     * @return the next job execution of its chain or <code>null</code>
+     */
+    private JobExecution finished(BaseJobWorker jobWorker, JobExecution jobExecution) {
+
+        Long jobExecutionId = jobExecution.getId();
+        jobWorker.onFinished(jobExecutionId);
+
+        Long batchId = jobExecution.getBatchId();
+        if (batchId != null) {
+            boolean batchFinished = jobEngineService.isBatchFinished(batchId);
+            if (batchFinished) {
+                jobWorker.onFinishedBatch(batchId, jobExecutionId);
+
+                // Check if at minimum one batch execution failed and call batch fail callback
+                GroupInfo batchInfo = jobEngineService.getJobExecutionBatchInfo(batchId);
+                if (batchInfo.getFailed() > 0) {
+                    jobWorker.onFailedBatch(batchId, jobExecutionId);
+                }
+            }
+        }
+
+        if (jobExecution.getChainId() != null) {
+            if (jobExecution.getFailRetryExecutionId() != null) {
+                // retry failed execution in chain
+                jobExecutionId = jobExecution.getFailRetryExecutionId();
+            }
+            JobExecution nextInChain = jobEngineController.getNextInChain(jobExecution.getChainId(), jobExecutionId);
+            if (nextInChain != null) {
+                return nextInChain;
+            }
+            jobWorker.onFinishedChain(jobExecution.getChainId(), jobExecutionId);
+        }
+        return null;
+    }
+
+    /**
+     * Runs the given job execution and whatever else is queued for the job in micro-batches, see {@link BatchingJobWorker}. Like a single job execution, a
+     * micro-batch gets retried after the retry delay and is followed by the next job executions of its chains.
+     */
+    private void runMicroBatches(Job job, JobThread jobThread, ExecutionSlot slot, BatchingJobWorker<?> jobWorker, JobExecution first,
+                    int minMillisPerExecution) throws Exception {
+
+        final Long jobId = job.getId();
+        List<JobExecution> microBatch = new ArrayList<>();
+        microBatch.add(first);
+
+        long waitUntil = System.currentTimeMillis() + jobWorker.getMicroBatchWait();
+        while (microBatch.size() < jobWorker.getMicroBatchSize()) {
+            ReentrantLock lock = getLock(job);
+            lock.lock();
+            try {
+                JobExecution jobExecution;
+                while (microBatch.size() < jobWorker.getMicroBatchSize() && (jobExecution = pollJobExecution(jobId, jobThread, false)) != null) {
+                    jobExecution.setDequeuedAt(JobEngineUtil.timestamp());
+                    microBatch.add(jobExecution);
+                }
+            } finally {
+                lock.unlock();
+            }
+            long wait = waitUntil - System.currentTimeMillis();
+            if (microBatch.size() >= jobWorker.getMicroBatchSize() || wait <= 0) {
+                break;
+            }
+            Thread.sleep(Math.min(wait, MICRO_BATCH_POLL_INTERVAL));
+        }
+
+        while (!microBatch.isEmpty()) {
+
+            runningJobExecutions.get(jobId).addAll(microBatch);
+
+            List<Long> jobExecutionIds = new ArrayList<>(microBatch.size());
+            for (JobExecution jobExecution : microBatch) {
+                jobExecutionIds.add(jobExecution.getId());
+            }
+            long millisAtStart = System.currentTimeMillis();
+            JobContext jobContext = jobWorker.getJobContext();
+
+            try {
+                EventSpan statusPersist = JobEngineEvents.statusPersist(jobId, jobExecutionIds.get(0), JobExecutionStatus.RUNNING);
+                jobEngineController.setJobExecutionsRunning(jobExecutionIds);
+                statusPersist.end();
+                for (JobExecution jobExecution : microBatch) {
+                    jobStatistics.transition(jobId, jobExecution.getStatus(), JobExecutionStatus.RUNNING, 1);
+                    recordLatencies(jobExecution);
+                }
+
+                ExecutionEventSpan executionEvent = JobEngineEvents.execution(job, microBatch.get(0));
+                try {
+                    jobWorker.doMicroBatch(microBatch);
+                } catch (Exception exception) {
+                    executionEvent.end(JobExecutionStatus.FAILED);
+                    throw exception;
+                }
+                executionEvent.end(JobExecutionStatus.FINISHED);
+
+                long duration = System.currentTimeMillis() - millisAtStart;
+                long minMillis = (long) minMillisPerExecution * microBatch.size();
+                if (duration < minMillis) {
+                    // this micro-batch was to fast and must wait to not exceed the limit of executions per minute
+                    EventSpan throttle = JobEngineEvents.throttle(job);
+                    Thread.sleep(minMillis - duration);
+                    throttle.end();
+                    jobExecutionRollups.record(jobId, RollupMetric.THROTTLE, minMillis - duration);
+                }
+
+                // every job execution gets its share of the duration
+                long share = duration / microBatch.size();
+                jobContext.flushLog();
+                statusPersist = JobEngineEvents.statusPersist(jobId, jobExecutionIds.get(0), JobExecutionStatus.FINISHED);
+                jobEngineController.setJobExecutionsFinished(jobExecutionIds, share);
+                statusPersist.end();
+
+                List<JobExecution> nextInChains = new ArrayList<>();
+                for (JobExecution jobExecution : microBatch) {
+                    jobStatistics.ended(jobId, JobExecutionStatus.FINISHED, share);
+                    jobExecutionRollups.record(jobId, RollupMetric.DURATION, share);
+                    runningJobExecutions.get(jobId).remove(jobExecution);
+
+                    JobExecution nextInChain = finished(jobWorker, jobExecution);
+                    if (nextInChain != null) {
+                        nextInChains.add(nextInChain);
+                    }
+                }
+                microBatch = nextInChains;
+
+            } catch (Exception exception) {
+
+                runningJobExecutions.get(jobId).removeAll(microBatch);
+
+                long share = (System.currentTimeMillis() - millisAtStart) / microBatch.size();
+                jobContext.flushLog();
+                // one exception failed them all, so there is one stacktrace and one transaction for the whole micro-batch
+                String failStacktraceHash = storeStacktrace(exception, microBatch.size());
+                List<JobExecution> retries = jobEngineController.handleFailedExecutions(job, microBatch, exception, failStacktraceHash, share, jobWorker);
+                microBatch = retries;
+                if (!retries.isEmpty()) {
+
+                    // the retries are leased to this node, so their leases get renewed while waiting
+                    runningJobExecutions.get(jobId).addAll(retries);
+
+                    logger.info("{}. Error '{}' - next try of {} job executions in {} seconds", retries.get(0).getFailRetry(), exception.getMessage(),
+                                    retries.size(), job.getRetryDelay() / 1000);
+
+                    // enforce delay before retry, others may use the permit and the slot meanwhile
+                    slot.release();
+                    Thread.sleep(job.getRetryDelay());
+                    if (!slot.acquire(() -> !jobThread.isStopped())) {
+                        // without renewed leases the zombie hunt takes care of the retries
+                        runningJobExecutions.get(jobId).removeAll(retries);
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Records how long the job execution took from creation (or maturity) until now it is running. Retries and the next job executions of a chain never pass
+     * the memory queue, so they only get their wait recorded.
+     */
+    private void recordLatencies(JobExecution jobExecution) {
+
+        LocalDateTime runningAt = JobEngineUtil.timestamp();
+        LocalDateTime waitingSince = jobExecution.getCreatedAt();
+        if (jobExecution.getMaturity() != null && (waitingSince == null || jobExecution.getMaturity().isAfter(waitingSince))) {
+            waitingSince = jobExecution.getMaturity();
+        }
+        Long jobId = jobExecution.getJobId();
+        recordLatency(jobId, RollupMetric.WAIT, waitingSince, runningAt);
+        recordLatency(jobId, RollupMetric.POLL, waitingSince, jobExecution.getDraftedAt());
+        recordLatency(jobId, RollupMetric.QUEUE, jobExecution.getDraftedAt(), jobExecution.getDequeuedAt());
+        recordLatency(jobId, RollupMetric.START, jobExecution.getDequeuedAt(), runningAt);
+    }
+
+    private void recordLatency(Long jobId, RollupMetric metric, LocalDateTime from, LocalDateTime to) {
+        if (from != null && to != null) {
+            jobExecutionRollups.record(jobId, metric, ChronoUnit.MILLIS.between(from, to));
+        }
+    }
+
     public void cancelProcess(Job job) {
 
         MDC.put("key", job.getName());
@@ -432,11 +774,89 @@ public class JobEngine implements Serializable {
     }
 
     public boolean hasNoMoreJobs(Job job) {
-        return (jobExecutions.get(job.getId()).isEmpty()) && (jobThreads.get(job.getId()).isEmpty());
+        return (jobExecutions.get(job.getId()).isEmpty()) && (orderedJobExecutions.get(job.getId()).size() == 0)
+                        && (deferredJobExecutions.get(job.getId()).isEmpty()) && (jobThreads.get(job.getId()).isEmpty());
+    }
+
+    /**
+     * Checks the memory queue, no database involved
+     * 
+     * @param jobId job ID
+     * @return <code>true</code> if the job has queued or running executions in the memory queue
+     */
+    public boolean hasActiveJobExecutions(Long jobId) {
+        if (!jobExecutions.containsKey(jobId)) {
+            return false;
+        }
+        return getNumberOfJobExecutionsInQueue(jobId) > 0;
+    }
+
+    /**
+     * @return IDs of all job executions that are currently running on this node
+     */
+    public List<Long> getRunningJobExecutionIds() {
+        List<Long> jobExecutionIds = new ArrayList<>();
+        for (Set<JobExecution> running : runningJobExecutions.values()) {
+            for (JobExecution jobExecution : running) {
+                jobExecutionIds.add(jobExecution.getId());
+            }
+        }
+        return jobExecutionIds;
+    }
+
+    /**
+     * The following getters read lock-free counters only, so monitoring doesn't contend with the job threads
+     * 
+     * @param jobId job ID
+     * @return number of job executions in the memory queue
+     */
+    public int getQueuedCount(Long jobId) {
+        AtomicInteger count = queuedCounts.get(jobId);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @param jobId job ID
+     * @return number of priority job executions in the memory queue
+     */
+    public int getPriorityQueuedCount(Long jobId) {
+        AtomicInteger count = priorityQueuedCounts.get(jobId);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @param jobId job ID
+     * @return number of job executions running on this node
+     */
+    public int getRunningCount(Long jobId) {
+        Set<JobExecution> running = runningJobExecutions.get(jobId);
+        return running == null ? 0 : running.size();
+    }
+
+    /**
+     * @param jobId job ID
+     * @return number of job threads that are currently working the memory queue
+     */
+    public int getActiveThreadCount(Long jobId) {
+        Set<JobThread> threads = jobThreads.get(jobId);
+        return threads == null ? 0 : threads.size();
+    }
+
+    /**
+     * @param jobId job ID
+     * @return number of job threads the job may use
+     */
+    public int getConfiguredThreadCount(Long jobId) {
+        Integer threads = jobThreadCounts.get(jobId);
+        return threads == null ? 0 : threads;
+    }
+
+    public boolean isPaused(Long jobId) {
+        return Boolean.TRUE.equals(pausedJobs.get(jobId));
     }
 
     public int getNumberOfJobExecutionsInQueue(Long jobId) {
-        return jobExecutions.get(jobId).size() + priorityJobExecutions.get(jobId).size() + runningJobExecutions.get(jobId).size();
+        return getQueuedCount(jobId) + getPriorityQueuedCount(jobId) + getRunningCount(jobId);
     }
 
     @Asynchronous
@@ -458,21 +878,45 @@ public class JobEngine implements Serializable {
 
     public void clearMemoryQueue(Job job) {
 
-        if (!jobExecutions.containsKey(job.getId()) || !priorityJobExecutions.containsKey(job.getId())) {
+        if (!jobExecutions.containsKey(job.getId())) {
             logger.warn("Job execution queue is missing for job {}", job);
             return;
         }
 
-        int sizeMemoryQueue = jobExecutions.get(job.getId()).size();
-        int sizePriorityMemoryQueue = priorityJobExecutions.get(job.getId()).size();
+        int sizePriorityMemoryQueue = getPriorityQueuedCount(job.getId());
+        int sizeMemoryQueue = jobExecutions.get(job.getId()).size() - sizePriorityMemoryQueue + orderedJobExecutions.get(job.getId()).size()
+                        + deferredJobExecutions.get(job.getId()).size();
 
         if (sizeMemoryQueue > 0 || sizePriorityMemoryQueue > 0) {
 
-            logger.info("Clearing job execution queue with {} elements and {} priority elements for job {}.", jobExecutions.get(job.getId()).size(),
-                            priorityJobExecutions.get(job.getId()).size(), job.getName());
+            logger.info("Clearing job execution queue with {} elements and {} priority elements for job {}.", sizeMemoryQueue, sizePriorityMemoryQueue,
+                            job.getName());
+
+            drain(jobExecutions.get(job.getId()));
+            queuedCounts.get(job.getId()).addAndGet(-orderedJobExecutions.get(job.getId()).clear());
+            drain(deferredJobExecutions.get(job.getId()));
+        }
+    }
+
+    private String storeStacktrace(Exception exception, int count) {
+        try {
+            return jobEngineController.storeStacktrace(exception, count);
+        } catch (RuntimeException e) {
+            // another node just stored the same stacktrace, so now it only gets counted
+            try {
+                return jobEngineController.storeStacktrace(exception, count);
+            } catch (RuntimeException retryException) {
+                logger.warn("Stacktrace could not be stored: {}", retryException.getMessage());
+                return null;
+            }
+        }
+    }
 
-            jobExecutions.get(job.getId()).clear();
-            priorityJobExecutions.get(job.getId()).clear();
+    private void drain(Queue<JobExecution> queue) {
+        // one by one, so the counts stay right while job threads poll concurrently
+        JobExecution jobExecution;
+        while ((jobExecution = queue.poll()) != null) {
+            countOf(jobExecution).decrementAndGet();
         }
     }
 }
@@ -1,12 +1,22 @@
 package io.coodoo.workhorse.jobengine.control;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import javax.ejb.Asynchronous;
 import javax.ejb.Stateless;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.TransactionPhase;
 import javax.enterprise.inject.spi.CDI;
 import javax.inject.Inject;
 import javax.persistence.EntityManager;
@@ -21,9 +31,16 @@ import io.coodoo.workhorse.jobengine.boundary.annotation.JobConfig;
 import io.coodoo.workhorse.jobengine.boundary.annotation.JobEngineEntityManager;
 import io.coodoo.workhorse.jobengine.boundary.annotation.JobScheduleConfig;
 import io.coodoo.workhorse.jobengine.control.annotation.SystemJob;
+import io.coodoo.workhorse.jobengine.control.event.ParametersStoredEvent;
+import io.coodoo.workhorse.jobengine.control.event.ParametersUnreferencedEvent;
 import io.coodoo.workhorse.jobengine.control.job.JobExecutionCleanupWorker;
 import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobEngineNode;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionHistory;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionLog;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionRollup;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStacktrace;
 import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
 import io.coodoo.workhorse.jobengine.entity.JobStatus;
 import io.coodoo.workhorse.jobengine.entity.JobType;
@@ -35,6 +52,8 @@ import io.coodoo.workhorse.jobengine.entity.StringListConverter;
 @Stateless
 public class JobEngineController {
 
+    private static final int LEASE_RENEWAL_CHUNK_SIZE = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(JobEngineController.class);
 
     @Inject
@@ -50,9 +69,18 @@ public class JobEngineController {
     @Inject
     JobScheduler jobScheduler;
 
+    @Inject
+    JobStatistics jobStatistics;
+
+    @Inject
+    JobExecutionRollups jobExecutionRollups;
+
     @Inject
     JobExecutionCleanupWorker jobExecutionCleanupWorker;
 
+    @Inject
+    Event<ParametersUnreferencedEvent> parametersUnreferencedEvent;
+
     public void checkJobConfiguration() {
 
         logger.info("Checking JobWorker classes...");
@@ -113,8 +141,15 @@ public class JobEngineController {
                 job.setType(JobType.SCHEDULED);
                 job.setSchedule(initialJobConfig.schedule());
             }
+            job.setScheduleSkipIfActive(initialJobConfig.scheduleSkipIfActive());
+            job.setScheduleMisfirePolicy(initialJobConfig.scheduleMisfirePolicy());
+            job.setScheduleCatchUpLimit(initialJobConfig.scheduleCatchUpLimit());
             job.setStatus(initialJobConfig.status());
             job.setThreads(initialJobConfig.threads());
+            if (!initialJobConfig.concurrencyGroup().isEmpty()) {
+                job.setConcurrencyGroup(initialJobConfig.concurrencyGroup());
+            }
+            job.setWeight(initialJobConfig.weight());
 
             if (initialJobConfig.maxPerMinute() != InitialJobConfig.JOB_CONFIG_MAX_PER_MINUTE) {
                 job.setMaxPerMinute(initialJobConfig.maxPerMinute());
@@ -138,6 +173,8 @@ public class JobEngineController {
             job.setRetryDelay(jobConfig.retryDelay());
             job.setDaysUntilCleanUp(jobConfig.daysUntilCleanUp());
             job.setUniqueInQueue(jobConfig.uniqueInQueue());
+            job.setScheduleMisfirePolicy(InitialJobConfig.JOB_CONFIG_SCHEDULE_MISFIRE_POLICY);
+            job.setScheduleCatchUpLimit(InitialJobConfig.JOB_CONFIG_SCHEDULE_CATCH_UP_LIMIT);
 
             if (workerClass.isAnnotationPresent(JobScheduleConfig.class)) {
                 JobScheduleConfig jobScheduleConfig = workerClass.getAnnotation(JobScheduleConfig.class);
@@ -159,6 +196,8 @@ public class JobEngineController {
             job.setRetryDelay(InitialJobConfig.JOB_CONFIG_RETRY_DELAY);
             job.setDaysUntilCleanUp(InitialJobConfig.JOB_CONFIG_DAYS_UNTIL_CLEANUP);
             job.setUniqueInQueue(InitialJobConfig.JOB_CONFIG_UNIQUE_IN_QUEUE);
+            job.setScheduleMisfirePolicy(InitialJobConfig.JOB_CONFIG_SCHEDULE_MISFIRE_POLICY);
+            job.setScheduleCatchUpLimit(InitialJobConfig.JOB_CONFIG_SCHEDULE_CATCH_UP_LIMIT);
         }
 
         if (workerClass.isAnnotationPresent(SystemJob.class)) {
@@ -181,7 +220,16 @@ public class JobEngineController {
             int addedJobExecutions = 0;
 
             if (numberOfJobExecutionsQueued < JobEngineConfig.JOB_QUEUE_MIN) {
-                for (JobExecution jobExecution : JobExecution.getNextCandidates(entityManager, job.getId(), JobEngineConfig.JOB_QUEUE_MAX)) {
+                List<JobExecution> candidates = new ArrayList<>(JobExecution.getNextCandidates(entityManager, job.getId(), JobEngineConfig.JOB_QUEUE_MAX));
+                if (JobEngineConfig.PRIORITY_AGING > 0) {
+                    // a steady flow of higher priorities must not keep the old ones in the database forever
+                    candidates.addAll(JobExecution.getOldestCandidates(entityManager, job.getId(), JobEngineConfig.JOB_QUEUE_MIN));
+                }
+                if (candidates.removeIf(jobExecution -> jobExecution.getOrderingKey() != null)) {
+                    // no matter their priority, the job executions of a key get drafted in the order they got queued and never skip an older one
+                    candidates.addAll(JobExecution.getNextOrderedCandidates(entityManager, job.getId(), JobEngineConfig.JOB_QUEUE_MAX));
+                }
+                for (JobExecution jobExecution : candidates) {
                     if (jobEngine.addJobExecution(jobExecution)) {
                         addedJobExecutions++;
                     }
@@ -220,13 +268,117 @@ public class JobEngineController {
         }
     }
 
+    /**
+     * Deletes one chunk of job executions that were created before the given date, starting after the given job execution ID (keyset pagination). Every chunk
+     * is a transaction of its own, so there are no long running locks.
+     * 
+     * @param jobId job ID
+     * @param preDate job executions created before this date get deleted
+     * @param lastId only job executions with a higher ID get deleted, use <code>0</code> to start from the beginning
+     * @param chunkSize max amount of job executions to delete
+     * @return IDs of the deleted job executions in ascending order
+     */
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-    public int deleteOlderJobExecutions(Long jobId, int minDaysOld) {
-        return JobExecution.deleteOlderJobExecutions(entityManager, jobId, LocalDateTime.now().minusDays(minDaysOld));
+    public List<Long> deleteOlderJobExecutions(Long jobId, LocalDateTime preDate, Long lastId, int chunkSize) {
+
+        List<Long> jobExecutionIds = JobExecution.getOlderJobExecutionIds(entityManager, jobId, preDate, lastId, chunkSize);
+        if (!jobExecutionIds.isEmpty()) {
+            List<String> parametersRefs = JobExecution.getParametersRefsByIds(entityManager, jobExecutionIds);
+            JobExecution.deleteByIds(entityManager, jobExecutionIds);
+            JobExecutionLog.deleteByJobExecutionIds(entityManager, jobExecutionIds);
+            if (!parametersRefs.isEmpty()) {
+                parametersUnreferencedEvent.fire(new ParametersUnreferencedEvent(parametersRefs));
+            }
+        }
+        return jobExecutionIds;
     }
 
+    /**
+     * Deletes one chunk of job executions from the history table, see {@link #deleteOlderJobExecutions(Long, LocalDateTime, Long, int)}
+     * 
+     * @param jobId job ID
+     * @param preDate job executions created before this date get deleted
+     * @param lastId only job executions with a higher ID get deleted, use <code>0</code> to start from the beginning
+     * @param chunkSize max amount of job executions to delete
+     * @return IDs of the deleted job executions in ascending order
+     */
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-    public synchronized JobExecution handleFailedExecution(Job job, Long jobExecutionId, Exception exception, Long duration, String jobExecutionLog,
+    public List<Long> deleteOlderJobExecutionHistory(Long jobId, LocalDateTime preDate, Long lastId, int chunkSize) {
+
+        List<Long> jobExecutionIds = JobExecutionHistory.getOlderJobExecutionIds(entityManager, jobId, preDate, lastId, chunkSize);
+        if (!jobExecutionIds.isEmpty()) {
+            List<String> parametersRefs = JobExecutionHistory.getParametersRefsByIds(entityManager, jobExecutionIds);
+            JobExecutionHistory.deleteByIds(entityManager, jobExecutionIds);
+            JobExecutionLog.deleteByJobExecutionIds(entityManager, jobExecutionIds);
+            if (!parametersRefs.isEmpty()) {
+                parametersUnreferencedEvent.fire(new ParametersUnreferencedEvent(parametersRefs));
+            }
+        }
+        return jobExecutionIds;
+    }
+
+    /**
+     * Deletes the parameters of deleted job executions from the {@link JobEngineConfig#PARAMETERS_STORE} once the deletion is committed, unless a retry still
+     * refers to them. On a rollback they stay, so no job execution is left without its parameters.
+     * 
+     * @param event references of the column <code>parameters_ref</code>
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void deleteUnreferencedParameters(@Observes(during = TransactionPhase.AFTER_SUCCESS) ParametersUnreferencedEvent event) {
+
+        List<String> parametersRefs = event.getParametersRefs();
+        if (parametersRefs.isEmpty() || JobEngineConfig.PARAMETERS_STORE == null) {
+            return;
+        }
+        Set<String> unused = new HashSet<>(parametersRefs);
+        unused.removeAll(JobExecution.getParametersRefsIn(entityManager, parametersRefs));
+        unused.removeAll(JobExecutionHistory.getParametersRefsIn(entityManager, parametersRefs));
+
+        for (String parametersRef : unused) {
+            deleteStoredParameters(parametersRef);
+        }
+    }
+
+    /**
+     * Deletes the parameters of a new job execution from the {@link JobEngineConfig#PARAMETERS_STORE} if its creation got rolled back, so no payload is left
+     * behind that nothing refers to
+     * 
+     * @param event reference of the column <code>parameters_ref</code>
+     */
+    public void deleteOrphanedParameters(@Observes(during = TransactionPhase.AFTER_FAILURE) ParametersStoredEvent event) {
+
+        if (JobEngineConfig.PARAMETERS_STORE != null) {
+            deleteStoredParameters(event.getParametersRef());
+        }
+    }
+
+    private void deleteStoredParameters(String parametersRef) {
+        try {
+            JobEngineConfig.PARAMETERS_STORE.delete(JobEngineUtil.storeReference(parametersRef));
+        } catch (IOException e) {
+            logger.warn("Stored parameters {} could not be deleted", parametersRef, e);
+        }
+    }
+
+    /**
+     * Moves one chunk of ended job executions from the queue table into the history table. Only their IDs get selected and nothing gets locked, the copy and
+     * the delete check again that the job executions are ended, so it doesn't matter if another node moves some of them at the same time.
+     */
+    @Asynchronous
+    public void moveJobExecutionsToHistory() {
+
+        LocalDateTime preDate = JobEngineUtil.timestamp().minusSeconds(JobEngineConfig.EXECUTION_HISTORY_DELAY);
+
+        List<Long> jobExecutionIds = JobExecution.getEndedJobExecutionIds(entityManager, preDate, JobEngineConfig.EXECUTION_HISTORY_CHUNK_SIZE);
+        if (!jobExecutionIds.isEmpty()) {
+            JobExecutionHistory.insertFromJobExecutions(entityManager, jobExecutionIds);
+            int moved = JobExecution.deleteEndedByIds(entityManager, jobExecutionIds);
+            logger.debug("Moved {} ended job executions into the history", moved);
+        }
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public synchronized JobExecution handleFailedExecution(Job job, Long jobExecutionId, Exception exception, String failStacktraceHash, Long duration,
                     BaseJobWorker jobWorker) {
 
         JobExecution failedExecution = entityManager.find(JobExecution.class, jobExecutionId);
@@ -235,16 +387,19 @@ public class JobEngineController {
         if (failedExecution.getFailRetry() < job.getFailRetries()) {
             // retry
             retryExecution = createRetryExecution(failedExecution);
+            jobStatistics.transition(job.getId(), null, retryExecution.getStatus(), 1);
         } else if (failedExecution.getChainId() != null) {
-            JobExecution.abortChain(entityManager, failedExecution.getChainId());
+            int aborted = JobExecution.abortChain(entityManager, failedExecution.getChainId());
+            jobStatistics.transition(job.getId(), JobExecutionStatus.QUEUED, JobExecutionStatus.ABORTED, aborted);
         }
 
         failedExecution.setStatus(JobExecutionStatus.FAILED);
         failedExecution.setEndedAt(JobEngineUtil.timestamp());
         failedExecution.setDuration(duration);
-        failedExecution.setLog(jobExecutionLog);
         failedExecution.setFailMessage(exception.getMessage());
-        failedExecution.setFailStacktrace(JobEngineUtil.stacktraceToString(exception));
+        failedExecution.setFailStacktraceHash(failStacktraceHash);
+        jobStatistics.ended(job.getId(), JobExecutionStatus.FAILED, duration);
+        jobExecutionRollups.record(job.getId(), RollupMetric.DURATION, duration);
 
         if (retryExecution == null) {
             jobWorker.onFailed(jobExecutionId);
@@ -257,6 +412,98 @@ public class JobEngineController {
         return retryExecution;
     }
 
+    /**
+     * Fails the job executions of a micro-batch in one update and creates the retries of those with retries left in one insert, all in one transaction, see
+     * {@link io.coodoo.workhorse.jobengine.boundary.BatchingJobWorker}
+     * 
+     * @param job job of the micro-batch
+     * @param jobExecutions job executions of the micro-batch
+     * @param exception exception that failed the micro-batch
+     * @param failStacktraceHash fingerprint of the stacktrace
+     * @param duration duration of each job execution
+     * @param jobWorker worker to call back
+     * @return retries, already running on this node
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public synchronized List<JobExecution> handleFailedExecutions(Job job, List<JobExecution> jobExecutions, Exception exception, String failStacktraceHash,
+                    Long duration, BaseJobWorker jobWorker) {
+
+        Long jobId = job.getId();
+        List<Long> jobExecutionIds = jobExecutions.stream().map(JobExecution::getId).collect(Collectors.toList());
+
+        List<JobExecution> retries = new ArrayList<>();
+        if (job.getFailRetries() > 0 && JobExecution.insertRetries(entityManager, jobExecutionIds, job.getFailRetries(), JobEngineUtil.timestamp(),
+                        JobEngineUtil.nodeName(), JobEngineUtil.leaseExpiration()) > 0) {
+            retries = JobExecution.getRetriesOf(entityManager, jobExecutionIds);
+        }
+        JobExecution.updateStatusFailedByIds(entityManager, JobEngineUtil.timestamp(), duration, exception.getMessage(), failStacktraceHash, jobExecutionIds);
+
+        Map<Long, Long> retryIds = new HashMap<>();
+        for (JobExecution retry : retries) {
+            retryIds.put(retry.getFailRetryExecutionId(), retry.getId());
+        }
+        Set<Long> abortedChains = new HashSet<>();
+        for (JobExecution failedExecution : jobExecutions) {
+
+            Long retryId = retryIds.get(failedExecution.getId());
+            if (retryId != null) {
+                jobStatistics.transition(jobId, null, JobExecutionStatus.RUNNING, 1);
+            } else if (failedExecution.getChainId() != null && abortedChains.add(failedExecution.getChainId())) {
+                int aborted = JobExecution.abortChain(entityManager, failedExecution.getChainId());
+                jobStatistics.transition(jobId, JobExecutionStatus.QUEUED, JobExecutionStatus.ABORTED, aborted);
+            }
+            jobStatistics.ended(jobId, JobExecutionStatus.FAILED, duration);
+            jobExecutionRollups.record(jobId, RollupMetric.DURATION, duration);
+
+            if (retryId == null) {
+                jobWorker.onFailed(failedExecution.getId());
+                if (failedExecution.getChainId() != null) {
+                    jobWorker.onFailedChain(failedExecution.getChainId(), failedExecution.getId());
+                }
+            } else {
+                jobWorker.onRetry(failedExecution.getId(), retryId);
+            }
+        }
+        return retries;
+    }
+
+    /**
+     * Counts the occurrences of the stacktrace of the exception, only its first occurrence gets stored. Storing the same new stacktrace on two nodes at once
+     * fails on one of them, which then only needs to try again.
+     * 
+     * @param exception exception of the failed job executions
+     * @param count number of job executions that failed by the exception, e.g. of a micro-batch
+     * @return fingerprint of the stacktrace
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public String storeStacktrace(Exception exception, int count) {
+
+        String hash = JobEngineUtil.stacktraceHash(exception);
+        LocalDateTime time = JobEngineUtil.timestamp();
+
+        if (JobExecutionStacktrace.countOccurrence(entityManager, hash, count, time) == 0) {
+
+            JobExecutionStacktrace jobExecutionStacktrace = new JobExecutionStacktrace();
+            jobExecutionStacktrace.setHash(hash);
+            jobExecutionStacktrace.setStacktrace(JobEngineUtil.stacktraceToString(exception));
+            jobExecutionStacktrace.setOccurrences(count);
+            jobExecutionStacktrace.setLastOccurredAt(time);
+            entityManager.persist(jobExecutionStacktrace);
+        }
+        return hash;
+    }
+
+    /**
+     * Deletes the stacktraces that didn't occur since the given date, the job executions that refer to them are gone by then
+     * 
+     * @param preDate stacktraces that last occurred before this date get deleted
+     * @return number of deleted stacktraces
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int deleteOlderStacktraces(LocalDateTime preDate) {
+        return JobExecutionStacktrace.deleteOlderStacktraces(entityManager, preDate);
+    }
+
     private JobExecution createRetryExecution(JobExecution failedExecution) {
 
         // create a new execution to retry the work of the failed one
@@ -264,11 +511,17 @@ public class JobEngineController {
         retryExecution.setJobId(failedExecution.getJobId());
         retryExecution.setStatus(failedExecution.getStatus());
         retryExecution.setStartedAt(JobEngineUtil.timestamp());
-        retryExecution.setPriority(failedExecution.isPriority());
+        retryExecution.setNode(JobEngineUtil.nodeName());
+        retryExecution.setLeaseExpiresAt(JobEngineUtil.leaseExpiration());
+        retryExecution.setPriority(failedExecution.getPriority());
         retryExecution.setMaturity(failedExecution.getMaturity());
         retryExecution.setChainId(failedExecution.getChainId());
         retryExecution.setChainPreviousExecutionId(failedExecution.getChainPreviousExecutionId());
+        retryExecution.setOrderingKey(failedExecution.getOrderingKey());
+        retryExecution.setMutexKey(failedExecution.getMutexKey());
         retryExecution.setParameters(failedExecution.getParameters());
+        retryExecution.setParametersData(failedExecution.getParametersData());
+        retryExecution.setParametersRef(failedExecution.getParametersRef());
         retryExecution.setParametersHash(failedExecution.getParametersHash());
 
         // increase failure number
@@ -284,51 +537,170 @@ public class JobEngineController {
     @Asynchronous
     public void huntJobExecutionZombies() {
 
-        LocalDateTime time = JobEngineUtil.timestamp().minusMinutes(JobEngineConfig.ZOMBIE_RECOGNITION_TIME);
-        List<JobExecution> zombies = JobExecution.findZombies(entityManager, time);
-
-        if (!zombies.isEmpty()) {
-
-            for (JobExecution zombie : zombies) {
-
-                logger.warn("Zombie found! {}", zombie);
-                JobExecutionStatus cure = JobEngineConfig.ZOMBIE_CURE_STATUS;
-
-                // how to cure it?
-                switch (cure) {
-                    case QUEUED:
-                        JobExecution retryExecution = createRetryExecution(zombie);
-                        zombie.setStatus(JobExecutionStatus.FAILED);
-                        logger.info("Zombie killed and risen from the death! Now it is {}", retryExecution);
-                        break;
-                    case RUNNING:
-                        logger.warn("Zombie will still walk free with status {}", cure);
-                        break;
-                    default:
-                        zombie.setStatus(cure);
-                        logger.info("Zombie is cured with status {}", cure);
-                        break;
-                }
+        LocalDateTime time = JobEngineUtil.timestamp();
+
+        for (JobExecution zombie : JobExecution.findZombies(entityManager, time)) {
+
+            JobExecutionStatus cure = JobEngineConfig.ZOMBIE_CURE_STATUS;
+            if (JobExecutionStatus.RUNNING.equals(cure)) {
+                logger.warn("Zombie will still walk free with status {}: {}", cure, zombie);
+                continue;
+            }
+            // a cured zombie gets a new status within this update, so it won't get cured by any other node
+            JobExecutionStatus zombieStatus = JobExecutionStatus.QUEUED.equals(cure) ? JobExecutionStatus.FAILED : cure;
+            if (JobExecution.cureZombie(entityManager, zombieStatus, zombie.getId(), time) == 0) {
+                continue;
+            }
+            logger.warn("Zombie found! Lease of node {} expired at {}: {}", zombie.getNode(), zombie.getLeaseExpiresAt(), zombie);
+            jobStatistics.transition(zombie.getJobId(), JobExecutionStatus.RUNNING, zombieStatus, 1);
+
+            // how to cure it?
+            if (JobExecutionStatus.QUEUED.equals(cure)) {
+                JobExecution retryExecution = createRetryExecution(zombie);
+                retryExecution.setStatus(JobExecutionStatus.QUEUED);
+                retryExecution.setStartedAt(null);
+                retryExecution.setNode(null);
+                retryExecution.setLeaseExpiresAt(null);
+                jobStatistics.transition(retryExecution.getJobId(), null, JobExecutionStatus.QUEUED, 1);
+                logger.info("Zombie killed and risen from the death! Now it is {}", retryExecution);
+            } else {
+                logger.info("Zombie is cured with status {}", cure);
             }
         }
+        JobEngineNode.deleteDeadNodes(entityManager, time.minusSeconds(JobEngineConfig.LEASE_DURATION));
+    }
+
+    /**
+     * Tells the other nodes that this node is still alive and renews the leases of all its running job executions in bulk.
+     * 
+     * @param runningJobExecutionIds IDs of the job executions running on this node
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void heartbeat(List<Long> runningJobExecutionIds) {
+
+        LocalDateTime time = JobEngineUtil.timestamp();
+        String nodeName = JobEngineUtil.nodeName();
+
+        if (JobEngineNode.updateHeartbeat(entityManager, nodeName, time) == 0) {
+
+            JobEngineNode node = new JobEngineNode();
+            node.setName(nodeName);
+            node.setHeartbeatAt(time);
+            entityManager.persist(node);
+            logger.info("Job engine node {} joined", nodeName);
+        }
+
+        LocalDateTime leaseExpiresAt = JobEngineUtil.leaseExpiration();
+        for (int i = 0; i < runningJobExecutionIds.size(); i += LEASE_RENEWAL_CHUNK_SIZE) {
+            List<Long> chunk = runningJobExecutionIds.subList(i, Math.min(i + LEASE_RENEWAL_CHUNK_SIZE, runningJobExecutionIds.size()));
+            JobExecution.renewLeases(entityManager, leaseExpiresAt, chunk);
+        }
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void removeNode() {
+
+        JobEngineNode.deleteByName(entityManager, JobEngineUtil.nodeName());
+        logger.info("Job engine node {} left", JobEngineUtil.nodeName());
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public synchronized void setJobExecutionRunning(Long jobExecutionId) {
 
-        JobExecution.updateStatusRunning(entityManager, JobEngineUtil.timestamp(), jobExecutionId);
+        JobExecution.updateStatusRunning(entityManager, JobEngineUtil.timestamp(), JobEngineUtil.nodeName(), JobEngineUtil.leaseExpiration(), jobExecutionId);
     }
 
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
-    public synchronized void setJobExecutionFinished(Long jobExecutionId, Long duration, String jobExecutionLog) {
+    public synchronized void setJobExecutionFinished(Long jobExecutionId, Long duration) {
 
-        JobExecution.updateStatusFinished(entityManager, JobEngineUtil.timestamp(), duration, jobExecutionLog, jobExecutionId);
+        JobExecution.updateStatusFinished(entityManager, JobEngineUtil.timestamp(), duration, jobExecutionId);
+    }
+
+    /**
+     * Sets the status of the job executions of a micro-batch to running in one update, see {@link io.coodoo.workhorse.jobengine.boundary.BatchingJobWorker}
+     * 
+     * @param jobExecutionIds IDs of the job executions
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void setJobExecutionsRunning(List<Long> jobExecutionIds) {
+
+        JobExecution.updateStatusRunningByIds(entityManager, JobEngineUtil.timestamp(), JobEngineUtil.nodeName(), JobEngineUtil.leaseExpiration(),
+                        jobExecutionIds);
+    }
+
+    /**
+     * Sets the status of the job executions of a micro-batch to finished in one update, see {@link io.coodoo.workhorse.jobengine.boundary.BatchingJobWorker}
+     * 
+     * @param jobExecutionIds IDs of the job executions
+     * @param duration duration of each job execution
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void setJobExecutionsFinished(List<Long> jobExecutionIds, Long duration) {
+
+        JobExecution.updateStatusFinishedByIds(entityManager, JobEngineUtil.timestamp(), duration, jobExecutionIds);
+    }
+
+    /**
+     * Persists the duration rollups of all finished minutes
+     */
+    @Asynchronous
+    public void flushRollups() {
+
+        for (JobExecutionRollup rollup : jobExecutionRollups.drain(JobEngineUtil.nodeName())) {
+            entityManager.persist(rollup);
+        }
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int deleteOlderRollups(LocalDateTime preDate) {
+        return JobExecutionRollup.deleteOlderRollups(entityManager, preDate);
+    }
+
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void appendJobExecutionLog(Long jobId, Long jobExecutionId, String log) {
+
+        JobExecutionLog jobExecutionLog = new JobExecutionLog();
+        jobExecutionLog.setJobId(jobId);
+        jobExecutionLog.setJobExecutionId(jobExecutionId);
+        jobExecutionLog.setLog(log);
+        entityManager.persist(jobExecutionLog);
+    }
+
+    /**
+     * Deletes the log chunks of all job executions that are older than the given date, for the history partitions that got dropped as a whole
+     * 
+     * @param preDate log chunks created before this date get deleted
+     * @return number of deleted log chunks
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public int deleteOlderJobExecutionLogs(LocalDateTime preDate) {
+        return JobExecutionLog.deleteOlderLogs(entityManager, preDate);
+    }
+
+    /**
+     * Brings the in-memory statistics to the counts of the queue and the history table
+     */
+    @Asynchronous
+    public void reconcileStatistics() {
+
+        jobStatistics.reconcile(() -> {
+            List<Object[]> statistics = JobExecution.getStatistics(entityManager);
+            statistics.addAll(JobExecutionHistory.getStatistics(entityManager));
+            return statistics;
+        });
     }
 
     public synchronized JobExecution getNextInChain(Long chainId, Long currentJobExecutionId) {
         return JobExecution.getNextInChain(entityManager, chainId, currentJobExecutionId);
     }
 
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void setScheduleLastFiredAt(Long jobId, LocalDateTime firedAt) {
+
+        // bulk update, so the schedule bookkeeping doesn't collide with the optimistic lock of the job
+        Job.updateScheduleLastFiredAt(entityManager, jobId, firedAt);
+    }
+
     @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
     public void setJobStatus(Long jobId, JobStatus status) {
 
@@ -1,12 +1,22 @@
 package io.coodoo.workhorse.jobengine.control;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 import javax.enterprise.inject.Any;
 import javax.enterprise.inject.spi.Bean;
@@ -19,9 +29,11 @@ import org.slf4j.LoggerFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import io.coodoo.workhorse.jobengine.boundary.JacksonParametersCodec;
 import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 import io.coodoo.workhorse.jobengine.boundary.JobWorker;
 import io.coodoo.workhorse.jobengine.boundary.JobWorkerWith;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
 
 /**
  * @author coodoo GmbH (coodoo.io)
@@ -30,7 +42,16 @@ public final class JobEngineUtil {
 
     private static Logger logger = LoggerFactory.getLogger(JobEngineUtil.class);
 
-    private static ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static JacksonParametersCodec json = new JacksonParametersCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+    private static final String STORED_JSON = "json:";
+
+    private static final String STORED_DATA = "data:";
+
+    private static final Pattern GENERATED_NAME = Pattern
+                    .compile("(\\$\\$Lambda\\$|\\$Proxy|GeneratedMethodAccessor|GeneratedConstructorAccessor|GeneratedSerializationConstructorAccessor)[0-9a-fx/]+");
+
+    private static String nodeName;
 
     private JobEngineUtil() {}
 
@@ -59,6 +80,32 @@ public final class JobEngineUtil {
         return LocalDateTime.now(JobEngineConfig.TIME_ZONE);
     }
 
+    /**
+     * @return Name of this job engine node as defined in {@link JobEngineConfig#NODE_NAME} or the host name followed by a random suffix
+     */
+    public static String nodeName() {
+        if (JobEngineConfig.NODE_NAME != null) {
+            return JobEngineConfig.NODE_NAME;
+        }
+        if (nodeName == null) {
+            String hostName;
+            try {
+                hostName = InetAddress.getLocalHost().getHostName();
+            } catch (IOException e) {
+                hostName = "node";
+            }
+            nodeName = hostName + "-" + UUID.randomUUID().toString().substring(0, 8);
+        }
+        return nodeName;
+    }
+
+    /**
+     * @return Time until a lease that starts now is valid, as defined in {@link JobEngineConfig#LEASE_DURATION}
+     */
+    public static LocalDateTime leaseExpiration() {
+        return timestamp().plusSeconds(JobEngineConfig.LEASE_DURATION);
+    }
+
     /**
      * Calculates the timestamp of the given delay from now ({@link #timestamp()})
      * 
@@ -75,6 +122,16 @@ public final class JobEngineUtil {
         return maturity;
     }
 
+    /**
+     * Maps the priority flag of the convenience methods to a priority level
+     * 
+     * @param priority <code>true</code> for priority queuing
+     * @return {@link JobExecution#PRIORITY_HIGH} or {@link JobExecution#PRIORITY_NORMAL}
+     */
+    public static int priority(Boolean priority) {
+        return Boolean.TRUE.equals(priority) ? JobExecution.PRIORITY_HIGH : JobExecution.PRIORITY_NORMAL;
+    }
+
     /**
      * Maps a JSON to the corresponding Java class
      * 
@@ -88,7 +145,7 @@ public final class JobEngineUtil {
             return null;
         }
         try {
-            return (T) objectMapper.readValue(parametersJson, parametersClass);
+            return json.reader(parametersClass).readValue(parametersJson);
         } catch (IOException e) {
             throw new RuntimeException("JSON Parameter could not be mapped to an object", e);
         }
@@ -105,12 +162,97 @@ public final class JobEngineUtil {
             return null;
         }
         try {
-            return objectMapper.writeValueAsString(parametersObject);
+            return json.writer(parametersObject.getClass()).writeValueAsString(parametersObject);
         } catch (IOException e) {
             throw new RuntimeException("Parameter object could not be mapped to json", e);
         }
     }
 
+    /**
+     * Decodes parameters with the {@link JobEngineConfig#PARAMETERS_CODEC}
+     * 
+     * @param <T> corresponding Java class
+     * @param parametersData encoded parameters
+     * @param parametersClass corresponding Java class
+     * @return Java class <tt>T</tt> object as defined in the encoded parameters
+     */
+    public static <T> T dataToParameters(byte[] parametersData, Class<T> parametersClass) {
+        if (parametersData == null || parametersData.length == 0) {
+            return null;
+        }
+        if (JobEngineConfig.PARAMETERS_CODEC == null) {
+            throw new IllegalStateException("Binary parameters but no JobEngineConfig.PARAMETERS_CODEC to decode them");
+        }
+        try {
+            return JobEngineConfig.PARAMETERS_CODEC.read(parametersData, parametersClass);
+        } catch (IOException e) {
+            throw new RuntimeException("Binary Parameter could not be mapped to an object", e);
+        }
+    }
+
+    /**
+     * Encodes parameters with the {@link JobEngineConfig#PARAMETERS_CODEC}
+     * 
+     * @param parametersObject Java object
+     * @return encoded parameters
+     */
+    public static byte[] parametersToData(Object parametersObject) {
+        if (parametersObject == null) {
+            return null;
+        }
+        try {
+            return JobEngineConfig.PARAMETERS_CODEC.write(parametersObject);
+        } catch (IOException e) {
+            throw new RuntimeException("Parameter object could not be encoded", e);
+        }
+    }
+
+    /**
+     * Puts parameters into the {@link JobEngineConfig#PARAMETERS_STORE}
+     * 
+     * @param parameters parameters as JSON (UTF-8) or as encoded by the {@link JobEngineConfig#PARAMETERS_CODEC}
+     * @param encoded <code>true</code> if the parameters are encoded by the codec
+     * @return reference for the column <code>parameters_ref</code>, prefixed by the format
+     */
+    public static String storeParameters(byte[] parameters, boolean encoded) {
+        try {
+            return (encoded ? STORED_DATA : STORED_JSON) + JobEngineConfig.PARAMETERS_STORE.put(parameters);
+        } catch (IOException e) {
+            throw new RuntimeException("Parameters could not be stored", e);
+        }
+    }
+
+    /**
+     * Reads parameters from the {@link JobEngineConfig#PARAMETERS_STORE} straight into the corresponding Java class
+     * 
+     * @param <T> corresponding Java class
+     * @param parametersRef reference of the column <code>parameters_ref</code>
+     * @param parametersClass corresponding Java class
+     * @return Java class <tt>T</tt> object as defined in the stored parameters
+     */
+    public static <T> T storedToParameters(String parametersRef, Class<T> parametersClass) {
+        if (JobEngineConfig.PARAMETERS_STORE == null) {
+            throw new IllegalStateException("Stored parameters but no JobEngineConfig.PARAMETERS_STORE to read them");
+        }
+        boolean encoded = parametersRef.startsWith(STORED_DATA);
+        try (InputStream inputStream = JobEngineConfig.PARAMETERS_STORE.get(storeReference(parametersRef))) {
+            if (encoded) {
+                return JobEngineConfig.PARAMETERS_CODEC.read(inputStream, parametersClass);
+            }
+            return json.reader(parametersClass).readValue(inputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Stored Parameter could not be mapped to an object", e);
+        }
+    }
+
+    /**
+     * @param parametersRef reference of the column <code>parameters_ref</code>
+     * @return reference of the {@link JobEngineConfig#PARAMETERS_STORE}
+     */
+    public static String storeReference(String parametersRef) {
+        return parametersRef.substring(parametersRef.indexOf(':') + 1);
+    }
+
     /**
      * Parses the stack trace of an exception into as String
      * 
@@ -130,4 +272,40 @@ public final class JobEngineUtil {
         }
         return stacktraceString;
     }
+
+    /**
+     * Fingerprint of the stack trace of an exception: SHA-256 of the exception classes and stack frames of the exception and its causes. The messages are
+     * left out, so are the numbers in the names of generated classes (lambdas, proxies, reflection accessors), they differ between runs.
+     * 
+     * @param exception Exception
+     * @return 64 hex digits
+     */
+    public static String stacktraceHash(Throwable exception) {
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every JVM has to support SHA-256
+        }
+        Set<Throwable> causes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Throwable cause = exception; cause != null && causes.add(cause); cause = cause.getCause()) {
+            digest.update(generatedName(cause.getClass().getName()).getBytes(StandardCharsets.UTF_8));
+            for (StackTraceElement frame : cause.getStackTrace()) {
+                String line = "\n" + generatedName(frame.getClassName()) + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+                digest.update(line.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0);
+        }
+        StringBuilder hash = new StringBuilder(64);
+        for (byte b : digest.digest()) {
+            hash.append(Character.forDigit((b >> 4) & 0xF, 16));
+            hash.append(Character.forDigit(b & 0xF, 16));
+        }
+        return hash.toString();
+    }
+
+    private static String generatedName(String className) {
+        return GENERATED_NAME.matcher(className).replaceAll("$1");
+    }
 }
@@ -0,0 +1,155 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * In-memory debounce windows of the job executions per job and coalescing key. The first job execution of a key gets persisted with its maturity at the end
+ * of the window, every further one with the same key within the window is merged into it and doesn't hit the database at all. Since the persisted job
+ * execution can't start before the window ends, it covers all the merged ones.
+ * <p>
+ * A window opens for everyone once the transaction that created its job execution is committed, until then only this transaction merges into it. So a
+ * rollback takes nothing with it but its own job executions.
+ * </p>
+ * <p>
+ * The windows live on this node only, so other nodes open their own ones for the same key.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class JobExecutionCoalescer {
+
+    /**
+     * Key of the windows the current transaction opened, see {@link TransactionSynchronizationRegistry#getResource(Object)}
+     */
+    private static final String PENDING_WINDOWS = JobExecutionCoalescer.class.getName() + ".pendingWindows";
+
+    private final Map<Long, Windows> windowsPerJob = new ConcurrentHashMap<>();
+
+    @Resource
+    TransactionSynchronizationRegistry transactionSynchronizationRegistry;
+
+    /**
+     * Gets the job execution of the open window of the key or opens a new window by creating one
+     *
+     * @param jobId job ID
+     * @param coalescingKey key of the logical work
+     * @param window length of the window in milliseconds
+     * @param create creates the job execution for the given end of the window and returns its ID
+     * @return ID of the job execution that covers the key until the window ends
+     */
+    public Long coalesce(Long jobId, Object coalescingKey, long window, Function<LocalDateTime, Long> create) {
+
+        Windows windows = windowsPerJob.computeIfAbsent(jobId, id -> new Windows());
+        LocalDateTime now = JobEngineUtil.timestamp();
+        windows.purge(now, window);
+
+        Window open = windows.byKey.get(coalescingKey);
+        if (open != null && open.endsAt.isAfter(now)) {
+            return open.jobExecutionId;
+        }
+        Map<Object, Window> pending = getPendingWindows(jobId);
+        if (pending != null) {
+            open = pending.get(coalescingKey);
+            if (open != null && open.endsAt.isAfter(now)) {
+                return open.jobExecutionId;
+            }
+        }
+
+        // no lock is held while the job execution gets created
+        LocalDateTime endsAt = now.plus(window, ChronoUnit.MILLIS);
+        Window opened = new Window(create.apply(endsAt), endsAt);
+
+        if (pending == null) {
+            windows.open(coalescingKey, opened, now);
+        } else {
+            pending.put(coalescingKey, opened);
+        }
+        return opened.jobExecutionId;
+    }
+
+    /**
+     * @return windows of the job the current transaction opened, they get opened for everyone once it commits. <code>null</code> if there is no
+     *         transaction.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Object, Window> getPendingWindows(Long jobId) {
+
+        if (transactionSynchronizationRegistry == null || transactionSynchronizationRegistry.getTransactionKey() == null) {
+            return null;
+        }
+        Map<Long, Map<Object, Window>> pending = (Map<Long, Map<Object, Window>>) transactionSynchronizationRegistry.getResource(PENDING_WINDOWS);
+        if (pending == null) {
+            Map<Long, Map<Object, Window>> pendingWindows = new HashMap<>();
+            transactionSynchronizationRegistry.putResource(PENDING_WINDOWS, pendingWindows);
+            transactionSynchronizationRegistry.registerInterposedSynchronization(new Synchronization() {
+
+                @Override
+                public void beforeCompletion() {}
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        LocalDateTime now = JobEngineUtil.timestamp();
+                        pendingWindows.forEach((pendingJobId, windows) -> windows
+                                        .forEach((key, window) -> windowsPerJob.computeIfAbsent(pendingJobId, id -> new Windows()).open(key, window, now)));
+                    }
+                }
+            });
+            pending = pendingWindows;
+        }
+        return pending.computeIfAbsent(jobId, id -> new HashMap<>());
+    }
+
+    private static class Windows {
+
+        private final Map<Object, Window> byKey = new ConcurrentHashMap<>();
+
+        private volatile LocalDateTime purgedAt = LocalDateTime.MIN;
+
+        /**
+         * Drops the ended windows at most once per window length, so keys that don't come back don't pile up
+         */
+        private void purge(LocalDateTime now, long window) {
+            if (purgedAt.plus(window, ChronoUnit.MILLIS).isAfter(now)) {
+                return;
+            }
+            purgedAt = now;
+            byKey.values().removeIf(open -> !open.endsAt.isAfter(now));
+        }
+
+        /**
+         * Opens the window unless another transaction just opened one for the key, then the window that is already open stays
+         */
+        private void open(Object coalescingKey, Window window, LocalDateTime now) {
+            byKey.merge(coalescingKey, window, (open, opened) -> open.endsAt.isAfter(now) ? open : opened);
+        }
+    }
+
+    private static class Window {
+
+        private final Long jobExecutionId;
+
+        private final LocalDateTime endsAt;
+
+        private Window(Long jobExecutionId, LocalDateTime endsAt) {
+            this.jobExecutionId = jobExecutionId;
+            this.endsAt = endsAt;
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.boundary.annotation.JobEngineEntityManager;
+import io.coodoo.workhorse.jobengine.entity.ExecutionHistoryPartitioning;
+
+/**
+ * Maintains the daily partitions of the history table <code>jobengine_execution_history</code>, see {@link JobEngineConfig#EXECUTION_HISTORY_PARTITIONING}.
+ * A partition holds the job executions created on its day and is named after it, e.g. <code>p20190417</code>.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Stateless
+public class JobExecutionHistoryPartitioner {
+
+    private static final String TABLE = "jobengine_execution_history";
+
+    /**
+     * The history from before the partitioning, see the partitioning scripts
+     */
+    private static final String OLD_TABLE = "jobengine_execution_history_old";
+
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final Logger logger = LoggerFactory.getLogger(JobExecutionHistoryPartitioner.class);
+
+    @Inject
+    @JobEngineEntityManager
+    EntityManager entityManager;
+
+    public boolean isActive() {
+        return JobEngineConfig.EXECUTION_HISTORY_PARTITIONING != null && JobEngineConfig.EXECUTION_HISTORY_PARTITIONING != ExecutionHistoryPartitioning.NONE;
+    }
+
+    /**
+     * Creates the missing partitions from the day of the oldest job execution in the queue table (or in the history from before the partitioning, as long as
+     * it isn't copied and dropped) up to {@link JobEngineConfig#EXECUTION_HISTORY_PARTITIONS_AHEAD} days ahead, so every job execution that gets moved into
+     * the history finds its partition. On MySQL the job executions older than the first partition go into it anyway.
+     *
+     * @return names of the created partitions
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<String> createPartitions() {
+
+        List<String> created = new ArrayList<>();
+        if (!isActive()) {
+            return created;
+        }
+        List<LocalDate> existing = getPartitionDays();
+        LocalDate last = existing.isEmpty() ? null : existing.get(existing.size() - 1);
+        LocalDate today = JobEngineUtil.timestamp().toLocalDate();
+        LocalDate until = today.plusDays(JobEngineConfig.EXECUTION_HISTORY_PARTITIONS_AHEAD);
+
+        for (LocalDate day = getOldestJobExecutionDay(today); !day.isAfter(until); day = day.plusDays(1)) {
+            if (existing.contains(day)) {
+                continue;
+            }
+            if (JobEngineConfig.EXECUTION_HISTORY_PARTITIONING == ExecutionHistoryPartitioning.MYSQL && last != null && day.isBefore(last)) {
+                // MySQL only appends partitions at the end of the range
+                continue;
+            }
+            entityManager.createNativeQuery(createPartitionStatement(day)).executeUpdate();
+            if (last == null || day.isAfter(last)) {
+                last = day;
+            }
+            created.add(partitionName(day));
+            logger.info("Created partition {} of {}", partitionName(day), TABLE);
+        }
+        return created;
+    }
+
+    /**
+     * Drops every partition whose day ended before the given date. Dropping a partition is a metadata operation, no matter how many rows it holds.
+     *
+     * @param preDate partitions that only hold job executions created before this date get dropped
+     * @return names of the dropped partitions
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public List<String> dropPartitions(LocalDate preDate) {
+
+        List<String> dropped = new ArrayList<>();
+        if (!isActive()) {
+            return dropped;
+        }
+        List<LocalDate> existing = getPartitionDays();
+
+        for (LocalDate day : existing) {
+            if (day.plusDays(1).isAfter(preDate)) {
+                break;
+            }
+            if (existing.size() - dropped.size() <= 1) {
+                // MySQL can't drop the last partition of a table
+                break;
+            }
+            entityManager.createNativeQuery(dropPartitionStatement(day)).executeUpdate();
+            dropped.add(partitionName(day));
+            logger.info("Dropped partition {} of {}", partitionName(day), TABLE);
+        }
+        return dropped;
+    }
+
+    /**
+     * @return days of the existing partitions in ascending order
+     */
+    @SuppressWarnings("unchecked")
+    public List<LocalDate> getPartitionDays() {
+
+        String query;
+        switch (JobEngineConfig.EXECUTION_HISTORY_PARTITIONING) {
+            case POSTGRESQL:
+                query = "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = '"
+                                + TABLE + "'";
+                break;
+            case MYSQL:
+                query = "SELECT partition_name FROM information_schema.partitions WHERE table_schema = DATABASE() AND table_name = '" + TABLE
+                                + "' AND partition_name IS NOT NULL";
+                break;
+            default:
+                return new ArrayList<>();
+        }
+
+        List<LocalDate> days = new ArrayList<>();
+        for (Object name : entityManager.createNativeQuery(query).getResultList()) {
+            String partition = name.toString();
+            try {
+                days.add(LocalDate.parse(partition.substring(partition.length() - 8), PARTITION_DAY));
+            } catch (DateTimeParseException | StringIndexOutOfBoundsException e) {
+                logger.warn("Partition {} of {} is not maintained by the job engine", partition, TABLE);
+            }
+        }
+        days.sort(null);
+        return days;
+    }
+
+    /**
+     * @param today fallback if the tables are empty
+     * @return day of the oldest job execution in the queue table and in the history from before the partitioning, but not after today
+     */
+    private LocalDate getOldestJobExecutionDay(LocalDate today) {
+
+        LocalDate day = getOldestDay("jobengine_execution");
+        if (hasOldTable()) {
+            LocalDate oldHistoryDay = getOldestDay(OLD_TABLE);
+            if (day == null || (oldHistoryDay != null && oldHistoryDay.isBefore(day))) {
+                day = oldHistoryDay;
+            }
+        }
+        return day == null || day.isAfter(today) ? today : day;
+    }
+
+    private LocalDate getOldestDay(String table) {
+
+        Object oldest = entityManager.createNativeQuery("SELECT MIN(created_at) FROM " + table).getSingleResult();
+        if (oldest instanceof Timestamp) {
+            return ((Timestamp) oldest).toLocalDateTime().toLocalDate();
+        }
+        if (oldest instanceof LocalDateTime) {
+            return ((LocalDateTime) oldest).toLocalDate();
+        }
+        return null;
+    }
+
+    /**
+     * @return <code>true</code> if the history from before the partitioning is still there
+     */
+    private boolean hasOldTable() {
+
+        String query;
+        switch (JobEngineConfig.EXECUTION_HISTORY_PARTITIONING) {
+            case POSTGRESQL:
+                query = "SELECT COUNT(*) FROM pg_class WHERE relname = '" + OLD_TABLE + "' AND relkind = 'r'";
+                break;
+            case MYSQL:
+                query = "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = '" + OLD_TABLE + "'";
+                break;
+            default:
+                return false;
+        }
+        Object count = entityManager.createNativeQuery(query).getSingleResult();
+        return count instanceof Number && ((Number) count).longValue() > 0;
+    }
+
+    private String createPartitionStatement(LocalDate day) {
+
+        switch (JobEngineConfig.EXECUTION_HISTORY_PARTITIONING) {
+            case POSTGRESQL:
+                return "CREATE TABLE " + TABLE + "_" + partitionName(day) + " PARTITION OF " + TABLE + " FOR VALUES FROM ('" + day + "') TO ('"
+                                + day.plusDays(1) + "')";
+            case MYSQL:
+                return "ALTER TABLE " + TABLE + " ADD PARTITION (PARTITION " + partitionName(day) + " VALUES LESS THAN (TO_DAYS('" + day.plusDays(1) + "')))";
+            default:
+                throw new IllegalStateException("No partitioning configured");
+        }
+    }
+
+    private String dropPartitionStatement(LocalDate day) {
+
+        switch (JobEngineConfig.EXECUTION_HISTORY_PARTITIONING) {
+            case POSTGRESQL:
+                return "DROP TABLE " + TABLE + "_" + partitionName(day);
+            case MYSQL:
+                return "ALTER TABLE " + TABLE + " DROP PARTITION " + partitionName(day);
+            default:
+                throw new IllegalStateException("No partitioning configured");
+        }
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "p" + day.format(PARTITION_DAY);
+    }
+
+}
@@ -0,0 +1,97 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecutionRollup;
+
+/**
+ * Records the durations and latencies (see {@link RollupMetric}) of the job executions of this node into per job and per minute {@link DurationHistogram}s.
+ * Finished minutes get drained into {@link JobExecutionRollup}s by the poller.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class JobExecutionRollups {
+
+    private final Map<Long, Map<LocalDateTime, Bucket>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param jobId job ID
+     * @param metric what has been measured
+     * @param millis measured time in milliseconds
+     */
+    public void record(Long jobId, RollupMetric metric, long millis) {
+        Bucket bucket = getBucket(jobId);
+        synchronized (bucket) {
+            bucket.histograms.get(metric).record(millis);
+        }
+    }
+
+    /**
+     * Removes all buckets of finished minutes
+     *
+     * @param node name of this node
+     * @return a rollup for every job and finished minute
+     */
+    public List<JobExecutionRollup> drain(String node) {
+
+        LocalDateTime currentMinute = currentMinute();
+        List<JobExecutionRollup> rollups = new ArrayList<>();
+
+        for (Map.Entry<Long, Map<LocalDateTime, Bucket>> jobBuckets : buckets.entrySet()) {
+            Iterator<Map.Entry<LocalDateTime, Bucket>> iterator = jobBuckets.getValue().entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<LocalDateTime, Bucket> minuteBucket = iterator.next();
+                if (!minuteBucket.getKey().isBefore(currentMinute)) {
+                    continue;
+                }
+                iterator.remove();
+                Bucket bucket = minuteBucket.getValue();
+                synchronized (bucket) {
+                    JobExecutionRollup rollup = new JobExecutionRollup();
+                    rollup.setJobId(jobBuckets.getKey());
+                    rollup.setNode(node);
+                    rollup.setMinute(minuteBucket.getKey());
+                    rollup.setExecutions(bucket.histograms.get(RollupMetric.DURATION).getTotalCount());
+                    for (RollupMetric metric : RollupMetric.values()) {
+                        metric.setHistogram(rollup, bucket.histograms.get(metric));
+                    }
+                    rollups.add(rollup);
+                }
+            }
+        }
+        return rollups;
+    }
+
+    private Bucket getBucket(Long jobId) {
+        return buckets.computeIfAbsent(jobId, id -> new ConcurrentHashMap<>()).computeIfAbsent(currentMinute(), minute -> new Bucket());
+    }
+
+    private static LocalDateTime currentMinute() {
+        return JobEngineUtil.timestamp().truncatedTo(ChronoUnit.MINUTES);
+    }
+
+    private static class Bucket {
+
+        private final Map<RollupMetric, DurationHistogram> histograms = new EnumMap<>(RollupMetric.class);
+
+        private Bucket() {
+            for (RollupMetric metric : RollupMetric.values()) {
+                histograms.put(metric, new DurationHistogram());
+            }
+        }
+    }
+
+}
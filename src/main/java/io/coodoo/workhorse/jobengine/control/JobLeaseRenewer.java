@@ -0,0 +1,101 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.ejb.Singleton;
+import javax.ejb.Timeout;
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+import javax.inject.Inject;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+
+/**
+ * Sends the heartbeat of this node and renews the leases of its running job executions on a timer of its own, so a slow or failing poll can't let the leases
+ * expire. After the job engine got stopped it keeps renewing until the last running job execution of this node is done, only then the node leaves.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Singleton
+public class JobLeaseRenewer {
+
+    private static final String JOB_LEASE_RENEWER = "JobLeaseRenewer";
+
+    private static Logger logger = LoggerFactory.getLogger(JobLeaseRenewer.class);
+
+    @Inject
+    JobEngineController jobEngineController;
+
+    @Inject
+    JobEngine jobEngine;
+
+    @Resource
+    protected TimerService timerService;
+
+    private boolean stopping;
+
+    @Timeout
+    public void renew() {
+
+        List<Long> runningJobExecutionIds = jobEngine.getRunningJobExecutionIds();
+        try {
+            jobEngineController.heartbeat(runningJobExecutionIds);
+        } catch (Exception e) {
+            logger.error("Heartbeat failed, the leases of {} running job executions are not renewed", runningJobExecutionIds.size(), e);
+        }
+        if (stopping && runningJobExecutionIds.isEmpty()) {
+            leave();
+        }
+    }
+
+    public void start() {
+
+        // a third of the lease, so two renewals in a row may fail before the leases expire
+        long interval = Math.max(1000L, JobEngineConfig.LEASE_DURATION * 1000L / 3);
+
+        TimerConfig timerConfig = new TimerConfig();
+        timerConfig.setInfo(JOB_LEASE_RENEWER);
+        timerConfig.setPersistent(false);
+
+        cancelTimer();
+        stopping = false;
+        timerService.createIntervalTimer(0L, interval, timerConfig);
+
+        logger.info("Job Lease Renewer started with a {} milliseconds interval", interval);
+    }
+
+    /**
+     * Lets this node leave as soon as its running job executions are done, until then their leases get renewed
+     */
+    public void stop() {
+
+        if (jobEngine.getRunningJobExecutionIds().isEmpty()) {
+            leave();
+        } else {
+            stopping = true;
+            logger.info("Job Lease Renewer keeps renewing until the running job executions are done");
+        }
+    }
+
+    private void leave() {
+
+        stopping = false;
+        cancelTimer();
+        jobEngineController.removeNode();
+        logger.info("Job Lease Renewer stopped");
+    }
+
+    private void cancelTimer() {
+        for (Timer timer : timerService.getTimers()) {
+            if (JOB_LEASE_RENEWER.equals(timer.getInfo())) {
+                timer.cancel();
+            }
+        }
+    }
+
+}
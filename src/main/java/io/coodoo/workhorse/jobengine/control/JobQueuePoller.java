@@ -13,6 +13,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.control.jfr.EventSpan;
+import io.coodoo.workhorse.jobengine.control.jfr.JobEngineEvents;
 
 /**
  * @author coodoo GmbH (coodoo.io)
@@ -21,33 +23,36 @@ import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 public class JobQueuePoller {
 
     private static final String JOB_QUEUE_POLLER = "JobQueuePoller";
-    private static final int ZOMBIE_HUNT_INTERVAL = 300;
 
     private static Logger logger = LoggerFactory.getLogger(JobQueuePoller.class);
 
     @Inject
     JobEngineController jobEngineController;
 
+    @Inject
+    JobStatistics jobStatistics;
+
     @Resource
     protected TimerService timerService;
 
-    // look out for zombies on startup
-    private int zombieWatch = ZOMBIE_HUNT_INTERVAL;
-
     @Timeout
     public void poll() {
 
+        EventSpan pollEvent = JobEngineEvents.poll();
         jobEngineController.syncJobExecutionQueue();
-        huntZombies();
-    }
 
-    private void huntZombies() {
-        zombieWatch += JobEngineConfig.JOB_QUEUE_POLLER_INTERVAL;
-        if (zombieWatch > ZOMBIE_HUNT_INTERVAL) { // watch for zombies every 5 minutes
-            // go, hunt down zombies!
-            jobEngineController.huntJobExecutionZombies();
-            zombieWatch = 0;
+        // go, hunt down zombies! (only running executions with an expired lease, see JobLeaseRenewer)
+        jobEngineController.huntJobExecutionZombies();
+
+        if (JobEngineConfig.EXECUTION_HISTORY) {
+            jobEngineController.moveJobExecutionsToHistory();
+        }
+        jobEngineController.flushRollups();
+
+        if (jobStatistics.startReconciliation()) {
+            jobEngineController.reconcileStatistics();
         }
+        pollEvent.end();
     }
 
     public void start() {
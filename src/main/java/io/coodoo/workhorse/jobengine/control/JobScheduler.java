@@ -1,6 +1,12 @@
 package io.coodoo.workhorse.jobengine.control;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.annotation.Resource;
+import javax.ejb.Asynchronous;
 import javax.ejb.ScheduleExpression;
 import javax.ejb.Singleton;
 import javax.ejb.Timeout;
@@ -9,6 +15,7 @@ import javax.ejb.TimerConfig;
 import javax.ejb.TimerService;
 import javax.ejb.TransactionAttribute;
 import javax.ejb.TransactionAttributeType;
+import javax.enterprise.event.Observes;
 import javax.inject.Inject;
 
 import org.slf4j.Logger;
@@ -16,9 +23,11 @@ import org.slf4j.LoggerFactory;
 
 import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
+import io.coodoo.workhorse.jobengine.control.event.AllJobExecutionsDoneEvent;
 import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobStatus;
 import io.coodoo.workhorse.jobengine.entity.JobType;
+import io.coodoo.workhorse.jobengine.entity.ScheduleMisfirePolicy;
 
 /**
  * @author coodoo GmbH (coodoo.io)
@@ -34,9 +43,15 @@ public class JobScheduler {
     @Inject
     JobEngineController jobEngineController;
 
+    @Inject
+    JobEngine jobEngine;
+
     @Resource
     protected TimerService timerService;
 
+    // skipped schedule fires per job ID, waiting for the job to become idle
+    private Map<Long, Integer> missedFires = new HashMap<>();
+
     public void start(Job job) {
 
         if ((JobType.SCHEDULED.equals(job.getType()) || JobType.SYSTEM.equals(job.getType())) && JobStatus.ACTIVE.equals(job.getStatus())
@@ -74,12 +89,121 @@ public class JobScheduler {
 
         Job job = (Job) currentTimer.getInfo();
         try {
-            jobEngineService.triggerScheduledJobExecutionCreation(job);
+            // the timer info is just a snapshot, the schedule policy may have changed since
+            job = jobEngineService.getJobById(job.getId());
+
+            if (job.isScheduleSkipIfActive() && jobEngine.hasActiveJobExecutions(job.getId())) {
+                misfire(job);
+                return;
+            }
+            fire(job, 1);
+
         } catch (Exception e) {
             logger.error("Timeout failed for job {}", job.getName(), e);
         }
     }
 
+    /**
+     * Triggers the schedule fires that got skipped while the job was still busy, as defined by {@link Job#getScheduleMisfirePolicy()}
+     * 
+     * @param event any AllJobExecutionsDoneEvent
+     */
+    @Asynchronous
+    public void allJobExecutionsDone(@Observes AllJobExecutionsDoneEvent event) {
+
+        Integer missed = missedFires.remove(event.getJob().getId());
+        if (missed == null) {
+            return;
+        }
+        Job job = jobEngineService.getJobById(event.getJob().getId());
+        try {
+            int fires = firesToTrigger(job, missed);
+            logger.info("Triggering {} of {} missed schedule fires for job {}", fires, missed, job.getName());
+            fire(job, fires);
+
+        } catch (Exception e) {
+            logger.error("Missed schedule fires failed for job {}", job.getName(), e);
+        }
+    }
+
+    /**
+     * Triggers the schedule fires that were missed since {@link Job#getScheduleLastFiredAt()}, as defined by {@link Job#getScheduleMisfirePolicy()}
+     * 
+     * @param job scheduled job
+     */
+    public void catchUp(Job job) {
+
+        ScheduleMisfirePolicy policy = job.getScheduleMisfirePolicy();
+        if (job.getSchedule() == null || job.getScheduleLastFiredAt() == null || policy == null || ScheduleMisfirePolicy.IGNORE.equals(policy)) {
+            return;
+        }
+        int limit = ScheduleMisfirePolicy.COALESCE.equals(policy) ? 1 : job.getScheduleCatchUpLimit();
+        LocalDateTime now = JobEngineUtil.timestamp();
+        int missed = 0;
+        try {
+            CronExpression cronExpression = createCronExpression(job);
+            LocalDateTime scheduledTime = cronExpression.nextTimeAfter(job.getScheduleLastFiredAt());
+
+            while (scheduledTime.isBefore(now) && missed < limit) {
+                missed++;
+                scheduledTime = cronExpression.nextTimeAfter(scheduledTime);
+            }
+            if (missed > 0) {
+                logger.info("Catching up {} missed schedule fires for job {}", missed, job.getName());
+                fire(job, missed);
+            }
+        } catch (Exception e) {
+            logger.error("Catching up missed schedule fires failed for job {}", job.getName(), e);
+        }
+    }
+
+    private void misfire(Job job) {
+
+        ScheduleMisfirePolicy policy = job.getScheduleMisfirePolicy();
+        if (policy == null || ScheduleMisfirePolicy.IGNORE.equals(policy)) {
+            logger.info("Schedule fire skipped, job {} is still active", job.getName());
+            return;
+        }
+        int missed = missedFires.getOrDefault(job.getId(), 0) + 1;
+        missedFires.put(job.getId(), missed);
+        logger.info("Schedule fire skipped, job {} is still active ({} missed fires pending)", job.getName(), missed);
+    }
+
+    private int firesToTrigger(Job job, int missed) {
+
+        if (ScheduleMisfirePolicy.COALESCE.equals(job.getScheduleMisfirePolicy())) {
+            return 1;
+        }
+        if (ScheduleMisfirePolicy.CATCH_UP.equals(job.getScheduleMisfirePolicy())) {
+            return Math.min(missed, job.getScheduleCatchUpLimit());
+        }
+        return 0;
+    }
+
+    private void fire(Job job, int times) throws Exception {
+
+        for (int i = 0; i < times; i++) {
+            // every caught up fire gets its own job executions, even though the ones of the previous fire are still queued
+            BaseJobWorker.CATCHING_UP.set(i > 0);
+            try {
+                jobEngineService.triggerScheduledJobExecutionCreation(job);
+            } finally {
+                BaseJobWorker.CATCHING_UP.remove();
+            }
+        }
+        jobEngineController.setScheduleLastFiredAt(job.getId(), JobEngineUtil.timestamp());
+    }
+
+    protected CronExpression createCronExpression(Job job) {
+
+        final String[] parts = job.getSchedule().trim().split("\\s+");
+        if (parts.length == 5) {
+            return CronExpression.createWithoutSeconds(job.getSchedule().trim());
+        }
+        // the year part is not supported by CronExpression
+        return CronExpression.create(String.join(" ", Arrays.copyOf(parts, 6)));
+    }
+
     // TODO test da fuck outta this!
     protected ScheduleExpression createScheduledExpression(Job job) {
 
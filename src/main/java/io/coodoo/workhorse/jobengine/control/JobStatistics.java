@@ -0,0 +1,313 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+
+/**
+ * In-memory counters of the job executions per job and status, including the duration of the ended ones. They get updated with every status transition
+ * of this node and are reconciled with the database every {@link JobEngineConfig#STATISTICS_RECONCILIATION_INTERVAL} seconds, which also brings in the
+ * transitions of other nodes and the deletions of the cleanup.
+ * <p>
+ * Besides that it counts the job executions that ended on this node, which are never reconciled and give the throughput and error rate of the last
+ * minute.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class JobStatistics {
+
+    private static final int DURATION_SUM = JobExecutionStatus.values().length;
+
+    private static final int DURATION_COUNT = DURATION_SUM + 1;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    private volatile long reconciledAt = 0;
+
+    private volatile boolean reconciling;
+
+    private final Map<Long, Throughput> throughputs = new ConcurrentHashMap<>();
+
+    /**
+     * Counts the transition of job executions from one status to another
+     *
+     * @param jobId job ID
+     * @param from previous status or <code>null</code> if the job executions got created
+     * @param to new status or <code>null</code> if the job executions got deleted
+     * @param amount number of job executions
+     */
+    public void transition(Long jobId, JobExecutionStatus from, JobExecutionStatus to, long amount) {
+
+        if (amount == 0 || (from != null && from.equals(to))) {
+            return;
+        }
+        Counters jobCounters = getCounters(jobId);
+        if (from != null) {
+            jobCounters.counts.get(from).add(-amount);
+        }
+        if (to != null) {
+            jobCounters.counts.get(to).add(amount);
+        }
+    }
+
+    /**
+     * Counts the end of a job execution
+     *
+     * @param jobId job ID
+     * @param status final status of the job execution
+     * @param duration duration in milliseconds
+     */
+    public void ended(Long jobId, JobExecutionStatus status, Long duration) {
+
+        transition(jobId, JobExecutionStatus.RUNNING, status, 1);
+        throughputs.computeIfAbsent(jobId, id -> new Throughput()).ended(JobExecutionStatus.FAILED.equals(status));
+        if (duration != null) {
+            Counters jobCounters = getCounters(jobId);
+            jobCounters.durationSum.add(duration);
+            jobCounters.durationCount.increment();
+        }
+    }
+
+    public void removeJob(Long jobId) {
+        counters.remove(jobId);
+        throughputs.remove(jobId);
+    }
+
+    /**
+     * @param jobId job ID or <code>null</code> for all jobs
+     * @param status status or <code>null</code> for all statuses
+     * @return number of job executions
+     */
+    public long getCount(Long jobId, JobExecutionStatus status) {
+
+        long count = 0;
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            if (jobId != null && !jobId.equals(entry.getKey())) {
+                continue;
+            }
+            for (Map.Entry<JobExecutionStatus, LongAdder> statusCount : entry.getValue().counts.entrySet()) {
+                if (status == null || status.equals(statusCount.getKey())) {
+                    count += statusCount.getValue().sum();
+                }
+            }
+        }
+        return Math.max(count, 0);
+    }
+
+    /**
+     * @param jobId job ID or <code>null</code> for all jobs
+     * @return average duration in milliseconds of the ended job executions or <code>null</code> if there are none
+     */
+    public Long getAverageDuration(Long jobId) {
+
+        long sum = 0;
+        long count = 0;
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            if (jobId == null || jobId.equals(entry.getKey())) {
+                sum += entry.getValue().durationSum.sum();
+                count += entry.getValue().durationCount.sum();
+            }
+        }
+        return count > 0 ? sum / count : null;
+    }
+
+    /**
+     * @param jobId job ID
+     * @param failed <code>true</code> for the failed job executions only
+     * @return number of job executions that ended on this node since it started
+     */
+    public long getEndedOnNode(Long jobId, boolean failed) {
+        Throughput throughput = throughputs.get(jobId);
+        if (throughput == null) {
+            return 0;
+        }
+        return failed ? throughput.totalFailed.sum() : throughput.totalEnded.sum();
+    }
+
+    /**
+     * @param jobId job ID
+     * @return number of job executions that ended on this node in the last minute
+     */
+    public long getThroughput(Long jobId) {
+        Throughput throughput = throughputs.get(jobId);
+        return throughput == null ? 0 : throughput.lastMinute(false);
+    }
+
+    /**
+     * @param jobId job ID
+     * @return share of failed job executions (between 0 and 1) of all that ended on this node in the last minute
+     */
+    public double getErrorRate(Long jobId) {
+        Throughput throughput = throughputs.get(jobId);
+        if (throughput == null) {
+            return 0;
+        }
+        long ended = throughput.lastMinute(false);
+        return ended > 0 ? (double) throughput.lastMinute(true) / ended : 0;
+    }
+
+    public boolean isReconciliationDue() {
+        return System.currentTimeMillis() - reconciledAt >= JobEngineConfig.STATISTICS_RECONCILIATION_INTERVAL * 1000L;
+    }
+
+    /**
+     * Starts a reconciliation if it is due and no other one is running, so reconciliations don't pile up while the query of one takes longer than the poll
+     * interval
+     *
+     * @return <code>true</code> if the caller has to do the reconciliation by {@link #reconcile(Supplier)}
+     */
+    public synchronized boolean startReconciliation() {
+
+        if (reconciling || !isReconciliationDue()) {
+            return false;
+        }
+        reconciling = true;
+        reconciledAt = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * Brings all counters to the values of the database. The difference to the counters before the query gets added instead of replacing them, so the
+     * transitions counted while the query runs are kept.
+     *
+     * @param query gives one row per job and status: job ID, status, count, sum of durations and count of durations
+     */
+    public void reconcile(Supplier<List<Object[]>> query) {
+
+        try {
+            Map<Long, long[]> before = snapshot();
+
+            Map<Long, long[]> reconciled = new HashMap<>();
+            for (Object[] row : query.get()) {
+                long[] values = reconciled.computeIfAbsent((Long) row[0], id -> new long[DURATION_COUNT + 1]);
+                values[((JobExecutionStatus) row[1]).ordinal()] += toLong(row[2]);
+                values[DURATION_SUM] += toLong(row[3]);
+                values[DURATION_COUNT] += toLong(row[4]);
+            }
+
+            Set<Long> jobIds = new HashSet<>(before.keySet());
+            jobIds.addAll(reconciled.keySet());
+            for (Long jobId : jobIds) {
+                long[] from = before.getOrDefault(jobId, new long[DURATION_COUNT + 1]);
+                long[] to = reconciled.getOrDefault(jobId, new long[DURATION_COUNT + 1]);
+                Counters jobCounters = getCounters(jobId);
+                for (JobExecutionStatus status : JobExecutionStatus.values()) {
+                    jobCounters.counts.get(status).add(to[status.ordinal()] - from[status.ordinal()]);
+                }
+                jobCounters.durationSum.add(to[DURATION_SUM] - from[DURATION_SUM]);
+                jobCounters.durationCount.add(to[DURATION_COUNT] - from[DURATION_COUNT]);
+            }
+        } finally {
+            reconciledAt = System.currentTimeMillis();
+            reconciling = false;
+        }
+    }
+
+    private Map<Long, long[]> snapshot() {
+
+        Map<Long, long[]> snapshot = new HashMap<>();
+        for (Map.Entry<Long, Counters> entry : counters.entrySet()) {
+            long[] values = new long[DURATION_COUNT + 1];
+            for (Map.Entry<JobExecutionStatus, LongAdder> statusCount : entry.getValue().counts.entrySet()) {
+                values[statusCount.getKey().ordinal()] = statusCount.getValue().sum();
+            }
+            values[DURATION_SUM] = entry.getValue().durationSum.sum();
+            values[DURATION_COUNT] = entry.getValue().durationCount.sum();
+            snapshot.put(entry.getKey(), values);
+        }
+        return snapshot;
+    }
+
+    private Counters getCounters(Long jobId) {
+        return counters.computeIfAbsent(jobId, id -> new Counters());
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0 : ((Number) value).longValue();
+    }
+
+    private static class Counters {
+
+        private final Map<JobExecutionStatus, LongAdder> counts = new EnumMap<>(JobExecutionStatus.class);
+        private final LongAdder durationSum = new LongAdder();
+        private final LongAdder durationCount = new LongAdder();
+
+        private Counters() {
+            for (JobExecutionStatus status : JobExecutionStatus.values()) {
+                counts.put(status, new LongAdder());
+            }
+        }
+    }
+
+    /**
+     * Ended job executions of the current and the last minute. Only the first job execution of a minute takes the lock to roll the minute over.
+     */
+    private static class Throughput {
+
+        private final LongAdder totalEnded = new LongAdder();
+        private final LongAdder totalFailed = new LongAdder();
+        private final LongAdder ended = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private volatile long minute = currentMinute();
+        private volatile long previousMinute;
+        private volatile long previousEnded;
+        private volatile long previousFailed;
+
+        private void ended(boolean failure) {
+
+            long now = currentMinute();
+            if (now != minute) {
+                rollOver(now);
+            }
+            totalEnded.increment();
+            ended.increment();
+            if (failure) {
+                totalFailed.increment();
+                failed.increment();
+            }
+        }
+
+        private synchronized void rollOver(long now) {
+            if (now != minute) {
+                previousEnded = ended.sumThenReset();
+                previousFailed = failed.sumThenReset();
+                previousMinute = minute;
+                minute = now;
+            }
+        }
+
+        private long lastMinute(boolean failure) {
+
+            long lastMinute = currentMinute() - 1;
+            if (minute == lastMinute) {
+                // nothing ended in the current minute yet
+                return failure ? failed.sum() : ended.sum();
+            }
+            if (previousMinute == lastMinute) {
+                return failure ? previousFailed : previousEnded;
+            }
+            return 0;
+        }
+
+        private static long currentMinute() {
+            return System.currentTimeMillis() / 60000;
+        }
+    }
+
+}
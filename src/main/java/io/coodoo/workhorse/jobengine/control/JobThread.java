@@ -12,5 +12,7 @@ public interface JobThread {
 
     void stop();
 
+    boolean isStopped();
+
     public JobExecution getActiveJobExecution();
 }
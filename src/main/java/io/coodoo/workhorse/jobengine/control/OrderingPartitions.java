@@ -0,0 +1,146 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.function.Predicate;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+/**
+ * Memory queue of a job for the job executions with an ordering key. Every key belongs to one partition and a partition is worked by one job thread at a
+ * time, in the order of the IDs of its job executions, so one that got drafted late still goes before the younger ones of its key. So the job executions
+ * of a key run one after the other, while different keys run in parallel.
+ * <p>
+ * A job thread owns the partitions of its current job executions until it polls for the next one. Then it keeps going with its own partitions, so a key
+ * sticks to its thread as long as there is work for it.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class OrderingPartitions {
+
+    private final List<Queue<JobExecution>> partitions;
+
+    private final Object[] owners;
+
+    private int size;
+
+    private int next;
+
+    public OrderingPartitions(int partitionCount) {
+        this.partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            this.partitions.add(new PriorityQueue<>(Comparator.comparing(JobExecution::getId)));
+        }
+        this.owners = new Object[partitionCount];
+    }
+
+    public synchronized void add(JobExecution jobExecution) {
+        partitions.get(partition(jobExecution.getOrderingKey())).add(jobExecution);
+        size++;
+    }
+
+    public synchronized boolean contains(JobExecution jobExecution) {
+        return jobExecution.getOrderingKey() != null && partitions.get(partition(jobExecution.getOrderingKey())).contains(jobExecution);
+    }
+
+    /**
+     * Takes the next job execution for the owner: from a partition it already owns or else from the next partition nobody owns.
+     *
+     * @param owner job thread that polls
+     * @param release <code>true</code> if the previous job executions of the owner are done, so it gives up the partitions it doesn't take from now
+     * @param beforeId only take a job execution with a lower ID than this, so keyed and other job executions take turns. <code>null</code> for any.
+     * @return the next job execution or <code>null</code>
+     */
+    public synchronized JobExecution poll(Object owner, boolean release, Long beforeId) {
+        return poll(owner, release, beforeId, jobExecution -> true);
+    }
+
+    /**
+     * Takes the next job execution for the owner, like {@link #poll(Object, boolean, Long)}, but skips the partitions whose next job execution can't start
+     * yet. It stays the next one of its partition, so the order of its key holds.
+     *
+     * @param owner job thread that polls
+     * @param release <code>true</code> if the previous job executions of the owner are done, so it gives up the partitions it doesn't take from now
+     * @param beforeId only take a job execution with a lower ID than this, so keyed and other job executions take turns. <code>null</code> for any.
+     * @param startable tells if a job execution can start now
+     * @return the next job execution or <code>null</code>
+     */
+    public synchronized JobExecution poll(Object owner, boolean release, Long beforeId, Predicate<JobExecution> startable) {
+
+        int partition = -1;
+        for (int i = 0; i < owners.length; i++) {
+            if (owners[i] == owner && !partitions.get(i).isEmpty() && startable.test(partitions.get(i).peek())) {
+                partition = i;
+                break;
+            }
+        }
+        if (release) {
+            for (int i = 0; i < owners.length; i++) {
+                if (owners[i] == owner && i != partition) {
+                    owners[i] = null;
+                }
+            }
+        }
+        if (partition < 0) {
+            // round robin, so no partition waits for the others
+            for (int i = 0; i < owners.length; i++) {
+                int candidate = (next + i) % owners.length;
+                if (owners[candidate] == null && !partitions.get(candidate).isEmpty() && startable.test(partitions.get(candidate).peek())) {
+                    partition = candidate;
+                    next = candidate + 1;
+                    break;
+                }
+            }
+        }
+        if (partition < 0) {
+            return null;
+        }
+        Queue<JobExecution> queue = partitions.get(partition);
+        if (beforeId != null && queue.peek().getId() > beforeId) {
+            return null;
+        }
+        owners[partition] = owner;
+        size--;
+        return queue.poll();
+    }
+
+    /**
+     * Gives up all partitions of the owner
+     *
+     * @param owner job thread that is done
+     */
+    public synchronized void release(Object owner) {
+        for (int i = 0; i < owners.length; i++) {
+            if (owners[i] == owner) {
+                owners[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Removes all job executions. The owners keep their partitions until they are done, since their job executions may still be running.
+     *
+     * @return number of removed job executions
+     */
+    public synchronized int clear() {
+        int removed = size;
+        for (Queue<JobExecution> partition : partitions) {
+            partition.clear();
+        }
+        size = 0;
+        return removed;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private int partition(String orderingKey) {
+        return Math.floorMod(orderingKey.hashCode(), owners.length);
+    }
+
+}
@@ -0,0 +1,69 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+/**
+ * Order of the memory queue of a job: higher priorities first, the older job executions first within a priority. With {@link JobEngineConfig#PRIORITY_AGING}
+ * a job execution gains one level of priority for every period it waits, so it can't be starved by a steady flow of higher priorities. It waits since its
+ * creation or its maturity, whatever is later.
+ * <p>
+ * Since every job execution ages at the same pace, the order of two job executions never changes while they wait and the queue needs no reordering.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class PriorityAging implements Comparator<JobExecution> {
+
+    private final long agingMillis;
+
+    public PriorityAging() {
+        this(JobEngineConfig.PRIORITY_AGING);
+    }
+
+    /**
+     * @param agingSeconds seconds to wait for one level of priority, <code>0</code> for no aging
+     */
+    public PriorityAging(int agingSeconds) {
+        this.agingMillis = Math.max(0, agingSeconds) * 1000L;
+    }
+
+    @Override
+    public int compare(JobExecution jobExecution, JobExecution other) {
+
+        int compared;
+        if (agingMillis > 0) {
+            compared = Long.compare(urgency(other), urgency(jobExecution));
+        } else {
+            compared = Integer.compare(other.getPriority(), jobExecution.getPriority());
+        }
+        if (compared == 0) {
+            compared = Long.compare(millis(jobExecution.getCreatedAt()), millis(other.getCreatedAt()));
+        }
+        if (compared == 0 && jobExecution.getId() != null && other.getId() != null) {
+            compared = Long.compare(jobExecution.getId(), other.getId());
+        }
+        return compared;
+    }
+
+    /**
+     * @return priority as if every job execution had waited since the same moment, in milliseconds
+     */
+    private long urgency(JobExecution jobExecution) {
+
+        LocalDateTime waitingSince = jobExecution.getCreatedAt();
+        if (jobExecution.getMaturity() != null && (waitingSince == null || jobExecution.getMaturity().isAfter(waitingSince))) {
+            waitingSince = jobExecution.getMaturity();
+        }
+        return jobExecution.getPriority() * agingMillis - millis(waitingSince);
+    }
+
+    private static long millis(LocalDateTime timestamp) {
+        return timestamp == null ? 0L : timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+}
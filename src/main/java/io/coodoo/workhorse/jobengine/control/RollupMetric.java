@@ -0,0 +1,66 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecutionRollup;
+
+/**
+ * Latencies of a job execution that get recorded into the per minute {@link JobExecutionRollup}s. The stages add up like this:
+ * 
+ * <pre>
+ * created/maturity --POLL--> drafted into memory queue --QUEUE--> dequeued by job thread --START--> running --DURATION--> ended (--THROTTLE-->)
+ * \_____________________________________ WAIT _____________________________________/
+ * </pre>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public enum RollupMetric {
+
+    /**
+     * Time of the work itself
+     */
+    DURATION(JobExecutionRollup::getDurationHistogram, JobExecutionRollup::setDurationHistogram),
+
+    /**
+     * Time from creation (or maturity) until the job execution is running
+     */
+    WAIT(JobExecutionRollup::getWaitHistogram, JobExecutionRollup::setWaitHistogram),
+
+    /**
+     * Time from creation (or maturity) until the poller drafted the job execution into the memory queue
+     */
+    POLL(JobExecutionRollup::getPollHistogram, JobExecutionRollup::setPollHistogram),
+
+    /**
+     * Time the job execution spent in the memory queue until a job thread took it
+     */
+    QUEUE(JobExecutionRollup::getQueueHistogram, JobExecutionRollup::setQueueHistogram),
+
+    /**
+     * Time from being taken by a job thread until the job execution is marked as running
+     */
+    START(JobExecutionRollup::getStartHistogram, JobExecutionRollup::setStartHistogram),
+
+    /**
+     * Time a job thread slept after a job execution to not exceed {@link io.coodoo.workhorse.jobengine.entity.Job#getMaxPerMinute()}
+     */
+    THROTTLE(JobExecutionRollup::getThrottleHistogram, JobExecutionRollup::setThrottleHistogram);
+
+    private final Function<JobExecutionRollup, String> getter;
+    private final BiConsumer<JobExecutionRollup, String> setter;
+
+    private RollupMetric(Function<JobExecutionRollup, String> getter, BiConsumer<JobExecutionRollup, String> setter) {
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public DurationHistogram getHistogram(JobExecutionRollup rollup) {
+        return DurationHistogram.decode(getter.apply(rollup));
+    }
+
+    public void setHistogram(JobExecutionRollup rollup, DurationHistogram histogram) {
+        setter.accept(rollup, histogram.getTotalCount() > 0 ? histogram.encode() : null);
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+
+/**
+ * Deflate compression of the large text columns (parameters, log and stacktrace). Texts of at least {@link JobEngineConfig#COMPRESSION_THRESHOLD}
+ * characters are stored as {@value #MARKER} followed by the Base64 of the compressed UTF-8, but only if that is shorter. Texts without the marker are read
+ * as they are, so uncompressed rows stay readable.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public final class TextCompression {
+
+    public static final String MARKER = "~deflate~";
+
+    private static final LongAdder uncompressedSize = new LongAdder();
+
+    private static final LongAdder compressedSize = new LongAdder();
+
+    private TextCompression() {}
+
+    /**
+     * @param text text to store
+     * @return compressed text or the text itself if it is below the threshold, doesn't get shorter or is already compressed
+     */
+    public static String compress(String text) {
+
+        if (text == null || JobEngineConfig.COMPRESSION_THRESHOLD <= 0 || text.length() < JobEngineConfig.COMPRESSION_THRESHOLD || text.startsWith(MARKER)) {
+            return text;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Deflater deflater = new Deflater();
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(bytes.length / 4);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            String compressed = MARKER + Base64.getEncoder().encodeToString(output.toByteArray());
+            if (compressed.length() >= text.length()) {
+                return text;
+            }
+            uncompressedSize.add(text.length());
+            compressedSize.add(compressed.length());
+            return compressed;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * @param stored text as stored
+     * @return decompressed text or the stored text itself if it isn't compressed
+     */
+    public static String decompress(String stored) {
+
+        if (stored == null || !stored.startsWith(MARKER)) {
+            return stored;
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(Base64.getDecoder().decode(stored.substring(MARKER.length())));
+            ByteArrayOutputStream output = new ByteArrayOutputStream(stored.length() * 4);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(buffer);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    // truncated, so it wasn't written by us
+                    return stored;
+                }
+                output.write(buffer, 0, inflated);
+            }
+            return new String(output.toByteArray(), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException | DataFormatException e) {
+            // just a text that starts like a compressed one
+            return stored;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * @return characters of all texts this node compressed since start
+     */
+    public static long getUncompressedSize() {
+        return uncompressedSize.sum();
+    }
+
+    /**
+     * @return characters these texts took after compression
+     */
+    public static long getCompressedSize() {
+        return compressedSize.sum();
+    }
+
+}
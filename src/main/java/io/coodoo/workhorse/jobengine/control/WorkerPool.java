@@ -0,0 +1,143 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.entity.Job;
+
+/**
+ * The slots of the shared worker pool on this node, as defined in {@link JobEngineConfig#WORKER_POOL_SIZE}. A free slot goes to the waiting job with the
+ * earliest virtual start, so competing jobs get slots in proportion to their {@link Job#getWeight()} and a job alone gets all of them (start-time fair
+ * queuing). A job that had nothing to do starts at the current virtual time and can't save up credit while it is idle.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class WorkerPool {
+
+    /**
+     * Virtual time one slot costs a job with weight 1
+     */
+    private static final long COST = 1_000_000L;
+
+    private final int size;
+
+    private final Map<Long, Share> shares = new LinkedHashMap<>();
+
+    private int free;
+
+    private long virtualTime;
+
+    private static class Share {
+
+        int weight;
+        int waiting;
+        int granted;
+        long finishTag;
+    }
+
+    /**
+     * @param size number of slots, <code>0</code> for no pool at all
+     */
+    public WorkerPool(int size) {
+        this.size = Math.max(0, size);
+        this.free = this.size;
+    }
+
+    public boolean isEnabled() {
+        return size > 0;
+    }
+
+    /**
+     * Waits for a slot for the next job execution of the job
+     *
+     * @param job job whose thread waits
+     * @param timeoutMillis longest time to wait
+     * @return <code>true</code> if the job got a slot, that has to be given back by {@link #release()}. Always <code>true</code> if the pool is off.
+     * @throws InterruptedException if the job thread got interrupted while waiting
+     */
+    public synchronized boolean acquire(Job job, long timeoutMillis) throws InterruptedException {
+
+        if (!isEnabled()) {
+            return true;
+        }
+        Share share = shares.computeIfAbsent(job.getId(), jobId -> new Share());
+        share.weight = Math.max(1, job.getWeight());
+        share.waiting++;
+        try {
+            dispatch();
+            long waitUntil = System.currentTimeMillis() + timeoutMillis;
+            while (share.granted == 0) {
+                long wait = waitUntil - System.currentTimeMillis();
+                if (wait <= 0) {
+                    return false;
+                }
+                wait(wait);
+            }
+            share.granted--;
+            return true;
+        } finally {
+            share.waiting--;
+            if (share.granted > share.waiting) {
+                // interrupted after its slot got granted, so it goes to the next one
+                share.granted--;
+                free++;
+                dispatch();
+            }
+        }
+    }
+
+    /**
+     * Gives back a slot
+     */
+    public synchronized void release() {
+
+        if (!isEnabled()) {
+            return;
+        }
+        free++;
+        dispatch();
+    }
+
+    /**
+     * Grants the free slots to the waiting jobs, the one with the earliest virtual start first
+     */
+    private void dispatch() {
+
+        boolean granted = false;
+        while (free > 0) {
+            Long next = null;
+            long nextStart = Long.MAX_VALUE;
+            for (Map.Entry<Long, Share> entry : shares.entrySet()) {
+                Share share = entry.getValue();
+                if (share.waiting > share.granted) {
+                    long start = Math.max(virtualTime, share.finishTag);
+                    if (start < nextStart) {
+                        next = entry.getKey();
+                        nextStart = start;
+                    }
+                }
+            }
+            if (next == null) {
+                break;
+            }
+            Share share = shares.get(next);
+            share.granted++;
+            share.finishTag = nextStart + COST / share.weight;
+            virtualTime = nextStart;
+            free--;
+            granted = true;
+        }
+        if (granted) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return number of free slots
+     */
+    public synchronized int getFree() {
+        return free;
+    }
+
+}
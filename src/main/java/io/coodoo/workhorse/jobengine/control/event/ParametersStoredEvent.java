@@ -0,0 +1,21 @@
+package io.coodoo.workhorse.jobengine.control.event;
+
+/**
+ * Fired when the parameters of a new job execution got stored. The payload gets deleted from the store again if the transaction rolls back.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class ParametersStoredEvent {
+
+    private String parametersRef;
+
+    public ParametersStoredEvent(String parametersRef) {
+        super();
+        this.parametersRef = parametersRef;
+    }
+
+    public String getParametersRef() {
+        return parametersRef;
+    }
+
+}
@@ -0,0 +1,23 @@
+package io.coodoo.workhorse.jobengine.control.event;
+
+import java.util.List;
+
+/**
+ * Fired when job executions with stored parameters got deleted. The payloads get deleted from the store once the transaction is committed.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class ParametersUnreferencedEvent {
+
+    private List<String> parametersRefs;
+
+    public ParametersUnreferencedEvent(List<String> parametersRefs) {
+        super();
+        this.parametersRefs = parametersRefs;
+    }
+
+    public List<String> getParametersRefs() {
+        return parametersRefs;
+    }
+
+}
@@ -0,0 +1,15 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+/**
+ * A running Flight Recorder event, see {@link JobEngineEvents}
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public interface EventSpan {
+
+    /**
+     * Ends the event and commits it, if it gets recorded
+     */
+    void end();
+
+}
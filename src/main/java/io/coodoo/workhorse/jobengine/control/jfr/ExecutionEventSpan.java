@@ -0,0 +1,19 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+
+/**
+ * A running Flight Recorder event of a job execution, see {@link JobEngineEvents}
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public interface ExecutionEventSpan {
+
+    /**
+     * Ends the event and commits it, if it gets recorded
+     *
+     * @param status the status the job execution ended with
+     */
+    void end(JobExecutionStatus status);
+
+}
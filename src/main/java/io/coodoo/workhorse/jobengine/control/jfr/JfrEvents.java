@@ -0,0 +1,89 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+import jdk.jfr.Event;
+
+/**
+ * The only class that touches the Flight Recorder API, so it gets loaded by {@link JobEngineEvents} only if the JVM provides it
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+final class JfrEvents {
+
+    private JfrEvents() {}
+
+    static ExecutionEventSpan execution(Job job, JobExecution jobExecution) {
+
+        JobExecutionEvent event = new JobExecutionEvent();
+        if (!event.isEnabled()) {
+            return JobEngineEvents.NO_EXECUTION_EVENT;
+        }
+        event.jobId = job.getId();
+        event.jobName = job.getName();
+        event.jobExecutionId = jobExecution.getId();
+        event.priority = jobExecution.getPriority();
+        event.begin();
+        return status -> {
+            event.status = status == null ? null : status.name();
+            commit(event);
+        };
+    }
+
+    static EventSpan statusPersist(Long jobId, Long jobExecutionId, JobExecutionStatus status) {
+
+        StatusPersistEvent event = new StatusPersistEvent();
+        if (!event.isEnabled()) {
+            return JobEngineEvents.NO_EVENT;
+        }
+        event.jobId = jobId;
+        event.jobExecutionId = jobExecutionId;
+        event.status = status.name();
+        return begin(event);
+    }
+
+    static EventSpan poll() {
+
+        PollEvent event = new PollEvent();
+        if (!event.isEnabled()) {
+            return JobEngineEvents.NO_EVENT;
+        }
+        return begin(event);
+    }
+
+    static EventSpan lockWait(Job job) {
+
+        LockWaitEvent event = new LockWaitEvent();
+        if (!event.isEnabled()) {
+            return JobEngineEvents.NO_EVENT;
+        }
+        event.jobId = job.getId();
+        event.jobName = job.getName();
+        return begin(event);
+    }
+
+    static EventSpan throttle(Job job) {
+
+        ThrottleEvent event = new ThrottleEvent();
+        if (!event.isEnabled()) {
+            return JobEngineEvents.NO_EVENT;
+        }
+        event.jobId = job.getId();
+        event.jobName = job.getName();
+        return begin(event);
+    }
+
+    private static EventSpan begin(Event event) {
+        event.begin();
+        return () -> commit(event);
+    }
+
+    private static void commit(Event event) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.commit();
+        }
+    }
+
+}
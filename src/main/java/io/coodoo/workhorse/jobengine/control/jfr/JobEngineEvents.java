@@ -0,0 +1,66 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+
+/**
+ * Emits Java Flight Recorder events of the hot path of the job engine, all in the category <code>Workhorse</code>:
+ * <ul>
+ * <li><code>io.coodoo.workhorse.JobExecution</code>: the work of a job execution</li>
+ * <li><code>io.coodoo.workhorse.StatusPersist</code>: persisting the status of a job execution</li>
+ * <li><code>io.coodoo.workhorse.Poll</code>: a cycle of the job queue poller</li>
+ * <li><code>io.coodoo.workhorse.LockWait</code>: a job thread waiting for the lock of its job (1 ms threshold by default)</li>
+ * <li><code>io.coodoo.workhorse.Throttle</code>: a job thread sleeping to not exceed the max executions per minute</li>
+ * </ul>
+ * If nothing gets recorded, an event costs no more than a check of its enabled flag. On a JVM without Flight Recorder (before Java 8u262) no event class is
+ * ever loaded.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public final class JobEngineEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobEngineEvents.class);
+
+    private static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+    static final EventSpan NO_EVENT = () -> {};
+
+    static final ExecutionEventSpan NO_EXECUTION_EVENT = status -> {};
+
+    private JobEngineEvents() {}
+
+    public static ExecutionEventSpan execution(Job job, JobExecution jobExecution) {
+        return AVAILABLE ? JfrEvents.execution(job, jobExecution) : NO_EXECUTION_EVENT;
+    }
+
+    public static EventSpan statusPersist(Long jobId, Long jobExecutionId, JobExecutionStatus status) {
+        return AVAILABLE ? JfrEvents.statusPersist(jobId, jobExecutionId, status) : NO_EVENT;
+    }
+
+    public static EventSpan poll() {
+        return AVAILABLE ? JfrEvents.poll() : NO_EVENT;
+    }
+
+    public static EventSpan lockWait(Job job) {
+        return AVAILABLE ? JfrEvents.lockWait(job) : NO_EVENT;
+    }
+
+    public static EventSpan throttle(Job job) {
+        return AVAILABLE ? JfrEvents.throttle(job) : NO_EVENT;
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.info("Java Flight Recorder is not available, no job engine events get emitted");
+            return false;
+        }
+    }
+
+}
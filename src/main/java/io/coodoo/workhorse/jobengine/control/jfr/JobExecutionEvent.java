@@ -0,0 +1,35 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Name("io.coodoo.workhorse.JobExecution")
+@Label("Job Execution")
+@Description("The work of a job execution")
+@Category("Workhorse")
+@StackTrace(false)
+class JobExecutionEvent extends Event {
+
+    @Label("Job ID")
+    long jobId;
+
+    @Label("Job Name")
+    String jobName;
+
+    @Label("Job Execution ID")
+    long jobExecutionId;
+
+    @Label("Priority")
+    int priority;
+
+    @Label("Status")
+    String status;
+
+}
@@ -0,0 +1,26 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Name("io.coodoo.workhorse.LockWait")
+@Label("Lock Wait")
+@Description("Waiting for the lock of a job")
+@Category("Workhorse")
+@Threshold("1 ms")
+class LockWaitEvent extends Event {
+
+    @Label("Job ID")
+    long jobId;
+
+    @Label("Job Name")
+    String jobName;
+
+}
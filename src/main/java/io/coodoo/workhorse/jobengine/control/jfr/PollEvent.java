@@ -0,0 +1,20 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Name("io.coodoo.workhorse.Poll")
+@Label("Poll")
+@Description("A cycle of the job queue poller")
+@Category("Workhorse")
+@StackTrace(false)
+class PollEvent extends Event {
+
+}
@@ -0,0 +1,29 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Name("io.coodoo.workhorse.StatusPersist")
+@Label("Status Persist")
+@Description("Persisting the status of a job execution")
+@Category("Workhorse")
+@StackTrace(false)
+class StatusPersistEvent extends Event {
+
+    @Label("Job ID")
+    long jobId;
+
+    @Label("Job Execution ID")
+    long jobExecutionId;
+
+    @Label("Status")
+    String status;
+
+}
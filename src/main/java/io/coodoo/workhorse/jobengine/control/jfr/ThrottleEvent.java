@@ -0,0 +1,26 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Name("io.coodoo.workhorse.Throttle")
+@Label("Throttle")
+@Description("Sleeping to not exceed the max executions per minute of a job")
+@Category("Workhorse")
+@StackTrace(false)
+class ThrottleEvent extends Event {
+
+    @Label("Job ID")
+    long jobId;
+
+    @Label("Job Name")
+    String jobName;
+
+}
@@ -0,0 +1,62 @@
+package io.coodoo.workhorse.jobengine.control.jmx;
+
+/**
+ * Live state of a job on this node, registered as <code>io.coodoo.workhorse:type=Job,name=&lt;job name&gt;</code>. All attributes are read from lock-free
+ * counters, so scraping them doesn't contend with the job threads.
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+public interface JobMXBean {
+
+    long getJobId();
+
+    String getJobName();
+
+    /**
+     * @return number of job executions in the memory queue
+     */
+    int getQueuedExecutions();
+
+    /**
+     * @return number of priority job executions in the memory queue
+     */
+    int getPriorityQueuedExecutions();
+
+    /**
+     * @return number of job executions running on this node
+     */
+    int getRunningExecutions();
+
+    /**
+     * @return number of job threads that are currently working the memory queue
+     */
+    int getActiveThreads();
+
+    /**
+     * @return number of job threads the job may use
+     */
+    int getConfiguredThreads();
+
+    boolean isPaused();
+
+    /**
+     * @return number of job executions that ended on this node since it started
+     */
+    long getEndedExecutions();
+
+    /**
+     * @return number of job executions that failed on this node since it started
+     */
+    long getFailedExecutions();
+
+    /**
+     * @return number of job executions that ended on this node in the last minute
+     */
+    long getThroughputPerMinute();
+
+    /**
+     * @return share of failed job executions (between 0 and 1) of all that ended on this node in the last minute
+     */
+    double getErrorRate();
+
+}
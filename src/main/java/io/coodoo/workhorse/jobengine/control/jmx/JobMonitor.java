@@ -0,0 +1,86 @@
+package io.coodoo.workhorse.jobengine.control.jmx;
+
+import io.coodoo.workhorse.jobengine.control.JobEngine;
+import io.coodoo.workhorse.jobengine.control.JobStatistics;
+
+/**
+ * @author coodoo GmbH (coodoo.io)
+ */
+public class JobMonitor implements JobMXBean {
+
+    private final Long jobId;
+
+    private final String jobName;
+
+    private final JobEngine jobEngine;
+
+    private final JobStatistics jobStatistics;
+
+    public JobMonitor(Long jobId, String jobName, JobEngine jobEngine, JobStatistics jobStatistics) {
+        this.jobId = jobId;
+        this.jobName = jobName;
+        this.jobEngine = jobEngine;
+        this.jobStatistics = jobStatistics;
+    }
+
+    @Override
+    public long getJobId() {
+        return jobId;
+    }
+
+    @Override
+    public String getJobName() {
+        return jobName;
+    }
+
+    @Override
+    public int getQueuedExecutions() {
+        return jobEngine.getQueuedCount(jobId);
+    }
+
+    @Override
+    public int getPriorityQueuedExecutions() {
+        return jobEngine.getPriorityQueuedCount(jobId);
+    }
+
+    @Override
+    public int getRunningExecutions() {
+        return jobEngine.getRunningCount(jobId);
+    }
+
+    @Override
+    public int getActiveThreads() {
+        return jobEngine.getActiveThreadCount(jobId);
+    }
+
+    @Override
+    public int getConfiguredThreads() {
+        return jobEngine.getConfiguredThreadCount(jobId);
+    }
+
+    @Override
+    public boolean isPaused() {
+        return jobEngine.isPaused(jobId);
+    }
+
+    @Override
+    public long getEndedExecutions() {
+        return jobStatistics.getEndedOnNode(jobId, false);
+    }
+
+    @Override
+    public long getFailedExecutions() {
+        return jobStatistics.getEndedOnNode(jobId, true);
+    }
+
+    @Override
+    public long getThroughputPerMinute() {
+        return jobStatistics.getThroughput(jobId);
+    }
+
+    @Override
+    public double getErrorRate() {
+        return jobStatistics.getErrorRate(jobId);
+    }
+
+}
@@ -0,0 +1,98 @@
+package io.coodoo.workhorse.jobengine.control.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.control.JobEngine;
+import io.coodoo.workhorse.jobengine.control.JobStatistics;
+import io.coodoo.workhorse.jobengine.entity.Job;
+
+/**
+ * Registers a {@link JobMXBean} per job at the platform MBean server, see {@link JobEngineConfig#JMX}
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class JobMonitors {
+
+    public static final String DOMAIN = "io.coodoo.workhorse";
+
+    private final Logger logger = LoggerFactory.getLogger(JobMonitors.class);
+
+    @Inject
+    JobEngine jobEngine;
+
+    @Inject
+    JobStatistics jobStatistics;
+
+    private final Map<Long, ObjectName> objectNames = new ConcurrentHashMap<>();
+
+    public void registerAll(List<Job> jobs) {
+        if (!JobEngineConfig.JMX) {
+            return;
+        }
+        for (Job job : jobs) {
+            register(job);
+        }
+    }
+
+    public void register(Job job) {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = objectName(job);
+            if (mBeanServer.isRegistered(objectName)) {
+                // left over by a previous deployment
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new JobMonitor(job.getId(), job.getName(), jobEngine, jobStatistics), objectName);
+            objectNames.put(job.getId(), objectName);
+        } catch (JMException e) {
+            logger.warn("Could not register MBean for job {}: {}", job.getName(), e.getMessage());
+        }
+    }
+
+    public void unregister(Long jobId) {
+
+        ObjectName objectName = objectNames.remove(jobId);
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException e) {
+            logger.warn("Could not unregister MBean {}: {}", objectName, e.getMessage());
+        }
+    }
+
+    public void unregisterAll() {
+        for (Long jobId : objectNames.keySet()) {
+            unregister(jobId);
+        }
+    }
+
+    public static ObjectName objectName(Job job) throws JMException {
+
+        Hashtable<String, String> properties = new Hashtable<>();
+        properties.put("type", "Job");
+        properties.put("name", ObjectName.quote(job.getName()));
+        return new ObjectName(DOMAIN, properties);
+    }
+
+}
@@ -1,5 +1,7 @@
 package io.coodoo.workhorse.jobengine.control.job;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import javax.enterprise.context.RequestScoped;
@@ -8,17 +10,30 @@ import javax.inject.Inject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
 import io.coodoo.workhorse.jobengine.boundary.JobWorker;
 import io.coodoo.workhorse.jobengine.boundary.annotation.InitialJobConfig;
 import io.coodoo.workhorse.jobengine.control.JobEngineController;
+import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
+import io.coodoo.workhorse.jobengine.control.JobExecutionHistoryPartitioner;
 import io.coodoo.workhorse.jobengine.control.annotation.SystemJob;
 import io.coodoo.workhorse.jobengine.entity.Job;
 
 /**
  * Deletes old Job Executions database entries, which are not needed anymore.
  * 
- * Every Job can configure his own clean up days count by setting JobConfig.
+ * Every Job can configure his own clean up days count by setting JobConfig. This applies to the queue table as well as to the history table.
+ * 
+ * The executions get deleted in chunks of {@link JobEngineConfig#CLEANUP_CHUNK_SIZE}, each in its own transaction and with a pause of
+ * {@link JobEngineConfig#CLEANUP_CHUNK_PAUSE} in between. If the time budget of {@link JobEngineConfig#CLEANUP_TIME_BUDGET} runs out, the cleanup continues
+ * in a new execution a minute later.
+ * 
+ * If the history table is partitioned (see {@link JobEngineConfig#EXECUTION_HISTORY_PARTITIONING}), the upcoming partitions get created and expired
+ * partitions get dropped as a whole. Expired partitions are those older than the longest retention of all jobs, so the history of the jobs with the longest
+ * retention doesn't need to be deleted row by row.
+ * 
+ * Stacktraces that didn't occur within the longest retention of all jobs get deleted as well.
  * 
  * @author coodoo GmbH (coodoo.io)
  */
@@ -35,17 +50,33 @@ public class JobExecutionCleanupWorker extends JobWorker {
     @Inject
     JobEngineController jobEngineController;
 
+    @Inject
+    JobExecutionHistoryPartitioner jobExecutionHistoryPartitioner;
+
     @Override
     public void doWork() throws Exception {
 
+        long deadline = System.currentTimeMillis() + JobEngineConfig.CLEANUP_TIME_BUDGET * 1000L;
+
         List<Job> jobs = jobEngineService.getAllJobs();
         int deletedSum = 0;
+
+        int partitionedDays = 0;
+        if (jobExecutionHistoryPartitioner.isActive()) {
+            partitionedDays = maintainPartitions(jobs);
+        }
         logInfo(logger, "Deleted | Days | Job ID | Job Name");
 
         for (Job job : jobs) {
+            if (System.currentTimeMillis() >= deadline) {
+                break;
+            }
             if (job.getDaysUntilCleanUp() > 0) {
                 try {
-                    int deleted = jobEngineController.deleteOlderJobExecutions(job.getId(), job.getDaysUntilCleanUp());
+                    int deleted = deleteOlderJobExecutions(job, false, deadline);
+                    if (job.getDaysUntilCleanUp() != partitionedDays) {
+                        deleted += deleteOlderJobExecutions(job, true, deadline);
+                    }
                     logInfo(logger, String.format("%7d | %4d | %6d | %s", deleted, job.getDaysUntilCleanUp(), job.getId(), job.getName()));
                     deletedSum += deleted;
                 } catch (Exception e) {
@@ -57,5 +88,104 @@ public class JobExecutionCleanupWorker extends JobWorker {
         }
 
         logInfo(logger, "Deleted " + deletedSum + " job executions");
+
+        if (partitionedDays > 0) {
+            // the logs of the job executions in the dropped partitions
+            int deletedLogs = jobEngineController.deleteOlderJobExecutionLogs(LocalDateTime.now().minusDays(partitionedDays));
+            if (deletedLogs > 0) {
+                logInfo(logger, "Deleted " + deletedLogs + " log chunks of dropped partitions");
+            }
+        }
+
+        int deletedRollups = jobEngineController.deleteOlderRollups(LocalDateTime.now().minusDays(JobEngineConfig.ROLLUP_DAYS_UNTIL_CLEANUP));
+        if (deletedRollups > 0) {
+            logInfo(logger, "Deleted " + deletedRollups + " duration rollups");
+        }
+
+        int longestDays = longestDaysUntilCleanUp(jobs);
+        if (longestDays > 0 && System.currentTimeMillis() < deadline) {
+            // the job executions of a stacktrace that didn't occur within the longest retention are all gone by now
+            int deletedStacktraces = jobEngineController.deleteOlderStacktraces(LocalDateTime.now().minusDays(longestDays));
+            if (deletedStacktraces > 0) {
+                logInfo(logger, "Deleted " + deletedStacktraces + " stacktraces");
+            }
+        }
+
+        if (System.currentTimeMillis() >= deadline) {
+            logWarn(logger, "Time budget of " + JobEngineConfig.CLEANUP_TIME_BUDGET + " seconds exhausted, the cleanup continues in a minute");
+            createDelayedJobExecution(1L, ChronoUnit.MINUTES);
+        }
+    }
+
+    /**
+     * @return the retention in days that is covered by dropping partitions or <code>0</code> if no partitions can be dropped
+     */
+    private int maintainPartitions(List<Job> jobs) {
+
+        List<String> created = jobExecutionHistoryPartitioner.createPartitions();
+        if (!created.isEmpty()) {
+            logInfo(logger, "Created partitions " + String.join(", ", created));
+        }
+
+        int partitionedDays = 0;
+        for (Job job : jobs) {
+            if (job.getDaysUntilCleanUp() <= 0) {
+                logInfo(logger, "No partitions get dropped, the job executions of job " + job.getName() + " are never deleted");
+                return 0;
+            }
+            partitionedDays = Math.max(partitionedDays, job.getDaysUntilCleanUp());
+        }
+        if (partitionedDays > 0) {
+            List<String> dropped = jobExecutionHistoryPartitioner.dropPartitions(JobEngineUtil.timestamp().toLocalDate().minusDays(partitionedDays));
+            if (!dropped.isEmpty()) {
+                logInfo(logger, "Dropped partitions " + String.join(", ", dropped));
+            }
+        }
+        return partitionedDays;
+    }
+
+    /**
+     * @return the longest retention in days of all jobs or <code>0</code> if a job never deletes its executions
+     */
+    private static int longestDaysUntilCleanUp(List<Job> jobs) {
+
+        int longestDays = 0;
+        for (Job job : jobs) {
+            if (job.getDaysUntilCleanUp() <= 0) {
+                return 0;
+            }
+            longestDays = Math.max(longestDays, job.getDaysUntilCleanUp());
+        }
+        return longestDays;
+    }
+
+    private int deleteOlderJobExecutions(Job job, boolean history, long deadline) throws InterruptedException {
+
+        LocalDateTime preDate = LocalDateTime.now().minusDays(job.getDaysUntilCleanUp());
+
+        // Every run starts at the beginning of the key range: what has been deleted before is gone and the index seek skips right to the leftovers
+        Long lastId = 0L;
+        int deleted = 0;
+
+        while (System.currentTimeMillis() < deadline) {
+
+            List<Long> deletedIds;
+            if (history) {
+                deletedIds = jobEngineController.deleteOlderJobExecutionHistory(job.getId(), preDate, lastId, JobEngineConfig.CLEANUP_CHUNK_SIZE);
+            } else {
+                deletedIds = jobEngineController.deleteOlderJobExecutions(job.getId(), preDate, lastId, JobEngineConfig.CLEANUP_CHUNK_SIZE);
+            }
+            deleted += deletedIds.size();
+
+            if (deletedIds.size() < JobEngineConfig.CLEANUP_CHUNK_SIZE) {
+                break; // nothing left
+            }
+            lastId = deletedIds.get(deletedIds.size() - 1);
+
+            if (JobEngineConfig.CLEANUP_CHUNK_PAUSE > 0) {
+                Thread.sleep(JobEngineConfig.CLEANUP_CHUNK_PAUSE);
+            }
+        }
+        return deleted;
     }
 }
@@ -0,0 +1,325 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.MappedSuperclass;
+
+import io.coodoo.framework.jpa.boundary.entity.RevisionDatesEntity;
+
+/**
+ * <p>
+ * Attributes of a job execution, shared by the queue table {@link JobExecution} and the history table {@link JobExecutionHistory}.
+ * </p>
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+@MappedSuperclass
+public abstract class BaseJobExecution extends RevisionDatesEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Priority of a job execution without priority
+     */
+    public static final int PRIORITY_NORMAL = 0;
+
+    /**
+     * Priority of a job execution that is created with priority <code>true</code>
+     */
+    public static final int PRIORITY_HIGH = 10;
+
+    /**
+     * The reference to the job description.
+     */
+    @Column(name = "job_id")
+    protected Long jobId;
+
+    /**
+     * The job excecution status e.g. QUEUED or FINISHED.
+     */
+    @Column(name = "status")
+    @Enumerated(EnumType.STRING)
+    protected JobExecutionStatus status;
+
+    @Column(name = "started_at")
+    protected LocalDateTime startedAt;
+
+    @Column(name = "ended_at")
+    protected LocalDateTime endedAt;
+
+    @Column(name = "duration")
+    protected Long duration;
+
+    /**
+     * Name of the {@link JobEngineNode} that runs the job execution.
+     */
+    @Column(name = "node")
+    protected String node;
+
+    /**
+     * A running job execution is owned by its node until this time. The node renews the lease with every poll, if it runs out the job execution is a zombie.
+     */
+    @Column(name = "lease_expires_at")
+    protected LocalDateTime leaseExpiresAt;
+
+    /**
+     * Job executions with a higher priority get executed first, {@link #PRIORITY_NORMAL} is <code>0</code>. Waiting job executions gain priority over time,
+     * see {@link io.coodoo.workhorse.jobengine.boundary.JobEngineConfig#PRIORITY_AGING}.
+     */
+    @Column(name = "priority")
+    protected int priority;
+
+    /**
+     * If a maturity is given, the job execution will not be executed before this this time.
+     */
+    @Column(name = "maturity")
+    protected LocalDateTime maturity;
+
+    @Column(name = "batch_id")
+    protected Long batchId;
+
+    @Column(name = "chain_id")
+    protected Long chainId;
+
+    @Column(name = "chain_previous_execution_id")
+    protected Long chainPreviousExecutionId;
+
+    /**
+     * Job executions with the same ordering key run one after the other in the order they got queued, e.g. all job executions of one customer.
+     */
+    @Column(name = "ordering_key")
+    protected String orderingKey;
+
+    /**
+     * At most one job execution with the same mutex key runs at a time, e.g. one per account.
+     */
+    @Column(name = "mutex_key")
+    protected String mutexKey;
+
+    @Column(name = "parameters")
+    @Convert(converter = CompressedTextConverter.class)
+    protected String parameters;
+
+    /**
+     * The parameters encoded by {@link io.coodoo.workhorse.jobengine.boundary.JobEngineConfig#PARAMETERS_CODEC}, instead of the JSON in
+     * <code>parameters</code>.
+     */
+    @Column(name = "parameters_data")
+    protected byte[] parametersData;
+
+    /**
+     * Reference of oversized parameters in the {@link io.coodoo.workhorse.jobengine.boundary.JobEngineConfig#PARAMETERS_STORE}, prefixed by their format
+     * (<code>json:</code> or <code>data:</code>).
+     */
+    @Column(name = "parameters_ref")
+    protected String parametersRef;
+
+    @Column(name = "parameters_hash")
+    protected Integer parametersHash;
+
+    @Column(name = "fail_retry")
+    protected int failRetry;
+
+    @Column(name = "fail_retry_execution_id")
+    protected Long failRetryExecutionId;
+
+    /**
+     * The exception message, if the job execution ends in an exception.
+     */
+    @Column(name = "fail_message")
+    protected String failMessage;
+
+    /**
+     * Fingerprint of the exception stacktrace in {@link JobExecutionStacktrace}, if the job execution ends in an exception.
+     */
+    @Column(name = "fail_stacktrace_hash")
+    protected String failStacktraceHash;
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public JobExecutionStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(JobExecutionStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getEndedAt() {
+        return endedAt;
+    }
+
+    public void setEndedAt(LocalDateTime endedAt) {
+        this.endedAt = endedAt;
+    }
+
+    public Long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Long duration) {
+        this.duration = duration;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void setLeaseExpiresAt(LocalDateTime leaseExpiresAt) {
+        this.leaseExpiresAt = leaseExpiresAt;
+    }
+
+    /**
+     * @return <code>true</code> if the priority is above {@link #PRIORITY_NORMAL}
+     */
+    public boolean isPriority() {
+        return priority > PRIORITY_NORMAL;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public LocalDateTime getMaturity() {
+        return maturity;
+    }
+
+    public void setMaturity(LocalDateTime maturity) {
+        this.maturity = maturity;
+    }
+
+    public Long getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(Long batchId) {
+        this.batchId = batchId;
+    }
+
+    public Long getChainId() {
+        return chainId;
+    }
+
+    public void setChainId(Long chainId) {
+        this.chainId = chainId;
+    }
+
+    public Long getChainPreviousExecutionId() {
+        return chainPreviousExecutionId;
+    }
+
+    public void setChainPreviousExecutionId(Long chainPreviousExecutionId) {
+        this.chainPreviousExecutionId = chainPreviousExecutionId;
+    }
+
+    public String getOrderingKey() {
+        return orderingKey;
+    }
+
+    public void setOrderingKey(String orderingKey) {
+        this.orderingKey = orderingKey;
+    }
+
+    public String getMutexKey() {
+        return mutexKey;
+    }
+
+    public void setMutexKey(String mutexKey) {
+        this.mutexKey = mutexKey;
+    }
+
+    public String getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+
+    public byte[] getParametersData() {
+        return parametersData;
+    }
+
+    public void setParametersData(byte[] parametersData) {
+        this.parametersData = parametersData;
+    }
+
+    public String getParametersRef() {
+        return parametersRef;
+    }
+
+    public void setParametersRef(String parametersRef) {
+        this.parametersRef = parametersRef;
+    }
+
+    public Integer getParametersHash() {
+        return parametersHash;
+    }
+
+    public void setParametersHash(Integer parametersHash) {
+        this.parametersHash = parametersHash;
+    }
+
+    public int getFailRetry() {
+        return failRetry;
+    }
+
+    public void setFailRetry(int failRetry) {
+        this.failRetry = failRetry;
+    }
+
+    public Long getFailRetryExecutionId() {
+        return failRetryExecutionId;
+    }
+
+    public void setFailRetryExecutionId(Long failRetryExecutionId) {
+        this.failRetryExecutionId = failRetryExecutionId;
+    }
+
+    public String getFailMessage() {
+        return failMessage;
+    }
+
+    public void setFailMessage(String failMessage) {
+        this.failMessage = failMessage;
+    }
+
+    public String getFailStacktraceHash() {
+        return failStacktraceHash;
+    }
+
+    public void setFailStacktraceHash(String failStacktraceHash) {
+        this.failStacktraceHash = failStacktraceHash;
+    }
+
+}
@@ -0,0 +1,26 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+import io.coodoo.workhorse.jobengine.control.TextCompression;
+
+/**
+ * Stores large texts compressed, see {@link TextCompression}
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, String> {
+
+    @Override
+    public String convertToDatabaseColumn(String text) {
+        return TextCompression.compress(text);
+    }
+
+    @Override
+    public String convertToEntityAttribute(String stored) {
+        return TextCompression.decompress(stored);
+    }
+
+}
@@ -0,0 +1,26 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+/**
+ * Defines whether and how the history table <code>jobengine_execution_history</code> is partitioned by day of <code>created_at</code>. The partitioned table
+ * has to be set up by the matching script in <code>src/main/resources/sql</code>.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public enum ExecutionHistoryPartitioning {
+
+    /**
+     * The history table is not partitioned, expired job executions get deleted row by row
+     */
+    NONE,
+
+    /**
+     * Declarative range partitioning of PostgreSQL (11 or newer), see <code>postgresql-partitioning.sql</code>
+     */
+    POSTGRESQL,
+
+    /**
+     * Range partitioning of MySQL (5.7 or newer), see <code>mysql-partitioning.sql</code>
+     */
+    MYSQL;
+
+}
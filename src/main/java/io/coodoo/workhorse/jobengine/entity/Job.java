@@ -1,5 +1,6 @@
 package io.coodoo.workhorse.jobengine.entity;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,7 +30,9 @@ import io.coodoo.framework.jpa.boundary.entity.RevisionDatesOccEntity;
                 @NamedQuery(name = "Job.getAllByStatus", query = "SELECT job FROM Job job WHERE job.status=:status"),
 
                 @NamedQuery(name = "Job.getAllScheduled",
-                                query = "SELECT job FROM Job job WHERE job.type=io.coodoo.workhorse.jobengine.entity.JobType.SCHEDULED AND job.schedule IS NOT NULL")
+                                query = "SELECT job FROM Job job WHERE job.type=io.coodoo.workhorse.jobengine.entity.JobType.SCHEDULED AND job.schedule IS NOT NULL"),
+
+                @NamedQuery(name = "Job.updateScheduleLastFiredAt", query = "UPDATE Job job SET job.scheduleLastFiredAt = :firedAt WHERE job.id = :jobId")
 
 })
 public class Job extends RevisionDatesOccEntity {
@@ -56,6 +59,31 @@ public class Job extends RevisionDatesOccEntity {
     @Column(name = "schedule")
     private String schedule;
 
+    /**
+     * If <code>true</code> a schedule fire is skipped as long as the job still has queued or running executions in the memory queue.
+     */
+    @Column(name = "schedule_skip_if_active")
+    private boolean scheduleSkipIfActive;
+
+    /**
+     * What to do with schedule fires that got skipped or were missed while the job engine was down.
+     */
+    @Column(name = "schedule_misfire_policy")
+    @Enumerated(EnumType.STRING)
+    private ScheduleMisfirePolicy scheduleMisfirePolicy;
+
+    /**
+     * Max amount of missed fires that are triggered using {@link ScheduleMisfirePolicy#CATCH_UP}
+     */
+    @Column(name = "schedule_catch_up_limit")
+    private int scheduleCatchUpLimit;
+
+    /**
+     * Time of the last triggered schedule fire
+     */
+    @Column(name = "schedule_last_fired_at")
+    private LocalDateTime scheduleLastFiredAt;
+
     @Column(name = "status")
     @Enumerated(EnumType.STRING)
     private JobStatus status;
@@ -63,6 +91,19 @@ public class Job extends RevisionDatesOccEntity {
     @Column(name = "threads")
     private int threads;
 
+    /**
+     * Name of the concurrency group that limits the running job executions of this and other jobs together, see
+     * {@link io.coodoo.workhorse.jobengine.boundary.JobEngineConfig#CONCURRENCY_GROUPS}
+     */
+    @Column(name = "concurrency_group")
+    private String concurrencyGroup;
+
+    /**
+     * Share of the worker pool when several jobs have a backlog, see {@link io.coodoo.workhorse.jobengine.boundary.JobEngineConfig#WORKER_POOL_SIZE}
+     */
+    @Column(name = "weight")
+    private int weight;
+
     @Column(name = "max_per_minute")
     private Integer maxPerMinute;
 
@@ -126,6 +167,38 @@ public class Job extends RevisionDatesOccEntity {
         this.schedule = schedule;
     }
 
+    public boolean isScheduleSkipIfActive() {
+        return scheduleSkipIfActive;
+    }
+
+    public void setScheduleSkipIfActive(boolean scheduleSkipIfActive) {
+        this.scheduleSkipIfActive = scheduleSkipIfActive;
+    }
+
+    public ScheduleMisfirePolicy getScheduleMisfirePolicy() {
+        return scheduleMisfirePolicy;
+    }
+
+    public void setScheduleMisfirePolicy(ScheduleMisfirePolicy scheduleMisfirePolicy) {
+        this.scheduleMisfirePolicy = scheduleMisfirePolicy;
+    }
+
+    public int getScheduleCatchUpLimit() {
+        return scheduleCatchUpLimit;
+    }
+
+    public void setScheduleCatchUpLimit(int scheduleCatchUpLimit) {
+        this.scheduleCatchUpLimit = scheduleCatchUpLimit;
+    }
+
+    public LocalDateTime getScheduleLastFiredAt() {
+        return scheduleLastFiredAt;
+    }
+
+    public void setScheduleLastFiredAt(LocalDateTime scheduleLastFiredAt) {
+        this.scheduleLastFiredAt = scheduleLastFiredAt;
+    }
+
     public JobStatus getStatus() {
         return status;
     }
@@ -142,6 +215,22 @@ public class Job extends RevisionDatesOccEntity {
         this.threads = threads;
     }
 
+    public String getConcurrencyGroup() {
+        return concurrencyGroup;
+    }
+
+    public void setConcurrencyGroup(String concurrencyGroup) {
+        this.concurrencyGroup = concurrencyGroup;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
     public Integer getMaxPerMinute() {
         return maxPerMinute;
     }
@@ -200,10 +289,20 @@ public class Job extends RevisionDatesOccEntity {
         builder.append(type);
         builder.append(", schedule=");
         builder.append(schedule);
+        builder.append(", scheduleSkipIfActive=");
+        builder.append(scheduleSkipIfActive);
+        builder.append(", scheduleMisfirePolicy=");
+        builder.append(scheduleMisfirePolicy);
+        builder.append(", scheduleCatchUpLimit=");
+        builder.append(scheduleCatchUpLimit);
         builder.append(", status=");
         builder.append(status);
         builder.append(", threads=");
         builder.append(threads);
+        builder.append(", concurrencyGroup=");
+        builder.append(concurrencyGroup);
+        builder.append(", weight=");
+        builder.append(weight);
         builder.append(", maxPerMinute=");
         builder.append(maxPerMinute);
         builder.append(", failRetries=");
@@ -298,4 +397,19 @@ public class Job extends RevisionDatesOccEntity {
         return query.getResultList();
     }
 
+    /**
+     * Executes the query 'Job.updateScheduleLastFiredAt' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @param firedAt the firedAt
+     * @return Number of updated objects
+     */
+    public static int updateScheduleLastFiredAt(EntityManager entityManager, Long jobId, LocalDateTime firedAt) {
+        Query query = entityManager.createNamedQuery("Job.updateScheduleLastFiredAt");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("firedAt", firedAt);
+        return query.executeUpdate();
+    }
+
 }
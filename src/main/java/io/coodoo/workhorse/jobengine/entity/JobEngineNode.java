@@ -0,0 +1,127 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Query;
+import javax.persistence.Table;
+
+import io.coodoo.framework.jpa.boundary.entity.RevisionDatesEntity;
+
+/**
+ * <p>
+ * A JobEngineNode is a running instance of the job engine.
+ * </p>
+ * <p>
+ * Every node sends a heartbeat with each poll, so a node without a recent heartbeat is considered dead and the leases of its running job executions will run
+ * out.
+ * </p>
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Entity
+@Table(name = "jobengine_node")
+@NamedQueries({
+
+                @NamedQuery(name = "JobEngineNode.getAll", query = "SELECT n FROM JobEngineNode n ORDER BY n.name"),
+                @NamedQuery(name = "JobEngineNode.updateHeartbeat", query = "UPDATE JobEngineNode n SET n.heartbeatAt = :heartbeatAt WHERE n.name = :name"),
+                @NamedQuery(name = "JobEngineNode.deleteByName", query = "DELETE FROM JobEngineNode n WHERE n.name = :name"),
+                @NamedQuery(name = "JobEngineNode.deleteDeadNodes", query = "DELETE FROM JobEngineNode n WHERE n.heartbeatAt < :time")
+
+})
+public class JobEngineNode extends RevisionDatesEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Unique name of the node
+     */
+    @Column(name = "name")
+    private String name;
+
+    /**
+     * Time of the last sign of life
+     */
+    @Column(name = "heartbeat_at")
+    private LocalDateTime heartbeatAt;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getHeartbeatAt() {
+        return heartbeatAt;
+    }
+
+    public void setHeartbeatAt(LocalDateTime heartbeatAt) {
+        this.heartbeatAt = heartbeatAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JobEngineNode [id=" + id + ", name=" + name + ", heartbeatAt=" + heartbeatAt + ", createdAt=" + createdAt + "]";
+    }
+
+    /**
+     * Executes the query 'JobEngineNode.getAll' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobEngineNode> getAll(EntityManager entityManager) {
+        Query query = entityManager.createNamedQuery("JobEngineNode.getAll");
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobEngineNode.updateHeartbeat' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param name the name
+     * @param heartbeatAt the heartbeatAt
+     * @return Number of updated objects
+     */
+    public static int updateHeartbeat(EntityManager entityManager, String name, LocalDateTime heartbeatAt) {
+        Query query = entityManager.createNamedQuery("JobEngineNode.updateHeartbeat");
+        query = query.setParameter("name", name);
+        query = query.setParameter("heartbeatAt", heartbeatAt);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobEngineNode.deleteByName' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param name the name
+     * @return Number of deleted objects
+     */
+    public static int deleteByName(EntityManager entityManager, String name) {
+        Query query = entityManager.createNamedQuery("JobEngineNode.deleteByName");
+        query = query.setParameter("name", name);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobEngineNode.deleteDeadNodes' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param time the time
+     * @return Number of deleted objects
+     */
+    public static int deleteDeadNodes(EntityManager entityManager, LocalDateTime time) {
+        Query query = entityManager.createNamedQuery("JobEngineNode.deleteDeadNodes");
+        query = query.setParameter("time", time);
+        return query.executeUpdate();
+    }
+
+}
@@ -1,19 +1,18 @@
 package io.coodoo.workhorse.jobengine.entity;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
-import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityManager;
-import javax.persistence.EnumType;
-import javax.persistence.Enumerated;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.Query;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
-import io.coodoo.framework.jpa.boundary.entity.RevisionDatesEntity;
 import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 
 /**
@@ -37,36 +36,66 @@ import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 
                 // Poller
                 @NamedQuery(name = "JobExecution.getNextCandidates",
-                                query = "SELECT j FROM JobExecution j WHERE j.jobId = :jobId AND j.status = 'QUEUED' AND (j.maturity IS NULL OR j.maturity < :currentTime) AND j.chainPreviousExecutionId IS NULL ORDER BY j.priority, j.createdAt"),
+                                query = "SELECT j FROM JobExecution j WHERE j.jobId = :jobId AND j.status = 'QUEUED' AND (j.maturity IS NULL OR j.maturity < :currentTime) AND j.chainPreviousExecutionId IS NULL ORDER BY j.priority DESC, j.createdAt"),
+                @NamedQuery(name = "JobExecution.getOldestCandidates",
+                                query = "SELECT j FROM JobExecution j WHERE j.jobId = :jobId AND j.status = 'QUEUED' AND (j.maturity IS NULL OR j.maturity < :currentTime) AND j.chainPreviousExecutionId IS NULL ORDER BY j.createdAt"),
+                @NamedQuery(name = "JobExecution.getNextOrderedCandidates",
+                                query = "SELECT j FROM JobExecution j WHERE j.jobId = :jobId AND j.status = 'QUEUED' AND (j.maturity IS NULL OR j.maturity < :currentTime) AND j.chainPreviousExecutionId IS NULL AND j.orderingKey IS NOT NULL ORDER BY j.id"),
 
                 // Batch
                 @NamedQuery(name = "JobExecution.getBatch", query = "SELECT j FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id"),
                 @NamedQuery(name = "JobExecution.getBatchInfo",
-                                query = "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id"),
+                                query = "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id"),
                 @NamedQuery(name = "JobExecution.countBatchByStatus",
                                 query = "SELECT COUNT(j) FROM JobExecution j WHERE j.batchId = :batchId AND j.status = :status"),
 
                 // Chained
                 @NamedQuery(name = "JobExecution.getChain", query = "SELECT j FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id"),
                 @NamedQuery(name = "JobExecution.getChainInfo",
-                                query = "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id"),
+                                query = "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id"),
                 @NamedQuery(name = "JobExecution.getNextInChain",
                                 query = "SELECT j FROM JobExecution j WHERE j.chainId = :chainId AND j.chainPreviousExecutionId = :jobExecutionId"),
                 @NamedQuery(name = "JobExecution.abortChain",
                                 query = "UPDATE JobExecution j SET j.status = 'ABORTED' WHERE j.chainId = :chainId AND j.status = 'QUEUED'"),
 
                 // Misc
-                @NamedQuery(name = "JobExecution.deleteOlderJobExecutions",
-                                query = "DELETE FROM JobExecution j WHERE j.jobId = :jobId AND j.createdAt < :preDate"),
+                @NamedQuery(name = "JobExecution.getOlderJobExecutionIds",
+                                query = "SELECT j.id FROM JobExecution j WHERE j.jobId = :jobId AND j.createdAt < :preDate AND j.id > :lastId ORDER BY j.id"),
+                @NamedQuery(name = "JobExecution.deleteByIds", query = "DELETE FROM JobExecution j WHERE j.id IN :jobExecutionIds"),
+                @NamedQuery(name = "JobExecution.getParametersRefsByIds",
+                                query = "SELECT j.parametersRef FROM JobExecution j WHERE j.id IN :jobExecutionIds AND j.parametersRef IS NOT NULL"),
+                @NamedQuery(name = "JobExecution.getParametersRefsByJobId",
+                                query = "SELECT j.parametersRef FROM JobExecution j WHERE j.jobId = :jobId AND j.parametersRef IS NOT NULL"),
+                @NamedQuery(name = "JobExecution.getParametersRefsIn", query = "SELECT j.parametersRef FROM JobExecution j WHERE j.parametersRef IN :parametersRefs"),
+                @NamedQuery(name = "JobExecution.getStatistics",
+                                query = "SELECT j.jobId, j.status, COUNT(j), SUM(j.duration), COUNT(j.duration) FROM JobExecution j GROUP BY j.jobId, j.status"),
+                @NamedQuery(name = "JobExecution.getEndedJobExecutionIds",
+                                query = "SELECT j.id FROM JobExecution j WHERE j.status IN ('FINISHED', 'FAILED', 'ABORTED') AND (j.updatedAt < :preDate OR (j.updatedAt IS NULL AND j.createdAt < :preDate))"),
+                @NamedQuery(name = "JobExecution.deleteEndedByIds",
+                                query = "DELETE FROM JobExecution j WHERE j.id IN :jobExecutionIds AND j.status IN ('FINISHED', 'FAILED', 'ABORTED')"),
                 @NamedQuery(name = "JobExecution.selectDuration", query = "SELECT j.duration FROM JobExecution j WHERE j.id = :jobExecutionId"),
                 @NamedQuery(name = "JobExecution.findZombies",
-                                query = "SELECT j FROM JobExecution j WHERE j.startedAt < :time AND j.status = io.coodoo.workhorse.jobengine.entity.JobExecutionStatus.RUNNING"),
+                                query = "SELECT j FROM JobExecution j WHERE j.status = io.coodoo.workhorse.jobengine.entity.JobExecutionStatus.RUNNING AND j.leaseExpiresAt < :time"),
+
+                // Lease
+                @NamedQuery(name = "JobExecution.renewLeases",
+                                query = "UPDATE JobExecution j SET j.leaseExpiresAt = :leaseExpiresAt WHERE j.id IN :jobExecutionIds AND j.status = 'RUNNING'"),
+                @NamedQuery(name = "JobExecution.cureZombie",
+                                query = "UPDATE JobExecution j SET j.status = :status, j.leaseExpiresAt = NULL WHERE j.id = :jobExecutionId AND j.status = 'RUNNING' AND j.leaseExpiresAt < :time"),
 
                 // Status
                 @NamedQuery(name = "JobExecution.updateStatusRunning",
-                                query = "UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt WHERE j.id = :jobExecutionId"),
+                                query = "UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt, j.node = :node, j.leaseExpiresAt = :leaseExpiresAt WHERE j.id = :jobExecutionId"),
                 @NamedQuery(name = "JobExecution.updateStatusFinished",
-                                query = "UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.log = :log, j.updatedAt = :endedAt WHERE j.id = :jobExecutionId"),
+                                query = "UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.updatedAt = :endedAt WHERE j.id = :jobExecutionId"),
+                @NamedQuery(name = "JobExecution.updateStatusRunningByIds",
+                                query = "UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt, j.node = :node, j.leaseExpiresAt = :leaseExpiresAt WHERE j.id IN :jobExecutionIds"),
+                @NamedQuery(name = "JobExecution.updateStatusFinishedByIds",
+                                query = "UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.updatedAt = :endedAt WHERE j.id IN :jobExecutionIds"),
+                @NamedQuery(name = "JobExecution.updateStatusFailedByIds",
+                                query = "UPDATE JobExecution j SET j.status = 'FAILED', j.endedAt = :endedAt, j.duration = :duration, j.failMessage = :failMessage, j.failStacktraceHash = :failStacktraceHash, j.updatedAt = :endedAt WHERE j.id IN :jobExecutionIds"),
+                @NamedQuery(name = "JobExecution.getRetriesOf",
+                                query = "SELECT j FROM JobExecution j WHERE j.failRetryExecutionId IN :jobExecutionIds ORDER BY j.id"),
 
                 // Analytic
                 @NamedQuery(name = "JobExecution.getFirstCreatedByJobIdAndParametersHash",
@@ -78,222 +107,49 @@ import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 
 })
 
-public class JobExecution extends RevisionDatesEntity {
-
-    private static final long serialVersionUID = 1L;
-
-    /**
-     * The reference to the job description.
-     */
-    @Column(name = "job_id")
-    private Long jobId;
-
-    /**
-     * The job excecution status e.g. QUEUED or FINISHED.
-     */
-    @Column(name = "status")
-    @Enumerated(EnumType.STRING)
-    private JobExecutionStatus status;
+public class JobExecution extends BaseJobExecution {
 
-    @Column(name = "started_at")
-    private LocalDateTime startedAt;
-
-    @Column(name = "ended_at")
-    private LocalDateTime endedAt;
-
-    @Column(name = "duration")
-    private Long duration;
-
-    /**
-     * If a job exectution has the priority set to <code>true</code> it will be executed before all jobs with priority <code>false</code>.
-     */
-    @Column(name = "priority")
-    private boolean priority;
-
-    /**
-     * If a maturity is given, the job execution will not be executed before this this time.
-     */
-    @Column(name = "maturity")
-    private LocalDateTime maturity;
+    private static final String RETRY_COLUMNS = "job_id, status, started_at, node, lease_expires_at, priority, maturity, chain_id, chain_previous_execution_id, "
+                    + "ordering_key, mutex_key, parameters, parameters_data, parameters_ref, parameters_hash, fail_retry, fail_retry_execution_id, created_at";
 
-    @Column(name = "batch_id")
-    private Long batchId;
-
-    @Column(name = "chain_id")
-    private Long chainId;
-
-    @Column(name = "chain_previous_execution_id")
-    private Long chainPreviousExecutionId;
-
-    @Column(name = "parameters")
-    private String parameters;
-
-    @Column(name = "parameters_hash")
-    private Integer parametersHash;
-
-    @Column(name = "log")
-    private String log;
-
-    @Column(name = "fail_retry")
-    private int failRetry;
-
-    @Column(name = "fail_retry_execution_id")
-    private Long failRetryExecutionId;
+    private static final long serialVersionUID = 1L;
 
     /**
-     * The exception message, if the job execution ends in an exception.
+     * When the poller drafted this job execution into the memory queue of this node (not persisted)
      */
-    @Column(name = "fail_message")
-    private String failMessage;
+    @Transient
+    private LocalDateTime draftedAt;
 
     /**
-     * The exception stacktrace, if the job execution ends in an exception.
+     * When a job thread of this node took this job execution out of the memory queue (not persisted)
      */
-    @Column(name = "fail_stacktrace")
-    private String failStacktrace;
-
-    public Long getJobId() {
-        return jobId;
-    }
-
-    public void setJobId(Long jobId) {
-        this.jobId = jobId;
-    }
-
-    public JobExecutionStatus getStatus() {
-        return status;
-    }
-
-    public void setStatus(JobExecutionStatus status) {
-        this.status = status;
-    }
-
-    public LocalDateTime getStartedAt() {
-        return startedAt;
-    }
-
-    public void setStartedAt(LocalDateTime startedAt) {
-        this.startedAt = startedAt;
-    }
-
-    public LocalDateTime getEndedAt() {
-        return endedAt;
-    }
-
-    public void setEndedAt(LocalDateTime endedAt) {
-        this.endedAt = endedAt;
-    }
-
-    public Long getDuration() {
-        return duration;
-    }
-
-    public void setDuration(Long duration) {
-        this.duration = duration;
-    }
-
-    public boolean isPriority() {
-        return priority;
-    }
-
-    public void setPriority(boolean priority) {
-        this.priority = priority;
-    }
-
-    public LocalDateTime getMaturity() {
-        return maturity;
-    }
-
-    public void setMaturity(LocalDateTime maturity) {
-        this.maturity = maturity;
-    }
-
-    public Long getBatchId() {
-        return batchId;
-    }
-
-    public void setBatchId(Long batchId) {
-        this.batchId = batchId;
-    }
-
-    public Long getChainId() {
-        return chainId;
-    }
-
-    public void setChainId(Long chainId) {
-        this.chainId = chainId;
-    }
-
-    public Long getChainPreviousExecutionId() {
-        return chainPreviousExecutionId;
-    }
-
-    public void setChainPreviousExecutionId(Long chainPreviousExecutionId) {
-        this.chainPreviousExecutionId = chainPreviousExecutionId;
-    }
-
-    public String getParameters() {
-        return parameters;
-    }
-
-    public void setParameters(String parameters) {
-        this.parameters = parameters;
-    }
-
-    public Integer getParametersHash() {
-        return parametersHash;
-    }
-
-    public void setParametersHash(Integer parametersHash) {
-        this.parametersHash = parametersHash;
-    }
-
-    public String getLog() {
-        return log;
-    }
-
-    public void setLog(String log) {
-        this.log = log;
-    }
-
-    public int getFailRetry() {
-        return failRetry;
-    }
-
-    public void setFailRetry(int failRetry) {
-        this.failRetry = failRetry;
-    }
-
-    public Long getFailRetryExecutionId() {
-        return failRetryExecutionId;
-    }
+    @Transient
+    private LocalDateTime dequeuedAt;
 
-    public void setFailRetryExecutionId(Long failRetryExecutionId) {
-        this.failRetryExecutionId = failRetryExecutionId;
+    public LocalDateTime getDraftedAt() {
+        return draftedAt;
     }
 
-    public String getFailMessage() {
-        return failMessage;
+    public void setDraftedAt(LocalDateTime draftedAt) {
+        this.draftedAt = draftedAt;
     }
 
-    public void setFailMessage(String failMessage) {
-        this.failMessage = failMessage;
+    public LocalDateTime getDequeuedAt() {
+        return dequeuedAt;
     }
 
-    public String getFailStacktrace() {
-        return failStacktrace;
-    }
-
-    public void setFailStacktrace(String failStacktrace) {
-        this.failStacktrace = failStacktrace;
+    public void setDequeuedAt(LocalDateTime dequeuedAt) {
+        this.dequeuedAt = dequeuedAt;
     }
 
     @Override
     public String toString() {
         return "JobExecution [id=" + id + ", jobId=" + jobId + ", status=" + status + ", startedAt=" + startedAt + ", endedAt=" + endedAt + ", duration="
-                        + duration + ", priority=" + priority + ", maturity=" + maturity + ", batchId=" + batchId + ", chainId=" + chainId
-                        + ", chainPreviousExecutionId=" + chainPreviousExecutionId + ", parameters=" + parameters + ", parametersHash=" + parametersHash
-                        + ", failRetry=" + failRetry + ", failRetryExecutionId=" + failRetryExecutionId + ", failMessage=" + failMessage + "]";
+                        + duration + ", node=" + node + ", leaseExpiresAt=" + leaseExpiresAt + ", priority=" + priority + ", maturity=" + maturity + ", batchId=" + batchId + ", chainId=" + chainId
+                        + ", chainPreviousExecutionId=" + chainPreviousExecutionId + ", orderingKey=" + orderingKey + ", mutexKey=" + mutexKey
+                        + ", parameters=" + parameters
+                        + ", parametersHash=" + parametersHash + ", failRetry=" + failRetry + ", failRetryExecutionId=" + failRetryExecutionId + ", failMessage="
+                        + failMessage + "]";
     }
 
     @SuppressWarnings("unchecked")
@@ -305,6 +161,24 @@ public class JobExecution extends RevisionDatesEntity {
         return query.getResultList();
     }
 
+    @SuppressWarnings("unchecked")
+    public static List<JobExecution> getOldestCandidates(EntityManager entityManager, Long jobId, int maxResults) {
+        Query query = entityManager.createNamedQuery("JobExecution.getOldestCandidates");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("currentTime", JobEngineUtil.timestamp());
+        query = query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static List<JobExecution> getNextOrderedCandidates(EntityManager entityManager, Long jobId, int maxResults) {
+        Query query = entityManager.createNamedQuery("JobExecution.getNextOrderedCandidates");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("currentTime", JobEngineUtil.timestamp());
+        query = query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
     /**
      * Executes the query 'JobExecution.getAllByStatus' returning a list of result objects.
      *
@@ -464,21 +338,6 @@ public class JobExecution extends RevisionDatesEntity {
         return (Long) results.get(0);
     }
 
-    /**
-     * Executes the query 'JobExecution.deleteOlderJobExecutions' returning the number of affected rows.
-     *
-     * @param entityManager the entityManager
-     * @param jobId the jobId
-     * @param preDate the preDate
-     * @return Number of deleted objects
-     */
-    public static int deleteOlderJobExecutions(EntityManager entityManager, Long jobId, LocalDateTime preDate) {
-        Query query = entityManager.createNamedQuery("JobExecution.deleteOlderJobExecutions");
-        query = query.setParameter("jobId", jobId);
-        query = query.setParameter("preDate", preDate);
-        return query.executeUpdate();
-    }
-
     /**
      * Executes the query 'JobExecution.getNextInChain' returning one/the first object or null if nothing has been found.
      *
@@ -505,12 +364,17 @@ public class JobExecution extends RevisionDatesEntity {
      *
      * @param entityManager the entityManager
      * @param startedAt the startedAt
+     * @param node the node
+     * @param leaseExpiresAt the leaseExpiresAt
      * @param jobExecutionId the jobExecutionId
      * @return Number of updated objects
      */
-    public static int updateStatusRunning(EntityManager entityManager, LocalDateTime startedAt, Long jobExecutionId) {
+    public static int updateStatusRunning(EntityManager entityManager, LocalDateTime startedAt, String node, LocalDateTime leaseExpiresAt,
+                    Long jobExecutionId) {
         Query query = entityManager.createNamedQuery("JobExecution.updateStatusRunning");
         query = query.setParameter("startedAt", startedAt);
+        query = query.setParameter("node", node);
+        query = query.setParameter("leaseExpiresAt", leaseExpiresAt);
         query = query.setParameter("jobExecutionId", jobExecutionId);
         return query.executeUpdate();
     }
@@ -521,19 +385,119 @@ public class JobExecution extends RevisionDatesEntity {
      * @param entityManager the entityManager
      * @param endedAt the endedAt
      * @param duration the duration
-     * @param log the log
      * @param jobExecutionId the jobExecutionId
      * @return Number of updated objects
      */
-    public static int updateStatusFinished(EntityManager entityManager, LocalDateTime endedAt, Long duration, String log, Long jobExecutionId) {
+    public static int updateStatusFinished(EntityManager entityManager, LocalDateTime endedAt, Long duration, Long jobExecutionId) {
         Query query = entityManager.createNamedQuery("JobExecution.updateStatusFinished");
         query = query.setParameter("endedAt", endedAt);
         query = query.setParameter("duration", duration);
-        query = query.setParameter("log", log);
         query = query.setParameter("jobExecutionId", jobExecutionId);
         return query.executeUpdate();
     }
 
+    /**
+     * Executes the query 'JobExecution.updateStatusRunningByIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param startedAt the startedAt
+     * @param node the node
+     * @param leaseExpiresAt the leaseExpiresAt
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of updated objects
+     */
+    public static int updateStatusRunningByIds(EntityManager entityManager, LocalDateTime startedAt, String node, LocalDateTime leaseExpiresAt,
+                    List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.updateStatusRunningByIds");
+        query = query.setParameter("startedAt", startedAt);
+        query = query.setParameter("node", node);
+        query = query.setParameter("leaseExpiresAt", leaseExpiresAt);
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.updateStatusFinishedByIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param endedAt the endedAt
+     * @param duration the duration
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of updated objects
+     */
+    public static int updateStatusFinishedByIds(EntityManager entityManager, LocalDateTime endedAt, Long duration, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.updateStatusFinishedByIds");
+        query = query.setParameter("endedAt", endedAt);
+        query = query.setParameter("duration", duration);
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.updateStatusFailedByIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param endedAt the endedAt
+     * @param duration the duration
+     * @param failMessage the failMessage
+     * @param failStacktraceHash the failStacktraceHash
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of updated objects
+     */
+    public static int updateStatusFailedByIds(EntityManager entityManager, LocalDateTime endedAt, Long duration, String failMessage, String failStacktraceHash,
+                    List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.updateStatusFailedByIds");
+        query = query.setParameter("endedAt", endedAt);
+        query = query.setParameter("duration", duration);
+        query = query.setParameter("failMessage", failMessage);
+        query = query.setParameter("failStacktraceHash", failStacktraceHash);
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getRetriesOf' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecution> getRetriesOf(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.getRetriesOf");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Creates in one statement a running retry of every given job execution that has retries left, copying its work like a single retry does. Has to run
+     * before the given job executions are set to failed.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds IDs of the failed job executions
+     * @param failRetries number of retries of the job
+     * @param startedAt start of the retries
+     * @param node node that runs the retries
+     * @param leaseExpiresAt lease expiration of the retries
+     * @return Number of inserted rows
+     */
+    public static int insertRetries(EntityManager entityManager, List<Long> jobExecutionIds, int failRetries, LocalDateTime startedAt, String node,
+                    LocalDateTime leaseExpiresAt) {
+
+        // IDs are numbers, so they can be joined into the statement (native queries don't support collection parameters everywhere)
+        String ids = jobExecutionIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        StringBuffer query = new StringBuffer();
+        query.append("INSERT INTO jobengine_execution (").append(RETRY_COLUMNS).append(")");
+        query.append(" SELECT job_id, 'RUNNING', ?1, ?2, ?3, priority, maturity, chain_id, chain_previous_execution_id, ordering_key, mutex_key, parameters,");
+        query.append(" parameters_data, parameters_ref, parameters_hash, fail_retry + 1, id, ?4");
+        query.append(" FROM jobengine_execution WHERE id IN (").append(ids).append(") AND fail_retry < ?5");
+
+        return entityManager.createNativeQuery(query.toString()).setParameter(1, Timestamp.valueOf(startedAt)).setParameter(2, node)
+                        .setParameter(3, Timestamp.valueOf(leaseExpiresAt)).setParameter(4, Timestamp.valueOf(startedAt)).setParameter(5, failRetries)
+                        .executeUpdate();
+    }
+
     /**
      * Executes the query 'JobExecution.countQueudByJobIdAndParamters' returning one/the first object or null if nothing has been found.
      *
@@ -619,4 +583,152 @@ public class JobExecution extends RevisionDatesEntity {
         return query.getResultList();
     }
 
+    /**
+     * Executes the query 'JobExecution.renewLeases' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param leaseExpiresAt the leaseExpiresAt
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of updated objects
+     */
+    public static int renewLeases(EntityManager entityManager, LocalDateTime leaseExpiresAt, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.renewLeases");
+        query = query.setParameter("leaseExpiresAt", leaseExpiresAt);
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.cureZombie' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param status the status
+     * @param jobExecutionId the jobExecutionId
+     * @param time the time
+     * @return Number of updated objects
+     */
+    public static int cureZombie(EntityManager entityManager, JobExecutionStatus status, Long jobExecutionId, LocalDateTime time) {
+        Query query = entityManager.createNamedQuery("JobExecution.cureZombie");
+        query = query.setParameter("status", status);
+        query = query.setParameter("jobExecutionId", jobExecutionId);
+        query = query.setParameter("time", time);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getOlderJobExecutionIds' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @param preDate the preDate
+     * @param lastId the lastId
+     * @param maxResults number of results
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Long> getOlderJobExecutionIds(EntityManager entityManager, Long jobId, LocalDateTime preDate, Long lastId, int maxResults) {
+        Query query = entityManager.createNamedQuery("JobExecution.getOlderJobExecutionIds");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("preDate", preDate);
+        query = query.setParameter("lastId", lastId);
+        query = query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecution.deleteByIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of deleted objects
+     */
+    public static int deleteByIds(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.deleteByIds");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getParametersRefsByIds' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> getParametersRefsByIds(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.getParametersRefsByIds");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getParametersRefsByJobId' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> getParametersRefsByJobId(EntityManager entityManager, Long jobId) {
+        Query query = entityManager.createNamedQuery("JobExecution.getParametersRefsByJobId");
+        query = query.setParameter("jobId", jobId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getParametersRefsIn' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param parametersRefs the parametersRefs
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> getParametersRefsIn(EntityManager entityManager, List<String> parametersRefs) {
+        Query query = entityManager.createNamedQuery("JobExecution.getParametersRefsIn");
+        query = query.setParameter("parametersRefs", parametersRefs);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getEndedJobExecutionIds' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param preDate the preDate
+     * @param maxResults number of results
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Long> getEndedJobExecutionIds(EntityManager entityManager, LocalDateTime preDate, int maxResults) {
+        Query query = entityManager.createNamedQuery("JobExecution.getEndedJobExecutionIds");
+        query = query.setParameter("preDate", preDate);
+        query = query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecution.deleteEndedByIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of deleted objects
+     */
+    public static int deleteEndedByIds(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecution.deleteEndedByIds");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecution.getStatistics' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @return List of result objects: job ID, status, count, sum of durations and count of durations
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object[]> getStatistics(EntityManager entityManager) {
+        Query query = entityManager.createNamedQuery("JobExecution.getStatistics");
+        return query.getResultList();
+    }
+
 }
@@ -0,0 +1,343 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Query;
+import javax.persistence.Table;
+
+/**
+ * <p>
+ * A JobExecutionHistory is a job execution that has ended and got moved out of the queue table <code>jobengine_execution</code> into the history table
+ * <code>jobengine_execution_history</code>.
+ * </p>
+ * <p>
+ * It keeps the ID of the job execution and is never changed again, only deleted by the cleanup.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Entity
+@Table(name = "jobengine_execution_history")
+@NamedQueries({
+
+                @NamedQuery(name = "JobExecutionHistory.deleteAllByJobId", query = "DELETE FROM JobExecutionHistory j WHERE j.jobId = :jobId"),
+                @NamedQuery(name = "JobExecutionHistory.getAllByStatus", query = "SELECT j FROM JobExecutionHistory j WHERE j.status = :status"),
+                @NamedQuery(name = "JobExecutionHistory.getAllByJobIdAndStatus",
+                                query = "SELECT j FROM JobExecutionHistory j WHERE j.jobId = :jobId AND j.status = :status"),
+
+                // Batch
+                @NamedQuery(name = "JobExecutionHistory.getBatch", query = "SELECT j FROM JobExecutionHistory j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id"),
+                @NamedQuery(name = "JobExecutionHistory.getBatchInfo",
+                                query = "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecutionHistory j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id"),
+                @NamedQuery(name = "JobExecutionHistory.countBatchByStatus",
+                                query = "SELECT COUNT(j) FROM JobExecutionHistory j WHERE j.batchId = :batchId AND j.status = :status"),
+
+                // Chained
+                @NamedQuery(name = "JobExecutionHistory.getChain", query = "SELECT j FROM JobExecutionHistory j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id"),
+                @NamedQuery(name = "JobExecutionHistory.getChainInfo",
+                                query = "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecutionHistory j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id"),
+
+                // Misc
+                @NamedQuery(name = "JobExecutionHistory.getOlderJobExecutionIds",
+                                query = "SELECT j.id FROM JobExecutionHistory j WHERE j.jobId = :jobId AND j.createdAt < :preDate AND j.id > :lastId ORDER BY j.id"),
+                @NamedQuery(name = "JobExecutionHistory.deleteByIds", query = "DELETE FROM JobExecutionHistory j WHERE j.id IN :jobExecutionIds"),
+                @NamedQuery(name = "JobExecutionHistory.getParametersRefsByIds",
+                                query = "SELECT j.parametersRef FROM JobExecutionHistory j WHERE j.id IN :jobExecutionIds AND j.parametersRef IS NOT NULL"),
+                @NamedQuery(name = "JobExecutionHistory.getParametersRefsByJobId",
+                                query = "SELECT j.parametersRef FROM JobExecutionHistory j WHERE j.jobId = :jobId AND j.parametersRef IS NOT NULL"),
+                @NamedQuery(name = "JobExecutionHistory.getParametersRefsIn", query = "SELECT j.parametersRef FROM JobExecutionHistory j WHERE j.parametersRef IN :parametersRefs"),
+                @NamedQuery(name = "JobExecutionHistory.getStatistics",
+                                query = "SELECT j.jobId, j.status, COUNT(j), SUM(j.duration), COUNT(j.duration) FROM JobExecutionHistory j GROUP BY j.jobId, j.status")
+
+})
+public class JobExecutionHistory extends BaseJobExecution {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Columns that get copied from <code>jobengine_execution</code> to <code>jobengine_execution_history</code>
+     */
+    private static final String COLUMNS = "id, job_id, status, started_at, ended_at, priority, maturity, batch_id, chain_id, chain_previous_execution_id, "
+                    + "ordering_key, mutex_key, duration, node, lease_expires_at, parameters, parameters_data, parameters_ref, parameters_hash, fail_retry, "
+                    + "fail_retry_execution_id, fail_message, fail_stacktrace_hash, created_at, updated_at";
+
+    /**
+     * @return a detached {@link JobExecution} with the values of this history entry
+     */
+    public JobExecution toJobExecution() {
+
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(id);
+        jobExecution.setCreatedAt(createdAt);
+        jobExecution.setUpdatedAt(updatedAt);
+        jobExecution.setJobId(jobId);
+        jobExecution.setStatus(status);
+        jobExecution.setStartedAt(startedAt);
+        jobExecution.setEndedAt(endedAt);
+        jobExecution.setDuration(duration);
+        jobExecution.setNode(node);
+        jobExecution.setLeaseExpiresAt(leaseExpiresAt);
+        jobExecution.setPriority(priority);
+        jobExecution.setMaturity(maturity);
+        jobExecution.setBatchId(batchId);
+        jobExecution.setChainId(chainId);
+        jobExecution.setChainPreviousExecutionId(chainPreviousExecutionId);
+        jobExecution.setOrderingKey(orderingKey);
+        jobExecution.setMutexKey(mutexKey);
+        jobExecution.setParameters(parameters);
+        jobExecution.setParametersData(parametersData);
+        jobExecution.setParametersRef(parametersRef);
+        jobExecution.setParametersHash(parametersHash);
+        jobExecution.setFailRetry(failRetry);
+        jobExecution.setFailRetryExecutionId(failRetryExecutionId);
+        jobExecution.setFailMessage(failMessage);
+        jobExecution.setFailStacktraceHash(failStacktraceHash);
+        return jobExecution;
+    }
+
+    @Override
+    public String toString() {
+        return "JobExecutionHistory [id=" + id + ", jobId=" + jobId + ", status=" + status + ", startedAt=" + startedAt + ", endedAt=" + endedAt
+                        + ", duration=" + duration + ", node=" + node + ", priority=" + priority + ", maturity=" + maturity + ", batchId=" + batchId
+                        + ", chainId=" + chainId + ", chainPreviousExecutionId=" + chainPreviousExecutionId + ", parameters=" + parameters + ", parametersHash="
+                        + parametersHash + ", failRetry=" + failRetry + ", failRetryExecutionId=" + failRetryExecutionId + ", failMessage=" + failMessage + "]";
+    }
+
+    /**
+     * Copies the given job executions into the history table within a single statement, as far as they are ended and not in the history yet. So a job
+     * execution that another node moves at the same time doesn't get copied twice. The job executions have to be deleted from the queue table in the same
+     * transaction, see {@link JobExecution#deleteEndedByIds(EntityManager, List)}.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds IDs of the job executions to copy
+     * @return Number of inserted rows
+     */
+    public static int insertFromJobExecutions(EntityManager entityManager, List<Long> jobExecutionIds) {
+
+        // IDs are numbers, so they can be joined into the statement (native queries don't support collection parameters everywhere)
+        String ids = jobExecutionIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        StringBuffer query = new StringBuffer();
+        query.append("INSERT INTO jobengine_execution_history (").append(COLUMNS).append(")");
+        query.append(" SELECT ").append(COLUMNS);
+        query.append(" FROM jobengine_execution e WHERE e.id IN (").append(ids).append(")");
+        query.append(" AND e.status IN ('FINISHED', 'FAILED', 'ABORTED')");
+        query.append(" AND NOT EXISTS (SELECT 1 FROM jobengine_execution_history h WHERE h.id = e.id)");
+
+        return entityManager.createNativeQuery(query.toString()).executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.deleteAllByJobId' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @return Number of deleted objects
+     */
+    public static int deleteAllByJobId(EntityManager entityManager, Long jobId) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.deleteAllByJobId");
+        query = query.setParameter("jobId", jobId);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getAllByStatus' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param status the status
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionHistory> getAllByStatus(EntityManager entityManager, JobExecutionStatus status) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getAllByStatus");
+        query = query.setParameter("status", status);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getAllByJobIdAndStatus' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @param status the status
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionHistory> getAllByJobIdAndStatus(EntityManager entityManager, Long jobId, JobExecutionStatus status) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getAllByJobIdAndStatus");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("status", status);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getBatch' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param batchId the batchId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionHistory> getBatch(EntityManager entityManager, Long batchId) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getBatch");
+        query = query.setParameter("batchId", batchId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getBatchInfo' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param batchId the batchId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionInfo> getBatchInfo(EntityManager entityManager, Long batchId) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getBatchInfo");
+        query = query.setParameter("batchId", batchId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.countBatchByStatus' returning one/the first object or null if nothing has been found.
+     *
+     * @param entityManager the entityManager
+     * @param batchId the batchId
+     * @param status the status
+     * @return the result
+     */
+    public static Long countBatchByStatus(EntityManager entityManager, Long batchId, JobExecutionStatus status) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.countBatchByStatus");
+        query = query.setParameter("batchId", batchId);
+        query = query.setParameter("status", status);
+        query = query.setMaxResults(1);
+        @SuppressWarnings("rawtypes")
+        List results = query.getResultList();
+        if (results.isEmpty()) {
+            return null;
+        }
+        return (Long) results.get(0);
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getChain' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param chainId the chainId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionHistory> getChain(EntityManager entityManager, Long chainId) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getChain");
+        query = query.setParameter("chainId", chainId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getChainInfo' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param chainId the chainId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionInfo> getChainInfo(EntityManager entityManager, Long chainId) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getChainInfo");
+        query = query.setParameter("chainId", chainId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getOlderJobExecutionIds' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @param preDate the preDate
+     * @param lastId the lastId
+     * @param maxResults number of results
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Long> getOlderJobExecutionIds(EntityManager entityManager, Long jobId, LocalDateTime preDate, Long lastId, int maxResults) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getOlderJobExecutionIds");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("preDate", preDate);
+        query = query.setParameter("lastId", lastId);
+        query = query.setMaxResults(maxResults);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.deleteByIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of deleted objects
+     */
+    public static int deleteByIds(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.deleteByIds");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getParametersRefsByIds' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> getParametersRefsByIds(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getParametersRefsByIds");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getParametersRefsByJobId' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> getParametersRefsByJobId(EntityManager entityManager, Long jobId) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getParametersRefsByJobId");
+        query = query.setParameter("jobId", jobId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getParametersRefsIn' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param parametersRefs the parametersRefs
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<String> getParametersRefsIn(EntityManager entityManager, List<String> parametersRefs) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getParametersRefsIn");
+        query = query.setParameter("parametersRefs", parametersRefs);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionHistory.getStatistics' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @return List of result objects: job ID, status, count, sum of durations and count of durations
+     */
+    @SuppressWarnings("unchecked")
+    public static List<Object[]> getStatistics(EntityManager entityManager) {
+        Query query = entityManager.createNamedQuery("JobExecutionHistory.getStatistics");
+        return query.getResultList();
+    }
+
+}
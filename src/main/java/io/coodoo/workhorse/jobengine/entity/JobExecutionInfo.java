@@ -11,6 +11,8 @@ public class JobExecutionInfo {
 
     private JobExecutionStatus status;
 
+    private LocalDateTime createdAt;
+
     private LocalDateTime startedAt;
 
     private LocalDateTime endedAt;
@@ -31,6 +33,12 @@ public class JobExecutionInfo {
         this.failRetryExecutionId = failRetryExecutionId;
     }
 
+    public JobExecutionInfo(Long id, JobExecutionStatus status, LocalDateTime createdAt, LocalDateTime startedAt, LocalDateTime endedAt, Long duration,
+                    Long failRetryExecutionId) {
+        this(id, status, startedAt, endedAt, duration, failRetryExecutionId);
+        this.createdAt = createdAt;
+    }
+
     public Long getId() {
         return id;
     }
@@ -47,6 +55,14 @@ public class JobExecutionInfo {
         this.status = status;
     }
 
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
     public LocalDateTime getStartedAt() {
         return startedAt;
     }
@@ -86,6 +102,8 @@ public class JobExecutionInfo {
         builder.append(id);
         builder.append(", status=");
         builder.append(status);
+        builder.append(", createdAt=");
+        builder.append(createdAt);
         builder.append(", startedAt=");
         builder.append(startedAt);
         builder.append(", endedAt=");
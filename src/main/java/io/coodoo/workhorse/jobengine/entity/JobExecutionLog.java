@@ -0,0 +1,139 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Query;
+import javax.persistence.Table;
+
+import io.coodoo.framework.jpa.boundary.entity.RevisionDatesEntity;
+
+/**
+ * <p>
+ * A JobExecutionLog is a chunk of the log of a job execution.
+ * </p>
+ * <p>
+ * A running job execution appends the lines it logged since the last chunk every
+ * {@link io.coodoo.workhorse.jobengine.boundary.JobEngineConfig#LOG_FLUSH_INTERVAL} seconds, so its progress is visible while it runs and survives the death
+ * of its node. The chunks are never changed, only deleted together with their job execution.
+ * </p>
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Entity
+@Table(name = "jobengine_execution_log")
+@NamedQueries({
+
+                @NamedQuery(name = "JobExecutionLog.getByJobExecutionId",
+                                query = "SELECT l FROM JobExecutionLog l WHERE l.jobExecutionId = :jobExecutionId ORDER BY l.id"),
+                @NamedQuery(name = "JobExecutionLog.deleteByJobExecutionIds", query = "DELETE FROM JobExecutionLog l WHERE l.jobExecutionId IN :jobExecutionIds"),
+                @NamedQuery(name = "JobExecutionLog.deleteAllByJobId", query = "DELETE FROM JobExecutionLog l WHERE l.jobId = :jobId"),
+                @NamedQuery(name = "JobExecutionLog.deleteOlderLogs", query = "DELETE FROM JobExecutionLog l WHERE l.createdAt < :preDate")
+
+})
+public class JobExecutionLog extends RevisionDatesEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "job_execution_id")
+    private Long jobExecutionId;
+
+    @Column(name = "job_id")
+    private Long jobId;
+
+    /**
+     * Log lines of this chunk
+     */
+    @Column(name = "log")
+    @Convert(converter = CompressedTextConverter.class)
+    private String log;
+
+    public Long getJobExecutionId() {
+        return jobExecutionId;
+    }
+
+    public void setJobExecutionId(Long jobExecutionId) {
+        this.jobExecutionId = jobExecutionId;
+    }
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getLog() {
+        return log;
+    }
+
+    public void setLog(String log) {
+        this.log = log;
+    }
+
+    @Override
+    public String toString() {
+        return "JobExecutionLog [id=" + id + ", jobExecutionId=" + jobExecutionId + ", jobId=" + jobId + ", createdAt=" + createdAt + "]";
+    }
+
+    /**
+     * Executes the query 'JobExecutionLog.getByJobExecutionId' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionId the jobExecutionId
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionLog> getByJobExecutionId(EntityManager entityManager, Long jobExecutionId) {
+        Query query = entityManager.createNamedQuery("JobExecutionLog.getByJobExecutionId");
+        query = query.setParameter("jobExecutionId", jobExecutionId);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionLog.deleteByJobExecutionIds' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobExecutionIds the jobExecutionIds
+     * @return Number of deleted objects
+     */
+    public static int deleteByJobExecutionIds(EntityManager entityManager, List<Long> jobExecutionIds) {
+        Query query = entityManager.createNamedQuery("JobExecutionLog.deleteByJobExecutionIds");
+        query = query.setParameter("jobExecutionIds", jobExecutionIds);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionLog.deleteAllByJobId' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @return Number of deleted objects
+     */
+    public static int deleteAllByJobId(EntityManager entityManager, Long jobId) {
+        Query query = entityManager.createNamedQuery("JobExecutionLog.deleteAllByJobId");
+        query = query.setParameter("jobId", jobId);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionLog.deleteOlderLogs' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param preDate the preDate
+     * @return Number of deleted objects
+     */
+    public static int deleteOlderLogs(EntityManager entityManager, LocalDateTime preDate) {
+        Query query = entityManager.createNamedQuery("JobExecutionLog.deleteOlderLogs");
+        query = query.setParameter("preDate", preDate);
+        return query.executeUpdate();
+    }
+
+}
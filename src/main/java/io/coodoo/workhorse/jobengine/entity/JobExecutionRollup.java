@@ -0,0 +1,227 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Query;
+import javax.persistence.Table;
+
+import io.coodoo.framework.jpa.boundary.entity.RevisionDatesEntity;
+
+/**
+ * <p>
+ * A JobExecutionRollup holds the durations of all job executions of a job that ended within one minute on one node.
+ * </p>
+ * <p>
+ * The durations are kept as encoded histograms (see {@link io.coodoo.workhorse.jobengine.control.DurationHistogram}), so the rollups of any time range can
+ * be merged into percentiles. Rollups outlive the job executions they were made of.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Entity
+@Table(name = "jobengine_execution_rollup")
+@NamedQueries({
+
+                @NamedQuery(name = "JobExecutionRollup.getByJobIdAndTime",
+                                query = "SELECT r FROM JobExecutionRollup r WHERE r.jobId = :jobId AND r.minute >= :from AND r.minute < :to ORDER BY r.minute"),
+                @NamedQuery(name = "JobExecutionRollup.deleteAllByJobId", query = "DELETE FROM JobExecutionRollup r WHERE r.jobId = :jobId"),
+                @NamedQuery(name = "JobExecutionRollup.deleteOlderRollups", query = "DELETE FROM JobExecutionRollup r WHERE r.minute < :preDate")
+
+})
+public class JobExecutionRollup extends RevisionDatesEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    @Column(name = "job_id")
+    private Long jobId;
+
+    /**
+     * Name of the {@link JobEngineNode} that recorded the durations
+     */
+    @Column(name = "node")
+    private String node;
+
+    /**
+     * Start of the minute
+     */
+    @Column(name = "minute_start")
+    private LocalDateTime minute;
+
+    /**
+     * Number of ended job executions
+     */
+    @Column(name = "executions")
+    private long executions;
+
+    /**
+     * Encoded histogram of the execution durations in milliseconds
+     */
+    @Column(name = "duration_histogram")
+    private String durationHistogram;
+
+    /**
+     * Encoded histogram of the time in milliseconds the job executions waited in the queue before they started
+     */
+    @Column(name = "wait_histogram")
+    private String waitHistogram;
+
+    /**
+     * Encoded histogram of the time in milliseconds until the job executions got drafted into the memory queue
+     */
+    @Column(name = "poll_histogram")
+    private String pollHistogram;
+
+    /**
+     * Encoded histogram of the time in milliseconds the job executions spent in the memory queue
+     */
+    @Column(name = "queue_histogram")
+    private String queueHistogram;
+
+    /**
+     * Encoded histogram of the time in milliseconds from being taken by a job thread until running
+     */
+    @Column(name = "start_histogram")
+    private String startHistogram;
+
+    /**
+     * Encoded histogram of the time in milliseconds job threads slept to keep the max executions per minute
+     */
+    @Column(name = "throttle_histogram")
+    private String throttleHistogram;
+
+    public Long getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(Long jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public LocalDateTime getMinute() {
+        return minute;
+    }
+
+    public void setMinute(LocalDateTime minute) {
+        this.minute = minute;
+    }
+
+    public long getExecutions() {
+        return executions;
+    }
+
+    public void setExecutions(long executions) {
+        this.executions = executions;
+    }
+
+    public String getDurationHistogram() {
+        return durationHistogram;
+    }
+
+    public void setDurationHistogram(String durationHistogram) {
+        this.durationHistogram = durationHistogram;
+    }
+
+    public String getWaitHistogram() {
+        return waitHistogram;
+    }
+
+    public void setWaitHistogram(String waitHistogram) {
+        this.waitHistogram = waitHistogram;
+    }
+
+    public String getPollHistogram() {
+        return pollHistogram;
+    }
+
+    public void setPollHistogram(String pollHistogram) {
+        this.pollHistogram = pollHistogram;
+    }
+
+    public String getQueueHistogram() {
+        return queueHistogram;
+    }
+
+    public void setQueueHistogram(String queueHistogram) {
+        this.queueHistogram = queueHistogram;
+    }
+
+    public String getStartHistogram() {
+        return startHistogram;
+    }
+
+    public void setStartHistogram(String startHistogram) {
+        this.startHistogram = startHistogram;
+    }
+
+    public String getThrottleHistogram() {
+        return throttleHistogram;
+    }
+
+    public void setThrottleHistogram(String throttleHistogram) {
+        this.throttleHistogram = throttleHistogram;
+    }
+
+    @Override
+    public String toString() {
+        return "JobExecutionRollup [id=" + id + ", jobId=" + jobId + ", node=" + node + ", minute=" + minute + ", executions=" + executions + "]";
+    }
+
+    /**
+     * Executes the query 'JobExecutionRollup.getByJobIdAndTime' returning a list of result objects.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @param from the from
+     * @param to the to
+     * @return List of result objects
+     */
+    @SuppressWarnings("unchecked")
+    public static List<JobExecutionRollup> getByJobIdAndTime(EntityManager entityManager, Long jobId, LocalDateTime from, LocalDateTime to) {
+        Query query = entityManager.createNamedQuery("JobExecutionRollup.getByJobIdAndTime");
+        query = query.setParameter("jobId", jobId);
+        query = query.setParameter("from", from);
+        query = query.setParameter("to", to);
+        return query.getResultList();
+    }
+
+    /**
+     * Executes the query 'JobExecutionRollup.deleteAllByJobId' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param jobId the jobId
+     * @return Number of deleted objects
+     */
+    public static int deleteAllByJobId(EntityManager entityManager, Long jobId) {
+        Query query = entityManager.createNamedQuery("JobExecutionRollup.deleteAllByJobId");
+        query = query.setParameter("jobId", jobId);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionRollup.deleteOlderRollups' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param preDate the preDate
+     * @return Number of deleted objects
+     */
+    public static int deleteOlderRollups(EntityManager entityManager, LocalDateTime preDate) {
+        Query query = entityManager.createNamedQuery("JobExecutionRollup.deleteOlderRollups");
+        query = query.setParameter("preDate", preDate);
+        return query.executeUpdate();
+    }
+
+}
@@ -0,0 +1,149 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Query;
+import javax.persistence.Table;
+
+import io.coodoo.framework.jpa.boundary.entity.RevisionDatesEntity;
+
+/**
+ * <p>
+ * A JobExecutionStacktrace is the stacktrace of failed job executions, stored once per fingerprint.
+ * </p>
+ * <p>
+ * The fingerprint covers the exception classes and stack frames but not the messages, so a failure storm with the same cause only counts up the
+ * occurrences. A failed job execution refers to it by {@link BaseJobExecution#getFailStacktraceHash()} and keeps its own message. The stacktrace text is the
+ * one of the first occurrence.
+ * </p>
+ *
+ * @author coodoo GmbH (coodoo.io)
+ */
+@Entity
+@Table(name = "jobengine_execution_stacktrace")
+@NamedQueries({
+
+                @NamedQuery(name = "JobExecutionStacktrace.getByHash", query = "SELECT s FROM JobExecutionStacktrace s WHERE s.hash = :hash"),
+                @NamedQuery(name = "JobExecutionStacktrace.countOccurrence",
+                                query = "UPDATE JobExecutionStacktrace s SET s.occurrences = s.occurrences + :count, s.lastOccurredAt = :time WHERE s.hash = :hash"),
+                @NamedQuery(name = "JobExecutionStacktrace.deleteOlderStacktraces", query = "DELETE FROM JobExecutionStacktrace s WHERE s.lastOccurredAt < :preDate")
+
+})
+public class JobExecutionStacktrace extends RevisionDatesEntity {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Fingerprint of the stacktrace
+     */
+    @Column(name = "hash")
+    private String hash;
+
+    @Column(name = "stacktrace")
+    @Convert(converter = CompressedTextConverter.class)
+    private String stacktrace;
+
+    /**
+     * Number of failed job executions with this stacktrace
+     */
+    @Column(name = "occurrences")
+    private long occurrences;
+
+    @Column(name = "last_occurred_at")
+    private LocalDateTime lastOccurredAt;
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getStacktrace() {
+        return stacktrace;
+    }
+
+    public void setStacktrace(String stacktrace) {
+        this.stacktrace = stacktrace;
+    }
+
+    public long getOccurrences() {
+        return occurrences;
+    }
+
+    public void setOccurrences(long occurrences) {
+        this.occurrences = occurrences;
+    }
+
+    public LocalDateTime getLastOccurredAt() {
+        return lastOccurredAt;
+    }
+
+    public void setLastOccurredAt(LocalDateTime lastOccurredAt) {
+        this.lastOccurredAt = lastOccurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "JobExecutionStacktrace [id=" + id + ", hash=" + hash + ", occurrences=" + occurrences + ", lastOccurredAt=" + lastOccurredAt + ", createdAt="
+                        + createdAt + "]";
+    }
+
+    /**
+     * Executes the query 'JobExecutionStacktrace.getByHash' returning one/the first object or null if nothing has been found.
+     *
+     * @param entityManager the entityManager
+     * @param hash the hash
+     * @return the result
+     */
+    public static JobExecutionStacktrace getByHash(EntityManager entityManager, String hash) {
+        Query query = entityManager.createNamedQuery("JobExecutionStacktrace.getByHash");
+        query = query.setParameter("hash", hash);
+        query = query.setMaxResults(1);
+        @SuppressWarnings("rawtypes")
+        List results = query.getResultList();
+        if (results.isEmpty()) {
+            return null;
+        }
+        return (JobExecutionStacktrace) results.get(0);
+    }
+
+    /**
+     * Executes the query 'JobExecutionStacktrace.countOccurrence' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param hash the hash
+     * @param count the count
+     * @param time the time
+     * @return Number of updated objects
+     */
+    public static int countOccurrence(EntityManager entityManager, String hash, int count, LocalDateTime time) {
+        Query query = entityManager.createNamedQuery("JobExecutionStacktrace.countOccurrence");
+        query = query.setParameter("hash", hash);
+        query = query.setParameter("count", count);
+        query = query.setParameter("time", time);
+        return query.executeUpdate();
+    }
+
+    /**
+     * Executes the query 'JobExecutionStacktrace.deleteOlderStacktraces' returning the number of affected rows.
+     *
+     * @param entityManager the entityManager
+     * @param preDate the preDate
+     * @return Number of deleted objects
+     */
+    public static int deleteOlderStacktraces(EntityManager entityManager, LocalDateTime preDate) {
+        Query query = entityManager.createNamedQuery("JobExecutionStacktrace.deleteOlderStacktraces");
+        query = query.setParameter("preDate", preDate);
+        return query.executeUpdate();
+    }
+
+}
@@ -0,0 +1,26 @@
+package io.coodoo.workhorse.jobengine.entity;
+
+/**
+ * Defines how a scheduled job deals with schedule fires that could not be triggered, either because the job was still busy or because the job engine was
+ * down.
+ * 
+ * @author coodoo GmbH (coodoo.io)
+ */
+public enum ScheduleMisfirePolicy {
+
+    /**
+     * Missed fires are dropped, the job waits for the next regular fire
+     */
+    IGNORE,
+
+    /**
+     * All missed fires are merged into one single fire
+     */
+    COALESCE,
+
+    /**
+     * Every missed fire gets triggered, but not more than {@link Job#getScheduleCatchUpLimit()}
+     */
+    CATCH_UP;
+
+}
@@ -0,0 +1,58 @@
+-- Optional: partitions the history table by day of created_at (MySQL 5.7 or newer)
+-- Set JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.MYSQL, the job engine creates the daily partitions on start
+-- and the cleanup keeps them up to date. The existing history is kept in jobengine_execution_history_old and has to be copied into the partitioned
+-- table, see the end of this script.
+-- The partition p19700101 is just a placeholder, as MySQL doesn't allow a partitioned table without partitions. The cleanup drops it.
+
+RENAME TABLE jobengine_execution_history TO jobengine_execution_history_old;
+
+CREATE TABLE jobengine_execution_history (
+  id bigint(20) NOT NULL,
+  job_id bigint(20) NOT NULL,
+  status varchar(32) COLLATE utf8_bin NOT NULL,
+  started_at datetime DEFAULT NULL,
+  ended_at datetime DEFAULT NULL,
+  priority int(4) NOT NULL DEFAULT '0',
+  maturity datetime DEFAULT NULL,
+  batch_id bigint(20) DEFAULT NULL,
+  chain_id bigint(20) DEFAULT NULL,
+  chain_previous_execution_id bigint(20) DEFAULT NULL,
+  ordering_key varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  mutex_key varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  duration bigint(20) DEFAULT NULL,
+  node varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  lease_expires_at datetime DEFAULT NULL,
+  parameters mediumtext COLLATE utf8_bin,
+  parameters_data mediumblob,
+  parameters_ref varchar(256) COLLATE utf8_bin DEFAULT NULL,
+  parameters_hash int(11) DEFAULT NULL,
+  fail_retry int(4) NOT NULL DEFAULT '0',
+  fail_retry_execution_id bigint(20) DEFAULT NULL,
+  fail_message varchar(4096) COLLATE utf8_bin DEFAULT NULL,
+  fail_stacktrace_hash varchar(64) COLLATE utf8_bin DEFAULT NULL,
+  created_at datetime NOT NULL,
+  updated_at datetime DEFAULT NULL,
+  PRIMARY KEY (id,created_at),
+  KEY idx_jobengine_execution_history__jobid__status (job_id,status),
+  KEY idx_jobengine_execution_history__jobid__created_at (job_id,created_at),
+  KEY idx_jobengine_execution_history__jobid__id (job_id,id),
+  KEY idx_jobengine_execution_history__batch_id (batch_id),
+  KEY idx_jobengine_execution_history__chain_id (chain_id),
+  KEY idx_jobengine_execution_history__status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin
+PARTITION BY RANGE (TO_DAYS(created_at)) (
+  PARTITION p19700101 VALUES LESS THAN (TO_DAYS('1970-01-02'))
+);
+
+-- Once the job engine has started with partitioning, the partitions reach back to the oldest job execution of jobengine_execution_history_old.
+-- Copy the existing history then, until it is copied the job engine doesn't see it: it is missing in the reads of JobEngineService, in the
+-- statistics, and the cleanup neither deletes it nor releases its stored parameters.
+--
+-- INSERT INTO jobengine_execution_history (id, job_id, status, started_at, ended_at, priority, maturity, batch_id, chain_id, chain_previous_execution_id,
+--   ordering_key, mutex_key, duration, node, lease_expires_at, parameters, parameters_data, parameters_ref, parameters_hash, fail_retry,
+--   fail_retry_execution_id, fail_message, fail_stacktrace_hash, created_at, updated_at)
+-- SELECT id, job_id, status, started_at, ended_at, priority, maturity, batch_id, chain_id, chain_previous_execution_id,
+--   ordering_key, mutex_key, duration, node, lease_expires_at, parameters, parameters_data, parameters_ref, parameters_hash, fail_retry,
+--   fail_retry_execution_id, fail_message, fail_stacktrace_hash, created_at, updated_at
+-- FROM jobengine_execution_history_old;
+-- DROP TABLE jobengine_execution_history_old;
@@ -7,8 +7,14 @@ CREATE TABLE jobengine_job (
   worker_class_name varchar(255) COLLATE utf8_bin NOT NULL,
   type varchar(32) COLLATE utf8_bin NOT NULL DEFAULT 'ON_DEMAND',
   schedule varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  schedule_skip_if_active bit(1) NOT NULL DEFAULT b'0',
+  schedule_misfire_policy varchar(32) COLLATE utf8_bin NOT NULL DEFAULT 'IGNORE',
+  schedule_catch_up_limit int(4) NOT NULL DEFAULT '10',
+  schedule_last_fired_at datetime DEFAULT NULL,
   status varchar(32) COLLATE utf8_bin NOT NULL DEFAULT 'ACTIVE',
   threads int(4) NOT NULL DEFAULT '1',
+  concurrency_group varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  weight int(4) NOT NULL DEFAULT '1',
   max_per_minute int(6) DEFAULT NULL,
   fail_retries int(4) NOT NULL DEFAULT '0',
   retry_delay int(11) unsigned NOT NULL DEFAULT '4000',
@@ -27,19 +33,24 @@ CREATE TABLE jobengine_execution (
   status varchar(32) COLLATE utf8_bin NOT NULL DEFAULT 'QUEUED',
   started_at datetime DEFAULT NULL,
   ended_at datetime DEFAULT NULL,
-  priority bit(1) NOT NULL DEFAULT b'0',
+  priority int(4) NOT NULL DEFAULT '0',
   maturity datetime DEFAULT NULL,
   batch_id bigint(20) DEFAULT NULL,
   chain_id bigint(20) DEFAULT NULL,
   chain_previous_execution_id bigint(20) DEFAULT NULL,
+  ordering_key varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  mutex_key varchar(128) COLLATE utf8_bin DEFAULT NULL,
   duration bigint(20) DEFAULT NULL,
+  node varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  lease_expires_at datetime DEFAULT NULL,
   parameters mediumtext COLLATE utf8_bin,
+  parameters_data mediumblob,
+  parameters_ref varchar(256) COLLATE utf8_bin DEFAULT NULL,
   parameters_hash int(11) DEFAULT NULL,
-  log mediumtext COLLATE utf8_bin,
   fail_retry int(4) NOT NULL DEFAULT '0',
   fail_retry_execution_id bigint(20) DEFAULT NULL,
   fail_message varchar(4096) COLLATE utf8_bin DEFAULT NULL,
-  fail_stacktrace mediumtext COLLATE utf8_bin,
+  fail_stacktrace_hash varchar(64) COLLATE utf8_bin DEFAULT NULL,
   created_at datetime NOT NULL,
   updated_at datetime DEFAULT NULL,
   PRIMARY KEY (id),
@@ -48,5 +59,98 @@ CREATE TABLE jobengine_execution (
   KEY idx_jobengine_job_execution__poller (job_id,status,parameters_hash),
   KEY idx_jobengine_job_execution__chain_id__chain_prev_exec_id (chain_id,chain_previous_execution_id),
   KEY idx_jobengine_job_execution__batch_id_status (batch_id,status),
+  KEY idx_jobengine_job_execution__status__lease (status,lease_expires_at),
+  KEY idx_jobengine_job_execution__status__updated_at (status,updated_at),
+  KEY idx_jobengine_job_execution__jobid__created_at (job_id,created_at),
   CONSTRAINT fk_jobengine_job_execution_job FOREIGN KEY (job_id) REFERENCES jobengine_job (id) ON DELETE NO ACTION ON UPDATE NO ACTION
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+CREATE TABLE jobengine_execution_history (
+  id bigint(20) NOT NULL,
+  job_id bigint(20) NOT NULL,
+  status varchar(32) COLLATE utf8_bin NOT NULL,
+  started_at datetime DEFAULT NULL,
+  ended_at datetime DEFAULT NULL,
+  priority int(4) NOT NULL DEFAULT '0',
+  maturity datetime DEFAULT NULL,
+  batch_id bigint(20) DEFAULT NULL,
+  chain_id bigint(20) DEFAULT NULL,
+  chain_previous_execution_id bigint(20) DEFAULT NULL,
+  ordering_key varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  mutex_key varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  duration bigint(20) DEFAULT NULL,
+  node varchar(128) COLLATE utf8_bin DEFAULT NULL,
+  lease_expires_at datetime DEFAULT NULL,
+  parameters mediumtext COLLATE utf8_bin,
+  parameters_data mediumblob,
+  parameters_ref varchar(256) COLLATE utf8_bin DEFAULT NULL,
+  parameters_hash int(11) DEFAULT NULL,
+  fail_retry int(4) NOT NULL DEFAULT '0',
+  fail_retry_execution_id bigint(20) DEFAULT NULL,
+  fail_message varchar(4096) COLLATE utf8_bin DEFAULT NULL,
+  fail_stacktrace_hash varchar(64) COLLATE utf8_bin DEFAULT NULL,
+  created_at datetime NOT NULL,
+  updated_at datetime DEFAULT NULL,
+  PRIMARY KEY (id),
+  KEY idx_jobengine_execution_history__jobid__status (job_id,status),
+  KEY idx_jobengine_execution_history__jobid__created_at (job_id,created_at),
+  KEY idx_jobengine_execution_history__jobid__id (job_id,id),
+  KEY idx_jobengine_execution_history__batch_id (batch_id),
+  KEY idx_jobengine_execution_history__chain_id (chain_id),
+  KEY idx_jobengine_execution_history__status (status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+CREATE TABLE jobengine_node (
+  id bigint(20) NOT NULL AUTO_INCREMENT,
+  name varchar(128) COLLATE utf8_bin NOT NULL,
+  heartbeat_at datetime NOT NULL,
+  created_at datetime NOT NULL,
+  updated_at datetime DEFAULT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY jobengine_node_name (name)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+CREATE TABLE jobengine_execution_rollup (
+  id bigint(20) NOT NULL AUTO_INCREMENT,
+  job_id bigint(20) NOT NULL,
+  node varchar(128) COLLATE utf8_bin NOT NULL,
+  minute_start datetime NOT NULL,
+  executions bigint(20) NOT NULL DEFAULT '0',
+  duration_histogram text COLLATE utf8_bin,
+  wait_histogram text COLLATE utf8_bin,
+  poll_histogram text COLLATE utf8_bin,
+  queue_histogram text COLLATE utf8_bin,
+  start_histogram text COLLATE utf8_bin,
+  throttle_histogram text COLLATE utf8_bin,
+  created_at datetime NOT NULL,
+  updated_at datetime DEFAULT NULL,
+  PRIMARY KEY (id),
+  KEY idx_jobengine_execution_rollup__jobid__minute (job_id,minute_start),
+  KEY idx_jobengine_execution_rollup__minute (minute_start)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+CREATE TABLE jobengine_execution_log (
+  id bigint(20) NOT NULL AUTO_INCREMENT,
+  job_execution_id bigint(20) NOT NULL,
+  job_id bigint(20) NOT NULL,
+  log mediumtext COLLATE utf8_bin,
+  created_at datetime NOT NULL,
+  updated_at datetime DEFAULT NULL,
+  PRIMARY KEY (id),
+  KEY idx_jobengine_execution_log__job_execution_id (job_execution_id),
+  KEY idx_jobengine_execution_log__job_id (job_id),
+  KEY idx_jobengine_execution_log__created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
+
+CREATE TABLE jobengine_execution_stacktrace (
+  id bigint(20) NOT NULL AUTO_INCREMENT,
+  hash varchar(64) COLLATE utf8_bin NOT NULL,
+  stacktrace mediumtext COLLATE utf8_bin,
+  occurrences bigint(20) NOT NULL DEFAULT '0',
+  last_occurred_at datetime NOT NULL,
+  created_at datetime NOT NULL,
+  updated_at datetime DEFAULT NULL,
+  PRIMARY KEY (id),
+  UNIQUE KEY jobengine_execution_stacktrace_hash (hash),
+  KEY idx_jobengine_execution_stacktrace__last_occurred_at (last_occurred_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8 COLLATE=utf8_bin;
@@ -0,0 +1,61 @@
+-- Optional: partitions the history table by day of created_at (PostgreSQL 11 or newer)
+-- Set JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.POSTGRESQL, the job engine creates the daily partitions on start
+-- back to the oldest job execution in jobengine_execution, so every one of them can be moved, and the cleanup keeps them up to date.
+-- The existing history is kept in jobengine_execution_history_old and has to be copied into the partitioned table, see the end of this script.
+
+ALTER TABLE jobengine_execution_history RENAME TO jobengine_execution_history_old;
+ALTER INDEX idx_jobengine_execution_history__jobid__status RENAME TO idx_jobengine_execution_history_old__jobid__status;
+ALTER INDEX idx_jobengine_execution_history__jobid__created_at RENAME TO idx_jobengine_execution_history_old__jobid__created_at;
+ALTER INDEX idx_jobengine_execution_history__jobid__id RENAME TO idx_jobengine_execution_history_old__jobid__id;
+ALTER INDEX idx_jobengine_execution_history__batch_id RENAME TO idx_jobengine_execution_history_old__batch_id;
+ALTER INDEX idx_jobengine_execution_history__chain_id RENAME TO idx_jobengine_execution_history_old__chain_id;
+ALTER INDEX idx_jobengine_execution_history__status RENAME TO idx_jobengine_execution_history_old__status;
+
+CREATE TABLE jobengine_execution_history (
+  id bigint NOT NULL,
+  job_id bigint NOT NULL,
+  status varchar(32) NOT NULL,
+  started_at timestamp(0) DEFAULT NULL,
+  ended_at timestamp(0) DEFAULT NULL,
+  priority int NOT NULL DEFAULT '0',
+  maturity timestamp(0) DEFAULT NULL,
+  batch_id bigint DEFAULT NULL,
+  chain_id bigint DEFAULT NULL,
+  chain_previous_execution_id bigint DEFAULT NULL,
+  ordering_key varchar(128) DEFAULT NULL,
+  mutex_key varchar(128) DEFAULT NULL,
+  duration bigint DEFAULT NULL,
+  node varchar(128) DEFAULT NULL,
+  lease_expires_at timestamp(0) DEFAULT NULL,
+  parameters text,
+  parameters_data bytea,
+  parameters_ref varchar(256) DEFAULT NULL,
+  parameters_hash int DEFAULT NULL,
+  fail_retry int NOT NULL DEFAULT '0',
+  fail_retry_execution_id bigint DEFAULT NULL,
+  fail_message varchar(4096) DEFAULT NULL,
+  fail_stacktrace_hash varchar(64) DEFAULT NULL,
+  created_at timestamp(0) NOT NULL,
+  updated_at timestamp(0) DEFAULT NULL,
+  PRIMARY KEY (id,created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_jobengine_execution_history__jobid__status ON jobengine_execution_history (job_id,status);
+CREATE INDEX idx_jobengine_execution_history__jobid__created_at ON jobengine_execution_history (job_id,created_at);
+CREATE INDEX idx_jobengine_execution_history__jobid__id ON jobengine_execution_history (job_id,id);
+CREATE INDEX idx_jobengine_execution_history__batch_id ON jobengine_execution_history (batch_id);
+CREATE INDEX idx_jobengine_execution_history__chain_id ON jobengine_execution_history (chain_id);
+CREATE INDEX idx_jobengine_execution_history__status ON jobengine_execution_history (status);
+
+-- Once the job engine has started with partitioning, the partitions reach back to the oldest job execution of jobengine_execution_history_old.
+-- Copy the existing history then, until it is copied the job engine doesn't see it: it is missing in the reads of JobEngineService, in the
+-- statistics, and the cleanup neither deletes it nor releases its stored parameters.
+--
+-- INSERT INTO jobengine_execution_history (id, job_id, status, started_at, ended_at, priority, maturity, batch_id, chain_id, chain_previous_execution_id,
+--   ordering_key, mutex_key, duration, node, lease_expires_at, parameters, parameters_data, parameters_ref, parameters_hash, fail_retry,
+--   fail_retry_execution_id, fail_message, fail_stacktrace_hash, created_at, updated_at)
+-- SELECT id, job_id, status, started_at, ended_at, priority, maturity, batch_id, chain_id, chain_previous_execution_id,
+--   ordering_key, mutex_key, duration, node, lease_expires_at, parameters, parameters_data, parameters_ref, parameters_hash, fail_retry,
+--   fail_retry_execution_id, fail_message, fail_stacktrace_hash, created_at, updated_at
+-- FROM jobengine_execution_history_old;
+-- DROP TABLE jobengine_execution_history_old;
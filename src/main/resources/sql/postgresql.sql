@@ -14,8 +14,14 @@ CREATE TABLE jobengine_job (
   worker_class_name varchar(512) NOT NULL,
   type varchar(32) NOT NULL DEFAULT 'ON_DEMAND',
   schedule varchar(128) DEFAULT NULL,
+  schedule_skip_if_active boolean NOT NULL DEFAULT FALSE,
+  schedule_misfire_policy varchar(32) NOT NULL DEFAULT 'IGNORE',
+  schedule_catch_up_limit int NOT NULL DEFAULT '10',
+  schedule_last_fired_at timestamp(0) DEFAULT NULL,
   status varchar(32) NOT NULL DEFAULT 'ACTIVE',
   threads int NOT NULL DEFAULT '1',
+  concurrency_group varchar(128) DEFAULT NULL,
+  weight int NOT NULL DEFAULT '1',
   max_per_minute int DEFAULT NULL,
   fail_retries int NOT NULL DEFAULT '0',
   retry_delay int check (retry_delay > 0) NOT NULL DEFAULT '4000',
@@ -41,19 +47,24 @@ CREATE TABLE jobengine_execution (
   status varchar(32) NOT NULL DEFAULT 'QUEUED',
   started_at timestamp(0) DEFAULT NULL,
   ended_at timestamp(0) DEFAULT NULL,
-  priority boolean NOT NULL DEFAULT FALSE,
+  priority int NOT NULL DEFAULT '0',
   maturity timestamp(0) DEFAULT NULL,
   batch_id bigint DEFAULT NULL,
   chain_id bigint DEFAULT NULL,
   chain_previous_execution_id bigint DEFAULT NULL,
+  ordering_key varchar(128) DEFAULT NULL,
+  mutex_key varchar(128) DEFAULT NULL,
   duration bigint DEFAULT NULL,
+  node varchar(128) DEFAULT NULL,
+  lease_expires_at timestamp(0) DEFAULT NULL,
   parameters text,
+  parameters_data bytea,
+  parameters_ref varchar(256) DEFAULT NULL,
   parameters_hash int DEFAULT NULL,
-  log text,
   fail_retry int NOT NULL DEFAULT '0',
   fail_retry_execution_id bigint DEFAULT NULL,
   fail_message varchar(4096) DEFAULT NULL,
-  fail_stacktrace text,
+  fail_stacktrace_hash varchar(64) DEFAULT NULL,
   created_at timestamp(0) NOT NULL,
   updated_at timestamp(0) DEFAULT NULL,
   PRIMARY KEY (id),
@@ -65,3 +76,129 @@ CREATE INDEX idx_jobengine_job_execution_jobid_status ON jobengine_execution (jo
 CREATE INDEX idx_jobengine_job_execution_poller ON jobengine_execution (job_id,status,parameters_hash);
 CREATE INDEX idx_jobengine_job_execution__chain_id__chain_prev_exec_id ON jobengine_execution (chain_id,chain_previous_execution_id);
 CREATE INDEX idx_jobengine_job_execution__batch_id_status ON jobengine_execution (batch_id,status);
+CREATE INDEX idx_jobengine_job_execution__status__lease ON jobengine_execution (status,lease_expires_at);
+CREATE INDEX idx_jobengine_job_execution__status__updated_at ON jobengine_execution (status,updated_at);
+CREATE INDEX idx_jobengine_job_execution__jobid__created_at ON jobengine_execution (job_id,created_at);
+CREATE INDEX idx_jobengine_job_execution__jobid__id ON jobengine_execution (job_id,id);
+
+CREATE TABLE jobengine_execution_history (
+  id bigint NOT NULL,
+  job_id bigint NOT NULL,
+  status varchar(32) NOT NULL,
+  started_at timestamp(0) DEFAULT NULL,
+  ended_at timestamp(0) DEFAULT NULL,
+  priority int NOT NULL DEFAULT '0',
+  maturity timestamp(0) DEFAULT NULL,
+  batch_id bigint DEFAULT NULL,
+  chain_id bigint DEFAULT NULL,
+  chain_previous_execution_id bigint DEFAULT NULL,
+  ordering_key varchar(128) DEFAULT NULL,
+  mutex_key varchar(128) DEFAULT NULL,
+  duration bigint DEFAULT NULL,
+  node varchar(128) DEFAULT NULL,
+  lease_expires_at timestamp(0) DEFAULT NULL,
+  parameters text,
+  parameters_data bytea,
+  parameters_ref varchar(256) DEFAULT NULL,
+  parameters_hash int DEFAULT NULL,
+  fail_retry int NOT NULL DEFAULT '0',
+  fail_retry_execution_id bigint DEFAULT NULL,
+  fail_message varchar(4096) DEFAULT NULL,
+  fail_stacktrace_hash varchar(64) DEFAULT NULL,
+  created_at timestamp(0) NOT NULL,
+  updated_at timestamp(0) DEFAULT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_jobengine_execution_history__jobid__status ON jobengine_execution_history (job_id,status);
+CREATE INDEX idx_jobengine_execution_history__jobid__created_at ON jobengine_execution_history (job_id,created_at);
+CREATE INDEX idx_jobengine_execution_history__jobid__id ON jobengine_execution_history (job_id,id);
+CREATE INDEX idx_jobengine_execution_history__batch_id ON jobengine_execution_history (batch_id);
+CREATE INDEX idx_jobengine_execution_history__chain_id ON jobengine_execution_history (chain_id);
+CREATE INDEX idx_jobengine_execution_history__status ON jobengine_execution_history (status);
+
+CREATE SEQUENCE jobengine_node_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+CREATE TABLE jobengine_node (
+  id bigint NOT NULL DEFAULT NEXTVAL ('jobengine_node_id_seq'),
+  name varchar(128) NOT NULL,
+  heartbeat_at timestamp(0) NOT NULL,
+  created_at timestamp(0) NOT NULL,
+  updated_at timestamp(0) DEFAULT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT jobengine_node_name UNIQUE (name)
+);
+
+CREATE SEQUENCE jobengine_execution_rollup_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+CREATE TABLE jobengine_execution_rollup (
+  id bigint NOT NULL DEFAULT NEXTVAL ('jobengine_execution_rollup_id_seq'),
+  job_id bigint NOT NULL,
+  node varchar(128) NOT NULL,
+  minute_start timestamp(0) NOT NULL,
+  executions bigint NOT NULL DEFAULT '0',
+  duration_histogram text,
+  wait_histogram text,
+  poll_histogram text,
+  queue_histogram text,
+  start_histogram text,
+  throttle_histogram text,
+  created_at timestamp(0) NOT NULL,
+  updated_at timestamp(0) DEFAULT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_jobengine_execution_rollup__jobid__minute ON jobengine_execution_rollup (job_id,minute_start);
+CREATE INDEX idx_jobengine_execution_rollup__minute ON jobengine_execution_rollup (minute_start);
+
+CREATE SEQUENCE jobengine_execution_log_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+CREATE TABLE jobengine_execution_log (
+  id bigint NOT NULL DEFAULT NEXTVAL ('jobengine_execution_log_id_seq'),
+  job_execution_id bigint NOT NULL,
+  job_id bigint NOT NULL,
+  log text,
+  created_at timestamp(0) NOT NULL,
+  updated_at timestamp(0) DEFAULT NULL,
+  PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_jobengine_execution_log__job_execution_id ON jobengine_execution_log (job_execution_id);
+CREATE INDEX idx_jobengine_execution_log__job_id ON jobengine_execution_log (job_id);
+CREATE INDEX idx_jobengine_execution_log__created_at ON jobengine_execution_log (created_at);
+
+CREATE SEQUENCE jobengine_execution_stacktrace_id_seq
+    START WITH 1
+    INCREMENT BY 1
+    NO MINVALUE
+    NO MAXVALUE
+    CACHE 1;
+
+CREATE TABLE jobengine_execution_stacktrace (
+  id bigint NOT NULL DEFAULT NEXTVAL ('jobengine_execution_stacktrace_id_seq'),
+  hash varchar(64) NOT NULL,
+  stacktrace text,
+  occurrences bigint NOT NULL DEFAULT '0',
+  last_occurred_at timestamp(0) NOT NULL,
+  created_at timestamp(0) NOT NULL,
+  updated_at timestamp(0) DEFAULT NULL,
+  PRIMARY KEY (id),
+  CONSTRAINT jobengine_execution_stacktrace_hash UNIQUE (hash)
+);
+
+CREATE INDEX idx_jobengine_execution_stacktrace__last_occurred_at ON jobengine_execution_stacktrace (last_occurred_at);
@@ -0,0 +1,69 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BatchingJobWorkerTest {
+
+    public class TypeLong extends BatchingJobWorker<Long> {
+
+        List<List<Long>> microBatches = new ArrayList<>();
+
+        @Override
+        public void doWork(List<Long> parametersList) throws Exception {
+            microBatches.add(parametersList);
+        }
+    }
+
+    @Mock
+    private JobContext jobContext;
+
+    @Mock
+    private JobEngineService jobEngineService;
+
+    @InjectMocks
+    private TypeLong batchingJobWorker = new TypeLong();
+
+    private static JobExecution jobExecution(Long parameters) {
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(parameters);
+        jobExecution.setParameters(JobEngineUtil.parametersToJson(parameters));
+        return jobExecution;
+    }
+
+    @Test
+    public void testDoMicroBatch() throws Exception {
+
+        JobExecution first = jobExecution(1L);
+
+        batchingJobWorker.doMicroBatch(Arrays.asList(first, jobExecution(2L), jobExecution(3L)));
+
+        assertEquals(1, batchingJobWorker.microBatches.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L), batchingJobWorker.microBatches.get(0));
+        verify(jobContext).init(first);
+    }
+
+    @Test
+    public void testDoWorkExecution() throws Exception {
+
+        batchingJobWorker.doWork(jobExecution(42L));
+
+        assertEquals(1, batchingJobWorker.microBatches.size());
+        assertEquals(Arrays.asList(42L), batchingJobWorker.microBatches.get(0));
+    }
+
+}
@@ -0,0 +1,73 @@
+package io.coodoo.workhorse.jobengine.boundary;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
+
+public class FileParametersStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutGetDelete() throws Exception {
+
+        Path directory = folder.getRoot().toPath();
+        FileParametersStore classUnderTest = new FileParametersStore(directory);
+        byte[] data = "{\"s\":\"Stringily\"}".getBytes(StandardCharsets.UTF_8);
+
+        String reference = classUnderTest.put(data);
+
+        Path file = directory.resolve(reference.substring(0, 2)).resolve(reference);
+        assertTrue(Files.exists(file));
+        try (InputStream inputStream = classUnderTest.get(reference)) {
+            ByteArrayOutputStream read = new ByteArrayOutputStream();
+            int b;
+            while ((b = inputStream.read()) != -1) {
+                read.write(b);
+            }
+            assertArrayEquals(data, read.toByteArray());
+        }
+
+        classUnderTest.delete(reference);
+
+        assertFalse(Files.exists(file));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGet_notAReference() throws Exception {
+
+        new FileParametersStore(folder.getRoot().toPath()).get("../../etc/passwd");
+    }
+
+    @Test
+    public void testStoredToParameters() throws Exception {
+
+        MojoPojo mojoPojo = new MojoPojo();
+        mojoPojo.s = "Stringily";
+        mojoPojo.setL(83L);
+
+        JobEngineConfig.PARAMETERS_STORE = new FileParametersStore(folder.getRoot().toPath());
+        try {
+            String parametersRef = JobEngineUtil.storeParameters(JobEngineUtil.parametersToJson(mojoPojo).getBytes(StandardCharsets.UTF_8), false);
+
+            assertEquals(mojoPojo, JobEngineUtil.storedToParameters(parametersRef, MojoPojo.class));
+        } finally {
+            JobEngineConfig.PARAMETERS_STORE = null;
+        }
+    }
+
+}
@@ -4,7 +4,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -15,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.slf4j.Logger;
 
+import io.coodoo.workhorse.jobengine.control.JobEngineController;
 import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
 
@@ -27,6 +32,9 @@ public class JobContextTest {
     @Mock
     private JobExecution jobExecution;
 
+    @Mock
+    private JobEngineController jobEngineController;
+
     @InjectMocks
     private JobContext jobContext;
 
@@ -58,7 +66,6 @@ public class JobContextTest {
     @Test
     public void testLogLine() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         String message = "xxx";
 
         jobContext.init(jobExecution);
@@ -73,7 +80,6 @@ public class JobContextTest {
     @Test
     public void testLogLine_3lines() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         String message = "xxx";
 
         jobContext.init(jobExecution);
@@ -92,7 +98,6 @@ public class JobContextTest {
     @Test
     public void testLogLineWithTimestamp() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         String message = "xxx";
 
         jobContext.init(jobExecution);
@@ -109,7 +114,6 @@ public class JobContextTest {
     @Test
     public void testLogInfo() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         Logger logger = mock(Logger.class);
         String message = "xxx";
 
@@ -128,7 +132,6 @@ public class JobContextTest {
     @Test
     public void testLogWarn() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         Logger logger = mock(Logger.class);
         String message = "xxx";
 
@@ -147,7 +150,6 @@ public class JobContextTest {
     @Test
     public void testLogWarn_2lines() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         Logger logger = mock(Logger.class);
         String message = "xxx";
 
@@ -168,7 +170,6 @@ public class JobContextTest {
     @Test
     public void testLogError() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         Logger logger = mock(Logger.class);
         String message = "xxx";
 
@@ -187,7 +188,6 @@ public class JobContextTest {
     @Test
     public void testLogError_2lines() throws Exception {
 
-        given(jobExecution.getLog()).willReturn(null);
         Logger logger = mock(Logger.class);
         String message = "xxx";
 
@@ -205,4 +205,102 @@ public class JobContextTest {
         assertEquals(53, result.length());
     }
 
+    @Test
+    public void testLogLine_truncated() throws Exception {
+
+        int maxLength = JobEngineConfig.LOG_MAX_LENGTH;
+        JobEngineConfig.LOG_MAX_LENGTH = 10;
+        try {
+            jobContext.init(jobExecution);
+            jobContext.logLine("aaa");
+            jobContext.logLine("bbb");
+            jobContext.logLine("ccc");
+
+            assertEquals("[...]" + System.lineSeparator() + "bbb" + System.lineSeparator() + "ccc", jobContext.getLog());
+        } finally {
+            JobEngineConfig.LOG_MAX_LENGTH = maxLength;
+        }
+    }
+
+    @Test
+    public void testLogLine_truncatedLongLine() throws Exception {
+
+        int maxLength = JobEngineConfig.LOG_MAX_LENGTH;
+        JobEngineConfig.LOG_MAX_LENGTH = 10;
+        try {
+            jobContext.init(jobExecution);
+            jobContext.logLine("aaa");
+            jobContext.logLine("0123456789abc");
+
+            assertEquals("[...]" + System.lineSeparator() + "3456789abc", jobContext.getLog());
+
+            jobContext.logLine("ddd");
+            assertEquals("[...]" + System.lineSeparator() + "ddd", jobContext.getLog());
+        } finally {
+            JobEngineConfig.LOG_MAX_LENGTH = maxLength;
+        }
+    }
+
+    @Test
+    public void testFlushLog() throws Exception {
+
+        given(jobExecution.getJobId()).willReturn(1L);
+        given(jobExecution.getId()).willReturn(2L);
+
+        jobContext.init(jobExecution);
+        jobContext.logLine("aaa");
+        jobContext.logLine("bbb");
+        jobContext.flushLog();
+        jobContext.flushLog();
+
+        verify(jobEngineController).appendJobExecutionLog(1L, 2L, "aaa" + System.lineSeparator() + "bbb");
+        assertEquals("aaa" + System.lineSeparator() + "bbb", jobContext.getLog());
+    }
+
+    @Test
+    public void testFlushLog_intervalDisabled() throws Exception {
+
+        given(jobExecution.getJobId()).willReturn(1L);
+        given(jobExecution.getId()).willReturn(2L);
+        int flushInterval = JobEngineConfig.LOG_FLUSH_INTERVAL;
+        JobEngineConfig.LOG_FLUSH_INTERVAL = 0;
+        try {
+            jobContext.init(jobExecution);
+            jobContext.logLine("aaa");
+            jobContext.logLine("bbb");
+
+            verify(jobEngineController, never()).appendJobExecutionLog(anyLong(), anyLong(), anyString());
+
+            jobContext.flushLog();
+
+            verify(jobEngineController).appendJobExecutionLog(1L, 2L, "aaa" + System.lineSeparator() + "bbb");
+        } finally {
+            JobEngineConfig.LOG_FLUSH_INTERVAL = flushInterval;
+        }
+    }
+
+    @Test
+    public void testFlushLog_loggingWhileFlushing() throws Exception {
+
+        given(jobExecution.getJobId()).willReturn(1L);
+        given(jobExecution.getId()).willReturn(2L);
+        doAnswer(invocation -> {
+            // another thread of the job execution logs while the lines get written
+            Thread thread = new Thread(() -> jobContext.logLine("ccc"));
+            thread.start();
+            thread.join(5000);
+            assertFalse("logging waits for the flush", thread.isAlive());
+            return null;
+        }).when(jobEngineController).appendJobExecutionLog(1L, 2L, "aaa" + System.lineSeparator() + "bbb");
+
+        jobContext.init(jobExecution);
+        jobContext.logLine("aaa");
+        jobContext.logLine("bbb");
+        jobContext.flushLog();
+        jobContext.flushLog();
+
+        verify(jobEngineController).appendJobExecutionLog(1L, 2L, "ccc");
+        assertEquals("aaa" + System.lineSeparator() + "bbb" + System.lineSeparator() + "ccc", jobContext.getLog());
+    }
+
 }
@@ -11,7 +11,11 @@ import static org.junit.Assert.fail;
 import static org.mockito.BDDMockito.given;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import javax.persistence.EntityManager;
 
@@ -27,9 +31,16 @@ import io.coodoo.workhorse.jobengine.control.JobEngineController;
 import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 import io.coodoo.workhorse.jobengine.control.JobQueuePoller;
 import io.coodoo.workhorse.jobengine.control.JobScheduler;
+import io.coodoo.workhorse.jobengine.control.JobStatistics;
+import io.coodoo.workhorse.jobengine.control.jmx.JobMonitors;
 import io.coodoo.workhorse.jobengine.entity.AnquGenericMockUtil;
+import io.coodoo.workhorse.jobengine.entity.GroupInfo;
 import io.coodoo.workhorse.jobengine.entity.Job;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionHistory;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionInfo;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionLog;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
 
 @RunWith(MockitoJUnitRunner.class)
 public class JobEngineServiceTest {
@@ -49,6 +60,12 @@ public class JobEngineServiceTest {
     @Mock
     JobScheduler jobScheduler;
 
+    @Mock
+    JobStatistics jobStatistics;
+
+    @Mock
+    JobMonitors jobMonitors;
+
     @Mock
     EntityManager entityManager;
 
@@ -83,6 +100,14 @@ public class JobEngineServiceTest {
         assertThat(jobExecution.getParametersHash(), is(nullValue()));
     }
 
+    @Test
+    public void createJobExecution_parameterData_HashIsCorrect() {
+        byte[] parametersData = new byte[] {1, 2, 3};
+        JobExecution jobExecution = classUnderTest.createJobExecution(1l, null, parametersData, false, null, null, null, null, false);
+        assertThat(jobExecution.getParametersData(), equalTo(parametersData));
+        assertThat(jobExecution.getParametersHash(), equalTo(Arrays.hashCode(parametersData)));
+    }
+
     @Test
     public void createJobExecution_SameParameterOfQueuedJobsAndUniqueFlagTrue_NoNewJobIsCreatedExistandJobIsReturned() {
 
@@ -110,6 +135,66 @@ public class JobEngineServiceTest {
         assertThat(jobExecution.getJobId(), equalTo(1l));
     }
 
+    @Test
+    public void testGetJobExecutionLog() throws Exception {
+
+        JobExecutionLog first = new JobExecutionLog();
+        first.setLog("aaa" + System.lineSeparator() + "bbb");
+        JobExecutionLog second = new JobExecutionLog();
+        second.setLog("ccc");
+        AnquGenericMockUtil.mockAnyActionAnyQuery(entityManager, Arrays.asList(first, second));
+
+        String result = classUnderTest.getJobExecutionLog(1L);
+
+        assertEquals("aaa" + System.lineSeparator() + "bbb" + System.lineSeparator() + "ccc", result);
+    }
+
+    @Test
+    public void testGetJobExecutionLog_none() throws Exception {
+
+        AnquGenericMockUtil.mockAnyActionAnyQuery(entityManager, Collections.emptyList());
+
+        assertThat(classUnderTest.getJobExecutionLog(1L), is(nullValue()));
+    }
+
+    @Test
+    public void testGetJobExecutionChainInfo_sameOrderAsChain() throws Exception {
+
+        LocalDateTime time = LocalDateTime.of(2020, 1, 1, 12, 0);
+        List<JobExecutionInfo> live = new ArrayList<>();
+        live.add(new JobExecutionInfo(3L, JobExecutionStatus.QUEUED, time.plusMinutes(1), null, null, null, null));
+        live.add(new JobExecutionInfo(2L, JobExecutionStatus.QUEUED, time.plusMinutes(1), null, null, null, null));
+        List<JobExecutionInfo> history = new ArrayList<>();
+        history.add(new JobExecutionInfo(4L, JobExecutionStatus.FINISHED, time, time, time, 0L, null));
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getChainInfo", live);
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecutionHistory.getChainInfo", history);
+
+        GroupInfo chainInfo = classUnderTest.getJobExecutionChainInfo(1L);
+
+        // creation time first, ID only for ties, just like the merged job executions of the chain
+        assertEquals(Arrays.asList(4L, 2L, 3L), chainInfo.getExecutionInfos().stream().map(JobExecutionInfo::getId).collect(Collectors.toList()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUpdateJobExecution_inHistory() throws Exception {
+
+        given(entityManager.find(JobExecutionHistory.class, 7L)).willReturn(new JobExecutionHistory());
+
+        classUnderTest.updateJobExecution(7L, JobExecutionStatus.QUEUED, null, JobExecution.PRIORITY_NORMAL, null, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUpdateJobExecution_unknown() throws Exception {
+
+        classUnderTest.updateJobExecution(7L, JobExecutionStatus.QUEUED, null, JobExecution.PRIORITY_NORMAL, null, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDeleteJobExecution_unknown() throws Exception {
+
+        classUnderTest.deleteJobExecution(7L);
+    }
+
     @Test
     public void testGetNextScheduledTimes() throws Exception {
 
@@ -17,6 +17,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
 import io.coodoo.workhorse.jobengine.entity.JobExecution;
 
@@ -119,6 +121,19 @@ public class JobWorkerWithTest {
         jobWorkerWithLong.doWork(jobExecution);
     }
 
+    @Test
+    public void testDoWorkExecutionLongData() throws Exception {
+
+        JobEngineConfig.PARAMETERS_CODEC = new JacksonParametersCodec(new ObjectMapper());
+        try {
+            JobExecution jobExecution = new JobExecution();
+            jobExecution.setParametersData(JobEngineUtil.parametersToData(LONG));
+            jobWorkerWithLong.doWork(jobExecution);
+        } finally {
+            JobEngineConfig.PARAMETERS_CODEC = null;
+        }
+    }
+
     @Test
     public void testDoWorkPojo() throws Exception {
 
@@ -0,0 +1,89 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+
+public class ConcurrencyGroupsTest {
+
+    private ConcurrencyGroups concurrencyGroups = new ConcurrencyGroups();
+
+    @After
+    public void after() {
+        JobEngineConfig.CONCURRENCY_GROUPS.clear();
+    }
+
+    @Test
+    public void testGetPermits() throws Exception {
+
+        JobEngineConfig.CONCURRENCY_GROUPS.put("billing-api", 4);
+
+        GroupPermits permits = concurrencyGroups.getPermits("billing-api");
+
+        assertEquals(4, permits.availablePermits());
+        assertSame(permits, concurrencyGroups.getPermits("billing-api"));
+    }
+
+    @Test
+    public void testGetPermits_notLimited() throws Exception {
+
+        JobEngineConfig.CONCURRENCY_GROUPS.put("disabled", 0);
+
+        assertNull(concurrencyGroups.getPermits(null));
+        assertNull(concurrencyGroups.getPermits("unknown"));
+        assertNull(concurrencyGroups.getPermits("disabled"));
+    }
+
+    @Test
+    public void testClear() throws Exception {
+
+        JobEngineConfig.CONCURRENCY_GROUPS.put("billing-api", 4);
+        GroupPermits permits = concurrencyGroups.getPermits("billing-api");
+
+        JobEngineConfig.CONCURRENCY_GROUPS.put("billing-api", 2);
+        concurrencyGroups.clear();
+
+        assertNotSame(permits, concurrencyGroups.getPermits("billing-api"));
+        assertEquals(2, concurrencyGroups.getPermits("billing-api").availablePermits());
+    }
+
+    @Test
+    public void testAcquire_keepsPlaceInLine() throws Exception {
+
+        GroupPermits permits = new GroupPermits(1);
+        assertTrue(permits.acquire("running", 0));
+
+        assertFalse(permits.acquire("first", 10));
+        assertFalse(permits.acquire("second", 10));
+        permits.release();
+
+        // the first one only checked whether to stop or pause and is still next
+        assertFalse(permits.acquire("second", 10));
+        assertTrue(permits.acquire("first", 0));
+        permits.release();
+        assertTrue(permits.acquire("second", 0));
+    }
+
+    @Test
+    public void testLeave() throws Exception {
+
+        GroupPermits permits = new GroupPermits(1);
+        assertTrue(permits.acquire("running", 0));
+        assertFalse(permits.acquire("first", 10));
+        assertFalse(permits.acquire("second", 10));
+
+        permits.leave("first");
+        permits.release();
+
+        assertTrue(permits.acquire("second", 0));
+    }
+
+}
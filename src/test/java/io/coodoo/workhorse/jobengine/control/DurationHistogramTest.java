@@ -0,0 +1,90 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DurationHistogramTest {
+
+    @Test
+    public void testIndex_contiguous() throws Exception {
+
+        for (int i = 0; i < 959; i++) {
+            long value = DurationHistogram.highestValue(i) + 1;
+            assertEquals(i + 1, DurationHistogram.index(value));
+            assertEquals(i, DurationHistogram.index(value - 1));
+        }
+        assertEquals(Long.MAX_VALUE, DurationHistogram.highestValue(DurationHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testGetValueAtPercentile() throws Exception {
+
+        DurationHistogram classUnderTest = new DurationHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            classUnderTest.record(i);
+        }
+
+        assertEquals(1000, classUnderTest.getTotalCount());
+        assertEquals(Long.valueOf(500), classUnderTest.getMean());
+        assertEquals(1000, classUnderTest.getMax());
+        assertWithinPrecision(500, classUnderTest.getValueAtPercentile(50));
+        assertWithinPrecision(990, classUnderTest.getValueAtPercentile(99));
+        assertEquals(Long.valueOf(1000), classUnderTest.getValueAtPercentile(100));
+        assertEquals(Long.valueOf(1), classUnderTest.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void testGetValueAtPercentile_empty() throws Exception {
+
+        DurationHistogram classUnderTest = new DurationHistogram();
+
+        assertNull(classUnderTest.getValueAtPercentile(50));
+        assertNull(classUnderTest.getMean());
+    }
+
+    @Test
+    public void testMerge() throws Exception {
+
+        DurationHistogram fast = new DurationHistogram();
+        DurationHistogram slow = new DurationHistogram();
+        for (int i = 0; i < 99; i++) {
+            fast.record(10);
+        }
+        slow.record(60000);
+
+        fast.merge(slow);
+
+        assertEquals(100, fast.getTotalCount());
+        assertEquals(Long.valueOf(10), fast.getValueAtPercentile(99));
+        assertEquals(Long.valueOf(60000), fast.getValueAtPercentile(99.9));
+    }
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+
+        DurationHistogram classUnderTest = new DurationHistogram();
+        classUnderTest.record(0);
+        classUnderTest.record(7);
+        classUnderTest.record(1234);
+        classUnderTest.record(1234);
+        classUnderTest.record(3600000);
+
+        DurationHistogram decoded = DurationHistogram.decode(classUnderTest.encode());
+
+        assertEquals(classUnderTest.getTotalCount(), decoded.getTotalCount());
+        assertEquals(classUnderTest.getSum(), decoded.getSum());
+        assertEquals(classUnderTest.getMax(), decoded.getMax());
+        for (double percentile : new double[] {0, 25, 50, 75, 100}) {
+            assertEquals(classUnderTest.getValueAtPercentile(percentile), decoded.getValueAtPercentile(percentile));
+        }
+        assertEquals(0, DurationHistogram.decode(null).getTotalCount());
+    }
+
+    private static void assertWithinPrecision(long expected, Long actual) {
+        assertTrue("expected " + expected + " but was " + actual, Math.abs(actual - expected) <= expected / 16);
+    }
+
+}
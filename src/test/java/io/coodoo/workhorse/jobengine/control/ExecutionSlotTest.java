@@ -0,0 +1,54 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.entity.Job;
+
+public class ExecutionSlotTest {
+
+    private Job job = new Job();
+
+    private GroupPermits permits = new GroupPermits(2);
+
+    private WorkerPool pool = new WorkerPool(1);
+
+    public ExecutionSlotTest() {
+        job.setId(1L);
+    }
+
+    @Test
+    public void testAcquire() throws Exception {
+
+        ExecutionSlot slot = new ExecutionSlot(job, "A", permits, pool, 10);
+
+        assertTrue(slot.acquire(() -> true));
+        assertEquals(1, permits.availablePermits());
+        assertEquals(0, pool.getFree());
+
+        slot.release();
+        slot.release();
+        assertEquals(2, permits.availablePermits());
+        assertEquals(1, pool.getFree());
+    }
+
+    @Test
+    public void testAcquire_giveUpWithoutSlot() throws Exception {
+
+        ExecutionSlot running = new ExecutionSlot(job, "A", permits, pool, 10);
+        assertTrue(running.acquire(() -> true));
+
+        ExecutionSlot waiting = new ExecutionSlot(job, "B", permits, pool, 10);
+
+        // the permit it got must not stay taken when it stops waiting for the slot
+        assertFalse(waiting.acquire(() -> false));
+        assertEquals(1, permits.availablePermits());
+
+        running.release();
+        assertTrue(waiting.acquire(() -> false));
+    }
+
+}
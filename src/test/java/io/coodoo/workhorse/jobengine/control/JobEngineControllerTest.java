@@ -0,0 +1,283 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.boundary.ParametersStore;
+import io.coodoo.workhorse.jobengine.control.event.ParametersStoredEvent;
+import io.coodoo.workhorse.jobengine.control.event.ParametersUnreferencedEvent;
+import io.coodoo.workhorse.jobengine.entity.AnquGenericMockUtil;
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStacktrace;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+import io.coodoo.workhorse.jobengine.entity.JobStatus;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobEngineControllerTest {
+
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    JobStatistics jobStatistics;
+
+    @Mock
+    JobExecutionRollups jobExecutionRollups;
+
+    @Mock
+    BaseJobWorker jobWorker;
+
+    @Mock
+    JobEngine jobEngine;
+
+    @InjectMocks
+    JobEngineController jobEngineController;
+
+    @After
+    public void after() {
+        JobEngineConfig.ZOMBIE_CURE_STATUS = JobExecutionStatus.QUEUED;
+        JobEngineConfig.PARAMETERS_STORE = null;
+    }
+
+    private static JobExecution zombie() {
+        JobExecution zombie = new JobExecution();
+        zombie.setId(7L);
+        zombie.setJobId(1L);
+        zombie.setStatus(JobExecutionStatus.RUNNING);
+        zombie.setLeaseExpiresAt(JobEngineUtil.timestamp().minusMinutes(1));
+        return zombie;
+    }
+
+    @Test
+    public void testHuntJobExecutionZombies_queued() throws Exception {
+
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.findZombies", zombie());
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.cureZombie", 1);
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobEngineNode.deleteDeadNodes", 0);
+
+        jobEngineController.huntJobExecutionZombies();
+
+        ArgumentCaptor<JobExecution> retry = ArgumentCaptor.forClass(JobExecution.class);
+        verify(entityManager).persist(retry.capture());
+        assertEquals(JobExecutionStatus.QUEUED, retry.getValue().getStatus());
+        assertEquals(Long.valueOf(7L), retry.getValue().getFailRetryExecutionId());
+        verify(jobStatistics).transition(1L, JobExecutionStatus.RUNNING, JobExecutionStatus.FAILED, 1);
+    }
+
+    @Test
+    public void testHuntJobExecutionZombies_leaseRenewedMeanwhile() throws Exception {
+
+        // the lease got renewed (or another node cured it) between finding and curing, so the update hits no row
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.findZombies", zombie());
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.cureZombie", 0);
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobEngineNode.deleteDeadNodes", 0);
+
+        jobEngineController.huntJobExecutionZombies();
+
+        verify(entityManager, never()).persist(any());
+        verify(jobStatistics, never()).transition(anyLong(), any(), any(), anyInt());
+    }
+
+    @Test
+    public void testHuntJobExecutionZombies_running() throws Exception {
+
+        JobEngineConfig.ZOMBIE_CURE_STATUS = JobExecutionStatus.RUNNING;
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.findZombies", zombie());
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobEngineNode.deleteDeadNodes", 0);
+
+        jobEngineController.huntJobExecutionZombies();
+
+        verify(entityManager, never()).persist(any());
+        verify(entityManager, never()).createNamedQuery("JobExecution.cureZombie");
+    }
+
+    private static JobExecution ended(long id) {
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(id);
+        jobExecution.setJobId(1L);
+        jobExecution.setStatus(JobExecutionStatus.FINISHED);
+        return jobExecution;
+    }
+
+    @Test
+    public void testMoveJobExecutionsToHistory() throws Exception {
+
+        Query insert = mock(Query.class);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(insert);
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getEndedJobExecutionIds", Arrays.asList(3L, 5L));
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.deleteEndedByIds", 2);
+
+        jobEngineController.moveJobExecutionsToHistory();
+
+        ArgumentCaptor<String> statement = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createNativeQuery(statement.capture());
+        assertTrue(statement.getValue(), statement.getValue().startsWith("INSERT INTO jobengine_execution_history ("));
+        // another node may move the same job executions at the same time
+        assertTrue(statement.getValue(), statement.getValue().endsWith(" FROM jobengine_execution e WHERE e.id IN (3,5) AND e.status IN ('FINISHED', 'FAILED', "
+                        + "'ABORTED') AND NOT EXISTS (SELECT 1 FROM jobengine_execution_history h WHERE h.id = e.id)"));
+        verify(insert).executeUpdate();
+        verify(entityManager).createNamedQuery("JobExecution.deleteEndedByIds");
+    }
+
+    @Test
+    public void testMoveJobExecutionsToHistory_nothingEnded() throws Exception {
+
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getEndedJobExecutionIds", Arrays.asList());
+
+        jobEngineController.moveJobExecutionsToHistory();
+
+        verify(entityManager, never()).createNativeQuery(anyString());
+        verify(entityManager, never()).createNamedQuery("JobExecution.deleteEndedByIds");
+    }
+
+    @Test
+    public void testDeleteUnreferencedParameters() throws Exception {
+
+        ParametersStore parametersStore = mock(ParametersStore.class);
+        JobEngineConfig.PARAMETERS_STORE = parametersStore;
+        // a retry still refers to the first one
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getParametersRefsIn", Arrays.asList("j:a"));
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecutionHistory.getParametersRefsIn", Arrays.asList());
+
+        jobEngineController.deleteUnreferencedParameters(new ParametersUnreferencedEvent(Arrays.asList("j:a", "j:b")));
+
+        verify(parametersStore).delete("b");
+        verify(parametersStore, never()).delete("a");
+    }
+
+    @Test
+    public void testDeleteOrphanedParameters() throws Exception {
+
+        ParametersStore parametersStore = mock(ParametersStore.class);
+        JobEngineConfig.PARAMETERS_STORE = parametersStore;
+
+        jobEngineController.deleteOrphanedParameters(new ParametersStoredEvent("e:c"));
+
+        verify(parametersStore).delete("c");
+    }
+
+    @Test
+    public void testHandleFailedExecutions() throws Exception {
+
+        Job job = new Job();
+        job.setId(1L);
+        job.setFailRetries(2);
+        JobExecution first = ended(3L);
+        JobExecution last = ended(5L);
+        last.setFailRetry(2);
+        JobExecution retry = ended(9L);
+        retry.setFailRetryExecutionId(3L);
+
+        Query insert = mock(Query.class);
+        when(insert.setParameter(anyInt(), any())).thenReturn(insert);
+        when(insert.executeUpdate()).thenReturn(1);
+        when(entityManager.createNativeQuery(anyString())).thenReturn(insert);
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getRetriesOf", Arrays.asList(retry));
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.updateStatusFailedByIds", 2);
+
+        List<JobExecution> retries = jobEngineController.handleFailedExecutions(job, Arrays.asList(first, last), new RuntimeException("boom"), "hash", 10L,
+                        jobWorker);
+
+        // one insert for all retries, one update for all failed job executions
+        assertEquals(Arrays.asList(retry), retries);
+        verify(entityManager).createNativeQuery(contains("FROM jobengine_execution WHERE id IN (3,5) AND fail_retry < ?5"));
+        verify(insert).setParameter(5, 2);
+        verify(entityManager).createNamedQuery("JobExecution.updateStatusFailedByIds");
+        verify(entityManager, never()).persist(any());
+        verify(jobWorker).onRetry(3L, 9L);
+        verify(jobWorker).onFailed(5L);
+        verify(jobStatistics, times(2)).ended(1L, JobExecutionStatus.FAILED, 10L);
+        verify(jobStatistics).transition(1L, null, JobExecutionStatus.RUNNING, 1);
+    }
+
+    @Test
+    public void testSyncJobExecutionQueue_orderingKeyInQueueOrder() throws Exception {
+
+        Job job = new Job();
+        job.setId(1L);
+        job.setThreads(2);
+        job.setStatus(JobStatus.ACTIVE);
+        JobExecution urgent = new JobExecution();
+        urgent.setId(8L);
+        urgent.setOrderingKey("customer-1");
+        urgent.setPriority(JobExecution.PRIORITY_HIGH);
+        JobExecution older = new JobExecution();
+        older.setId(4L);
+        older.setOrderingKey("customer-1");
+        JobExecution other = new JobExecution();
+        other.setId(6L);
+
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "Job.getAllByStatus", job);
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getNextCandidates", Arrays.asList(urgent, other));
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getOldestCandidates", new ArrayList<>());
+        AnquGenericMockUtil.mockAnyActionForQuery(entityManager, "JobExecution.getNextOrderedCandidates", Arrays.asList(older, urgent));
+        List<Long> drafted = new ArrayList<>();
+        when(jobEngine.addJobExecution(any())).thenAnswer(invocation -> drafted.add(((JobExecution) invocation.getArguments()[0]).getId()));
+
+        jobEngineController.syncJobExecutionQueue();
+
+        // the priority doesn't let a job execution overtake the older one of its key
+        assertEquals(Arrays.asList(6L, 4L, 8L), drafted);
+    }
+
+    private Query countOccurrence(int updated) {
+        Query query = mock(Query.class);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.executeUpdate()).thenReturn(updated);
+        when(entityManager.createNamedQuery("JobExecutionStacktrace.countOccurrence")).thenReturn(query);
+        return query;
+    }
+
+    @Test
+    public void testStoreStacktrace_microBatch() throws Exception {
+
+        Query query = countOccurrence(1);
+
+        jobEngineController.storeStacktrace(new RuntimeException("boom"), 3);
+
+        // every job execution of the micro-batch refers to the stacktrace
+        verify(query).setParameter("count", 3);
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    public void testStoreStacktrace_microBatchFirstOccurrence() throws Exception {
+
+        countOccurrence(0);
+
+        String hash = jobEngineController.storeStacktrace(new RuntimeException("boom"), 3);
+
+        ArgumentCaptor<JobExecutionStacktrace> stacktrace = ArgumentCaptor.forClass(JobExecutionStacktrace.class);
+        verify(entityManager).persist(stacktrace.capture());
+        assertEquals(hash, stacktrace.getValue().getHash());
+        assertEquals(3L, stacktrace.getValue().getOccurrences());
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.enterprise.event.Event;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.coodoo.workhorse.jobengine.boundary.JobContext;
+import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
+import io.coodoo.workhorse.jobengine.control.event.AllJobExecutionsDoneEvent;
+import io.coodoo.workhorse.jobengine.control.event.JobErrorEvent;
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobEngineTest {
+
+    @Mock
+    JobEngineService jobEngineService;
+
+    @Mock
+    JobEngineController jobEngineController;
+
+    @Mock
+    JobExecutor jobExecutor;
+
+    @Mock
+    JobStatistics jobStatistics;
+
+    @Mock
+    JobExecutionRollups jobExecutionRollups;
+
+    @Mock
+    Event<AllJobExecutionsDoneEvent> allJobsDoneEvent;
+
+    @Mock
+    Event<JobErrorEvent> jobErrorEvent;
+
+    @Mock
+    BaseJobWorker jobWorker;
+
+    @InjectMocks
+    JobEngine jobEngine;
+
+    private Job job = new Job();
+
+    // the job threads get started by the test
+    private List<JobThread> jobThreads = new ArrayList<>();
+
+    // IDs of the job executions in the order they started
+    private List<Long> started = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+
+        job.setId(1L);
+        job.setThreads(2);
+        when(jobEngineService.getAllJobs()).thenReturn(Arrays.asList(job));
+        when(jobEngineService.getJobById(1L)).thenReturn(job);
+        when(jobEngineController.getJobWorker(job)).thenReturn(jobWorker);
+        when(jobWorker.getJobContext()).thenReturn(mock(JobContext.class));
+        when(jobExecutor.execute(any(), any())).thenAnswer(invocation -> {
+            jobThreads.add((JobThread) invocation.getArguments()[1]);
+            return mock(Future.class);
+        });
+        jobEngine.initializeMemoryQueues();
+    }
+
+    private JobExecution jobExecution(long id, String orderingKey, String mutexKey) {
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(id);
+        jobExecution.setJobId(1L);
+        jobExecution.setCreatedAt(JobEngineUtil.timestamp());
+        jobExecution.setOrderingKey(orderingKey);
+        jobExecution.setMutexKey(mutexKey);
+        return jobExecution;
+    }
+
+    @Test
+    public void testMutexKey_orderedJobExecutionWaits() throws Exception {
+
+        jobEngine.addJobExecution(jobExecution(1L, null, "account-1"));
+        jobEngine.addJobExecution(jobExecution(2L, "customer-1", "account-1"));
+        jobEngine.addJobExecution(jobExecution(3L, null, null));
+        assertEquals(2, jobThreads.size());
+
+        doAnswer(invocation -> {
+            JobExecution jobExecution = (JobExecution) invocation.getArguments()[0];
+            started.add(jobExecution.getId());
+            if (jobExecution.getId() == 1L) {
+                // the second job thread comes along while the mutex key is running
+                jobThreads.get(1).run(job);
+            }
+            return null;
+        }).when(jobWorker).doWork(any());
+
+        jobThreads.get(0).run(job);
+
+        // the ordered job execution must wait for the mutex key, just like any other
+        assertEquals(Arrays.asList(1L, 3L, 2L), started);
+        assertEquals(0, jobEngine.getNumberOfJobExecutionsInQueue(1L));
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Test;
+
+public class JobEngineUtilTest {
+
+    private static Exception fail(String message) {
+        return new IllegalStateException(message, new RuntimeException("Connection refused: " + message));
+    }
+
+    private static Exception exception(String className) {
+        Exception exception = new IllegalStateException("Dafuq was that?!?!");
+        exception.setStackTrace(new StackTraceElement[] {new StackTraceElement(className, "run", null, -1)});
+        return exception;
+    }
+
+    @Test
+    public void testStacktraceHash() throws Exception {
+
+        String hash = null;
+        for (int i = 0; i < 2; i++) {
+            // same place, different messages
+            String next = JobEngineUtil.stacktraceHash(fail("item " + i));
+            if (hash != null) {
+                assertEquals(hash, next);
+            }
+            hash = next;
+        }
+        assertEquals(64, hash.length());
+    }
+
+    @Test
+    public void testStacktraceHash_differentPlace() throws Exception {
+
+        Exception here = fail("a");
+        Exception there = fail("a");
+
+        assertNotEquals(JobEngineUtil.stacktraceHash(here), JobEngineUtil.stacktraceHash(there));
+    }
+
+    @Test
+    public void testStacktraceHash_differentCause() throws Exception {
+
+        Exception exception = exception("io.coodoo.Worker");
+        Exception withCause = exception("io.coodoo.Worker");
+        withCause.initCause(exception("io.coodoo.Client"));
+
+        assertNotEquals(JobEngineUtil.stacktraceHash(exception), JobEngineUtil.stacktraceHash(withCause));
+    }
+
+    @Test
+    public void testStacktraceHash_generatedClasses() throws Exception {
+
+        assertEquals(JobEngineUtil.stacktraceHash(exception("io.coodoo.Worker$$Lambda$12/1234567")),
+                        JobEngineUtil.stacktraceHash(exception("io.coodoo.Worker$$Lambda$13/0x0000000800c0b000")));
+        assertEquals(JobEngineUtil.stacktraceHash(exception("com.sun.proxy.$Proxy12")), JobEngineUtil.stacktraceHash(exception("com.sun.proxy.$Proxy42")));
+        assertEquals(JobEngineUtil.stacktraceHash(exception("sun.reflect.GeneratedMethodAccessor1")),
+                        JobEngineUtil.stacktraceHash(exception("sun.reflect.GeneratedMethodAccessor99")));
+        assertNotEquals(JobEngineUtil.stacktraceHash(exception("io.coodoo.Worker$1")), JobEngineUtil.stacktraceHash(exception("io.coodoo.Worker$2")));
+    }
+
+}
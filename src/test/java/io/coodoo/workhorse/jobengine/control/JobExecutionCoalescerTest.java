@@ -0,0 +1,144 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.Test;
+
+public class JobExecutionCoalescerTest {
+
+    private JobExecutionCoalescer jobExecutionCoalescer = new JobExecutionCoalescer();
+
+    private List<LocalDateTime> created = new ArrayList<>();
+
+    private Function<LocalDateTime, Long> create = windowEnd -> {
+        created.add(windowEnd);
+        return (long) created.size();
+    };
+
+    @Test
+    public void testCoalesce() throws Exception {
+
+        LocalDateTime before = JobEngineUtil.timestamp();
+
+        Long id = jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(id, jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create));
+        }
+
+        assertEquals(1, created.size());
+        assertTrue(created.get(0).isAfter(before.plusSeconds(59)));
+    }
+
+    @Test
+    public void testCoalesce_differentKeys() throws Exception {
+
+        Long id = jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create);
+
+        assertNotEquals(id, jobExecutionCoalescer.coalesce(1L, "user-43", 60000, create));
+        assertNotEquals(id, jobExecutionCoalescer.coalesce(2L, "user-42", 60000, create));
+        assertEquals(3, created.size());
+    }
+
+    @Test
+    public void testCoalesce_windowEnded() throws Exception {
+
+        Long id = jobExecutionCoalescer.coalesce(1L, "user-42", 0, create);
+
+        assertNotEquals(id, jobExecutionCoalescer.coalesce(1L, "user-42", 0, create));
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testCoalesce_openedOnCommit() throws Exception {
+
+        StandInTransaction first = new StandInTransaction();
+        jobExecutionCoalescer.transactionSynchronizationRegistry = first;
+        Long id = jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create);
+        assertEquals(id, jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create));
+
+        // not open for other transactions before the first one commits
+        StandInTransaction second = new StandInTransaction();
+        jobExecutionCoalescer.transactionSynchronizationRegistry = second;
+        Long otherId = jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create);
+        assertNotEquals(id, otherId);
+
+        first.complete(Status.STATUS_COMMITTED);
+        second.complete(Status.STATUS_COMMITTED);
+
+        jobExecutionCoalescer.transactionSynchronizationRegistry = new StandInTransaction();
+        assertEquals(id, jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create));
+        assertEquals(2, created.size());
+    }
+
+    @Test
+    public void testCoalesce_rolledBack() throws Exception {
+
+        StandInTransaction transaction = new StandInTransaction();
+        jobExecutionCoalescer.transactionSynchronizationRegistry = transaction;
+        Long id = jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create);
+        transaction.complete(Status.STATUS_ROLLEDBACK);
+
+        // the job execution of the window is gone, so a new one gets created
+        jobExecutionCoalescer.transactionSynchronizationRegistry = new StandInTransaction();
+        assertNotEquals(id, jobExecutionCoalescer.coalesce(1L, "user-42", 60000, create));
+        assertEquals(2, created.size());
+    }
+
+    private static class StandInTransaction implements TransactionSynchronizationRegistry {
+
+        private final Map<Object, Object> resources = new HashMap<>();
+
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+
+        private void complete(int status) {
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return this;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            resources.put(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return resources.get(key);
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization sync) {
+            synchronizations.add(sync);
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return Status.STATUS_ACTIVE;
+        }
+
+        @Override
+        public void setRollbackOnly() {}
+
+        @Override
+        public boolean getRollbackOnly() {
+            return false;
+        }
+    }
+
+}
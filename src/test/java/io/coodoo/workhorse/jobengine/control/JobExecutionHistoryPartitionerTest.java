@@ -0,0 +1,129 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
+import io.coodoo.workhorse.jobengine.entity.ExecutionHistoryPartitioning;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobExecutionHistoryPartitionerTest {
+
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    @Mock
+    EntityManager entityManager;
+
+    @InjectMocks
+    JobExecutionHistoryPartitioner jobExecutionHistoryPartitioner;
+
+    private LocalDate today = JobEngineUtil.timestamp().toLocalDate();
+
+    @After
+    public void after() {
+        JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.NONE;
+    }
+
+    private void prepare(List<String> partitions, LocalDate oldest) {
+        prepare(partitions, oldest, null);
+    }
+
+    private void prepare(List<String> partitions, LocalDate oldest, LocalDate oldestOfOldHistory) {
+
+        Query partitionsQuery = mock(Query.class);
+        when(partitionsQuery.getResultList()).thenReturn(partitions);
+        when(entityManager.createNativeQuery(startsWith("SELECT c.relname"))).thenReturn(partitionsQuery);
+        when(entityManager.createNativeQuery(startsWith("SELECT partition_name"))).thenReturn(partitionsQuery);
+
+        Query oldestQuery = mock(Query.class);
+        when(oldestQuery.getSingleResult()).thenReturn(oldest == null ? null : Timestamp.valueOf(oldest.atTime(13, 0)));
+        when(entityManager.createNativeQuery("SELECT MIN(created_at) FROM jobengine_execution")).thenReturn(oldestQuery);
+
+        Query oldTableQuery = mock(Query.class);
+        when(oldTableQuery.getSingleResult()).thenReturn(oldestOfOldHistory == null ? 0L : 1L);
+        when(entityManager.createNativeQuery(startsWith("SELECT COUNT(*)"))).thenReturn(oldTableQuery);
+        Query oldHistoryQuery = mock(Query.class);
+        when(oldHistoryQuery.getSingleResult()).thenReturn(oldestOfOldHistory == null ? null : Timestamp.valueOf(oldestOfOldHistory.atTime(8, 0)));
+        when(entityManager.createNativeQuery("SELECT MIN(created_at) FROM jobengine_execution_history_old")).thenReturn(oldHistoryQuery);
+
+        when(entityManager.createNativeQuery(startsWith("CREATE TABLE"))).thenReturn(mock(Query.class));
+        when(entityManager.createNativeQuery(startsWith("ALTER TABLE"))).thenReturn(mock(Query.class));
+    }
+
+    private List<String> partitions(String prefix, LocalDate from, LocalDate until) {
+        List<String> partitions = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(until); day = day.plusDays(1)) {
+            partitions.add(prefix + "p" + day.format(PARTITION_DAY));
+        }
+        return partitions;
+    }
+
+    @Test
+    public void testCreatePartitions_postgresqlBackToOldestJobExecution() throws Exception {
+
+        JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.POSTGRESQL;
+        prepare(partitions("jobengine_execution_history_", today, today.plusDays(JobEngineConfig.EXECUTION_HISTORY_PARTITIONS_AHEAD)), today.minusDays(2));
+
+        List<String> created = jobExecutionHistoryPartitioner.createPartitions();
+
+        // without them the job executions of these days could never be moved into the history
+        assertEquals(partitions("", today.minusDays(2), today.minusDays(1)), created);
+    }
+
+    @Test
+    public void testCreatePartitions_postgresqlBackToOldHistory() throws Exception {
+
+        JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.POSTGRESQL;
+        prepare(partitions("jobengine_execution_history_", today, today.plusDays(JobEngineConfig.EXECUTION_HISTORY_PARTITIONS_AHEAD)), today.minusDays(2),
+                        today.minusDays(4));
+
+        List<String> created = jobExecutionHistoryPartitioner.createPartitions();
+
+        // the history from before the partitioning can be copied into them
+        assertEquals(partitions("", today.minusDays(4), today.minusDays(1)), created);
+    }
+
+    @Test
+    public void testCreatePartitions_postgresqlEmptyQueue() throws Exception {
+
+        JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.POSTGRESQL;
+        prepare(new ArrayList<>(), null);
+
+        List<String> created = jobExecutionHistoryPartitioner.createPartitions();
+
+        assertEquals(partitions("", today, today.plusDays(JobEngineConfig.EXECUTION_HISTORY_PARTITIONS_AHEAD)), created);
+    }
+
+    @Test
+    public void testCreatePartitions_mysqlOnlyAppends() throws Exception {
+
+        JobEngineConfig.EXECUTION_HISTORY_PARTITIONING = ExecutionHistoryPartitioning.MYSQL;
+        List<String> existing = partitions("", today.minusDays(1), today.plusDays(1));
+        existing.add(0, "p19700101");
+        prepare(existing, today.minusDays(5));
+
+        List<String> created = jobExecutionHistoryPartitioner.createPartitions();
+
+        // older job executions go into the first partition
+        assertEquals(partitions("", today.plusDays(2), today.plusDays(JobEngineConfig.EXECUTION_HISTORY_PARTITIONS_AHEAD)), created);
+    }
+
+}
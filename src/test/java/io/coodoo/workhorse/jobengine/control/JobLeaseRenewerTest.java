@@ -0,0 +1,115 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ejb.Timer;
+import javax.ejb.TimerConfig;
+import javax.ejb.TimerService;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobLeaseRenewerTest {
+
+    private static final List<Long> RUNNING = Arrays.asList(1L, 2L);
+
+    @Mock
+    JobEngineController jobEngineController;
+
+    @Mock
+    JobEngine jobEngine;
+
+    @Mock
+    TimerService timerService;
+
+    @Mock
+    Timer timer;
+
+    @InjectMocks
+    JobLeaseRenewer jobLeaseRenewer;
+
+    @Before
+    public void before() {
+        when(timer.getInfo()).thenReturn("JobLeaseRenewer");
+        when(timerService.getTimers()).thenReturn(Collections.singletonList(timer));
+    }
+
+    @Test
+    public void testStart() throws Exception {
+
+        jobLeaseRenewer.start();
+
+        verify(timerService).createIntervalTimer(anyLong(), anyLong(), any(TimerConfig.class));
+    }
+
+    @Test
+    public void testRenew() throws Exception {
+
+        when(jobEngine.getRunningJobExecutionIds()).thenReturn(RUNNING);
+
+        jobLeaseRenewer.renew();
+
+        verify(jobEngineController).heartbeat(RUNNING);
+    }
+
+    @Test
+    public void testRenew_heartbeatFails() throws Exception {
+
+        when(jobEngine.getRunningJobExecutionIds()).thenReturn(RUNNING);
+        doThrow(new IllegalStateException("database gone")).when(jobEngineController).heartbeat(RUNNING);
+
+        // a failed heartbeat must not cancel the timer, the next one tries again
+        jobLeaseRenewer.renew();
+        jobLeaseRenewer.renew();
+
+        verify(jobEngineController, times(2)).heartbeat(RUNNING);
+        verify(timer, never()).cancel();
+    }
+
+    @Test
+    public void testStop_idle() throws Exception {
+
+        when(jobEngine.getRunningJobExecutionIds()).thenReturn(Collections.emptyList());
+
+        jobLeaseRenewer.stop();
+
+        verify(timer).cancel();
+        verify(jobEngineController).removeNode();
+    }
+
+    @Test
+    public void testStop_keepsRenewingWhileRunning() throws Exception {
+
+        when(jobEngine.getRunningJobExecutionIds()).thenReturn(RUNNING);
+
+        jobLeaseRenewer.stop();
+        jobLeaseRenewer.renew();
+
+        // the job threads are still running, so their leases must not expire
+        verify(jobEngineController).heartbeat(RUNNING);
+        verify(jobEngineController, never()).removeNode();
+        verify(timer, never()).cancel();
+
+        when(jobEngine.getRunningJobExecutionIds()).thenReturn(Collections.emptyList());
+        jobLeaseRenewer.renew();
+
+        verify(timer).cancel();
+        verify(jobEngineController).removeNode();
+    }
+
+}
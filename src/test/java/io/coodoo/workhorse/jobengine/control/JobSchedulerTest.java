@@ -0,0 +1,188 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.ejb.Timer;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
+import io.coodoo.workhorse.jobengine.control.event.AllJobExecutionsDoneEvent;
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.ScheduleMisfirePolicy;
+
+@RunWith(MockitoJUnitRunner.class)
+public class JobSchedulerTest {
+
+    @Mock
+    JobEngineService jobEngineService;
+
+    @Mock
+    JobEngineController jobEngineController;
+
+    @Mock
+    JobEngine jobEngine;
+
+    @Mock
+    Timer timer;
+
+    @InjectMocks
+    JobScheduler jobScheduler;
+
+    private Job job = new Job();
+
+    // one entry per fire, telling if it was caught up
+    private List<Boolean> fires = new ArrayList<>();
+
+    @Before
+    public void before() throws Exception {
+
+        job.setId(1L);
+        job.setSchedule("* * * * *");
+        job.setScheduleCatchUpLimit(10);
+        when(jobEngineService.getJobById(1L)).thenReturn(job);
+        when(timer.getInfo()).thenReturn(job);
+        doAnswer(invocation -> fires.add(BaseJobWorker.CATCHING_UP.get())).when(jobEngineService).triggerScheduledJobExecutionCreation(job);
+    }
+
+    private void active(boolean active) {
+        when(jobEngine.hasActiveJobExecutions(1L)).thenReturn(active);
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+
+        active(false);
+        job.setScheduleSkipIfActive(true);
+
+        jobScheduler.timeout(timer);
+
+        assertEquals(Arrays.asList(false), fires);
+        verify(jobEngineController).setScheduleLastFiredAt(anyLong(), any());
+    }
+
+    @Test
+    public void testTimeout_activeWithoutSkip() throws Exception {
+
+        active(true);
+        job.setScheduleSkipIfActive(false);
+
+        jobScheduler.timeout(timer);
+
+        assertEquals(Arrays.asList(false), fires);
+    }
+
+    @Test
+    public void testTimeout_skipIfActive_ignore() throws Exception {
+
+        active(true);
+        job.setScheduleSkipIfActive(true);
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.IGNORE);
+
+        jobScheduler.timeout(timer);
+        jobScheduler.timeout(timer);
+        jobScheduler.allJobExecutionsDone(new AllJobExecutionsDoneEvent(job));
+
+        assertEquals(0, fires.size());
+        verify(jobEngineController, never()).setScheduleLastFiredAt(anyLong(), any());
+    }
+
+    @Test
+    public void testTimeout_skipIfActive_coalesce() throws Exception {
+
+        active(true);
+        job.setScheduleSkipIfActive(true);
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.COALESCE);
+
+        jobScheduler.timeout(timer);
+        jobScheduler.timeout(timer);
+        jobScheduler.timeout(timer);
+        assertEquals(0, fires.size());
+
+        jobScheduler.allJobExecutionsDone(new AllJobExecutionsDoneEvent(job));
+        assertEquals(Arrays.asList(false), fires);
+
+        // the missed fires are gone
+        jobScheduler.allJobExecutionsDone(new AllJobExecutionsDoneEvent(job));
+        assertEquals(1, fires.size());
+    }
+
+    @Test
+    public void testTimeout_skipIfActive_catchUp() throws Exception {
+
+        active(true);
+        job.setScheduleSkipIfActive(true);
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.CATCH_UP);
+        job.setScheduleCatchUpLimit(2);
+
+        jobScheduler.timeout(timer);
+        jobScheduler.timeout(timer);
+        jobScheduler.timeout(timer);
+        jobScheduler.allJobExecutionsDone(new AllJobExecutionsDoneEvent(job));
+
+        // the second fire must not be merged into the job execution of the first one
+        assertEquals(Arrays.asList(false, true), fires);
+        assertEquals(Boolean.FALSE, BaseJobWorker.CATCHING_UP.get());
+    }
+
+    @Test
+    public void testCatchUp_ignore() throws Exception {
+
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.IGNORE);
+        job.setScheduleLastFiredAt(JobEngineUtil.timestamp().minusMinutes(5));
+
+        jobScheduler.catchUp(job);
+
+        assertEquals(0, fires.size());
+    }
+
+    @Test
+    public void testCatchUp_coalesce() throws Exception {
+
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.COALESCE);
+        job.setScheduleLastFiredAt(JobEngineUtil.timestamp().minusMinutes(5));
+
+        jobScheduler.catchUp(job);
+
+        assertEquals(Arrays.asList(false), fires);
+    }
+
+    @Test
+    public void testCatchUp_catchUp() throws Exception {
+
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.CATCH_UP);
+        job.setScheduleCatchUpLimit(3);
+        job.setScheduleLastFiredAt(JobEngineUtil.timestamp().minusMinutes(5));
+
+        jobScheduler.catchUp(job);
+
+        assertEquals(Arrays.asList(false, true, true), fires);
+    }
+
+    @Test
+    public void testCatchUp_nothingMissed() throws Exception {
+
+        job.setScheduleMisfirePolicy(ScheduleMisfirePolicy.CATCH_UP);
+        job.setScheduleLastFiredAt(JobEngineUtil.timestamp());
+
+        jobScheduler.catchUp(job);
+
+        assertEquals(0, fires.size());
+    }
+
+}
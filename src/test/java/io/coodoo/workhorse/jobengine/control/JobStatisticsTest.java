@@ -0,0 +1,128 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+
+public class JobStatisticsTest {
+
+    @Test
+    public void testTransition() throws Exception {
+
+        JobStatistics classUnderTest = new JobStatistics();
+
+        classUnderTest.transition(1L, null, JobExecutionStatus.QUEUED, 3);
+        classUnderTest.transition(1L, JobExecutionStatus.QUEUED, JobExecutionStatus.RUNNING, 2);
+        classUnderTest.ended(1L, JobExecutionStatus.FINISHED, 100L);
+        classUnderTest.ended(1L, JobExecutionStatus.FAILED, 300L);
+        classUnderTest.transition(2L, null, JobExecutionStatus.QUEUED, 1);
+
+        assertEquals(1L, classUnderTest.getCount(1L, JobExecutionStatus.QUEUED));
+        assertEquals(0L, classUnderTest.getCount(1L, JobExecutionStatus.RUNNING));
+        assertEquals(1L, classUnderTest.getCount(1L, JobExecutionStatus.FINISHED));
+        assertEquals(1L, classUnderTest.getCount(1L, JobExecutionStatus.FAILED));
+        assertEquals(3L, classUnderTest.getCount(1L, null));
+        assertEquals(2L, classUnderTest.getCount(null, JobExecutionStatus.QUEUED));
+        assertEquals(Long.valueOf(200L), classUnderTest.getAverageDuration(1L));
+        assertNull(classUnderTest.getAverageDuration(2L));
+    }
+
+    @Test
+    public void testTransition_sameStatus() throws Exception {
+
+        JobStatistics classUnderTest = new JobStatistics();
+
+        classUnderTest.transition(1L, null, JobExecutionStatus.RUNNING, 1);
+        classUnderTest.transition(1L, JobExecutionStatus.RUNNING, JobExecutionStatus.RUNNING, 1);
+
+        assertEquals(1L, classUnderTest.getCount(1L, JobExecutionStatus.RUNNING));
+    }
+
+    @Test
+    public void testEndedOnNode() throws Exception {
+
+        JobStatistics classUnderTest = new JobStatistics();
+
+        classUnderTest.ended(1L, JobExecutionStatus.FINISHED, 100L);
+        classUnderTest.ended(1L, JobExecutionStatus.FINISHED, 100L);
+        classUnderTest.ended(1L, JobExecutionStatus.FAILED, 100L);
+        classUnderTest.reconcile(ArrayList::new);
+
+        // not affected by the reconciliation
+        assertEquals(3L, classUnderTest.getEndedOnNode(1L, false));
+        assertEquals(1L, classUnderTest.getEndedOnNode(1L, true));
+        assertEquals(0L, classUnderTest.getEndedOnNode(2L, false));
+        assertEquals(0.0, classUnderTest.getErrorRate(2L), 0.0);
+
+        classUnderTest.removeJob(1L);
+        assertEquals(0L, classUnderTest.getEndedOnNode(1L, false));
+    }
+
+    @Test
+    public void testReconcile() throws Exception {
+
+        JobStatistics classUnderTest = new JobStatistics();
+        classUnderTest.transition(1L, null, JobExecutionStatus.QUEUED, 42);
+        classUnderTest.transition(3L, null, JobExecutionStatus.QUEUED, 1);
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {1L, JobExecutionStatus.QUEUED, 5L, null, 0L});
+        rows.add(new Object[] {1L, JobExecutionStatus.FINISHED, 10L, 1000L, 10L});
+        // the same job and status from the history table
+        rows.add(new Object[] {1L, JobExecutionStatus.FINISHED, 30L, 5000L, 30L});
+        rows.add(new Object[] {2L, JobExecutionStatus.FAILED, 1L, 50L, 1L});
+
+        classUnderTest.reconcile(() -> rows);
+
+        assertEquals(5L, classUnderTest.getCount(1L, JobExecutionStatus.QUEUED));
+        assertEquals(40L, classUnderTest.getCount(1L, JobExecutionStatus.FINISHED));
+        assertEquals(1L, classUnderTest.getCount(2L, JobExecutionStatus.FAILED));
+        assertEquals(0L, classUnderTest.getCount(3L, null));
+        assertEquals(Long.valueOf(150L), classUnderTest.getAverageDuration(1L));
+        assertEquals(Long.valueOf(6050L / 41), classUnderTest.getAverageDuration(null));
+    }
+
+    @Test
+    public void testReconcile_keepsTransitionsDuringQuery() throws Exception {
+
+        JobStatistics classUnderTest = new JobStatistics();
+        classUnderTest.transition(1L, null, JobExecutionStatus.QUEUED, 42);
+
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {1L, JobExecutionStatus.QUEUED, 5L, null, 0L});
+
+        classUnderTest.reconcile(() -> {
+            // counted while the query runs
+            classUnderTest.transition(1L, null, JobExecutionStatus.QUEUED, 2);
+            classUnderTest.ended(2L, JobExecutionStatus.FINISHED, 100L);
+            return rows;
+        });
+
+        assertEquals(7L, classUnderTest.getCount(1L, JobExecutionStatus.QUEUED));
+        assertEquals(1L, classUnderTest.getCount(2L, JobExecutionStatus.FINISHED));
+        assertEquals(Long.valueOf(100L), classUnderTest.getAverageDuration(2L));
+    }
+
+    @Test
+    public void testStartReconciliation() throws Exception {
+
+        JobStatistics classUnderTest = new JobStatistics();
+
+        assertTrue(classUnderTest.startReconciliation());
+        // no other one while it runs
+        assertFalse(classUnderTest.startReconciliation());
+
+        classUnderTest.reconcile(ArrayList::new);
+        // not due again before the interval passed
+        assertFalse(classUnderTest.startReconciliation());
+    }
+
+}
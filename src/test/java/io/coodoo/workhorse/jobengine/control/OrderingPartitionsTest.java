@@ -0,0 +1,131 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+public class OrderingPartitionsTest {
+
+    private static final Object THREAD_A = "A";
+    private static final Object THREAD_B = "B";
+
+    private OrderingPartitions orderingPartitions = new OrderingPartitions(4);
+
+    private static JobExecution jobExecution(long id, String orderingKey) {
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(id);
+        jobExecution.setOrderingKey(orderingKey);
+        return jobExecution;
+    }
+
+    @Test
+    public void testPoll_keyStaysWithItsThread() throws Exception {
+
+        orderingPartitions.add(jobExecution(1L, "customer-1"));
+        orderingPartitions.add(jobExecution(2L, "customer-1"));
+
+        assertEquals(Long.valueOf(1L), orderingPartitions.poll(THREAD_A, true, null).getId());
+
+        // the next one of the key waits until thread A is done with the first one
+        assertNull(orderingPartitions.poll(THREAD_B, true, null));
+        assertEquals(Long.valueOf(2L), orderingPartitions.poll(THREAD_A, true, null).getId());
+        assertEquals(0, orderingPartitions.size());
+    }
+
+    @Test
+    public void testPoll_differentKeysInParallel() throws Exception {
+
+        String otherKey = null;
+        for (int i = 2; otherKey == null; i++) {
+            // a key in another partition than customer-1
+            if (Math.floorMod(("customer-" + i).hashCode(), 4) != Math.floorMod("customer-1".hashCode(), 4)) {
+                otherKey = "customer-" + i;
+            }
+        }
+        orderingPartitions.add(jobExecution(1L, "customer-1"));
+        orderingPartitions.add(jobExecution(2L, otherKey));
+
+        JobExecution forA = orderingPartitions.poll(THREAD_A, true, null);
+        JobExecution forB = orderingPartitions.poll(THREAD_B, true, null);
+
+        assertTrue(forA != null && forB != null);
+        assertEquals(3L, forA.getId() + forB.getId());
+    }
+
+    @Test
+    public void testPoll_draftedLate() throws Exception {
+
+        orderingPartitions.add(jobExecution(5L, "customer-1"));
+        orderingPartitions.add(jobExecution(3L, "customer-1"));
+
+        // the older job execution of the key goes first, even though it reached the memory queue after the younger one
+        assertEquals(Long.valueOf(3L), orderingPartitions.poll(THREAD_A, true, null).getId());
+        assertEquals(Long.valueOf(5L), orderingPartitions.poll(THREAD_A, true, null).getId());
+    }
+
+    @Test
+    public void testContains() throws Exception {
+
+        orderingPartitions.add(jobExecution(1L, "customer-1"));
+
+        assertTrue(orderingPartitions.contains(jobExecution(1L, "customer-1")));
+        assertFalse(orderingPartitions.contains(jobExecution(2L, "customer-1")));
+        // every job execution added to the memory queue gets checked, also those without ordering key
+        assertFalse(orderingPartitions.contains(jobExecution(1L, null)));
+    }
+
+    @Test
+    public void testPoll_notStartable() throws Exception {
+
+        orderingPartitions.add(jobExecution(1L, "customer-1"));
+        orderingPartitions.add(jobExecution(2L, "customer-1"));
+
+        assertNull(orderingPartitions.poll(THREAD_A, true, null, jobExecution -> jobExecution.getId() != 1L));
+
+        // it stays the next one of its key
+        assertEquals(Long.valueOf(1L), orderingPartitions.poll(THREAD_A, true, null, jobExecution -> true).getId());
+        assertEquals(1, orderingPartitions.size());
+    }
+
+    @Test
+    public void testPoll_release() throws Exception {
+
+        orderingPartitions.add(jobExecution(1L, "customer-1"));
+        orderingPartitions.add(jobExecution(2L, "customer-1"));
+
+        orderingPartitions.poll(THREAD_A, true, null);
+        orderingPartitions.release(THREAD_A);
+
+        assertEquals(Long.valueOf(2L), orderingPartitions.poll(THREAD_B, true, null).getId());
+    }
+
+    @Test
+    public void testPoll_beforeId() throws Exception {
+
+        orderingPartitions.add(jobExecution(5L, "customer-1"));
+
+        assertNull(orderingPartitions.poll(THREAD_A, true, 4L));
+        assertEquals(Long.valueOf(5L), orderingPartitions.poll(THREAD_A, true, 6L).getId());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+
+        orderingPartitions.add(jobExecution(1L, "customer-1"));
+        orderingPartitions.add(jobExecution(2L, "customer-1"));
+        orderingPartitions.poll(THREAD_A, true, null);
+
+        assertEquals(1, orderingPartitions.clear());
+        assertEquals(0, orderingPartitions.size());
+
+        // thread A still owns the partition of its running job execution
+        orderingPartitions.add(jobExecution(3L, "customer-1"));
+        assertNull(orderingPartitions.poll(THREAD_B, true, null));
+    }
+
+}
@@ -0,0 +1,72 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.PriorityBlockingQueue;
+
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+
+public class PriorityAgingTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2020, 1, 1, 12, 0);
+
+    private static JobExecution jobExecution(long id, int priority, LocalDateTime createdAt) {
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(id);
+        jobExecution.setPriority(priority);
+        jobExecution.setCreatedAt(createdAt);
+        return jobExecution;
+    }
+
+    @Test
+    public void testCompare_withoutAging() throws Exception {
+
+        PriorityBlockingQueue<JobExecution> queue = new PriorityBlockingQueue<>(11, new PriorityAging(0));
+        queue.add(jobExecution(1L, JobExecution.PRIORITY_NORMAL, NOW.minusHours(1)));
+        queue.add(jobExecution(2L, JobExecution.PRIORITY_HIGH, NOW));
+        queue.add(jobExecution(3L, JobExecution.PRIORITY_NORMAL, NOW.minusHours(2)));
+        queue.add(jobExecution(4L, 5, NOW));
+
+        assertEquals(Long.valueOf(2L), queue.poll().getId());
+        assertEquals(Long.valueOf(4L), queue.poll().getId());
+        assertEquals(Long.valueOf(3L), queue.poll().getId());
+        assertEquals(Long.valueOf(1L), queue.poll().getId());
+    }
+
+    @Test
+    public void testCompare_oldPassesHigherPriority() throws Exception {
+
+        PriorityBlockingQueue<JobExecution> queue = new PriorityBlockingQueue<>(11, new PriorityAging(60));
+        queue.add(jobExecution(1L, JobExecution.PRIORITY_HIGH, NOW));
+        queue.add(jobExecution(2L, JobExecution.PRIORITY_NORMAL, NOW.minusMinutes(11)));
+        queue.add(jobExecution(3L, JobExecution.PRIORITY_NORMAL, NOW.minusMinutes(9)));
+
+        // 11 minutes of waiting are worth more than 10 levels of priority, 9 minutes are not
+        assertEquals(Long.valueOf(2L), queue.poll().getId());
+        assertEquals(Long.valueOf(1L), queue.poll().getId());
+        assertEquals(Long.valueOf(3L), queue.poll().getId());
+    }
+
+    @Test
+    public void testCompare_waitingSinceMaturity() throws Exception {
+
+        JobExecution planned = jobExecution(1L, JobExecution.PRIORITY_NORMAL, NOW.minusHours(1));
+        planned.setMaturity(NOW);
+        JobExecution other = jobExecution(2L, JobExecution.PRIORITY_NORMAL, NOW.minusMinutes(30));
+
+        assertEquals(1, Integer.signum(new PriorityAging(60).compare(planned, other)));
+    }
+
+    @Test
+    public void testCompare_sameTime() throws Exception {
+
+        PriorityAging priorityAging = new PriorityAging(60);
+
+        assertEquals(-1, Integer.signum(priorityAging.compare(jobExecution(1L, 0, NOW), jobExecution(2L, 0, NOW))));
+        assertEquals(0, priorityAging.compare(jobExecution(1L, 0, NOW), jobExecution(1L, 0, NOW)));
+    }
+
+}
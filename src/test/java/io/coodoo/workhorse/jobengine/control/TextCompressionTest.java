@@ -0,0 +1,58 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TextCompressionTest {
+
+    private static String log(int lines) {
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            log.append("[12:00:00.000] Imported item ").append(i).append(" of the nightly import\n");
+        }
+        return log.toString();
+    }
+
+    @Test
+    public void testCompress() throws Exception {
+
+        String log = log(1000);
+
+        String compressed = TextCompression.compress(log);
+
+        assertTrue(compressed.startsWith(TextCompression.MARKER));
+        assertTrue(compressed.length() < log.length() / 4);
+        assertEquals(log, TextCompression.decompress(compressed));
+    }
+
+    @Test
+    public void testCompress_belowThreshold() throws Exception {
+
+        String log = log(1);
+
+        assertSame(log, TextCompression.compress(log));
+        assertNull(TextCompression.compress(null));
+    }
+
+    @Test
+    public void testCompress_alreadyCompressed() throws Exception {
+
+        String compressed = TextCompression.compress(log(1000));
+
+        assertSame(compressed, TextCompression.compress(compressed));
+    }
+
+    @Test
+    public void testDecompress_uncompressed() throws Exception {
+
+        String text = TextCompression.MARKER + " is just the beginning of this text";
+
+        assertSame(text, TextCompression.decompress(text));
+        assertNull(TextCompression.decompress(null));
+    }
+
+}
@@ -0,0 +1,89 @@
+package io.coodoo.workhorse.jobengine.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.entity.Job;
+
+public class WorkerPoolTest {
+
+    private static Job job(long id, int weight) {
+        Job job = new Job();
+        job.setId(id);
+        job.setWeight(weight);
+        return job;
+    }
+
+    @Test
+    public void testAcquire_disabled() throws Exception {
+
+        WorkerPool workerPool = new WorkerPool(0);
+
+        assertFalse(workerPool.isEnabled());
+        for (int i = 0; i < 100; i++) {
+            assertTrue(workerPool.acquire(job(1L, 1), 0));
+        }
+    }
+
+    @Test
+    public void testAcquire_jobAloneTakesAll() throws Exception {
+
+        WorkerPool workerPool = new WorkerPool(3);
+
+        assertTrue(workerPool.acquire(job(1L, 1), 0));
+        assertTrue(workerPool.acquire(job(1L, 1), 0));
+        assertTrue(workerPool.acquire(job(1L, 1), 0));
+        assertFalse(workerPool.acquire(job(2L, 1), 10));
+        assertEquals(0, workerPool.getFree());
+
+        workerPool.release();
+        assertTrue(workerPool.acquire(job(2L, 1), 0));
+    }
+
+    @Test
+    public void testAcquire_weightedShares() throws Exception {
+
+        WorkerPool workerPool = new WorkerPool(1);
+        assertTrue(workerPool.acquire(job(0L, 1), 0));
+
+        List<Long> grants = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(8);
+        for (Job job : new Job[] {job(1L, 3), job(2L, 1)}) {
+            for (int thread = 0; thread < 4; thread++) {
+                new Thread(() -> {
+                    try {
+                        for (int i = 0; i < 10; i++) {
+                            assertTrue(workerPool.acquire(job, 10000));
+                            synchronized (grants) {
+                                grants.add(job.getId());
+                            }
+                            workerPool.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+        }
+        // all threads of both jobs wait before the slot gets free
+        Thread.sleep(200);
+        workerPool.release();
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // as long as both jobs wait, the job with weight 3 gets three of four slots
+        long heavy = grants.subList(0, 40).stream().filter(jobId -> jobId == 1L).count();
+        assertTrue("job with weight 3 got " + heavy + " of the first 40 slots", heavy >= 25);
+        assertEquals(1, workerPool.getFree());
+    }
+
+}
@@ -0,0 +1,59 @@
+package io.coodoo.workhorse.jobengine.control.jfr;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.coodoo.workhorse.jobengine.entity.Job;
+import io.coodoo.workhorse.jobengine.entity.JobExecution;
+import io.coodoo.workhorse.jobengine.entity.JobExecutionStatus;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class JobEngineEventsTest {
+
+    @Test
+    public void testExecution() throws Exception {
+
+        Job job = new Job();
+        job.setId(1L);
+        job.setName("TestJob");
+        JobExecution jobExecution = new JobExecution();
+        jobExecution.setId(42L);
+
+        Path file = Files.createTempFile("workhorse", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("io.coodoo.workhorse.JobExecution");
+            recording.start();
+
+            JobEngineEvents.execution(job, jobExecution).end(JobExecutionStatus.FINISHED);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+
+        assertEquals(1, events.size());
+        assertEquals("TestJob", events.get(0).getString("jobName"));
+        assertEquals(42L, events.get(0).getLong("jobExecutionId"));
+        assertEquals("FINISHED", events.get(0).getString("status"));
+    }
+
+    @Test
+    public void testExecution_notRecorded() throws Exception {
+
+        Job job = new Job();
+        job.setId(1L);
+        JobExecution jobExecution = new JobExecution();
+
+        assertEquals(JobEngineEvents.NO_EXECUTION_EVENT, JobEngineEvents.execution(job, jobExecution));
+    }
+
+}
@@ -7,7 +7,9 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.Test;
@@ -17,8 +19,11 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import io.coodoo.workhorse.jobengine.boundary.JobContext;
+import io.coodoo.workhorse.jobengine.boundary.JobEngineConfig;
 import io.coodoo.workhorse.jobengine.boundary.JobEngineService;
 import io.coodoo.workhorse.jobengine.control.JobEngineController;
+import io.coodoo.workhorse.jobengine.control.JobEngineUtil;
+import io.coodoo.workhorse.jobengine.control.JobExecutionHistoryPartitioner;
 import io.coodoo.workhorse.jobengine.entity.Job;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -33,6 +38,9 @@ public class JobExecutionCleanupWorkerTest {
     @Mock
     private JobEngineService jobEngineService;
 
+    @Mock
+    private JobExecutionHistoryPartitioner jobExecutionHistoryPartitioner;
+
     @InjectMocks
     private JobExecutionCleanupWorker jobExecutionCleanupWorker;
 
@@ -57,8 +65,8 @@ public class JobExecutionCleanupWorkerTest {
 
         int deletedA = 83;
         int deletedB = 77;
-        given(jobEngineController.deleteOlderJobExecutions(jobA.getId(), jobA.getDaysUntilCleanUp())).willReturn(deletedA);
-        given(jobEngineController.deleteOlderJobExecutions(jobB.getId(), jobB.getDaysUntilCleanUp())).willReturn(deletedB);
+        given(jobEngineController.deleteOlderJobExecutions(eq(jobA.getId()), any(LocalDateTime.class), eq(0L), eq(JobEngineConfig.CLEANUP_CHUNK_SIZE))).willReturn(ids(deletedA));
+        given(jobEngineController.deleteOlderJobExecutions(eq(jobB.getId()), any(LocalDateTime.class), eq(0L), eq(JobEngineConfig.CLEANUP_CHUNK_SIZE))).willReturn(ids(deletedB));
 
         jobExecutionCleanupWorker.doWork();
 
@@ -88,11 +96,11 @@ public class JobExecutionCleanupWorkerTest {
         given(jobEngineService.getAllJobs()).willReturn(jobs);
 
         int deletedA = 83;
-        given(jobEngineController.deleteOlderJobExecutions(jobA.getId(), jobA.getDaysUntilCleanUp())).willReturn(deletedA);
+        given(jobEngineController.deleteOlderJobExecutions(eq(jobA.getId()), any(LocalDateTime.class), eq(0L), eq(JobEngineConfig.CLEANUP_CHUNK_SIZE))).willReturn(ids(deletedA));
 
         jobExecutionCleanupWorker.doWork();
 
-        verify(jobEngineController, never()).deleteOlderJobExecutions(jobB.getId(), jobB.getDaysUntilCleanUp());
+        verify(jobEngineController, never()).deleteOlderJobExecutions(eq(jobB.getId()), any(LocalDateTime.class), any(Long.class), any(Integer.class));
 
         verify(jobContext, times(1)).logInfo(any(), eq("Deleted | Days | Job ID | Job Name"));
         verify(jobContext, times(1)).logInfo(any(), eq("     83 |    1 |      1 | Job A"));
@@ -120,10 +128,10 @@ public class JobExecutionCleanupWorkerTest {
         given(jobEngineService.getAllJobs()).willReturn(jobs);
 
         int deletedA = 83;
-        given(jobEngineController.deleteOlderJobExecutions(jobA.getId(), jobA.getDaysUntilCleanUp())).willReturn(deletedA);
+        given(jobEngineController.deleteOlderJobExecutions(eq(jobA.getId()), any(LocalDateTime.class), eq(0L), eq(JobEngineConfig.CLEANUP_CHUNK_SIZE))).willReturn(ids(deletedA));
 
         RuntimeException throwable = new RuntimeException("ZONK");
-        given(jobEngineController.deleteOlderJobExecutions(jobB.getId(), jobB.getDaysUntilCleanUp())).willThrow(throwable);
+        given(jobEngineController.deleteOlderJobExecutions(eq(jobB.getId()), any(LocalDateTime.class), eq(0L), eq(JobEngineConfig.CLEANUP_CHUNK_SIZE))).willThrow(throwable);
 
         jobExecutionCleanupWorker.doWork();
 
@@ -133,4 +141,78 @@ public class JobExecutionCleanupWorkerTest {
         verify(jobContext, times(1)).logInfo(any(), eq("Deleted 83 job executions"));
     }
 
+    @Test
+    public void testDoWork_chunks() throws Exception {
+
+        List<Job> jobs = new ArrayList<>();
+
+        Job jobA = new Job();
+        jobA.setId(1L);
+        jobA.setName("Job A");
+        jobA.setDaysUntilCleanUp(1);
+        jobs.add(jobA);
+
+        given(jobEngineService.getAllJobs()).willReturn(jobs);
+
+        int chunkSize = JobEngineConfig.CLEANUP_CHUNK_SIZE;
+        int chunkPause = JobEngineConfig.CLEANUP_CHUNK_PAUSE;
+        JobEngineConfig.CLEANUP_CHUNK_SIZE = 10;
+        JobEngineConfig.CLEANUP_CHUNK_PAUSE = 0;
+        try {
+            List<Long> firstChunk = ids(10);
+            List<Long> secondChunk = new ArrayList<>();
+            secondChunk.add(42L);
+            given(jobEngineController.deleteOlderJobExecutions(eq(jobA.getId()), any(LocalDateTime.class), eq(0L), eq(10))).willReturn(firstChunk);
+            given(jobEngineController.deleteOlderJobExecutions(eq(jobA.getId()), any(LocalDateTime.class), eq(10L), eq(10))).willReturn(secondChunk);
+
+            jobExecutionCleanupWorker.doWork();
+
+            verify(jobEngineController, times(2)).deleteOlderJobExecutions(eq(jobA.getId()), any(LocalDateTime.class), any(Long.class), eq(10));
+            verify(jobContext, times(1)).logInfo(any(), eq("     11 |    1 |      1 | Job A"));
+            verify(jobContext, times(1)).logInfo(any(), eq("Deleted 11 job executions"));
+        } finally {
+            JobEngineConfig.CLEANUP_CHUNK_SIZE = chunkSize;
+            JobEngineConfig.CLEANUP_CHUNK_PAUSE = chunkPause;
+        }
+    }
+
+    @Test
+    public void testDoWork_partitions() throws Exception {
+
+        List<Job> jobs = new ArrayList<>();
+
+        Job jobA = new Job();
+        jobA.setId(1L);
+        jobA.setName("Job A");
+        jobA.setDaysUntilCleanUp(1);
+        jobs.add(jobA);
+
+        Job jobB = new Job();
+        jobB.setId(2L);
+        jobB.setName("Job B");
+        jobB.setDaysUntilCleanUp(30);
+        jobs.add(jobB);
+
+        given(jobEngineService.getAllJobs()).willReturn(jobs);
+        given(jobExecutionHistoryPartitioner.isActive()).willReturn(true);
+        given(jobExecutionHistoryPartitioner.createPartitions()).willReturn(Arrays.asList("p20190418"));
+        given(jobExecutionHistoryPartitioner.dropPartitions(JobEngineUtil.timestamp().toLocalDate().minusDays(30)))
+                        .willReturn(Arrays.asList("p20190317", "p20190318"));
+
+        jobExecutionCleanupWorker.doWork();
+
+        verify(jobContext, times(1)).logInfo(any(), eq("Created partitions p20190418"));
+        verify(jobContext, times(1)).logInfo(any(), eq("Dropped partitions p20190317, p20190318"));
+        verify(jobEngineController, times(1)).deleteOlderJobExecutionHistory(eq(jobA.getId()), any(LocalDateTime.class), eq(0L), any(Integer.class));
+        verify(jobEngineController, never()).deleteOlderJobExecutionHistory(eq(jobB.getId()), any(LocalDateTime.class), any(Long.class), any(Integer.class));
+    }
+
+    private static List<Long> ids(int count) {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
 }
@@ -41,9 +41,9 @@ public class JobExecutionTest {
             queryText = queryText.replace("  ", " ");
         }
         org.junit.Assert.assertEquals(
-                        "There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt WHERE j.id = :jobExecutionId' to '"
+                        "There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt, j.node = :node, j.leaseExpiresAt = :leaseExpiresAt WHERE j.id = :jobExecutionId' to '"
                                         + queryText + "'",
-                        "UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt WHERE j.id = :jobExecutionId",
+                        "UPDATE JobExecution j SET j.status = 'RUNNING', j.startedAt = :startedAt, j.updatedAt = :startedAt, j.node = :node, j.leaseExpiresAt = :leaseExpiresAt WHERE j.id = :jobExecutionId",
                         queryText);
     }
 
@@ -58,13 +58,19 @@ public class JobExecutionTest {
         org.mockito.BDDMockito.given(entityManager.createNamedQuery("JobExecution.updateStatusRunning")).willReturn(query);
         LocalDateTime startedAt = null;
         org.mockito.BDDMockito.given(query.setParameter("startedAt", startedAt)).willReturn(query);
+        String node = "node";
+        org.mockito.BDDMockito.given(query.setParameter("node", node)).willReturn(query);
+        LocalDateTime leaseExpiresAt = null;
+        org.mockito.BDDMockito.given(query.setParameter("leaseExpiresAt", leaseExpiresAt)).willReturn(query);
         Long jobExecutionId = java.lang.Long.valueOf(1);
         org.mockito.BDDMockito.given(query.setParameter("jobExecutionId", jobExecutionId)).willReturn(query);
         // Call
-        io.coodoo.workhorse.jobengine.entity.JobExecution.updateStatusRunning(entityManager, startedAt, jobExecutionId);
+        io.coodoo.workhorse.jobengine.entity.JobExecution.updateStatusRunning(entityManager, startedAt, node, leaseExpiresAt, jobExecutionId);
         // Verification
         org.mockito.BDDMockito.verify(entityManager, org.mockito.Mockito.times(1)).createNamedQuery("JobExecution.updateStatusRunning");
         org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("startedAt", startedAt);
+        org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("node", node);
+        org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("leaseExpiresAt", leaseExpiresAt);
         org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("jobExecutionId", jobExecutionId);
         org.mockito.BDDMockito.verify(query, org.mockito.BDDMockito.times(1)).executeUpdate();
     }
@@ -75,7 +81,7 @@ public class JobExecutionTest {
      */
     @org.junit.Test
     public void testUpdateStatusRunningVerifyFields() {
-        String[][] classesFieldsAndTypes = new String[5][4];
+        String[][] classesFieldsAndTypes = new String[7][4];
         classesFieldsAndTypes[0][0] = "j";
         classesFieldsAndTypes[0][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
         classesFieldsAndTypes[1][0] = "j.id";
@@ -94,6 +100,14 @@ public class JobExecutionTest {
         classesFieldsAndTypes[4][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
         classesFieldsAndTypes[4][2] = "updatedAt";
         classesFieldsAndTypes[4][3] = "java.time.LocalDateTime";
+        classesFieldsAndTypes[5][0] = "j.node";
+        classesFieldsAndTypes[5][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
+        classesFieldsAndTypes[5][2] = "node";
+        classesFieldsAndTypes[5][3] = "java.lang.String";
+        classesFieldsAndTypes[6][0] = "j.leaseExpiresAt";
+        classesFieldsAndTypes[6][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
+        classesFieldsAndTypes[6][2] = "leaseExpiresAt";
+        classesFieldsAndTypes[6][3] = "java.time.LocalDateTime";
         for (String[] testcase : classesFieldsAndTypes) {
             String fieldPath = testcase[0];
             String className = testcase[1];
@@ -164,9 +178,9 @@ public class JobExecutionTest {
             queryText = queryText.replace("  ", " ");
         }
         org.junit.Assert.assertEquals(
-                        "There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.log = :log, j.updatedAt = :endedAt WHERE j.id = :jobExecutionId' to '"
+                        "There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.updatedAt = :endedAt WHERE j.id = :jobExecutionId' to '"
                                         + queryText + "'",
-                        "UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.log = :log, j.updatedAt = :endedAt WHERE j.id = :jobExecutionId",
+                        "UPDATE JobExecution j SET j.status = 'FINISHED', j.endedAt = :endedAt, j.duration = :duration, j.updatedAt = :endedAt WHERE j.id = :jobExecutionId",
                         queryText);
     }
 
@@ -183,17 +197,14 @@ public class JobExecutionTest {
         org.mockito.BDDMockito.given(query.setParameter("endedAt", endedAt)).willReturn(query);
         Long duration = java.lang.Long.valueOf(1);
         org.mockito.BDDMockito.given(query.setParameter("duration", duration)).willReturn(query);
-        String log = "2";
-        org.mockito.BDDMockito.given(query.setParameter("log", log)).willReturn(query);
-        Long jobExecutionId = java.lang.Long.valueOf(3);
+        Long jobExecutionId = java.lang.Long.valueOf(2);
         org.mockito.BDDMockito.given(query.setParameter("jobExecutionId", jobExecutionId)).willReturn(query);
         // Call
-        io.coodoo.workhorse.jobengine.entity.JobExecution.updateStatusFinished(entityManager, endedAt, duration, log, jobExecutionId);
+        io.coodoo.workhorse.jobengine.entity.JobExecution.updateStatusFinished(entityManager, endedAt, duration, jobExecutionId);
         // Verification
         org.mockito.BDDMockito.verify(entityManager, org.mockito.Mockito.times(1)).createNamedQuery("JobExecution.updateStatusFinished");
         org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("endedAt", endedAt);
         org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("duration", duration);
-        org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("log", log);
         org.mockito.BDDMockito.verify(query, org.mockito.Mockito.times(1)).setParameter("jobExecutionId", jobExecutionId);
         org.mockito.BDDMockito.verify(query, org.mockito.BDDMockito.times(1)).executeUpdate();
     }
@@ -204,7 +215,7 @@ public class JobExecutionTest {
      */
     @org.junit.Test
     public void testUpdateStatusFinishedVerifyFields() {
-        String[][] classesFieldsAndTypes = new String[7][4];
+        String[][] classesFieldsAndTypes = new String[6][4];
         classesFieldsAndTypes[0][0] = "j";
         classesFieldsAndTypes[0][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
         classesFieldsAndTypes[1][0] = "j.duration";
@@ -219,18 +230,14 @@ public class JobExecutionTest {
         classesFieldsAndTypes[3][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
         classesFieldsAndTypes[3][2] = "id";
         classesFieldsAndTypes[3][3] = "java.lang.Long";
-        classesFieldsAndTypes[4][0] = "j.log";
+        classesFieldsAndTypes[4][0] = "j.status";
         classesFieldsAndTypes[4][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
-        classesFieldsAndTypes[4][2] = "log";
-        classesFieldsAndTypes[4][3] = "java.lang.String";
-        classesFieldsAndTypes[5][0] = "j.status";
+        classesFieldsAndTypes[4][2] = "status";
+        classesFieldsAndTypes[4][3] = "io.coodoo.workhorse.jobengine.entity.JobExecutionStatus";
+        classesFieldsAndTypes[5][0] = "j.updatedAt";
         classesFieldsAndTypes[5][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
-        classesFieldsAndTypes[5][2] = "status";
-        classesFieldsAndTypes[5][3] = "io.coodoo.workhorse.jobengine.entity.JobExecutionStatus";
-        classesFieldsAndTypes[6][0] = "j.updatedAt";
-        classesFieldsAndTypes[6][1] = "io.coodoo.workhorse.jobengine.entity.JobExecution";
-        classesFieldsAndTypes[6][2] = "updatedAt";
-        classesFieldsAndTypes[6][3] = "java.time.LocalDateTime";
+        classesFieldsAndTypes[5][2] = "updatedAt";
+        classesFieldsAndTypes[5][3] = "java.time.LocalDateTime";
         for (String[] testcase : classesFieldsAndTypes) {
             String fieldPath = testcase[0];
             String className = testcase[1];
@@ -914,7 +921,7 @@ public class JobExecutionTest {
     	while (queryText.contains("  ")) {
     	queryText = queryText.replace("  ", " ");
     	}
-    	org.junit.Assert.assertEquals("There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id' to '" + queryText + "'", "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id", queryText);
+    	org.junit.Assert.assertEquals("There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id' to '" + queryText + "'", "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.batchId = :batchId ORDER BY j.createdAt, j.id", queryText);
     }
 
     /**
@@ -1065,7 +1072,7 @@ public class JobExecutionTest {
     	while (queryText.contains("  ")) {
     	queryText = queryText.replace("  ", " ");
     	}
-    	org.junit.Assert.assertEquals("There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id' to '" + queryText + "'", "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id", queryText);
+    	org.junit.Assert.assertEquals("There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id' to '" + queryText + "'", "SELECT NEW io.coodoo.workhorse.jobengine.entity.JobExecutionInfo(j.id, j.status, j.createdAt, j.startedAt, j.endedAt, j.duration, j.failRetryExecutionId) FROM JobExecution j WHERE j.chainId = :chainId ORDER BY j.createdAt, j.id", queryText);
     }
 
     /**
@@ -1216,7 +1223,7 @@ public class JobExecutionTest {
     	while (queryText.contains("  ")) {
     	queryText = queryText.replace("  ", " ");
     	}
-    	org.junit.Assert.assertEquals("There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'SELECT j FROM JobExecution j WHERE j.startedAt < :time AND j.status = io.coodoo.workhorse.jobengine.entity.JobExecutionStatus.RUNNING' to '" + queryText + "'", "SELECT j FROM JobExecution j WHERE j.startedAt < :time AND j.status = io.coodoo.workhorse.jobengine.entity.JobExecutionStatus.RUNNING", queryText);
+    	org.junit.Assert.assertEquals("There's a change in the query string. Generated methods may not fit to the query anymore. Change from 'SELECT j FROM JobExecution j WHERE j.status = io.coodoo.workhorse.jobengine.entity.JobExecutionStatus.RUNNING AND j.leaseExpiresAt < :time' to '" + queryText + "'", "SELECT j FROM JobExecution j WHERE j.status = io.coodoo.workhorse.jobengine.entity.JobExecutionStatus.RUNNING AND j.leaseExpiresAt < :time", queryText);
     }
 
     /**